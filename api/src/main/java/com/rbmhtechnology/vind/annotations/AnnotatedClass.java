@@ -0,0 +1,151 @@
+package com.rbmhtechnology.vind.annotations;
+
+import com.rbmhtechnology.vind.model.ComplexFieldDescriptor;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reflection metadata of an annotated pojo class: the {@link DocumentFactory} describing its schema together with the
+ * java fields mapped to each {@link FieldDescriptor}. Instances are computed once per class and kept in a
+ * {@link ClassValue}, so lookups are thread safe and the cached data does not prevent the class from being unloaded.
+ */
+final class AnnotatedClass {
+
+    private static final ClassValue<AnnotatedClass> REGISTRY = new ClassValue<AnnotatedClass>() {
+        @Override
+        protected AnnotatedClass computeValue(Class<?> type) {
+            return new AnnotatedClass(type);
+        }
+    };
+
+    private final Class<?> pojoClass;
+    private final String type;
+    private final DocumentFactory factory;
+    private final List<MappedField> fields;
+    private final List<MappedField> simpleFields;
+    private final Field idField;
+    private final RuntimeException idFieldError;
+    private final Field scoreField;
+    private final RuntimeException scoreFieldError;
+
+    private AnnotatedClass(Class<?> pojoClass) {
+        this.pojoClass = pojoClass;
+        this.type = AnnotationUtil.getType(pojoClass);
+
+        final DocumentFactoryBuilder docFactoryBuilder = new DocumentFactoryBuilder(type);
+        final List<MappedField> mappedFields = new ArrayList<>();
+        final List<MappedField> simpleMappedFields = new ArrayList<>();
+        for (Field field : AnnotationUtil.getFields(pojoClass)) {
+            final FieldDescriptor<?> fd = AnnotationUtil.createFieldDescriptor(field);
+            if (fd == null) continue;
+
+            field.setAccessible(true);
+            docFactoryBuilder.addField(fd);
+            final MappedField mappedField = new MappedField(field, fd);
+            mappedFields.add(mappedField);
+            //TODO: MBDN-496 check if complex field is binary stored to instantiate original value
+            if (!ComplexFieldDescriptor.class.isAssignableFrom(fd.getClass())) {
+                simpleMappedFields.add(mappedField);
+            }
+        }
+        this.factory = docFactoryBuilder.build();
+        this.fields = Collections.unmodifiableList(mappedFields);
+        this.simpleFields = Collections.unmodifiableList(simpleMappedFields);
+
+        Field id = null;
+        RuntimeException idError = null;
+        try {
+            id = AnnotationUtil.getIdField(pojoClass);
+        } catch (IllegalArgumentException e) {
+            idError = e;
+        }
+        this.idField = id;
+        this.idFieldError = idError;
+
+        Field score = null;
+        RuntimeException scoreError = null;
+        try {
+            score = AnnotationUtil.getScoreField(pojoClass);
+        } catch (IllegalArgumentException e) {
+            scoreError = e;
+        }
+        this.scoreField = score;
+        this.scoreFieldError = scoreError;
+    }
+
+    /**
+     * Gets the cached metadata of the given annotated class, computing it on first access.
+     * @param pojoClass annotated class.
+     * @return the {@link AnnotatedClass} metadata of the class.
+     */
+    static AnnotatedClass of(Class<?> pojoClass) {
+        return REGISTRY.get(pojoClass);
+    }
+
+    Class<?> getPojoClass() {
+        return pojoClass;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    DocumentFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * @return all the mapped fields of the class, including complex fields.
+     */
+    List<MappedField> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return the mapped fields which can be read back from a document into the pojo (complex fields excluded).
+     */
+    List<MappedField> getSimpleFields() {
+        return simpleFields;
+    }
+
+    Field getIdField() {
+        if (idFieldError != null) {
+            throw new IllegalArgumentException(idFieldError.getMessage(), idFieldError);
+        }
+        return idField;
+    }
+
+    Field getScoreField() {
+        if (scoreFieldError != null) {
+            throw new IllegalArgumentException(scoreFieldError.getMessage(), scoreFieldError);
+        }
+        return scoreField;
+    }
+
+    /**
+     * A java field of the pojo class and the {@link FieldDescriptor} it is mapped to.
+     */
+    static final class MappedField {
+        private final Field field;
+        private final FieldDescriptor<?> descriptor;
+
+        private MappedField(Field field, FieldDescriptor<?> descriptor) {
+            this.field = field;
+            this.descriptor = descriptor;
+        }
+
+        Field getField() {
+            return field;
+        }
+
+        FieldDescriptor<?> getDescriptor() {
+            return descriptor;
+        }
+    }
+}
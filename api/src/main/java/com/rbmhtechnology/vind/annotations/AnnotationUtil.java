@@ -29,8 +29,8 @@ public class AnnotationUtil {
     private static Logger log = LoggerFactory.getLogger(AnnotationUtil.class);
 
     /**
-     * TODO duplicate code with #createDocument
-     * Creates a DocumentFactory from a given annotated class.
+     * Creates a DocumentFactory from a given annotated class. Each call builds a new factory instance, use
+     * {@link #getDocumentFactory(Class)} to get the shared, cached instance.
      * @param clazz Class from which an instance of DocumentFactory will be created.
      * @param <T> class type of the document factory.
      * @return DocumentFactory based on the fields from the given Class.
@@ -50,6 +50,49 @@ public class AnnotationUtil {
         return docFactoryBuilder.build();
     }
 
+    /**
+     * Gets the DocumentFactory of a given annotated class. The factory is built once per class and cached, so
+     * subsequent calls return the same instance without reflecting over the class again.
+     * @param clazz Class from which the DocumentFactory is wanted.
+     * @param <T> class type of the document factory.
+     * @return shared DocumentFactory based on the fields from the given Class.
+     */
+    public static <T> DocumentFactory getDocumentFactory(Class<T> clazz) {
+        return AnnotatedClass.of(clazz).getFactory();
+    }
+
+    /**
+     * Gets the shared {@link PojoMapper} of a given annotated class, created on first access by the configured
+     * {@link PojoMapperProvider}.
+     * @param clazz Annotated class.
+     * @param <T> Type of the annotated class.
+     * @return the {@link PojoMapper} of the class.
+     */
+    public static <T> PojoMapper<T> getPojoMapper(Class<T> clazz) {
+        return PojoMappers.get(clazz);
+    }
+
+    /**
+     * Creates a new Document based on the given Object using the {@link PojoMapper} of its class.
+     * @param pojo Object from which values an instance of Document will be created.
+     * @return Document based on the fields and values from the given pojo Object.
+     */
+    @SuppressWarnings("unchecked")
+    public static Document toDocument(Object pojo) {
+        return ((PojoMapper<Object>) getPojoMapper(pojo.getClass())).toDocument(pojo);
+    }
+
+    /**
+     * Creates an instance of the annotated class from a given Document using the {@link PojoMapper} of the class.
+     * @param doc Document with the values to be set in the pojo.
+     * @param clazz Annotated class of the pojo.
+     * @param <T> Type of the annotated class.
+     * @return a new instance of the class.
+     */
+    public static <T> T toPojo(Document doc, Class<T> clazz) {
+        return getPojoMapper(clazz).toPojo(doc);
+    }
+
     /**
      * Creates a new Document based on the given Object.
      * @param pojo Object from which values an instance of Document will be created.
@@ -58,36 +101,23 @@ public class AnnotationUtil {
     public static Document createDocument(Object pojo) {
         try {
             final Class<?> pojoClass = pojo.getClass();
+            final AnnotatedClass annotatedClass = AnnotatedClass.of(pojoClass);
 
-            final Field idField = getIdField(pojoClass);
-            final String typeVal = getType(pojoClass);
-
-            final DocumentFactoryBuilder docFactoryBuilder = new DocumentFactoryBuilder(typeVal);
-
-            final Map<FieldDescriptor, Object> valueCache = new HashMap<>();
-            for (Field field : getFields(pojoClass)) {
-                final FieldDescriptor fd = createFieldDescriptor(field);
-                if (fd == null) continue;
-
-                field.setAccessible(true);
-                final Object val = field.get(pojo);
-                docFactoryBuilder.addField(fd);
-                valueCache.put(fd, val);
-            }
-
-            final DocumentFactory docFactory = docFactoryBuilder.build();
+            final Field idField = annotatedClass.getIdField();
             final Id id = idField.getAnnotation(Id.class);
             final String composedId = id.generator().newInstance().compose((String) idField.get(pojo), idField, pojoClass);
 
-            final Document doc = docFactory.createDoc(composedId);
+            final Document doc = annotatedClass.getFactory().createDoc(composedId);
 
             // FIXME: Does this work as expected with collections?
-            valueCache.forEach((key, val) -> {
+            for (AnnotatedClass.MappedField mappedField : annotatedClass.getFields()) {
+                final FieldDescriptor<?> key = mappedField.getDescriptor();
+                final Object val = mappedField.getField().get(pojo);
                 if (key.isMultiValue())
                     doc.setValues(key.getName(), (Collection) val);
                 else
                     doc.setValue(key.getName(), val);
-            });
+            }
 
             return doc;
         } catch (InstantiationException | IllegalAccessException e) {
@@ -101,7 +131,7 @@ public class AnnotationUtil {
      * @param pojoClass  Class from which the fields are wanted to be known.
      * @return Array of Fields which belong to the given class
      */
-    private static Field[] getFields(Class<?> pojoClass) {
+    static Field[] getFields(Class<?> pojoClass) {
         if (pojoClass == null) return new Field[0];
         else return ArrayUtils.addAll(pojoClass.getDeclaredFields(), getFields(pojoClass.getSuperclass()));
     }
@@ -111,7 +141,7 @@ public class AnnotationUtil {
      * @param pojoClass  Class from which it is wanted to know the type.
      * @return String describing the type of the class if the @Type annotation empty.If not the simple name of the class
      */
-    private static String getType(Class<?> pojoClass) {
+    static String getType(Class<?> pojoClass) {
         String typeVal;
         final Type type = pojoClass.getAnnotation(Type.class);
         if (type != null && StringUtils.isNotBlank(type.name())) {
@@ -127,7 +157,7 @@ public class AnnotationUtil {
      * @param field Field a Class used as base to create a new FieldDescriptor.
      * @return new FieldDescriptor build based on the Field parameter annotations.
      */
-    private static FieldDescriptor createFieldDescriptor(Field field) {
+    static FieldDescriptor createFieldDescriptor(Field field) {
         if (field.isAnnotationPresent(Ignore.class)) return null;
         if (field.isAnnotationPresent(Id.class)) return null;
         if (field.isAnnotationPresent(Score.class)) return null;
@@ -444,7 +474,7 @@ public class AnnotationUtil {
      * @param pojoClass Class from which it is wanted to know the @Id annotated field.
      * @return the field with the @Id annotation.
      */
-    private static Field getIdField(Class<?> pojoClass) {
+    static Field getIdField(Class<?> pojoClass) {
         final List<Field> idFields = Arrays.stream(getFields(pojoClass))
                 .filter(f -> f.isAnnotationPresent(Id.class))
                 .collect(Collectors.toList());
@@ -471,7 +501,7 @@ public class AnnotationUtil {
      * @param pojoClass Class from which it is wanted to know the @Score annotated field.
      * @return the field with the @Score annotation or null if there is no such an annotation.
      */
-    private static Field getScoreField(Class<?> pojoClass) {
+    static Field getScoreField(Class<?> pojoClass) {
         final List<Field> idFields = Arrays.stream(getFields(pojoClass))
                 .filter(f -> f.isAnnotationPresent(Score.class))
                 .collect(Collectors.toList());
@@ -501,23 +531,15 @@ public class AnnotationUtil {
      */
     public static <T> T createPojo(Document doc, Class<T> clazz) {
         try {
-            final String typeVal = getType(clazz);
+            final AnnotatedClass annotatedClass = AnnotatedClass.of(clazz);
+            final String typeVal = annotatedClass.getType();
             if (!StringUtils.equals(typeVal, doc.getType())) {
                 log.error("@Type does not match. Expected {} but found {}",typeVal, doc.getType());
                 throw new IllegalArgumentException("@Type does not match. Expected " + typeVal + " but found " + doc.getType());
             }
 
-            final Map<String, Field> fieldMap = new HashMap<>();
-            for (Field field : getFields(clazz)) {
-                final FieldDescriptor fd = createFieldDescriptor(field);
-                //TODO: MBDN-496 check if complex field is binary stored to instantiate original value
-                if (fd == null || ComplexFieldDescriptor.class.isAssignableFrom(fd.getClass())) {
-                    continue;
-                }
-                fieldMap.put(fd.getName(), field);
-            }
-            final Field idField = getIdField(clazz);
-            final Field scoreField = getScoreField(clazz);
+            final Field idField = annotatedClass.getIdField();
+            final Field scoreField = annotatedClass.getScoreField();
             final T instance ;
 
             try {
@@ -532,11 +554,10 @@ public class AnnotationUtil {
                 scoreField.set(instance, doc.getScore());
             }
 
-            for (String fName: fieldMap.keySet()) {
-                final Field f = fieldMap.get(fName);
-                f.setAccessible(true);
+            for (AnnotatedClass.MappedField mappedField : annotatedClass.getSimpleFields()) {
+                final Field f = mappedField.getField();
 
-                final Object value = doc.getValue(fName);
+                final Object value = doc.getValue(mappedField.getDescriptor().getName());
                 if (value instanceof Collection && Collection.class.isAssignableFrom(f.getType())) { // TODO: Improve Collection/Multi-Value detection
                     Collection c;
                     if (Modifier.isAbstract(f.getType().getModifiers())) {
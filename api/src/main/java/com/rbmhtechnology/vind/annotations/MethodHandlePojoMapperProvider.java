@@ -0,0 +1,304 @@
+package com.rbmhtechnology.vind.annotations;
+
+import com.rbmhtechnology.vind.annotations.id.IdGenerator;
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Default {@link PojoMapperProvider}: the field accessors, constructors and id generator of the annotated class are
+ * resolved once into {@link MethodHandle}s, so mapping a pojo does not need any reflective lookup or instantiation
+ * besides the pojo itself. The mapping behaves as {@link AnnotationUtil#createPojo(Document, Class)} and
+ * {@link AnnotationUtil#createDocument(Object)}.
+ */
+public class MethodHandlePojoMapperProvider implements PojoMapperProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandlePojoMapperProvider.class);
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    @Override
+    public <T> PojoMapper<T> createMapper(Class<T> clazz) {
+        return new MethodHandlePojoMapper<>(clazz);
+    }
+
+    private static MethodHandle getter(Field field) throws IllegalAccessException {
+        field.setAccessible(true);
+        return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+    }
+
+    private static MethodHandle setter(Field field) throws IllegalAccessException {
+        field.setAccessible(true);
+        return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+    }
+
+    private static MethodHandle constructor(Constructor<?> constructor) throws IllegalAccessException {
+        return MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+    }
+
+    /**
+     * A {@link PojoMapper} invoking precomputed {@link MethodHandle}s. Problems found while resolving the handles
+     * (e.g. a missing {@link Id} field or a class without default constructor) are kept and reported when the
+     * mapper is used, the same way the reflective implementation does.
+     */
+    static final class MethodHandlePojoMapper<T> implements PojoMapper<T> {
+
+        private final Class<T> pojoClass;
+        private final String type;
+        private final DocumentFactory factory;
+
+        private final MethodHandle newInstance;
+        private final RuntimeException newInstanceError;
+
+        private final Field idField;
+        private final MethodHandle idGetter;
+        private final MethodHandle idSetter;
+        private final IdGenerator idGenerator;
+        private final RuntimeException idError;
+
+        private final MethodHandle scoreSetter;
+        private final RuntimeException scoreError;
+
+        private final FieldAccessor[] fields;
+        private final FieldAccessor[] simpleFields;
+
+        MethodHandlePojoMapper(Class<T> pojoClass) {
+            final AnnotatedClass annotatedClass = AnnotatedClass.of(pojoClass);
+            this.pojoClass = pojoClass;
+            this.type = annotatedClass.getType();
+            this.factory = annotatedClass.getFactory();
+
+            MethodHandle ctor = null;
+            RuntimeException ctorError = null;
+            try {
+                ctor = constructor(pojoClass.getConstructor());
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                ctorError = new RuntimeException("Unable to instantiate class " + pojoClass.getSimpleName(), e);
+            }
+            this.newInstance = ctor;
+            this.newInstanceError = ctorError;
+
+            Field id = null;
+            MethodHandle idGet = null, idSet = null;
+            IdGenerator generator = null;
+            RuntimeException idErr = null;
+            try {
+                id = annotatedClass.getIdField();
+                idGet = getter(id);
+                idSet = setter(id);
+                generator = id.getAnnotation(Id.class).generator().newInstance();
+            } catch (IllegalArgumentException e) {
+                idErr = e;
+            } catch (InstantiationException | IllegalAccessException e) {
+                idErr = new RuntimeException("Unable to create Document from pojo", e);
+            }
+            this.idField = id;
+            this.idGetter = idGet;
+            this.idSetter = idSet;
+            this.idGenerator = generator;
+            this.idError = idErr;
+
+            MethodHandle scoreSet = null;
+            RuntimeException scoreErr = null;
+            try {
+                final Field scoreField = annotatedClass.getScoreField();
+                if (scoreField != null) {
+                    scoreSet = setter(scoreField);
+                }
+            } catch (IllegalArgumentException e) {
+                scoreErr = e;
+            } catch (IllegalAccessException e) {
+                scoreErr = new RuntimeException("Unable to access pojo field", e);
+            }
+            this.scoreSetter = scoreSet;
+            this.scoreError = scoreErr;
+
+            this.fields = accessors(annotatedClass.getFields());
+            this.simpleFields = accessors(annotatedClass.getSimpleFields());
+        }
+
+        private static FieldAccessor[] accessors(List<AnnotatedClass.MappedField> mappedFields) {
+            final FieldAccessor[] accessors = new FieldAccessor[mappedFields.size()];
+            for (int i = 0; i < accessors.length; i++) {
+                final AnnotatedClass.MappedField mappedField = mappedFields.get(i);
+                try {
+                    accessors[i] = new FieldAccessor(mappedField.getField(), mappedField.getDescriptor());
+                } catch (IllegalAccessException e) {
+                    log.error("Unable to access pojo field", e);
+                    throw new RuntimeException("Unable to access pojo field", e);
+                }
+            }
+            return accessors;
+        }
+
+        @Override
+        public Class<T> getPojoClass() {
+            return pojoClass;
+        }
+
+        @Override
+        public DocumentFactory getFactory() {
+            return factory;
+        }
+
+        @Override
+        public Document toDocument(T pojo) {
+            if (idError != null) {
+                throw rethrow(idError);
+            }
+            try {
+                final String composedId = idGenerator.compose((String) (Object) idGetter.invokeExact((Object) pojo), idField, pojoClass);
+                final Document doc = factory.createDoc(composedId);
+
+                for (FieldAccessor accessor : fields) {
+                    final Object val = accessor.getter.invokeExact((Object) pojo);
+                    if (accessor.multiValue)
+                        doc.setValues(accessor.name, (Collection) val);
+                    else
+                        doc.setValue(accessor.name, val);
+                }
+                return doc;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                log.error("Unable to create Document from pojo", t);
+                throw new RuntimeException("Unable to create Document from pojo", t);
+            }
+        }
+
+        @Override
+        public T toPojo(Document doc) {
+            if (!StringUtils.equals(type, doc.getType())) {
+                log.error("@Type does not match. Expected {} but found {}", type, doc.getType());
+                throw new IllegalArgumentException("@Type does not match. Expected " + type + " but found " + doc.getType());
+            }
+            if (idError != null) {
+                throw rethrow(idError);
+            }
+            if (scoreError != null) {
+                throw rethrow(scoreError);
+            }
+            if (newInstanceError != null) {
+                log.error("Unable to instantiate class {}", pojoClass.getSimpleName(), newInstanceError.getCause());
+                throw rethrow(newInstanceError);
+            }
+
+            try {
+                final Object instance = newInstance.invokeExact();
+
+                idSetter.invokeExact(instance, (Object) doc.getId());
+                if (scoreSetter != null) {
+                    scoreSetter.invokeExact(instance, (Object) doc.getScore());
+                }
+
+                for (FieldAccessor accessor : simpleFields) {
+                    final Object value = doc.getValue(accessor.name);
+                    if (accessor.collection && value instanceof Collection) { // TODO: Improve Collection/Multi-Value detection
+                        final Collection c = accessor.newCollection();
+                        c.addAll((Collection) value);
+                        accessor.set(instance, c);
+                    } else {
+                        accessor.set(instance, value);
+                    }
+                }
+                return pojoClass.cast(instance);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                log.error("Unable to instantiate class {}", pojoClass.getSimpleName(), t);
+                throw new RuntimeException("Unable to instantiate class " + pojoClass.getSimpleName(), t);
+            }
+        }
+
+        private static RuntimeException rethrow(RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                return new IllegalArgumentException(e.getMessage(), e);
+            }
+            return new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Precomputed accessors of a single mapped field.
+     */
+    private static final class FieldAccessor {
+        private final String fieldName;
+        private final String name;
+        private final boolean multiValue;
+        private final boolean primitive;
+        private final boolean collection;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final MethodHandle collectionConstructor;
+        private final RuntimeException collectionError;
+
+        private FieldAccessor(Field field, FieldDescriptor<?> descriptor) throws IllegalAccessException {
+            this.fieldName = field.getName();
+            this.name = descriptor.getName();
+            this.multiValue = descriptor.isMultiValue();
+            this.primitive = field.getType().isPrimitive();
+            this.collection = Collection.class.isAssignableFrom(field.getType());
+            this.getter = getter(field);
+
+            MethodHandle fieldSetter = null;
+            try {
+                fieldSetter = setter(field);
+            } catch (IllegalAccessException e) {
+                log.debug("Field {} can not be written: {}", fieldName, e.getMessage());
+            }
+            this.setter = fieldSetter;
+
+            MethodHandle ctor = null;
+            RuntimeException ctorError = null;
+            if (collection) {
+                if (Modifier.isAbstract(field.getType().getModifiers())) {
+                    ctorError = new IllegalArgumentException("Annotated field " + fieldName + " can not be abstract");
+                } else {
+                    try {
+                        ctor = constructor(field.getType().getConstructor());
+                    } catch (NoSuchMethodException | IllegalAccessException e) {
+                        ctorError = new RuntimeException("Unable to instantiate collection field " + fieldName + " of type [" + field.getType() + "]", e);
+                    }
+                }
+            }
+            this.collectionConstructor = ctor;
+            this.collectionError = ctorError;
+        }
+
+        private Collection newCollection() throws Throwable {
+            if (collectionError != null) {
+                log.error(collectionError.getMessage(), collectionError.getCause());
+                throw MethodHandlePojoMapper.rethrow(collectionError);
+            }
+            return (Collection) (Object) collectionConstructor.invokeExact();
+        }
+
+        private void set(Object instance, Object value) throws Throwable {
+            if (setter == null) {
+                throw new IllegalArgumentException("Can not set final field " + fieldName);
+            }
+            if (value == null && primitive) {
+                throw new IllegalArgumentException("Can not set primitive field " + fieldName + " to null value");
+            }
+            try {
+                setter.invokeExact(instance, value);
+            } catch (ClassCastException e) {
+                throw new IllegalArgumentException("Can not set field " + fieldName + " to " + value.getClass().getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.rbmhtechnology.vind.annotations;
+
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+
+/**
+ * Maps the instances of one annotated java class from and to {@link Document}s. Mappers are created once per class
+ * by a {@link PojoMapperProvider} and are shared, so implementations must be thread safe.
+ * @param <T> The annotated class handled by the mapper.
+ */
+public interface PojoMapper<T> {
+
+    /**
+     * @return the annotated class handled by this mapper.
+     */
+    Class<T> getPojoClass();
+
+    /**
+     * @return the {@link DocumentFactory} describing the annotated class.
+     */
+    DocumentFactory getFactory();
+
+    /**
+     * Creates a {@link Document} holding the values of the given pojo.
+     * @param pojo Instance of the annotated class.
+     * @return a new {@link Document}.
+     */
+    Document toDocument(T pojo);
+
+    /**
+     * Creates a new instance of the annotated class filled with the values of the given {@link Document}.
+     * @param doc {@link Document} of the same type as the annotated class.
+     * @return a new instance of the annotated class.
+     */
+    T toPojo(Document doc);
+}
@@ -0,0 +1,21 @@
+package com.rbmhtechnology.vind.annotations;
+
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+
+/**
+ * Service provider interface creating the {@link PojoMapper} of an annotated class. Implementations are loaded with
+ * the {@link java.util.ServiceLoader}; the one to be used can be chosen by setting its class name in the
+ * {@link SearchConfiguration#POJO_MAPPER_PROVIDER} property. If no provider is available
+ * {@link MethodHandlePojoMapperProvider} is used.
+ */
+public interface PojoMapperProvider {
+
+    /**
+     * Creates the mapper for the given annotated class. It is called once per class and the result is cached, see
+     * {@link AnnotationUtil#getPojoMapper(Class)}.
+     * @param clazz Annotated class.
+     * @param <T> Type of the annotated class.
+     * @return a {@link PojoMapper} for the class.
+     */
+    <T> PojoMapper<T> createMapper(Class<T> clazz);
+}
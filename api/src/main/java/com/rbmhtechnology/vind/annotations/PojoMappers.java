@@ -0,0 +1,61 @@
+package com.rbmhtechnology.vind.annotations;
+
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Holds the configured {@link PojoMapperProvider} and the {@link PojoMapper} created for each annotated class.
+ */
+final class PojoMappers {
+
+    private static final Logger log = LoggerFactory.getLogger(PojoMappers.class);
+
+    private static final ClassValue<PojoMapper<?>> MAPPERS = new ClassValue<PojoMapper<?>>() {
+        @Override
+        protected PojoMapper<?> computeValue(Class<?> type) {
+            return ProviderHolder.PROVIDER.createMapper(type);
+        }
+    };
+
+    private PojoMappers() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PojoMapper<T> get(Class<T> clazz) {
+        return (PojoMapper<T>) MAPPERS.get(clazz);
+    }
+
+    /**
+     * Lazily resolves the provider on first use.
+     */
+    private static final class ProviderHolder {
+        private static final PojoMapperProvider PROVIDER = loadProvider();
+    }
+
+    private static PojoMapperProvider loadProvider() {
+        final String providerClassName = SearchConfiguration.get(SearchConfiguration.POJO_MAPPER_PROVIDER, null);
+        final Iterator<PojoMapperProvider> it = ServiceLoader.load(PojoMapperProvider.class).iterator();
+
+        if (providerClassName == null) {
+            //if there is no provider specified the first one found will work
+            return it.hasNext() ? it.next() : new MethodHandlePojoMapperProvider();
+        }
+
+        while (it.hasNext()) {
+            final PojoMapperProvider provider = it.next();
+            if (provider.getClass().getName().equals(providerClassName)) {
+                return provider;
+            }
+        }
+        try {
+            return (PojoMapperProvider) Class.forName(providerClassName).newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            log.error("Unable to instantiate pojo mapper provider {}", providerClassName, e);
+            throw new RuntimeException("Unable to instantiate pojo mapper provider " + providerClassName, e);
+        }
+    }
+}
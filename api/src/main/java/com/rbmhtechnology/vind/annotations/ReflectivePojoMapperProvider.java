@@ -0,0 +1,36 @@
+package com.rbmhtechnology.vind.annotations;
+
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+
+/**
+ * {@link PojoMapperProvider} implementation using plain reflection, see {@link AnnotationUtil#createPojo(Document, Class)}
+ * and {@link AnnotationUtil#createDocument(Object)}.
+ */
+public class ReflectivePojoMapperProvider implements PojoMapperProvider {
+
+    @Override
+    public <T> PojoMapper<T> createMapper(Class<T> clazz) {
+        return new PojoMapper<T>() {
+            @Override
+            public Class<T> getPojoClass() {
+                return clazz;
+            }
+
+            @Override
+            public DocumentFactory getFactory() {
+                return AnnotationUtil.getDocumentFactory(clazz);
+            }
+
+            @Override
+            public Document toDocument(T pojo) {
+                return AnnotationUtil.createDocument(pojo);
+            }
+
+            @Override
+            public T toPojo(Document doc) {
+                return AnnotationUtil.createPojo(doc, clazz);
+            }
+        };
+    }
+}
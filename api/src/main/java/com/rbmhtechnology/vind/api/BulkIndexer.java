@@ -0,0 +1,468 @@
+package com.rbmhtechnology.vind.api;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.rbmhtechnology.vind.api.result.IndexResult;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Collects {@link Document}s added by any number of producer threads and sends them to the search server in bulk
+ * requests. A bulk request is sent as soon as the pending documents reach the configured number of documents or
+ * estimated size in bytes, or when the flush interval elapses. Up to {@link Options#getConcurrentRequests()} bulk
+ * requests are in flight at the same time; once {@link Options#getQueueSize()} documents are pending or in flight,
+ * producers are blocked until a request completes.
+ *
+ * Failures are reported per document to the {@link Listener}. {@link #flush()} blocks until all the documents added so
+ * far have been sent, {@link #close()} flushes and releases the sender threads.
+ */
+public abstract class BulkIndexer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIndexer.class);
+
+    private final Options options;
+    private final Semaphore capacity;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService scheduler;
+    private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private final Object lock = new Object();
+    private List<Document> batch;
+    private long batchBytes;
+    private boolean closed;
+
+    protected BulkIndexer(Options options) {
+        this.options = Objects.requireNonNull(options).validate();
+        this.capacity = new Semaphore(options.getQueueSize());
+        this.batch = new ArrayList<>(Math.min(options.getBatchSize(), options.getQueueSize()));
+        this.senders = Executors.newFixedThreadPool(options.getConcurrentRequests(),
+                new ThreadFactoryBuilder().setNameFormat("vind-bulk-indexer-%d").setDaemon(true).build());
+        if (options.getFlushInterval() > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("vind-bulk-indexer-flush-%d").setDaemon(true).build());
+            this.scheduler.scheduleWithFixedDelay(this::sendPending,
+                    options.getFlushInterval(), options.getFlushInterval(), TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Sends a bulk request to the search server.
+     * @param documents {@link Document}s to index.
+     * @param withinMs documents are visible in search within ms, negative to leave it to the server configuration.
+     * @param failures receives the documents the search server rejected, together with the reason.
+     * @return {@link IndexResult} of the bulk request.
+     * @throws Exception if the request failed as a whole, all its documents are reported as failed then.
+     */
+    protected abstract IndexResult indexBatch(List<Document> documents, int withinMs,
+                                              BiConsumer<Document, Exception> failures) throws Exception;
+
+    /**
+     * Adds a document, blocking while the queue is full.
+     * @param document {@link Document} to index.
+     * @throws InterruptedException if interrupted while waiting for queue capacity.
+     * @throws IllegalStateException if the indexer is closed.
+     */
+    public void add(Document document) throws InterruptedException {
+        Objects.requireNonNull(document, "Document to index should not be null.");
+        checkOpen();
+        capacity.acquire();
+        enqueue(document);
+    }
+
+    /**
+     * Adds documents, blocking while the queue is full.
+     * @param documents {@link Document}s to index.
+     * @throws InterruptedException if interrupted while waiting for queue capacity.
+     * @throws IllegalStateException if the indexer is closed.
+     */
+    public void add(Collection<Document> documents) throws InterruptedException {
+        for (Document document : documents) {
+            add(document);
+        }
+    }
+
+    /**
+     * Adds a document if the queue has capacity for it within the given time.
+     * @param document {@link Document} to index.
+     * @param timeout time to wait for queue capacity.
+     * @param unit unit of the timeout.
+     * @return true if the document was added, false if the queue stayed full.
+     * @throws InterruptedException if interrupted while waiting for queue capacity.
+     * @throws IllegalStateException if the indexer is closed.
+     */
+    public boolean offer(Document document, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(document, "Document to index should not be null.");
+        checkOpen();
+        if (!capacity.tryAcquire(timeout, unit)) {
+            return false;
+        }
+        enqueue(document);
+        return true;
+    }
+
+    /**
+     * Sends the pending documents and waits until all bulk requests sent so far have completed.
+     */
+    public void flush() {
+        synchronized (lock) {
+            if (!batch.isEmpty()) {
+                send(takeBatch());
+            }
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * Flushes the pending documents and stops the sender threads. Further documents are rejected.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flush();
+        senders.shutdown();
+    }
+
+    /**
+     * @return number of documents waiting to be sent or in flight.
+     */
+    public int getPendingCount() {
+        return options.getQueueSize() - capacity.availablePermits();
+    }
+
+    /**
+     * @return number of documents indexed successfully.
+     */
+    public long getIndexedCount() {
+        return indexed.get();
+    }
+
+    /**
+     * @return number of documents reported as failed.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public Options getOptions() {
+        return options;
+    }
+
+    private void checkOpen() {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Bulk indexer is closed");
+            }
+        }
+    }
+
+    private void enqueue(Document document) {
+        final long size = options.getSizeEstimator().applyAsLong(document);
+        synchronized (lock) {
+            if (closed) {
+                capacity.release();
+                throw new IllegalStateException("Bulk indexer is closed");
+            }
+            if (!batch.isEmpty() && batchBytes + size > options.getBatchBytes()) {
+                send(takeBatch());
+            }
+            batch.add(document);
+            batchBytes += size;
+            if (batch.size() >= options.getBatchSize() || batchBytes >= options.getBatchBytes()) {
+                send(takeBatch());
+            }
+        }
+    }
+
+    private void sendPending() {
+        synchronized (lock) {
+            if (!batch.isEmpty()) {
+                send(takeBatch());
+            }
+        }
+    }
+
+    private List<Document> takeBatch() {
+        final List<Document> documents = batch;
+        batch = new ArrayList<>(Math.min(options.getBatchSize(), options.getQueueSize()));
+        batchBytes = 0;
+        return documents;
+    }
+
+    private void send(List<Document> documents) {
+        final CompletableFuture<Void> request = CompletableFuture.runAsync(() -> execute(documents), senders);
+        inFlight.add(request);
+        request.whenComplete((result, e) -> inFlight.remove(request));
+    }
+
+    private void execute(List<Document> documents) {
+        try {
+            final AtomicLong rejected = new AtomicLong();
+            final IndexResult result = indexBatch(documents, options.getWithinMs(), (document, cause) -> {
+                rejected.incrementAndGet();
+                notifyFailure(document, cause);
+            });
+            indexed.addAndGet(documents.size() - rejected.get());
+            try {
+                options.getListener().afterBulk(documents, result);
+            } catch (RuntimeException e) {
+                log.warn("Bulk indexer listener failed: {}", e.getMessage(), e);
+            }
+        } catch (Exception e) {
+            log.error("Cannot index {} documents: {}", documents.size(), e.getMessage(), e);
+            for (Document document : documents) {
+                notifyFailure(document, e);
+            }
+        } finally {
+            capacity.release(documents.size());
+        }
+    }
+
+    private void notifyFailure(Document document, Exception cause) {
+        failed.incrementAndGet();
+        try {
+            options.getListener().onFailure(document, cause);
+        } catch (RuntimeException e) {
+            log.warn("Bulk indexer listener failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rough estimation of the memory and request size of a document, based on its values.
+     * @param document {@link Document} to estimate.
+     * @return estimated size in bytes.
+     */
+    public static long estimateSize(Document document) {
+        long size = 64 + estimateValueSize(document.getId()) + estimateValueSize(document.getType());
+        for (FieldDescriptor<?> descriptor : document.listFieldDescriptors().values()) {
+            if (document.hasValue(descriptor)) {
+                for (String context : document.getFieldContexts(descriptor)) {
+                    size += descriptor.getName().length() + estimateValueSize(document.getContextualizedValue(descriptor, context));
+                }
+            }
+        }
+        if (document.hasChildren()) {
+            for (Document child : document.getChildren()) {
+                size += estimateSize(child);
+            }
+        }
+        return size;
+    }
+
+    private static long estimateValueSize(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence) {
+            return 2L * ((CharSequence) value).length() + 16;
+        }
+        if (value instanceof ByteBuffer) {
+            return ((ByteBuffer) value).remaining() + 16;
+        }
+        if (value instanceof Object[]) {
+            long size = 16;
+            for (Object o : (Object[]) value) {
+                size += estimateValueSize(o);
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            long size = 16;
+            for (Object o : (Collection<?>) value) {
+                size += estimateValueSize(o);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            long size = 16;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += estimateValueSize(entry.getKey()) + estimateValueSize(entry.getValue());
+            }
+            return size;
+        }
+        return 16;
+    }
+
+    /**
+     * Receives the outcome of the bulk requests. Callbacks run on the sender threads.
+     */
+    public interface Listener {
+        /**
+         * Called after a bulk request completed, also if some of its documents were rejected.
+         * @param documents {@link Document}s sent in the request.
+         * @param result {@link IndexResult} of the request.
+         */
+        default void afterBulk(List<Document> documents, IndexResult result) {
+        }
+
+        /**
+         * Called for each document which could not be indexed.
+         * @param document the rejected {@link Document}.
+         * @param cause reason of the failure.
+         */
+        default void onFailure(Document document, Exception cause) {
+        }
+    }
+
+    /**
+     * Configuration of a {@link BulkIndexer}, defaults are read from the {@link SearchConfiguration}.
+     */
+    public static class Options {
+
+        private int queueSize = SearchConfiguration.get(SearchConfiguration.INDEX_BULK_QUEUE_SIZE, 10000);
+        private int batchSize = SearchConfiguration.get(SearchConfiguration.INDEX_BULK_BATCH_SIZE, 1000);
+        private long batchBytes = SearchConfiguration.get(SearchConfiguration.INDEX_BULK_BATCH_BYTES, 5 * 1024 * 1024);
+        private long flushInterval = SearchConfiguration.get(SearchConfiguration.INDEX_BULK_FLUSH_INTERVAL, 1000);
+        private int concurrentRequests = SearchConfiguration.get(SearchConfiguration.INDEX_BULK_CONCURRENT_REQUESTS, 2);
+        private int withinMs = -1;
+        private ToLongFunction<Document> sizeEstimator = BulkIndexer::estimateSize;
+        private Listener listener = new Listener() {};
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        /**
+         * @param queueSize maximum number of documents pending or in flight before producers are blocked, at least
+         *                  the batch size if there is no flush interval.
+         * @return this options.
+         */
+        public Options setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * @param batchSize number of documents which triggers a bulk request.
+         * @return this options.
+         */
+        public Options setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public long getBatchBytes() {
+            return batchBytes;
+        }
+
+        /**
+         * @param batchBytes estimated size in bytes of the pending documents which triggers a bulk request.
+         * @return this options.
+         */
+        public Options setBatchBytes(long batchBytes) {
+            this.batchBytes = batchBytes;
+            return this;
+        }
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        /**
+         * @param flushInterval interval in ms after which pending documents are sent, 0 to flush by size only.
+         * @return this options.
+         */
+        public Options setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        public int getConcurrentRequests() {
+            return concurrentRequests;
+        }
+
+        /**
+         * @param concurrentRequests maximum number of bulk requests in flight at the same time.
+         * @return this options.
+         */
+        public Options setConcurrentRequests(int concurrentRequests) {
+            this.concurrentRequests = concurrentRequests;
+            return this;
+        }
+
+        public int getWithinMs() {
+            return withinMs;
+        }
+
+        /**
+         * @param withinMs documents are visible in search within ms, negative to leave it to the server configuration.
+         * @return this options.
+         */
+        public Options setWithinMs(int withinMs) {
+            this.withinMs = withinMs;
+            return this;
+        }
+
+        public ToLongFunction<Document> getSizeEstimator() {
+            return sizeEstimator;
+        }
+
+        /**
+         * @param sizeEstimator estimates the size in bytes of a document, {@link BulkIndexer#estimateSize(Document)}
+         *                      by default.
+         * @return this options.
+         */
+        public Options setSizeEstimator(ToLongFunction<Document> sizeEstimator) {
+            this.sizeEstimator = Objects.requireNonNull(sizeEstimator);
+            return this;
+        }
+
+        public Listener getListener() {
+            return listener;
+        }
+
+        public Options setListener(Listener listener) {
+            this.listener = Objects.requireNonNull(listener);
+            return this;
+        }
+
+        private Options validate() {
+            if (queueSize < 1 || batchSize < 1 || batchBytes < 1 || concurrentRequests < 1 || flushInterval < 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid bulk indexer options: queueSize=%s, batchSize=%s, batchBytes=%s, concurrentRequests=%s, flushInterval=%s",
+                        queueSize, batchSize, batchBytes, concurrentRequests, flushInterval));
+            }
+            if (flushInterval == 0 && queueSize < batchSize) {
+                // the queue would be full before a batch is, and without a timer nothing ever flushes it
+                throw new IllegalArgumentException(String.format(
+                        "Invalid bulk indexer options: queueSize=%s is smaller than batchSize=%s without a flushInterval",
+                        queueSize, batchSize));
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.rbmhtechnology.vind.api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.delete.Delete;
+import com.rbmhtechnology.vind.api.query.division.ResultSubset;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
+import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearch;
+import com.rbmhtechnology.vind.api.query.suggestion.DescriptorSuggestionSearch;
+import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
+import com.rbmhtechnology.vind.api.query.suggestion.StringSuggestionSearch;
+import com.rbmhtechnology.vind.api.query.update.Update;
+import com.rbmhtechnology.vind.api.result.BeanGetResult;
+import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.DeleteResult;
+import com.rbmhtechnology.vind.api.result.GetResult;
+import com.rbmhtechnology.vind.api.result.IndexResult;
+import com.rbmhtechnology.vind.api.result.InverseSearchResult;
+import com.rbmhtechnology.vind.api.result.SearchResult;
+import com.rbmhtechnology.vind.api.result.StatusResult;
+import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.api.result.UpdateResult;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+import com.rbmhtechnology.vind.model.InverseSearchQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Search server caching the results of searches, suggestions and real time gets of a backend search server. Results
+ * are kept under a key built from everything the search consists of: search text, filter tree, facets, sorting,
+ * result page and context, and the factory or class the result is mapped to. The cache is bounded in size, evicting
+ * by frequency and recency (W-TinyLFU), and entries expire a fixed time after they have been written.
+ *
+ * Every write through this server (index, delete, update, commit and clearing the index) invalidates the cached
+ * results, the expiry bounds how long changes written to the backend by other clients or made visible by a delayed
+ * commit (e.g. {@link #indexWithin(Document, int)}) may not be seen. Cursor searches and inverse searches are not
+ * cached. Cached results are shared by all callers, so they must not be modified.
+ */
+public class CachingSearchServer extends SearchServer {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingSearchServer.class);
+
+    private final SearchServer backend;
+    private final Cache<Object, Object> results;
+    /** Incremented on every invalidation, so results of searches running meanwhile are not cached. */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates a caching search server with the size and time to live read from the configuration, see
+     * {@link SearchConfiguration#RESULT_CACHE_SIZE} and {@link SearchConfiguration#RESULT_CACHE_TTL}.
+     * @param backend {@link SearchServer} to cache the results of.
+     */
+    public CachingSearchServer(SearchServer backend) {
+        this(backend,
+                SearchConfiguration.get(SearchConfiguration.RESULT_CACHE_SIZE, 10000),
+                Duration.ofMillis(SearchConfiguration.get(SearchConfiguration.RESULT_CACHE_TTL, 60000)));
+    }
+
+    /**
+     * @param backend {@link SearchServer} to cache the results of.
+     * @param maximumSize maximum number of results to keep.
+     * @param timeToLive time after which a cached result expires.
+     */
+    public CachingSearchServer(SearchServer backend, long maximumSize, Duration timeToLive) {
+        this.backend = backend;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive.toNanos(), TimeUnit.NANOSECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public SearchServer getBackendSearchServer() {
+        return backend;
+    }
+
+    /**
+     * @return hit, miss and eviction counts of the result cache.
+     */
+    public CacheStats getCacheStats() {
+        return results.stats();
+    }
+
+    /**
+     * @return the approximate number of cached results.
+     */
+    public long getCacheSize() {
+        return results.estimatedSize();
+    }
+
+    /**
+     * Removes all the cached results.
+     */
+    public void invalidateCache() {
+        generation.incrementAndGet();
+        results.invalidateAll();
+    }
+
+    @Override
+    public Object getBackend() {
+        return backend.getBackend();
+    }
+
+    @Override
+    public StatusResult getBackendStatus() {
+        return backend.getBackendStatus();
+    }
+
+    @Override
+    public IndexResult index(Document... doc) {
+        try {
+            return backend.index(doc);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public IndexResult index(List<Document> doc) {
+        try {
+            return backend.index(doc);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public IndexResult indexWithin(Document doc, int withinMs) {
+        try {
+            return backend.indexWithin(doc, withinMs);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public IndexResult indexWithin(List<Document> doc, int withinMs) {
+        try {
+            return backend.indexWithin(doc, withinMs);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public DeleteResult delete(Document doc) {
+        try {
+            return backend.delete(doc);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public DeleteResult deleteWithin(Document doc, int withinMs) {
+        try {
+            return backend.deleteWithin(doc, withinMs);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public boolean execute(Update update, DocumentFactory factory) {
+        try {
+            return backend.execute(update, factory);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public UpdateResult execute(List<Update> updates, DocumentFactory factory) {
+        try {
+            return backend.execute(updates, factory);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public DeleteResult execute(Delete delete, DocumentFactory factory) {
+        try {
+            return backend.execute(delete, factory);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public void commit(boolean optimize) {
+        try {
+            backend.commit(optimize);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public <T> BeanSearchResult<T> execute(FulltextSearch search, Class<T> c) {
+        return cached(searchKey(search, c), () -> backend.execute(search, c));
+    }
+
+    @Override
+    public SearchResult execute(FulltextSearch search, DocumentFactory factory) {
+        return cached(searchKey(search, factory), () -> backend.execute(search, factory));
+    }
+
+    @Override
+    public DocumentExport export(FulltextSearch search, DocumentFactory factory) {
+        return backend.export(search, factory);
+    }
+
+    @Override
+    public String getRawQuery(FulltextSearch search, DocumentFactory factory) {
+        return backend.getRawQuery(search, factory);
+    }
+
+    @Override
+    public <T> String getRawQuery(FulltextSearch search, Class<T> c) {
+        return backend.getRawQuery(search, c);
+    }
+
+    @Override
+    public <T> SuggestionResult execute(ExecutableSuggestionSearch search, Class<T> c) {
+        return cached(suggestionKey(search, c, null), () -> backend.execute(search, c));
+    }
+
+    @Override
+    public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets) {
+        return cached(suggestionKey(search, assets, null), () -> backend.execute(search, assets));
+    }
+
+    @Override
+    public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets, DocumentFactory childFactory) {
+        return cached(suggestionKey(search, assets, childFactory), () -> backend.execute(search, assets, childFactory));
+    }
+
+    @Override
+    public String getRawQuery(ExecutableSuggestionSearch search, DocumentFactory factory) {
+        return backend.getRawQuery(search, factory);
+    }
+
+    @Override
+    public String getRawQuery(ExecutableSuggestionSearch search, DocumentFactory factory, DocumentFactory childFactory) {
+        return backend.getRawQuery(search, factory, childFactory);
+    }
+
+    @Override
+    public <T> String getRawQuery(ExecutableSuggestionSearch search, Class<T> c) {
+        return backend.getRawQuery(search, c);
+    }
+
+    @Override
+    public <T> BeanGetResult<T> execute(RealTimeGet search, Class<T> c) {
+        return cached(getKey(search, c), () -> backend.execute(search, c));
+    }
+
+    @Override
+    public GetResult execute(RealTimeGet search, DocumentFactory assets) {
+        return cached(getKey(search, assets), () -> backend.execute(search, assets));
+    }
+
+    @Override
+    public InverseSearchResult execute(InverseSearch inverseSearch, DocumentFactory factory) {
+        return backend.execute(inverseSearch, factory);
+    }
+
+    @Override
+    public Stream<InverseSearchResult> stream(InverseSearch inverseSearch, DocumentFactory factory) {
+        return backend.stream(inverseSearch, factory);
+    }
+
+    @Override
+    public IndexResult addInverseSearchQuery(InverseSearchQuery query) {
+        return backend.addInverseSearchQuery(query);
+    }
+
+    @Override
+    public void clearIndex() {
+        try {
+            backend.clearIndex();
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    @Override
+    public void close() {
+        invalidateCache();
+        backend.close();
+    }
+
+    @Override
+    public Class<? extends ServiceProvider> getServiceProviderClass() {
+        return backend.getServiceProviderClass();
+    }
+
+    @Override
+    public void closeCursor(String cursor) {
+        backend.closeCursor(cursor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R cached(Object key, Supplier<R> execution) {
+        if (key == null) {
+            return execution.get();
+        }
+        final R cached = (R) results.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        // the backend is called outside of the cache, a slow search must not block the access to other entries
+        final long executionGeneration = generation.get();
+        final R result = execution.get();
+        if (result != null && generation.get() == executionGeneration) {
+            results.put(key, result);
+            // an invalidation between the check and the put may have missed the result
+            if (generation.get() != executionGeneration) {
+                results.invalidate(key);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the cache key of a search, null if the search must not be cached.
+     */
+    static Object searchKey(FulltextSearch search, Object resultType) {
+        final ResultSubset resultSet = search.getResultSet();
+        if (resultSet != null && resultSet.getType() == ResultSubset.DivisionType.cursor) {
+            return null;
+        }
+        try {
+            return Arrays.asList("search", resultType, search.getCanonicalKey());
+        } catch (RuntimeException e) {
+            log.debug("Search {} is not cached: {}", search, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the cache key of a suggestion search, null if the search must not be cached.
+     */
+    static Object suggestionKey(ExecutableSuggestionSearch search, Object resultType, DocumentFactory childFactory) {
+        final Object filterKey = filterKey(search.getFilter());
+        final Collection<String> fields;
+        if (search instanceof StringSuggestionSearch) {
+            fields = new TreeSet<>(((StringSuggestionSearch) search).getSuggestionFields());
+        } else if (search instanceof DescriptorSuggestionSearch) {
+            fields = ((DescriptorSuggestionSearch) search).getSuggestionFields().stream()
+                    .map(FieldDescriptor::getName)
+                    .collect(Collectors.toCollection(TreeSet::new));
+        } else {
+            return null;
+        }
+        return Arrays.asList("suggestion", resultType, childFactory, search.isStringSuggestion(), search.getInput(),
+                fields, filterKey, String.valueOf(search.getSort()), search.getLimit(), search.getSearchContext(),
+                search.getFulltextTerm()
+                        .map(term -> Arrays.asList(term.getFulltextSearchTerm(), term.getMinimumMatch()))
+                        .orElse(null));
+    }
+
+    /**
+     * @return the cache key of a real time get.
+     */
+    static Object getKey(RealTimeGet search, Object resultType) {
+        return Arrays.asList("get", resultType, search.getValues());
+    }
+
+    /**
+     * @return the {@link com.rbmhtechnology.vind.api.query.CanonicalKey} of the filter, which unlike the string
+     * representation of the filter also holds its scope and the types of its values.
+     */
+    private static Object filterKey(Filter filter) {
+        return filter == null ? Collections.emptyList() : filter.getCanonicalKey();
+    }
+}
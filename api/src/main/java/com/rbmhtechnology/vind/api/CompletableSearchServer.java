@@ -16,6 +16,7 @@ import com.rbmhtechnology.vind.api.result.InverseSearchResult;
 import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.api.result.StatusResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.api.result.UpdateResult;
 import com.rbmhtechnology.vind.configure.SearchConfiguration;
 import com.rbmhtechnology.vind.model.DocumentFactory;
 import com.rbmhtechnology.vind.model.InverseSearchQuery;
@@ -26,6 +27,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -86,14 +88,14 @@ public class CompletableSearchServer extends SearchServer {
     }
     @Deprecated
     public CompletableFuture<IndexResult> indexBeanAsync(Object t, Executor executor) {
-        return indexAsync(executor,AnnotationUtil.createDocument(t));
+        return indexAsync(executor,AnnotationUtil.toDocument(t));
     }
 
     public CompletableFuture<IndexResult> indexBeanAsync(Executor executor, Object ... t) {
         List<Document> beanDocuments = new ArrayList<>();
 
         for (Object bean : t){
-            beanDocuments.add(AnnotationUtil.createDocument(bean));
+            beanDocuments.add(AnnotationUtil.toDocument(bean));
         }
         return indexAsync(executor,beanDocuments);
     }
@@ -102,7 +104,7 @@ public class CompletableSearchServer extends SearchServer {
         List<Document> beanDocuments = new ArrayList<>();
 
         for (Object bean : t){
-            beanDocuments.add(AnnotationUtil.createDocument(bean));
+            beanDocuments.add(AnnotationUtil.toDocument(bean));
         }
         return indexAsync(executor,beanDocuments);
     }
@@ -156,7 +158,7 @@ public class CompletableSearchServer extends SearchServer {
     }
 
     public CompletableFuture<Void> deleteBeanAsync(Object t, Executor executor) {
-        return deleteAsync(AnnotationUtil.createDocument(t), executor);
+        return deleteAsync(AnnotationUtil.toDocument(t), executor);
     }
 
     public CompletableFuture<Void> deleteAsyncWithin(Document doc, int withinMs) {
@@ -187,6 +189,14 @@ public class CompletableSearchServer extends SearchServer {
         return CompletableFuture.runAsync(() -> this.execute(update, factory), executor);
     }
 
+    public CompletableFuture<UpdateResult> executeAsync(List<Update> updates, DocumentFactory factory) {
+        return executeAsync(updates, factory, executor);
+    }
+
+    public CompletableFuture<UpdateResult> executeAsync(List<Update> updates, DocumentFactory factory, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> this.execute(updates, factory), executor);
+    }
+
     public CompletableFuture<Void> executeAsync(Delete delete, DocumentFactory factory, Executor executor) {
         return CompletableFuture.runAsync(() -> this.execute(delete, factory), executor);
     }
@@ -271,11 +281,21 @@ public class CompletableSearchServer extends SearchServer {
         return backend.indexWithin(doc, withinMs);
     }
 
+    @Override
+    public BulkIndexer bulkIndexer(BulkIndexer.Options options) {
+        return backend.bulkIndexer(options);
+    }
+
     @Override
     public boolean execute(Update update, DocumentFactory factory) {
         return backend.execute(update, factory);
     }
 
+    @Override
+    public UpdateResult execute(List<Update> updates, DocumentFactory factory) {
+        return backend.execute(updates, factory);
+    }
+
     @Override
     public DeleteResult execute(Delete delete, DocumentFactory factory) {
         return backend.execute(delete, factory);
@@ -306,6 +326,11 @@ public class CompletableSearchServer extends SearchServer {
         return backend.execute(search, factory);
     }
 
+    @Override
+    public DocumentExport export(FulltextSearch search, DocumentFactory factory) {
+        return backend.export(search, factory);
+    }
+
     @Override
     public String getRawQuery(FulltextSearch search, DocumentFactory factory) {
         return backend.getRawQuery(search,factory);
@@ -361,6 +386,11 @@ public class CompletableSearchServer extends SearchServer {
         return backend.execute(inverseSearch, factory);
     }
 
+    @Override
+    public Stream<InverseSearchResult> stream(InverseSearch inverseSearch, DocumentFactory factory) {
+        return backend.stream(inverseSearch, factory);
+    }
+
     @Override
     public IndexResult addInverseSearchQuery(InverseSearchQuery query) {
         return backend.addInverseSearchQuery(query);
@@ -0,0 +1,156 @@
+package com.rbmhtechnology.vind.api;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.rbmhtechnology.vind.SearchServerException;
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.division.Cursor;
+import com.rbmhtechnology.vind.api.query.division.ResultSubset;
+import com.rbmhtechnology.vind.api.result.CursorResult;
+import com.rbmhtechnology.vind.api.result.SearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over all the {@link Document}s matching a cursor search, page by page. While the caller consumes a page the
+ * next one is already fetched in the background, and no further page is requested until the current one has been
+ * consumed, so at most two pages are held in memory. The export closes itself, and the cursor of the last result, once
+ * the last document has been returned; if it is abandoned before, {@link #close()} has to be called to stop the
+ * prefetching.
+ */
+public class DocumentExport implements Iterator<Document>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentExport.class);
+
+    private final Function<FulltextSearch, ? extends SearchResult> pages;
+    private final ExecutorService prefetcher;
+
+    private Future<? extends SearchResult> next;
+    private SearchResult last;
+    private Iterator<Document> current = Collections.emptyIterator();
+    private boolean closed;
+
+    /**
+     * Creates a new export and starts fetching the first page.
+     * @param search {@link FulltextSearch} with a {@link Cursor} result set, the size of the cursor is the page size.
+     * @param pages executes a cursor search, the {@link Cursor} of the search of the returned result points to the
+     *              next page.
+     */
+    public DocumentExport(FulltextSearch search, Function<FulltextSearch, ? extends SearchResult> pages) {
+        Objects.requireNonNull(search, "Search to export should not be null.");
+        if (search.getResultSet().getType() != ResultSubset.DivisionType.cursor) {
+            throw new IllegalArgumentException("Search result set is not configured as cursor: Result set type is "
+                    + search.getResultSet().getType());
+        }
+        this.pages = Objects.requireNonNull(pages);
+        this.prefetcher = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("vind-export-%d").setDaemon(true).build());
+        this.next = prefetch(search);
+    }
+
+    /**
+     * @return a sequential {@link Stream} of the exported documents, closing the stream closes the export.
+     */
+    public Stream<Document> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        while (!current.hasNext()) {
+            if (closed || next == null) {
+                close();
+                return false;
+            }
+            final SearchResult result = await(next);
+            next = hasMore(result) ? prefetch(result.getQuery()) : null;
+            last = result;
+            current = result.getResults().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized Document next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Stops prefetching, drops the pending documents and closes the cursor of the last result.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        current = Collections.emptyIterator();
+        if (next != null) {
+            next.cancel(true);
+            next = null;
+        }
+        prefetcher.shutdownNow();
+        if (last instanceof CursorResult) {
+            try {
+                ((CursorResult) last).closeCursor();
+            } catch (RuntimeException e) {
+                log.warn("Unable to close cursor {}: {}", ((CursorResult) last).getSearchAfter(), e.getMessage(), e);
+            }
+        }
+        last = null;
+    }
+
+    private Future<? extends SearchResult> prefetch(FulltextSearch search) {
+        final FulltextSearch page = search.copy();
+        return prefetcher.submit(() -> pages.apply(page));
+    }
+
+    /**
+     * @return true if the result is a full page and moved the cursor forward.
+     */
+    private boolean hasMore(SearchResult result) {
+        if (!(result.getQuery().getResultSet() instanceof Cursor)) {
+            close();
+            throw new SearchServerException("Export page is not a cursor result: Result set type is "
+                    + result.getQuery().getResultSet().getType());
+        }
+        final Cursor cursor = (Cursor) result.getQuery().getResultSet();
+        final String used = last == null ? null : ((Cursor) last.getQuery().getResultSet()).getSearchAfter();
+        return result.getResults().size() >= cursor.getSize()
+                && cursor.getSearchAfter() != null
+                && !cursor.getSearchAfter().equals(used);
+    }
+
+    private SearchResult await(Future<? extends SearchResult> page) {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new SearchServerException("Interrupted while waiting for the next page of the export", e);
+        } catch (ExecutionException e) {
+            close();
+            if (e.getCause() instanceof SearchServerException) {
+                throw (SearchServerException) e.getCause();
+            }
+            throw new SearchServerException("Cannot fetch the next page of the export: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
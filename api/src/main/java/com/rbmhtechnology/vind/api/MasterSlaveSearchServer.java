@@ -15,11 +15,13 @@ import com.rbmhtechnology.vind.api.result.InverseSearchResult;
 import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.api.result.StatusResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.api.result.UpdateResult;
 import com.rbmhtechnology.vind.model.DocumentFactory;
 import com.rbmhtechnology.vind.model.InverseSearchQuery;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class MasterSlaveSearchServer extends SearchServer {
 
@@ -105,6 +107,12 @@ public class MasterSlaveSearchServer extends SearchServer {
         return backend.execute(update, factory);
     }
 
+    @Override
+    public UpdateResult execute(List<Update> updates, DocumentFactory factory) {
+        slaveBackend.executeAsync(updates, factory);
+        return backend.execute(updates, factory);
+    }
+
     @Override
     public DeleteResult execute(Delete delete, DocumentFactory factory) {
         slaveBackend.executeAsync(delete, factory);
@@ -127,6 +135,11 @@ public class MasterSlaveSearchServer extends SearchServer {
         return backend.execute(search, factory);
     }
 
+    @Override
+    public DocumentExport export(FulltextSearch search, DocumentFactory factory) {
+        return backend.export(search, factory);
+    }
+
     @Override
     public String getRawQuery(FulltextSearch search, DocumentFactory factory) {
         return backend.getRawQuery(search, factory);
@@ -182,6 +195,11 @@ public class MasterSlaveSearchServer extends SearchServer {
         return backend.execute(inverseSearch, factory);
     }
 
+    @Override
+    public Stream<InverseSearchResult> stream(InverseSearch inverseSearch, DocumentFactory factory) {
+        return backend.stream(inverseSearch, factory);
+    }
+
     @Override
     public IndexResult addInverseSearchQuery(InverseSearchQuery query) {
         return backend.addInverseSearchQuery(query);
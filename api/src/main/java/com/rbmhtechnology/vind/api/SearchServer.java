@@ -6,6 +6,9 @@ import com.rbmhtechnology.vind.SearchServerProviderLoaderException;
 import com.rbmhtechnology.vind.annotations.AnnotationUtil;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
 import com.rbmhtechnology.vind.api.query.delete.Delete;
+import com.rbmhtechnology.vind.api.query.division.Page;
+import com.rbmhtechnology.vind.api.query.division.ResultSubset;
+import com.rbmhtechnology.vind.api.query.division.Slice;
 import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
 import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearch;
 import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
@@ -19,6 +22,7 @@ import com.rbmhtechnology.vind.api.result.InverseSearchResult;
 import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.api.result.StatusResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.api.result.UpdateResult;
 import com.rbmhtechnology.vind.configure.SearchConfiguration;
 import com.rbmhtechnology.vind.model.DocumentFactory;
 import com.rbmhtechnology.vind.model.InverseSearchQuery;
@@ -32,6 +36,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Abstract class  which offers a common set of methods to be implemented by the specific server implementations
@@ -45,6 +56,8 @@ public abstract class SearchServer implements Closeable {
 
     protected static Logger log = LoggerFactory.getLogger(SearchServer.class);
 
+    private static final long EXPORT_CURSOR_MINUTES = 5;
+
     /**
      * Gets a {@link SearchServer} implementation object defined in the classpath from the ServiceLoader.
      * @return {@link SearchServer} specific implementation.
@@ -164,7 +177,7 @@ public abstract class SearchServer implements Closeable {
         List<Document> beanDocuments = new ArrayList<>();
 
         for (Object bean : t){
-            beanDocuments.add(AnnotationUtil.createDocument(bean));
+            beanDocuments.add(AnnotationUtil.toDocument(bean));
         }
 
         index(beanDocuments);
@@ -175,7 +188,7 @@ public abstract class SearchServer implements Closeable {
         List<Document> beanDocuments = new ArrayList<>();
 
         for (Object bean : t){
-            beanDocuments.add(AnnotationUtil.createDocument(bean));
+            beanDocuments.add(AnnotationUtil.toDocument(bean));
         }
 
         index(beanDocuments);
@@ -203,7 +216,7 @@ public abstract class SearchServer implements Closeable {
      * @throws SearchServerException if not possible to perform the deletion.
      */
     public DeleteResult deleteBean(Object t) {
-        return delete((Document) AnnotationUtil.createDocument(t));
+        return delete((Document) AnnotationUtil.toDocument(t));
     }
 
     /**
@@ -246,6 +259,32 @@ public abstract class SearchServer implements Closeable {
      */
     public abstract IndexResult indexWithin(List<Document> doc, int withinMs);
 
+    /**
+     * Creates a {@link BulkIndexer} with the default {@link BulkIndexer.Options}, which sends the documents added to
+     * it asynchronously in bulk requests. The indexer has to be closed to release its threads.
+     * @return a new {@link BulkIndexer} for this server.
+     */
+    public BulkIndexer bulkIndexer() {
+        return bulkIndexer(new BulkIndexer.Options());
+    }
+
+    /**
+     * Creates a {@link BulkIndexer}, which sends the documents added to it asynchronously in bulk requests. The
+     * indexer has to be closed to release its threads. The default implementation sends each bulk with
+     * {@link #index(List)}, so the documents of a bulk fail together; backends override it to report the failures
+     * per document.
+     * @param options {@link BulkIndexer.Options} of the indexer.
+     * @return a new {@link BulkIndexer} for this server.
+     */
+    public BulkIndexer bulkIndexer(BulkIndexer.Options options) {
+        return new BulkIndexer(options) {
+            @Override
+            protected IndexResult indexBatch(List<Document> documents, int withinMs, BiConsumer<Document, Exception> failures) {
+                return withinMs < 0 ? index(documents) : indexWithin(documents, withinMs);
+            }
+        };
+    }
+
     /**
      * Removes a {@link Document} from the search server index. {@link SearchServer#commit()} should be executed afterwards for
      * this change to take place on the  index.
@@ -273,6 +312,23 @@ public abstract class SearchServer implements Closeable {
      */
     public abstract boolean execute(Update update, DocumentFactory factory);
 
+    /**
+     * Changes several documents in the index, based on the modifications described by each {@link Update}. Backends
+     * should override this to send the updates in bulk, the default implementation executes them one by one.
+     * @param updates {@link Update} modifications to do on documents of the same type.
+     * @param factory {@link DocumentFactory} factory with the document schema.
+     * @return {@link UpdateResult} telling for each document id whether the update has been applied.
+     * @throws SearchServerException if not possible to execute the updates.
+     */
+    public UpdateResult execute(List<Update> updates, DocumentFactory factory) {
+        final long start = System.currentTimeMillis();
+        final UpdateResult result = new UpdateResult();
+        for (Update update : updates) {
+            result.addResult(update.getId(), execute(update, factory));
+        }
+        return result.setElapsedTime(System.currentTimeMillis() - start);
+    }
+
     /**
      * Deletes Documents which match the {@link Delete} filter configuration.
      * @param delete A Delete filter configured.
@@ -315,6 +371,32 @@ public abstract class SearchServer implements Closeable {
      */
     public abstract SearchResult execute(FulltextSearch search, DocumentFactory factory);
 
+    /**
+     * Exports all the documents matching a fulltext search, walking through them with a cursor. The next page is
+     * fetched in the background while the current one is consumed, see {@link DocumentExport}. If the search has no
+     * {@link com.rbmhtechnology.vind.api.query.division.Cursor} result set, pages of
+     * {@link SearchConfiguration#EXPORT_PAGE_SIZE} documents are used. The export has to be closed if it is not
+     * consumed to the end.
+     * @param search {@link FulltextSearch} search query configuration object, its facets and spellchecking are ignored.
+     * @param factory {@link DocumentFactory} mapping the index documents and the result type.
+     * @return a {@link DocumentExport} iterating over the documents, see {@link DocumentExport#stream()}.
+     * @throws SearchServerException if not possible to execute the full text search.
+     */
+    public DocumentExport export(FulltextSearch search, DocumentFactory factory) {
+        return new DocumentExport(exportSearch(search), page -> execute(page, factory));
+    }
+
+    /**
+     * @return a copy of the search paging with a cursor, without facets and spellchecking.
+     */
+    protected static FulltextSearch exportSearch(FulltextSearch search) {
+        final FulltextSearch export = search.copy().clearFacets().spellcheck(false);
+        if (search.getResultSet().getType() == ResultSubset.DivisionType.cursor) {
+            return export;
+        }
+        return export.cursor(EXPORT_CURSOR_MINUTES, SearchConfiguration.get(SearchConfiguration.EXPORT_PAGE_SIZE, 1000));
+    }
+
     /**
      * Return the raw query sent produced by the server implementation.
      * @param search {@link FulltextSearch} search query configuration object.
@@ -414,8 +496,63 @@ public abstract class SearchServer implements Closeable {
      */
     public abstract InverseSearchResult execute(InverseSearch inverseSearch, DocumentFactory factory);
 
+    /**
+     * Percolates a batch of documents and streams all the matching queries, one result per page or slice of the
+     * {@link InverseSearch}. The next result is only requested once the former one has been consumed, and each result
+     * tells which of its queries every document matches, see {@link InverseSearchResult#getDocumentMatches()}.
+     * @param inverseSearch {@link InverseSearch} holding the batch of documents, its result set is the first page or
+     *                      slice to retrieve.
+     * @param factory {@link DocumentFactory} mapping the index documents and the result type.
+     * @return a sequential {@link Stream} of the results.
+     * @throws SearchServerException if not possible to execute the inverse search.
+     */
+    public Stream<InverseSearchResult> stream(InverseSearch inverseSearch, DocumentFactory factory) {
+        // backends should percolate only once and page through the matches instead of executing every page
+        return streamPages(inverseSearch, page -> execute(page, factory));
+    }
+
+    /**
+     * Streams the results of an inverse search page by page or slice by slice, see
+     * {@link #stream(InverseSearch, DocumentFactory)}.
+     * @param inverseSearch {@link InverseSearch} whose result set is the first page or slice to retrieve.
+     * @param pages gets the result of an inverse search for its page or slice, it is called in order.
+     * @return a sequential {@link Stream} of the results.
+     */
+    protected static Stream<InverseSearchResult> streamPages(InverseSearch inverseSearch,
+                                                             Function<InverseSearch, InverseSearchResult> pages) {
+        final Spliterator<InverseSearchResult> results = new Spliterators.AbstractSpliterator<InverseSearchResult>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private InverseSearch next = inverseSearch;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super InverseSearchResult> action) {
+                if (next == null) {
+                    return false;
+                }
+                final InverseSearchResult result = pages.apply(next);
+                final long end;
+                if (next.getResultSet() instanceof Slice) {
+                    final Slice slice = (Slice) next.getResultSet();
+                    end = (long) slice.getOffset() + slice.getSliceSize();
+                    next = next.copy().slice(slice.getOffset() + slice.getSliceSize(), slice.getSliceSize());
+                } else {
+                    final Page page = (Page) next.getResultSet();
+                    end = (long) page.getPage() * page.getPagesize();
+                    next = next.copy().page(page.next());
+                }
+                if (result.getResults().isEmpty() || end >= result.getNumOfResults()) {
+                    next = null;
+                }
+                action.accept(result);
+                return true;
+            }
+        };
+        return StreamSupport.stream(results, false);
+    }
+
     /**
      * Adds a {@link InverseSearchQuery} to the index. If the query already exists it will be updated.
+     * {@link SearchServer#commit()} should be executed afterwards for this change to take place on the index.
      * @param query {@link InverseSearchQuery} to be stored.
      * @return {@link IndexResult} containing the time information.
      */
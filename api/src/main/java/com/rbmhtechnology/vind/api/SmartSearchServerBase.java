@@ -40,7 +40,7 @@ public abstract class SmartSearchServerBase extends SearchServer {
     }
 
     protected <T> FulltextSearch smartParse(FulltextSearch search, Class<T> c) {
-        final DocumentFactory factory = AnnotationUtil.createDocumentFactory(c);
+        final DocumentFactory factory = AnnotationUtil.getDocumentFactory(c);
         return smartParse(search, factory);
     }
 
@@ -0,0 +1,407 @@
+package com.rbmhtechnology.vind.api.query;
+
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.UnsignedBytes;
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.api.query.distance.Distance;
+import com.rbmhtechnology.vind.api.query.division.Cursor;
+import com.rbmhtechnology.vind.api.query.division.Page;
+import com.rbmhtechnology.vind.api.query.division.ResultSubset;
+import com.rbmhtechnology.vind.api.query.division.Slice;
+import com.rbmhtechnology.vind.api.query.facet.Facet;
+import com.rbmhtechnology.vind.api.query.facet.Interval;
+import com.rbmhtechnology.vind.api.query.facet.TermFacetOption;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.api.query.filter.FilterCodec;
+import com.rbmhtechnology.vind.api.query.sort.Sort;
+import com.rbmhtechnology.vind.model.ComplexFieldDescriptor;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+import com.rbmhtechnology.vind.model.value.LatLng;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, canonical form of a {@link Filter}, {@link Facet} or {@link FulltextSearch}, usable as key of caches.
+ * The parts of a query which have no order, the children of AND and OR filters, the facets or the intervals of a
+ * facet, are written sorted, so queries built in a different order get the same key. Like filters by the
+ * {@link FilterCodec}, facets, sorts and the other parts of a search are written explicitly by type, parts of other
+ * types have no key. A 64 bit hash of the key is computed once when it is created.
+ */
+public final class CanonicalKey implements Comparable<CanonicalKey>, Serializable {
+
+    private static final Comparator<byte[]> BYTE_ORDER = UnsignedBytes.lexicographicalComparator();
+    private static final int MAX_DEPTH = 32;
+
+    private static final byte NULL = 0;
+    private static final byte FILTER = 1;
+    private static final byte STRING = 2;
+    private static final byte VALUE = 3;
+    private static final byte ENUM = 4;
+    private static final byte DESCRIPTOR = 5;
+    private static final byte FACTORY = 6;
+    private static final byte SORTED = 7;
+    private static final byte ORDERED = 8;
+    private static final byte SEARCH = 9;
+    private static final byte FACET = 10;
+    private static final byte TERM_FACET_OPTION = 11;
+    private static final byte INTERVAL = 12;
+    private static final byte SORT = 13;
+    private static final byte RESULT_SET = 14;
+    private static final byte DISTANCE = 15;
+    private static final byte DATE_MATH = 16;
+    private static final byte LAT_LNG = 17;
+    private static final byte PAIR = 18;
+
+    private final byte[] bytes;
+    private final long hash;
+
+    private CanonicalKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Hashing.murmur3_128().hashBytes(bytes).asLong();
+    }
+
+    /**
+     * Creates the key of a filter. Filters the {@link FilterCodec} can encode are keyed by their encoding, other ones
+     * by their type, scope and string representation.
+     * @param filter {@link Filter} to create the key for.
+     * @return the {@link CanonicalKey} of the filter.
+     */
+    public static CanonicalKey of(Filter filter) {
+        try {
+            return new CanonicalKey(FilterCodec.encode(filter));
+        } catch (IOException e) {
+            final String fallback = filter.getClass().getName() + ':' + filter.getFilterScope() + ':' + filter;
+            return new CanonicalKey(fallback.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Creates the key of a facet.
+     * @param facet {@link Facet} to create the key for.
+     * @return the {@link CanonicalKey} of the facet.
+     * @throws IllegalArgumentException if the facet, or a part of it, has no canonical form.
+     */
+    public static CanonicalKey of(Facet facet) {
+        return new CanonicalKey(write(facet));
+    }
+
+    /**
+     * Creates the key of a fulltext search, covering everything which changes its result: search term, filter,
+     * facets, sorting, result subset, nested document search, geo distance, context and spellchecking.
+     * @param search {@link FulltextSearch} to create the key for.
+     * @return the {@link CanonicalKey} of the search.
+     * @throws IllegalArgumentException if a part of the search has no canonical form.
+     */
+    public static CanonicalKey of(FulltextSearch search) {
+        return new CanonicalKey(write(Arrays.asList(
+                search.getSearchString(),
+                search.getMinimumShouldMatch(),
+                search.getFilter(),
+                search.getFacets(),
+                search.getFacetMinCount(),
+                search.getFacetLimit(),
+                search.getSorting(),
+                search.getResultSet(),
+                search.isChildrenSearchEnabled(),
+                search.getChildrenSearchOperator(),
+                search.getChildrenFactory(),
+                search.getChildrenSearches(),
+                search.getTimeZone(),
+                search.getGeoDistance(),
+                search.getSearchContext(),
+                search.getStrict(),
+                search.isSpellcheck(),
+                search.isSmartParsing(),
+                search.isEscapeCharacter())));
+    }
+
+    /**
+     * @return the 64 bit hash of the key.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return a copy of the canonical bytes of the key.
+     */
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final CanonicalKey that = (CanonicalKey) o;
+        return hash == that.hash && Arrays.equals(bytes, that.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public int compareTo(CanonicalKey o) {
+        return BYTE_ORDER.compare(bytes, o.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x", hash);
+    }
+
+    private static byte[] write(Object value) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeValue(out, value, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeValue(DataOutputStream out, Object value, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Query is nested too deep to create a canonical key");
+        }
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Filter) {
+            out.writeByte(FILTER);
+            writeBytes(out, ((Filter) value).getCanonicalKey().bytes);
+        } else if (value instanceof CharSequence) {
+            out.writeByte(STRING);
+            writeString(out, value.toString());
+        } else if (value instanceof Enum) {
+            out.writeByte(ENUM);
+            writeString(out, ((Enum<?>) value).getDeclaringClass().getName());
+            writeString(out, ((Enum<?>) value).name());
+        } else if (value instanceof FieldDescriptor) {
+            writeDescriptor(out, (FieldDescriptor<?>) value);
+        } else if (value instanceof DocumentFactory) {
+            out.writeByte(FACTORY);
+            writeString(out, ((DocumentFactory) value).getType());
+        } else if (value instanceof Map) {
+            final List<byte[]> entries = new ArrayList<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                entries.add(write(depth, entry.getKey(), entry.getValue()));
+            }
+            writeSorted(out, entries);
+        } else if (value instanceof Set) {
+            final List<byte[]> elements = new ArrayList<>();
+            for (Object element : (Set<?>) value) {
+                elements.add(write(depth, element));
+            }
+            writeSorted(out, elements);
+        } else if (value instanceof Collection) {
+            out.writeByte(ORDERED);
+            out.writeInt(((Collection<?>) value).size());
+            for (Object element : (Collection<?>) value) {
+                writeValue(out, element, depth + 1);
+            }
+        } else if (value.getClass().isArray()) {
+            final int length = Array.getLength(value);
+            out.writeByte(ORDERED);
+            out.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                writeValue(out, Array.get(value, i), depth + 1);
+            }
+        } else if (value instanceof FulltextSearch) {
+            out.writeByte(SEARCH);
+            writeBytes(out, ((FulltextSearch) value).getCanonicalKey().bytes);
+        } else if (value instanceof Facet) {
+            writeFacet(out, (Facet) value, depth);
+        } else if (value instanceof TermFacetOption) {
+            final TermFacetOption option = (TermFacetOption) value;
+            out.writeByte(TERM_FACET_OPTION);
+            writeValues(out, depth, option.getOffset(), option.getLimit(), option.getSort(), option.getOverrequest(),
+                    option.isRefine(), option.getOverrefine(), option.getMincount(), option.isMissing(),
+                    option.isNumBuckets(), option.isAllBuckets(), option.getPrefix(), option.getMethod());
+        } else if (value instanceof Interval) {
+            final Interval<?> interval = (Interval<?>) value;
+            out.writeByte(INTERVAL);
+            writeType(out, interval, Interval.class);
+            writeValues(out, depth, interval.getName(), interval.includesStart(), interval.includesEnd(),
+                    interval.getStart(), interval.getEnd());
+        } else if (value instanceof Sort) {
+            writeSort(out, (Sort) value, depth);
+        } else if (value instanceof ResultSubset) {
+            writeResultSet(out, (ResultSubset) value, depth);
+        } else if (value instanceof Distance) {
+            final Distance distance = (Distance) value;
+            out.writeByte(DISTANCE);
+            writeValues(out, depth, distance.getFieldName(), distance.getField(), distance.getLocation());
+        } else if (value instanceof DateMathExpression) {
+            // the date math syntax sent to the backends
+            out.writeByte(DATE_MATH);
+            writeString(out, value.toString());
+        } else if (value instanceof LatLng) {
+            out.writeByte(LAT_LNG);
+            out.writeDouble(((LatLng) value).getLat());
+            out.writeDouble(((LatLng) value).getLng());
+        } else if (value instanceof Pair) {
+            out.writeByte(PAIR);
+            writeValues(out, depth, ((Pair<?, ?>) value).getLeft(), ((Pair<?, ?>) value).getRight());
+        } else if (value.getClass().getName().startsWith("java.")) {
+            // numbers, dates and other value types of the JDK
+            out.writeByte(VALUE);
+            writeString(out, value.getClass().getName());
+            writeString(out, value.toString());
+        } else {
+            throw new IllegalArgumentException("No canonical form for " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Writes a field descriptor with everything which decides the backend fields it is searched in, not only its name.
+     */
+    private static void writeDescriptor(DataOutputStream out, FieldDescriptor<?> descriptor) throws IOException {
+        out.writeByte(DESCRIPTOR);
+        writeString(out, descriptor.getClass().getName());
+        writeString(out, descriptor.getName());
+        writeString(out, descriptor.getType().getName());
+        if (descriptor instanceof ComplexFieldDescriptor) {
+            final ComplexFieldDescriptor<?, ?, ?> complex = (ComplexFieldDescriptor<?, ?, ?>) descriptor;
+            writeString(out, String.valueOf(complex.getFacetType()));
+            writeString(out, String.valueOf(complex.getStoreType()));
+        }
+        writeString(out, String.valueOf(descriptor.getLanguage()));
+        out.writeFloat(descriptor.getBoost());
+        out.writeBoolean(descriptor.isMultiValue());
+        out.writeBoolean(descriptor.isStored());
+        out.writeBoolean(descriptor.isIndexed());
+        out.writeBoolean(descriptor.isFullText());
+        out.writeBoolean(descriptor.isFacet());
+        out.writeBoolean(descriptor.isSuggest());
+        out.writeBoolean(descriptor.isSort());
+        out.writeBoolean(descriptor.isContextualized());
+    }
+
+    private static void writeFacet(DataOutputStream out, Facet facet, int depth) throws IOException {
+        out.writeByte(FACET);
+        writeType(out, facet, Facet.class);
+        writeValues(out, depth, facet.getFacetName(), facet.getName(), facet.getScope(), facet.getTagedPivots(),
+                facet.getSize().orElse(null), facet.getSortings());
+        if (facet instanceof Facet.TermFacet) {
+            final Facet.TermFacet<?> termFacet = (Facet.TermFacet<?>) facet;
+            writeValues(out, depth, termFacet.getFieldName(), termFacet.getFieldDescriptor(), termFacet.getOption());
+        } else if (facet instanceof Facet.NumericRangeFacet) {
+            final Facet.NumericRangeFacet<?> rangeFacet = (Facet.NumericRangeFacet<?>) facet;
+            writeValues(out, depth, rangeFacet.getFieldDescriptor(), rangeFacet.getStart(), rangeFacet.getEnd(),
+                    rangeFacet.getGap());
+        } else if (facet instanceof Facet.DateRangeFacet) {
+            final Facet.DateRangeFacet<?> rangeFacet = (Facet.DateRangeFacet<?>) facet;
+            writeValues(out, depth, rangeFacet.getFieldDescriptor(), rangeFacet.getStart(), rangeFacet.getEnd(),
+                    rangeFacet.getGap(), rangeFacet.getGapUnits());
+        } else if (facet instanceof Facet.IntervalFacet) {
+            final Facet.IntervalFacet<?> intervalFacet = (Facet.IntervalFacet<?>) facet;
+            writeValues(out, depth, intervalFacet.getFieldDescriptor(), intervalFacet.getIntervals());
+        } else if (facet instanceof Facet.PivotFacet) {
+            final Facet.PivotFacet pivotFacet = (Facet.PivotFacet) facet;
+            writeValues(out, depth, pivotFacet.getBuckets(), pivotFacet.getPage().orElse(null));
+        } else if (facet instanceof Facet.QueryFacet) {
+            writeValues(out, depth, ((Facet.QueryFacet) facet).getFilter());
+        } else if (facet instanceof Facet.StatsFacet) {
+            final Facet.StatsFacet<?> statsFacet = (Facet.StatsFacet<?>) facet;
+            writeValues(out, depth, statsFacet.getField(), statsFacet.getMin(), statsFacet.getMax(),
+                    statsFacet.getSum(), statsFacet.getCount(), statsFacet.getMissing(), statsFacet.getSumOfSquares(),
+                    statsFacet.getMean(), statsFacet.getStddev(), statsFacet.getPercentiles(),
+                    statsFacet.getDistinctValues(), statsFacet.getCountDistinct(), statsFacet.getCardinality());
+        } else if (!(facet instanceof Facet.TypeFacet || facet instanceof Facet.SubdocumentFacet)) {
+            throw new IllegalArgumentException("No canonical form for facet " + facet.getClass().getName());
+        }
+    }
+
+    private static void writeSort(DataOutputStream out, Sort sort, int depth) throws IOException {
+        out.writeByte(SORT);
+        writeType(out, sort, Sort.class);
+        writeValues(out, depth, sort.getDirection());
+        if (sort instanceof Sort.SimpleSort) {
+            writeValues(out, depth, ((Sort.SimpleSort) sort).getField());
+        } else if (sort instanceof Sort.DescriptorSort) {
+            writeValues(out, depth, ((Sort.DescriptorSort) sort).getDescriptor());
+        } else if (sort instanceof Sort.SpecialSort.ScoredDate) {
+            writeValues(out, depth, ((Sort.SpecialSort.ScoredDate) sort).getDescriptor());
+        } else if (sort instanceof Sort.SpecialSort.NumberOfMatchingTermsSort) {
+            writeValues(out, depth, ((Sort.SpecialSort.NumberOfMatchingTermsSort) sort).getDescriptor());
+        } else if (!(sort instanceof Sort.SpecialSort.DistanceSort || sort instanceof Sort.SpecialSort.Score)) {
+            throw new IllegalArgumentException("No canonical form for sort " + sort.getClass().getName());
+        }
+    }
+
+    private static void writeResultSet(DataOutputStream out, ResultSubset resultSet, int depth) throws IOException {
+        out.writeByte(RESULT_SET);
+        if (resultSet instanceof Page) {
+            writeValues(out, depth, resultSet.getType(), ((Page) resultSet).getPage(), ((Page) resultSet).getPagesize());
+        } else if (resultSet instanceof Slice) {
+            writeValues(out, depth, resultSet.getType(), ((Slice) resultSet).getOffset(), ((Slice) resultSet).getSliceSize());
+        } else if (resultSet instanceof Cursor) {
+            final Cursor cursor = (Cursor) resultSet;
+            writeValues(out, depth, resultSet.getType(), cursor.getSearchAfter(), cursor.getSize(),
+                    cursor.getMinutesKeptAlive());
+        } else {
+            throw new IllegalArgumentException("No canonical form for result set " + resultSet.getClass().getName());
+        }
+    }
+
+    /**
+     * Writes the class of a facet, sort or interval. Subclasses declared outside of the base class are rejected, as
+     * their own state would not be part of the key.
+     */
+    private static void writeType(DataOutputStream out, Object value, Class<?> base) throws IOException {
+        final String type = value.getClass().getName();
+        if (!type.equals(base.getName()) && !type.startsWith(base.getName() + '$')) {
+            throw new IllegalArgumentException("No canonical form for " + type);
+        }
+        writeString(out, type);
+    }
+
+    private static void writeValues(DataOutputStream out, int depth, Object... values) throws IOException {
+        for (Object value : values) {
+            writeValue(out, value, depth + 1);
+        }
+    }
+
+    private static byte[] write(int depth, Object... values) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeValues(out, depth, values);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeSorted(DataOutputStream out, List<byte[]> elements) throws IOException {
+        elements.sort(BYTE_ORDER);
+        out.writeByte(SORTED);
+        out.writeInt(elements.size());
+        for (byte[] element : elements) {
+            writeBytes(out, element);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+}
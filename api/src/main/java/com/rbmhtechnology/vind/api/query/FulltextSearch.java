@@ -8,6 +8,7 @@ import com.rbmhtechnology.vind.api.query.division.Slice;
 import com.rbmhtechnology.vind.api.query.facet.Facet;
 import com.rbmhtechnology.vind.api.query.facet.Facets;
 import com.rbmhtechnology.vind.api.query.facet.TermFacetOption;
+import com.rbmhtechnology.vind.api.query.filter.DateMathRounding;
 import com.rbmhtechnology.vind.api.query.filter.Filter;
 import com.rbmhtechnology.vind.api.query.sort.Sort;
 import com.rbmhtechnology.vind.configure.SearchConfiguration;
@@ -21,10 +22,10 @@ import org.apache.commons.lang3.StringEscapeUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
@@ -39,7 +40,7 @@ public class FulltextSearch {
     private List<Sort> sorting = new ArrayList<>();
     private int facetMinCount =  SearchConfiguration.get(SearchConfiguration.SEARCH_RESULT_FACET_INCLUDE_EMPTY, false)? 0 : 1;
     private int facetLimit = SearchConfiguration.get(SearchConfiguration.SEARCH_RESULT_FACET_LENGTH, 4);
-    private Map<String,Facet> facets = new HashMap<>();
+    private Map<String,Facet> facets = new TreeMap<>();
     private ResultSubset resultSet;
     private boolean childrenSearch = false;
     private Operators childrenSearchOperator = Operators.OR;
@@ -207,17 +208,20 @@ public class FulltextSearch {
     }
 
     /**
-     * Adds a {@link Filter} to the search query.
+     * Adds a {@link Filter} to the search query. Date filters relative to NOW are rounded as configured, see
+     * {@link DateMathRounding}.
      * @param filter {@link Filter} filter to be added to the query.
      * @return This {@link FulltextSearch} instance with the new filter added.
      */
     public FulltextSearch filter(Filter filter) {
         if (filter == null) {
             return clearFilter();
-        } else if (this.filter == null) {
-            this.filter = filter;
+        }
+        final Filter rounded = DateMathRounding.round(filter);
+        if (this.filter == null) {
+            this.filter = rounded;
         } else {
-            this.filter = and(this.filter, filter);
+            this.filter = and(this.filter, rounded);
         }
         return this;
     }
@@ -699,6 +703,15 @@ public class FulltextSearch {
         return this;
     }
 
+    /**
+     * Gets the canonical form of the search, equal for searches with the same parameters no matter in which order
+     * filters and facets were added. As the search can still be changed, the key is created on every call.
+     * @return {@link CanonicalKey} of the search.
+     */
+    public CanonicalKey getCanonicalKey() {
+        return CanonicalKey.of(this);
+    }
+
     @Override
     public String toString(){
         String searchString = "" +
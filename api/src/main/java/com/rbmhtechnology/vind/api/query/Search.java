@@ -6,6 +6,8 @@ import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
 import com.rbmhtechnology.vind.api.query.suggestion.SuggestionSearch;
 import com.rbmhtechnology.vind.api.query.update.Update;
 
+import java.util.List;
+
 /**
  * Abstract class with static user friendly methods to instantiate different queries.
  * @author Thomas Kurz (tkurz@apache.org)
@@ -64,10 +66,19 @@ public abstract class Search {
 
     /**
      * Instantiates a new {@link InverseSearch} query object.
-     * @param doc {@link Document} document to perform inverse search on.
+     * @param docs {@link Document} documents to perform inverse search on, all of them are percolated in one request.
+     * @return {@link InverseSearch} configuration.
+     */
+    public static InverseSearch inverseSearch(Document... docs) {
+        return new InverseSearch(docs);
+    }
+
+    /**
+     * Instantiates a new {@link InverseSearch} query object.
+     * @param docs {@link Document} documents to perform inverse search on, all of them are percolated in one request.
      * @return {@link InverseSearch} configuration.
      */
-    public static InverseSearch inverseSearch(Document doc) {
-        return new InverseSearch(doc);
+    public static InverseSearch inverseSearch(List<Document> docs) {
+        return new InverseSearch(docs.toArray(new Document[0]));
     }
 }
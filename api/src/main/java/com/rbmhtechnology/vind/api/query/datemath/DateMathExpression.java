@@ -81,6 +81,24 @@ public class DateMathExpression {
         return sub;
     }
 
+    /**
+     * Rounds NOW down to the given unit, so the expression resolves to the same instant for all requests within one
+     * unit of time.
+     * @param unit {@link TimeUnit} to round NOW to.
+     * @return a rounded copy of the expression, or the expression itself if it is not relative to NOW or is rounded
+     * already.
+     */
+    public DateMathExpression roundNow(TimeUnit unit) {
+        if (unit == null || !this.root.isRelative() || this.root.unit != null || this.unit != null) {
+            return this;
+        }
+        final DateMathExpression rounded = new DateMathExpression();
+        rounded.setRootUnit(unit);
+        this.add.forEach(op -> rounded.add(op.quantity, op.unit));
+        this.sub.forEach(op -> rounded.sub(op.quantity, op.unit));
+        return rounded;
+    }
+
     public long getTimeStamp() {
         return this.getTimeStamp(ZonedDateTime.now());
     }
@@ -295,7 +313,7 @@ public class DateMathExpression {
         }
     }
 
-    protected class DateMathOperation {
+    public class DateMathOperation {
         private final long quantity;
         private final TimeUnit unit;
 
@@ -3,6 +3,7 @@ package com.rbmhtechnology.vind.api.query.facet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
+import com.rbmhtechnology.vind.api.query.CanonicalKey;
 import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
 import com.rbmhtechnology.vind.api.query.filter.Filter;
 import com.rbmhtechnology.vind.api.query.sort.Sort;
@@ -18,11 +19,11 @@ import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -46,7 +47,7 @@ public abstract class Facet {
     protected String facetName;
     protected Integer size;
 
-    protected Map<String,Sort> sortings = new HashMap<>();
+    protected Map<String,Sort> sortings = new TreeMap<>();
 
     public String getType() {
         return this.getClass().getSimpleName();
@@ -59,6 +60,14 @@ public abstract class Facet {
     @Override
     public abstract Facet clone();
 
+    /**
+     * Gets the canonical form of the facet, created on every call as the facet can still be changed.
+     * @return {@link CanonicalKey} of the facet.
+     */
+    public CanonicalKey getCanonicalKey() {
+        return CanonicalKey.of(this);
+    }
+
     /**
      * Returns the name of the facet. Use the new method {@link Facet#facetName}
      * @return String custom name of the specific facet.
@@ -208,9 +217,10 @@ public abstract class Facet {
 
         @Override
         public Facet clone() {
-            final TermFacet<T> copy = new TermFacet<>(this.fieldName);
+            final TermFacet<T> copy = new TermFacet<>(this.option, this.fieldName);
             copy.setScope(this.scope);
             copy.fieldDescriptor = this.fieldDescriptor;
+            copy.size = this.size;
             return copy;
         }
     }
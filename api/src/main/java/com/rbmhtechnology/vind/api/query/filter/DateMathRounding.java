@@ -0,0 +1,100 @@
+package com.rbmhtechnology.vind.api.query.filter;
+
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
+
+/**
+ * Rounding policy for date filters relative to NOW. A filter like {@code NOW-1DAY} resolves to another instant on
+ * every request, so neither the caches of the backends nor client side caches can reuse it. With a rounding unit
+ * configured NOW is rounded down to that unit ({@code NOW/HOUR-1DAY}), and the filter stays the same for all requests
+ * within an hour.
+ *
+ * The unit is read from {@link SearchConfiguration#DATE_MATH_ROUNDING} suffixed by "." and the name of the field
+ * (e.g. {@code vind.datemath.rounding.created=HOUR}), falling back to {@link SearchConfiguration#DATE_MATH_ROUNDING}
+ * for all fields. NONE or no value disables rounding. Expressions which are rounded already are not changed.
+ */
+public final class DateMathRounding {
+
+    private static final Logger log = LoggerFactory.getLogger(DateMathRounding.class);
+
+    private static final String NONE = "NONE";
+
+    private DateMathRounding() {
+    }
+
+    /**
+     * Gets the configured rounding unit of a field.
+     * @param field name of the field.
+     * @return the {@link DateMathExpression.TimeUnit} NOW is rounded to, null for no rounding.
+     */
+    public static DateMathExpression.TimeUnit getUnit(String field) {
+        final String unit = SearchConfiguration.get(SearchConfiguration.DATE_MATH_ROUNDING + "." + field,
+                SearchConfiguration.get(SearchConfiguration.DATE_MATH_ROUNDING));
+        if (unit == null || unit.trim().isEmpty() || NONE.equalsIgnoreCase(unit.trim())) {
+            return null;
+        }
+        try {
+            return DateMathExpression.TimeUnit.valueOf(unit.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid date math rounding unit '{}' for field '{}', dates are not rounded", unit, field);
+            return null;
+        }
+    }
+
+    /**
+     * Applies the configured rounding to the date filters of a filter tree.
+     * @param filter {@link Filter} to round.
+     * @return the filter with rounded date filters, the filter itself if nothing had to be rounded.
+     */
+    public static Filter round(Filter filter) {
+        if (filter instanceof AndFilter) {
+            final Set<Filter> children = roundChildren(((AndFilter) filter).getChildren());
+            return children == null ? filter : AndFilter.fromSet(children);
+        } else if (filter instanceof OrFilter) {
+            final Set<Filter> children = roundChildren(((OrFilter) filter).getChildren());
+            return children == null ? filter : OrFilter.fromSet(children);
+        } else if (filter instanceof NotFilter) {
+            final Filter delegate = ((NotFilter) filter).getDelegate();
+            final Filter rounded = round(delegate);
+            return rounded == delegate ? filter : new NotFilter(rounded);
+        } else if (filter instanceof BeforeFilter) {
+            final BeforeFilter before = (BeforeFilter) filter;
+            final DateMathExpression date = before.getDate().roundNow(getUnit(before.getField()));
+            return date == before.getDate() ? filter : new BeforeFilter(before.getField(), date, filter.filterScope);
+        } else if (filter instanceof AfterFilter) {
+            final AfterFilter after = (AfterFilter) filter;
+            final DateMathExpression date = after.getDate().roundNow(getUnit(after.getField()));
+            return date == after.getDate() ? filter : new AfterFilter(after.getField(), date, filter.filterScope);
+        } else if (filter instanceof BetweenDatesFilter) {
+            final BetweenDatesFilter between = (BetweenDatesFilter) filter;
+            final DateMathExpression.TimeUnit unit = getUnit(between.getField());
+            final DateMathExpression start = between.getStart().roundNow(unit);
+            final DateMathExpression end = between.getEnd().roundNow(unit);
+            return start == between.getStart() && end == between.getEnd() ?
+                    filter : new BetweenDatesFilter(between.getField(), start, end, filter.filterScope);
+        }
+        return filter;
+    }
+
+    /**
+     * @return the rounded children, null if none of them changed.
+     */
+    private static Set<Filter> roundChildren(Set<Filter> children) {
+        final Set<Filter> rounded = new LinkedHashSet<>();
+        boolean changed = false;
+        for (Filter child : children) {
+            final Filter roundedChild = round(child);
+            changed |= roundedChild != child;
+            rounded.add(roundedChild);
+        }
+        return changed ? rounded : null;
+    }
+}
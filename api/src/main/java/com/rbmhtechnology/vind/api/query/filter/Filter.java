@@ -2,6 +2,7 @@ package com.rbmhtechnology.vind.api.query.filter;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.rbmhtechnology.vind.api.query.CanonicalKey;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
 import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
 import com.rbmhtechnology.vind.model.DocumentFactory;
@@ -45,8 +46,16 @@ public abstract class Filter  implements Serializable {
 
     public static final Scope DEFAULT_SCOPE = Scope.Facet;
 
+    /**
+     * Orders filters by their {@link CanonicalKey}, used to keep the children of {@link AndFilter} and
+     * {@link OrFilter} in an order independent of the order they were added in.
+     */
+    public static final Comparator<Filter> CANONICAL_ORDER = new CanonicalOrder();
+
     protected Scope filterScope;
 
+    private transient volatile CanonicalKey canonicalKey;
+
     public String getType() {
         return this.getClass().getSimpleName();
     }
@@ -79,6 +88,39 @@ public abstract class Filter  implements Serializable {
     @Override
     public abstract Filter clone();
 
+    /**
+     * Gets the canonical form of the filter: the children of AND and OR filters are sorted, so filters composed of the
+     * same parts in a different order share the same key.
+     * @return {@link CanonicalKey} of the filter.
+     */
+    public CanonicalKey getCanonicalKey() {
+        CanonicalKey key = canonicalKey;
+        if (key == null) {
+            key = CanonicalKey.of(this);
+            canonicalKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Drops the memoized {@link CanonicalKey}, has to be called by every method changing the filter.
+     */
+    protected void invalidateCanonicalKey() {
+        canonicalKey = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return getCanonicalKey().equals(((Filter) o).getCanonicalKey());
+    }
+
+    @Override
+    public int hashCode() {
+        return getCanonicalKey().hashCode();
+    }
+
     /**
      * Static method which creates a {@link AndFilter} out of a group of filters.
      * @param a Required {@link Filter} to be added to the AND operation.
@@ -504,7 +546,7 @@ public abstract class Filter  implements Serializable {
      * Filter Class implementing the query AND logic operation.
      */
     public static class AndFilter extends Filter {
-        private final Set<Filter> children = new HashSet<>();
+        private final Set<Filter> children = new TreeSet<>(CANONICAL_ORDER);
 
         /**
          * Creates an instance of {@link AndFilter} of two given filters.
@@ -528,6 +570,7 @@ public abstract class Filter  implements Serializable {
             } else {
                 children.add(f);
             }
+            invalidateCanonicalKey();
         }
 
         @Override
@@ -549,11 +592,11 @@ public abstract class Filter  implements Serializable {
         }
 
         /**
-         * Get all the {@link Filter} composing the AND filter query.
-         * @return {@code Set<Filter>} forming this AND filter query.
+         * Get all the {@link Filter} composing the AND filter query, sorted by {@link Filter#CANONICAL_ORDER}.
+         * @return unmodifiable {@code Set<Filter>} forming this AND filter query.
          */
         public Set<Filter> getChildren() {
-            return children;
+            return Collections.unmodifiableSet(children);
         }
 
         /**
@@ -590,7 +633,7 @@ public abstract class Filter  implements Serializable {
      * Filter Class implementing the query OR logic operation.
      */
     public static class OrFilter extends Filter {
-        private final Set<Filter> children = new HashSet<>();
+        private final Set<Filter> children = new TreeSet<>(CANONICAL_ORDER);
 
         /**
          * Creates an instance of {@link OrFilter} of two given filters.
@@ -614,6 +657,7 @@ public abstract class Filter  implements Serializable {
             } else {
                 children.add(f);
             }
+            invalidateCanonicalKey();
         }
 
         @Override
@@ -635,11 +679,11 @@ public abstract class Filter  implements Serializable {
         }
 
         /**
-         * Get all the {@link Filter} composing the OR filter query.
-         * @return {@code Set<Filter>} forming this OR filter query.
+         * Get all the {@link Filter} composing the OR filter query, sorted by {@link Filter#CANONICAL_ORDER}.
+         * @return unmodifiable {@code Set<Filter>} forming this OR filter query.
          */
         public Set<Filter> getChildren() {
-            return children;
+            return Collections.unmodifiableSet(children);
         }
 
         /**
@@ -1669,6 +1713,13 @@ public abstract class Filter  implements Serializable {
         }
 
     }
+    private static class CanonicalOrder implements Comparator<Filter>, Serializable {
+        @Override
+        public int compare(Filter a, Filter b) {
+            return a.getCanonicalKey().compareTo(b.getCanonicalKey());
+        }
+    }
+
     private static class OrCollector extends FilterCollector {
         @Override
         public Function<ImmutableSet.Builder<Filter>, Filter> finisher() {
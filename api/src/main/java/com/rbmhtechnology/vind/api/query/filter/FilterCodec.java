@@ -0,0 +1,618 @@
+package com.rbmhtechnology.vind.api.query.filter;
+
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+import com.rbmhtechnology.vind.model.value.LatLng;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
+
+/**
+ * Compact, versioned binary format for {@link Filter}s, used to store the queries of inverse search. The filter tree
+ * is walked like by {@link com.rbmhtechnology.vind.utils.SerializerVisitor}: every filter is written as a tag
+ * followed by its fields, field descriptors are written by name and resolved against the {@link DocumentFactory} when
+ * decoding. Filters stored with Java serialization by previous versions can still be decoded.
+ */
+public final class FilterCodec {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final byte MAGIC_0 = 'V';
+    private static final byte MAGIC_1 = 'F';
+    private static final byte JAVA_SERIALIZATION_MAGIC_0 = (byte) 0xAC;
+    private static final byte JAVA_SERIALIZATION_MAGIC_1 = (byte) 0xED;
+
+    private static final byte AND = 1;
+    private static final byte OR = 2;
+    private static final byte NOT = 3;
+    private static final byte TERM = 4;
+    private static final byte TERMS_QUERY = 5;
+    private static final byte PREFIX = 6;
+    private static final byte DESCRIPTOR = 7;
+    private static final byte BEFORE = 8;
+    private static final byte AFTER = 9;
+    private static final byte GREATER_THAN = 10;
+    private static final byte LOWER_THAN = 11;
+    private static final byte BETWEEN_DATES = 12;
+    private static final byte BETWEEN_NUMERIC = 13;
+    private static final byte WITHIN_BBOX = 14;
+    private static final byte WITHIN_CIRCLE = 15;
+    private static final byte NOT_EMPTY_TEXT = 16;
+    private static final byte NOT_EMPTY = 17;
+    private static final byte NOT_EMPTY_LOCATION = 18;
+    private static final byte CHILDREN_DOCUMENT = 19;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_INTEGER = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_FLOAT = 4;
+    private static final byte VALUE_DOUBLE = 5;
+    private static final byte VALUE_BOOLEAN = 6;
+    private static final byte VALUE_ZONED_DATE_TIME = 7;
+    private static final byte VALUE_DATE = 8;
+    private static final byte VALUE_LAT_LNG = 9;
+    private static final byte VALUE_BIG_DECIMAL = 10;
+    private static final byte VALUE_BIG_INTEGER = 11;
+    private static final byte VALUE_BYTE_BUFFER = 12;
+    private static final byte VALUE_SERIALIZED = 13;
+
+    private static final Scope[] SCOPES = Scope.values();
+    private static final DateMathExpression.TimeUnit[] TIME_UNITS = DateMathExpression.TimeUnit.values();
+
+    private FilterCodec() {
+    }
+
+    /**
+     * Encodes a filter in the current format version.
+     * @param filter {@link Filter} to encode.
+     * @return the encoded filter.
+     * @throws IOException if the filter contains a value which cannot be encoded.
+     */
+    public static byte[] encode(Filter filter) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC_0);
+            out.writeByte(MAGIC_1);
+            out.writeByte(FORMAT_VERSION);
+            writeFilter(out, filter);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a filter encoded by {@link #encode(Filter)} or by Java serialization.
+     * @param data encoded filter.
+     * @param factory {@link DocumentFactory} the filter applies to, used to resolve field descriptors.
+     * @return the decoded {@link Filter}.
+     * @throws IOException if the data cannot be decoded.
+     */
+    public static Filter decode(byte[] data, DocumentFactory factory) throws IOException {
+        if (data.length >= 2 && data[0] == JAVA_SERIALIZATION_MAGIC_0 && data[1] == JAVA_SERIALIZATION_MAGIC_1) {
+            return deserialize(data, Filter.class);
+        }
+        if (data.length < 3 || data[0] != MAGIC_0 || data[1] != MAGIC_1) {
+            throw new StreamCorruptedException("Data is not an encoded filter");
+        }
+        if (data[2] < 1 || data[2] > FORMAT_VERSION) {
+            throw new StreamCorruptedException("Unsupported filter format version " + data[2]);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 3, data.length - 3))) {
+            return readFilter(in, factory);
+        }
+    }
+
+    private static void writeFilter(DataOutputStream out, Filter filter) throws IOException {
+        if (filter instanceof AndFilter) {
+            out.writeByte(AND);
+            writeChildren(out, ((AndFilter) filter).getChildren());
+        } else if (filter instanceof OrFilter) {
+            out.writeByte(OR);
+            writeChildren(out, ((OrFilter) filter).getChildren());
+        } else if (filter instanceof NotFilter) {
+            out.writeByte(NOT);
+            writeFilter(out, ((NotFilter) filter).getDelegate());
+        } else if (filter instanceof TermFilter) {
+            final TermFilter termFilter = (TermFilter) filter;
+            out.writeByte(TERM);
+            writeScope(out, filter);
+            writeString(out, termFilter.getField());
+            writeString(out, termFilter.getTerm());
+        } else if (filter instanceof TermsQueryFilter) {
+            final TermsQueryFilter<?> termsFilter = (TermsQueryFilter<?>) filter;
+            out.writeByte(TERMS_QUERY);
+            writeScope(out, filter);
+            writeString(out, termsFilter.getField());
+            final List<?> terms = termsFilter.getTerm();
+            writeVarInt(out, terms.size());
+            for (Object term : terms) {
+                writeValue(out, term);
+            }
+        } else if (filter instanceof PrefixFilter) {
+            final PrefixFilter prefixFilter = (PrefixFilter) filter;
+            out.writeByte(PREFIX);
+            writeScope(out, filter);
+            writeString(out, prefixFilter.getField());
+            writeString(out, prefixFilter.getTerm());
+        } else if (filter instanceof DescriptorFilter) {
+            final DescriptorFilter<?> descriptorFilter = (DescriptorFilter<?>) filter;
+            out.writeByte(DESCRIPTOR);
+            writeScope(out, filter);
+            writeString(out, descriptorFilter.getField());
+            writeValue(out, descriptorFilter.getTerm());
+        } else if (filter instanceof BeforeFilter) {
+            final BeforeFilter beforeFilter = (BeforeFilter) filter;
+            out.writeByte(BEFORE);
+            writeScope(out, filter);
+            writeString(out, beforeFilter.getField());
+            writeDateMath(out, beforeFilter.getDate());
+        } else if (filter instanceof AfterFilter) {
+            final AfterFilter afterFilter = (AfterFilter) filter;
+            out.writeByte(AFTER);
+            writeScope(out, filter);
+            writeString(out, afterFilter.getField());
+            writeDateMath(out, afterFilter.getDate());
+        } else if (filter instanceof GreaterThanFilter) {
+            final GreaterThanFilter greaterThanFilter = (GreaterThanFilter) filter;
+            out.writeByte(GREATER_THAN);
+            writeScope(out, filter);
+            writeString(out, greaterThanFilter.getField());
+            writeValue(out, greaterThanFilter.getNumber());
+        } else if (filter instanceof LowerThanFilter) {
+            final LowerThanFilter lowerThanFilter = (LowerThanFilter) filter;
+            out.writeByte(LOWER_THAN);
+            writeScope(out, filter);
+            writeString(out, lowerThanFilter.getField());
+            writeValue(out, lowerThanFilter.getNumber());
+        } else if (filter instanceof BetweenDatesFilter) {
+            final BetweenDatesFilter betweenFilter = (BetweenDatesFilter) filter;
+            out.writeByte(BETWEEN_DATES);
+            writeScope(out, filter);
+            writeString(out, betweenFilter.getField());
+            writeDateMath(out, betweenFilter.getStart());
+            writeDateMath(out, betweenFilter.getEnd());
+        } else if (filter instanceof BetweenNumericFilter) {
+            final BetweenNumericFilter betweenFilter = (BetweenNumericFilter) filter;
+            out.writeByte(BETWEEN_NUMERIC);
+            writeScope(out, filter);
+            writeString(out, betweenFilter.getField());
+            writeValue(out, betweenFilter.getStart());
+            writeValue(out, betweenFilter.getEnd());
+        } else if (filter instanceof WithinBBoxFilter) {
+            final WithinBBoxFilter bboxFilter = (WithinBBoxFilter) filter;
+            out.writeByte(WITHIN_BBOX);
+            writeScope(out, filter);
+            writeString(out, bboxFilter.getField());
+            writeLatLng(out, bboxFilter.getUpperLeft());
+            writeLatLng(out, bboxFilter.getLowerRight());
+        } else if (filter instanceof WithinCircleFilter) {
+            final WithinCircleFilter circleFilter = (WithinCircleFilter) filter;
+            out.writeByte(WITHIN_CIRCLE);
+            writeScope(out, filter);
+            writeString(out, circleFilter.getField());
+            writeLatLng(out, circleFilter.getCenter());
+            out.writeDouble(circleFilter.getDistance());
+        } else if (filter instanceof NotEmptyTextFilter) {
+            out.writeByte(NOT_EMPTY_TEXT);
+            writeScope(out, filter);
+            writeString(out, ((NotEmptyTextFilter) filter).getField());
+        } else if (filter instanceof NotEmptyFilter) {
+            out.writeByte(NOT_EMPTY);
+            writeScope(out, filter);
+            writeString(out, ((NotEmptyFilter) filter).getField());
+        } else if (filter instanceof NotEmptyLocationFilter) {
+            out.writeByte(NOT_EMPTY_LOCATION);
+            writeScope(out, filter);
+            writeString(out, ((NotEmptyLocationFilter) filter).getField());
+        } else if (filter instanceof ChildrenDocumentFilter) {
+            final ChildrenDocumentFilter childrenFilter = (ChildrenDocumentFilter) filter;
+            out.writeByte(CHILDREN_DOCUMENT);
+            writeString(out, childrenFilter.getParentDocType());
+            writeString(out, childrenFilter.getNestedDocType());
+        } else {
+            throw new NotSerializableException("Unsupported filter type " + filter.getClass().getName());
+        }
+    }
+
+    private static Filter readFilter(DataInputStream in, DocumentFactory factory) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+            case AND:
+                return AndFilter.fromSet(readChildren(in, factory));
+            case OR:
+                return OrFilter.fromSet(readChildren(in, factory));
+            case NOT:
+                return new NotFilter(readFilter(in, factory));
+            case TERM: {
+                final Scope scope = readScope(in);
+                return new TermFilter(readString(in), readString(in), scope);
+            }
+            case TERMS_QUERY: {
+                final Scope scope = readScope(in);
+                final FieldDescriptor descriptor = readDescriptor(in, factory);
+                final int size = readVarInt(in);
+                final Object[] values = new Object[size];
+                for (int i = 0; i < size; i++) {
+                    values[i] = readValue(in);
+                }
+                return new TermsQueryFilter(descriptor, toTypedArray(values), scope);
+            }
+            case PREFIX: {
+                final Scope scope = readScope(in);
+                return new PrefixFilter(readString(in), readString(in), scope);
+            }
+            case DESCRIPTOR: {
+                final Scope scope = readScope(in);
+                return new DescriptorFilter<>(readDescriptor(in, factory), readValue(in), scope);
+            }
+            case BEFORE: {
+                final Scope scope = readScope(in);
+                return new BeforeFilter(readString(in), readDateMath(in), scope);
+            }
+            case AFTER: {
+                final Scope scope = readScope(in);
+                return new AfterFilter(readString(in), readDateMath(in), scope);
+            }
+            case GREATER_THAN: {
+                final Scope scope = readScope(in);
+                return new GreaterThanFilter(readString(in), (Number) readValue(in), scope);
+            }
+            case LOWER_THAN: {
+                final Scope scope = readScope(in);
+                return new LowerThanFilter(readString(in), (Number) readValue(in), scope);
+            }
+            case BETWEEN_DATES: {
+                final Scope scope = readScope(in);
+                return new BetweenDatesFilter(readString(in), readDateMath(in), readDateMath(in), scope);
+            }
+            case BETWEEN_NUMERIC: {
+                final Scope scope = readScope(in);
+                return new BetweenNumericFilter(readString(in), (Number) readValue(in), (Number) readValue(in), scope);
+            }
+            case WITHIN_BBOX: {
+                final Scope scope = readScope(in);
+                return new WithinBBoxFilter(readString(in), readLatLng(in), readLatLng(in), scope);
+            }
+            case WITHIN_CIRCLE: {
+                final Scope scope = readScope(in);
+                return new WithinCircleFilter(readString(in), readLatLng(in), in.readDouble(), scope);
+            }
+            case NOT_EMPTY_TEXT: {
+                final Scope scope = readScope(in);
+                return new NotEmptyTextFilter(readString(in), scope);
+            }
+            case NOT_EMPTY: {
+                final Scope scope = readScope(in);
+                return new NotEmptyFilter(readString(in), scope);
+            }
+            case NOT_EMPTY_LOCATION: {
+                final Scope scope = readScope(in);
+                return new NotEmptyLocationFilter(readString(in), scope);
+            }
+            case CHILDREN_DOCUMENT: {
+                final String parentType = readString(in);
+                final String nestedType = readString(in);
+                return nestedType == null ?
+                        new ChildrenDocumentFilter(parentType) : new ChildrenDocumentFilter(parentType, nestedType);
+            }
+            default:
+                throw new StreamCorruptedException("Unknown filter tag " + tag);
+        }
+    }
+
+    private static void writeChildren(DataOutputStream out, Set<Filter> children) throws IOException {
+        writeVarInt(out, children.size());
+        for (Filter child : children) {
+            writeFilter(out, child);
+        }
+    }
+
+    private static Set<Filter> readChildren(DataInputStream in, DocumentFactory factory) throws IOException {
+        final int size = readVarInt(in);
+        final Set<Filter> children = new HashSet<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            children.add(readFilter(in, factory));
+        }
+        return children;
+    }
+
+    private static void writeScope(DataOutputStream out, Filter filter) throws IOException {
+        out.writeByte(filter.filterScope == null ? 0 : filter.filterScope.ordinal() + 1);
+    }
+
+    private static Scope readScope(DataInputStream in) throws IOException {
+        final int scope = in.readByte();
+        return scope == 0 ? null : SCOPES[scope - 1];
+    }
+
+    private static FieldDescriptor readDescriptor(DataInputStream in, DocumentFactory factory) throws IOException {
+        final String name = readString(in);
+        final FieldDescriptor descriptor = factory.getField(name);
+        if (descriptor == null) {
+            throw new StreamCorruptedException(
+                    String.format("Field '%s' of the encoded filter is not defined in document factory '%s'", name, factory.getType()));
+        }
+        return descriptor;
+    }
+
+    private static Object[] toTypedArray(Object[] values) {
+        Class<?> type = null;
+        for (Object value : values) {
+            if (value == null || (type != null && type != value.getClass())) {
+                return values;
+            }
+            type = value.getClass();
+        }
+        if (type == null) {
+            return values;
+        }
+        final Object[] typed = (Object[]) Array.newInstance(type, values.length);
+        System.arraycopy(values, 0, typed, 0, values.length);
+        return typed;
+    }
+
+    private static void writeDateMath(DataOutputStream out, DateMathExpression expression) throws IOException {
+        final DateMathExpression.RootTime root = expression.getRoot();
+        out.writeBoolean(root.isRelative());
+        if (!root.isRelative()) {
+            writeZonedDateTime(out, root.getFixedTime());
+        }
+        writeTimeUnit(out, root.getUnit());
+        writeVarInt(out, expression.getAdd().size());
+        for (DateMathExpression.DateMathOperation operation : expression.getAdd()) {
+            writeVarLong(out, operation.getQuantity());
+            writeTimeUnit(out, operation.getUnit());
+        }
+        writeVarInt(out, expression.getSub().size());
+        for (DateMathExpression.DateMathOperation operation : expression.getSub()) {
+            writeVarLong(out, operation.getQuantity());
+            writeTimeUnit(out, operation.getUnit());
+        }
+        writeTimeUnit(out, expression.getUnit());
+    }
+
+    private static DateMathExpression readDateMath(DataInputStream in) throws IOException {
+        final DateMathExpression expression = in.readBoolean() ?
+                new DateMathExpression() : new DateMathExpression(readZonedDateTime(in));
+        expression.setRootUnit(readTimeUnit(in));
+        final int adds = readVarInt(in);
+        for (int i = 0; i < adds; i++) {
+            expression.add(readVarLong(in), readTimeUnit(in));
+        }
+        final int subs = readVarInt(in);
+        for (int i = 0; i < subs; i++) {
+            expression.sub(readVarLong(in), readTimeUnit(in));
+        }
+        expression.setUnit(readTimeUnit(in));
+        return expression;
+    }
+
+    private static void writeTimeUnit(DataOutputStream out, DateMathExpression.TimeUnit unit) throws IOException {
+        out.writeByte(unit == null ? 0 : unit.ordinal() + 1);
+    }
+
+    private static DateMathExpression.TimeUnit readTimeUnit(DataInputStream in) throws IOException {
+        final int unit = in.readByte();
+        return unit == 0 ? null : TIME_UNITS[unit - 1];
+    }
+
+    private static void writeLatLng(DataOutputStream out, LatLng latLng) throws IOException {
+        out.writeDouble(latLng.getLat());
+        out.writeDouble(latLng.getLng());
+    }
+
+    private static LatLng readLatLng(DataInputStream in) throws IOException {
+        return new LatLng(in.readDouble(), in.readDouble());
+    }
+
+    private static void writeZonedDateTime(DataOutputStream out, ZonedDateTime dateTime) throws IOException {
+        final Instant instant = dateTime.toInstant();
+        writeVarLong(out, instant.getEpochSecond());
+        writeVarInt(out, instant.getNano());
+        writeString(out, dateTime.getZone().getId());
+    }
+
+    private static ZonedDateTime readZonedDateTime(DataInputStream in) throws IOException {
+        final Instant instant = Instant.ofEpochSecond(readVarLong(in), readVarInt(in));
+        return ZonedDateTime.ofInstant(instant, ZoneId.of(readString(in)));
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(VALUE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(VALUE_INTEGER);
+            writeVarLong(out, (Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(VALUE_LONG);
+            writeVarLong(out, (Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(VALUE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof ZonedDateTime) {
+            out.writeByte(VALUE_ZONED_DATE_TIME);
+            writeZonedDateTime(out, (ZonedDateTime) value);
+        } else if (value instanceof Date) {
+            out.writeByte(VALUE_DATE);
+            writeVarLong(out, ((Date) value).getTime());
+        } else if (value instanceof LatLng) {
+            out.writeByte(VALUE_LAT_LNG);
+            writeLatLng(out, (LatLng) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(VALUE_BIG_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(VALUE_BIG_INTEGER);
+            writeString(out, value.toString());
+        } else if (value instanceof ByteBuffer) {
+            final ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            out.writeByte(VALUE_BYTE_BUFFER);
+            writeBytes(out, bytes);
+        } else if (value instanceof Serializable) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+                objectOut.writeObject(value);
+            }
+            out.writeByte(VALUE_SERIALIZED);
+            writeBytes(out, bytes.toByteArray());
+        } else {
+            throw new NotSerializableException("Unsupported filter value type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return readString(in);
+            case VALUE_INTEGER:
+                return (int) readVarLong(in);
+            case VALUE_LONG:
+                return readVarLong(in);
+            case VALUE_FLOAT:
+                return in.readFloat();
+            case VALUE_DOUBLE:
+                return in.readDouble();
+            case VALUE_BOOLEAN:
+                return in.readBoolean();
+            case VALUE_ZONED_DATE_TIME:
+                return readZonedDateTime(in);
+            case VALUE_DATE:
+                return new Date(readVarLong(in));
+            case VALUE_LAT_LNG:
+                return readLatLng(in);
+            case VALUE_BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            case VALUE_BIG_INTEGER:
+                return new BigInteger(readString(in));
+            case VALUE_BYTE_BUFFER:
+                return ByteBuffer.wrap(readBytes(in));
+            case VALUE_SERIALIZED:
+                return deserialize(readBytes(in), Object.class);
+            default:
+                throw new StreamCorruptedException("Unknown filter value tag " + tag);
+        }
+    }
+
+    private static <T> T deserialize(byte[] data, Class<T> type) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return type.cast(in.readObject());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Cannot deserialize filter: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes a string as UTF-8 bytes prefixed by their length plus one, so that 0 encodes null.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable length integer");
+    }
+
+    /**
+     * Writes a long zig-zag encoded, so that small negative values are short too.
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.writeByte((int) zigZag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = in.readByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable length long");
+    }
+}
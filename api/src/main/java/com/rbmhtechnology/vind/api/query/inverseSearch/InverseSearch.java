@@ -130,7 +130,7 @@ public class InverseSearch {
     }
 
     public InverseSearch copy() {
-        final Document[] documents = (Document[])new ArrayList<>(this.getDocs()).toArray();
+        final Document[] documents = this.docs.toArray(new Document[0]);
         final InverseSearch copy = new InverseSearch(documents);
         copy.resultSet = resultSet.copy();
         if (Objects.nonNull(queryFilter)) {
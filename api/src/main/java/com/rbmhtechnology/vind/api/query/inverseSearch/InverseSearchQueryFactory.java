@@ -13,12 +13,13 @@ import java.util.Optional;
 public abstract class InverseSearchQueryFactory {
 
     public static final String PERCOLATOR_FIELD = "query";
+    public static final String QUERY_TYPE = "_percolator_query_";
     private static final String BINARY_QUERY_FIELD_NAME = "query_obj";
 
     public static final SingleValueFieldDescriptor.BinaryFieldDescriptor<ByteBuffer> BINARY_QUERY_FIELD =
             new FieldDescriptorBuilder().buildBinaryField(BINARY_QUERY_FIELD_NAME);
 
-    static final DocumentFactoryBuilder queryDocumentFactory = new DocumentFactoryBuilder("_percolator_query_")
+    static final DocumentFactoryBuilder queryDocumentFactory = new DocumentFactoryBuilder(QUERY_TYPE)
             .addField(BINARY_QUERY_FIELD);
 
     public static DocumentFactory getQueryFactory() {
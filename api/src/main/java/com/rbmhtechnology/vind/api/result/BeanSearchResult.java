@@ -1,5 +1,6 @@
 package com.rbmhtechnology.vind.api.result;
 
+import com.google.common.base.Suppliers;
 import com.rbmhtechnology.vind.api.SearchServer;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
 import org.slf4j.Logger;
@@ -7,6 +8,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * This class stores the search result documents as instances of the annotated class T.
@@ -23,6 +25,8 @@ public class BeanSearchResult<T> {
     protected final SearchServer server;
     protected final Long queryTime;
     private Long elapsedTime;
+    private Supplier<String> rawQuery;
+    private ClientTimings timings;
 
     /**
      * DEPRECATED: use the signature providing the time the query took.{@link BeanSearchResult#BeanSearchResult(long, long, List, FulltextSearch, FacetResults, SearchServer, Class)}
@@ -125,4 +129,38 @@ public class BeanSearchResult<T> {
         this.elapsedTime = elapsedTime;
         return this;
     }
+
+    /**
+     * Gets the query as it has been sent to the backend. It is rendered when asked for the first time.
+     * @return the raw backend query, null if the backend does not provide it.
+     */
+    public String getRawQuery() {
+        return rawQuery != null ? rawQuery.get() : null;
+    }
+
+    /**
+     * Sets the query as it has been sent to the backend, so it does not need to be built again e.g. for monitoring.
+     * @param rawQuery supplier rendering the raw backend query, it is called at most once.
+     * @return this instance of {@link BeanSearchResult} with the raw query.
+     */
+    public BeanSearchResult<T> setRawQuery(Supplier<String> rawQuery) {
+        this.rawQuery = rawQuery != null ? Suppliers.memoize(rawQuery::get) : null;
+        return this;
+    }
+
+    /**
+     * @return the client side phases of the request, null if the backend does not measure them.
+     */
+    public ClientTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * @param timings the client side phases of the request.
+     * @return this instance of {@link BeanSearchResult} with the timings.
+     */
+    public BeanSearchResult<T> setTimings(ClientTimings timings) {
+        this.timings = timings;
+        return this;
+    }
 }
@@ -0,0 +1,72 @@
+package com.rbmhtechnology.vind.api.result;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the time a backend spent on the client side executing a request into its phases: building the backend
+ * query, waiting for the backend including the decoding of the response by the client library, and parsing the
+ * response into vind results. All the times are in nanoseconds.
+ */
+public class ClientTimings {
+
+    private final long buildTime;
+    private final long networkTime;
+    private final long parseTime;
+
+    /**
+     * Creates a new instance of {@link ClientTimings}.
+     * @param buildTime nanoseconds spent building the backend query.
+     * @param networkTime nanoseconds spent waiting for the backend response.
+     * @param parseTime nanoseconds spent parsing the response into vind results.
+     */
+    public ClientTimings(long buildTime, long networkTime, long parseTime) {
+        this.buildTime = buildTime;
+        this.networkTime = networkTime;
+        this.parseTime = parseTime;
+    }
+
+    /**
+     * Creates the timings of a request out of the {@link System#nanoTime()} marks taken between its phases, the
+     * parse phase ends now.
+     * @param start mark taken before building the query.
+     * @param sent mark taken when the query was sent.
+     * @param received mark taken when the response was received.
+     * @return a new instance of {@link ClientTimings}.
+     */
+    public static ClientTimings since(long start, long sent, long received) {
+        return new ClientTimings(sent - start, received - sent, System.nanoTime() - received);
+    }
+
+    public long getBuildTime() {
+        return buildTime;
+    }
+
+    public long getBuildTime(TimeUnit unit) {
+        return unit.convert(buildTime, TimeUnit.NANOSECONDS);
+    }
+
+    public long getNetworkTime() {
+        return networkTime;
+    }
+
+    public long getNetworkTime(TimeUnit unit) {
+        return unit.convert(networkTime, TimeUnit.NANOSECONDS);
+    }
+
+    public long getParseTime() {
+        return parseTime;
+    }
+
+    public long getParseTime(TimeUnit unit) {
+        return unit.convert(parseTime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "ClientTimings{" +
+                "buildTime=" + buildTime +
+                ", networkTime=" + networkTime +
+                ", parseTime=" + parseTime +
+                '}';
+    }
+}
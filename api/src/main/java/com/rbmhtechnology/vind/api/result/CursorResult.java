@@ -75,11 +75,13 @@ public class CursorResult extends SearchResult {
     public  <P> BeanSearchResult<P> toPojoResult(SearchResult searchResult, Class<P> clazz) {
         return new BeanSliceResult<>(searchResult.numOfResults,
                 searchResult.getQueryTime(),
-                searchResult.results.stream().map(d -> AnnotationUtil.createPojo(d, clazz)).collect(Collectors.toList()),
+                searchResult.results.stream().map(AnnotationUtil.getPojoMapper(clazz)::toPojo).collect(Collectors.toList()),
                 searchResult.query,
                 searchResult.facetResults,
                 searchResult.server,
                 clazz
-        ).setElapsedTime(searchResult.getElapsedTime());
+        ).setElapsedTime(searchResult.getElapsedTime())
+                .setRawQuery(searchResult::getRawQuery)
+                .setTimings(searchResult.getTimings());
     }
 }
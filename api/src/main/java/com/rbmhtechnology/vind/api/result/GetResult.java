@@ -119,7 +119,7 @@ public class GetResult {
 
     public  <P> BeanGetResult<P> toPojoResult(GetResult getResult, Class<P> clazz) {
         return new BeanGetResult<>(getResult.numOfResults,
-                getResult.results.stream().map(d -> AnnotationUtil.createPojo(d, clazz)).collect(Collectors.toList()),
+                getResult.results.stream().map(AnnotationUtil.getPojoMapper(clazz)::toPojo).collect(Collectors.toList()),
                 getResult.query,
                 clazz,
                 queryTime
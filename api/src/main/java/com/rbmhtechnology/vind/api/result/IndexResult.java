@@ -8,6 +8,7 @@ public class IndexResult {
 
     private final Long queryTime;
     private Long elapsedTime;
+    private long savedRoundTrips;
 
     public IndexResult(Long queryTime) {
         this.queryTime = queryTime;
@@ -25,4 +26,17 @@ public class IndexResult {
         this.elapsedTime = elapsedTime;
         return this;
     }
+
+    /**
+     * @return number of requests to the backend the indexing saved by batching them, compared to sending them per
+     * document.
+     */
+    public long getSavedRoundTrips() {
+        return savedRoundTrips;
+    }
+
+    public IndexResult setSavedRoundTrips(long savedRoundTrips) {
+        this.savedRoundTrips = savedRoundTrips;
+        return this;
+    }
 }
@@ -8,8 +8,13 @@ import com.rbmhtechnology.vind.model.DocumentFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This class stores the search result documents as instances of {@link Document}.
@@ -25,6 +30,7 @@ public abstract class InverseSearchResult {
     protected final SearchServer server;
     protected final Long queryTime;
     private Long elapsedTime;
+    private Map<String, Set<String>> documentMatches = Collections.emptyMap();
 
     /**
      * Creates a new instance of {@link InverseSearchResult}.
@@ -60,6 +66,46 @@ public abstract class InverseSearchResult {
     }
 
 
+    /**
+     * Gets which of the queries of this result each document of the inverse search matches.
+     * @return the ids of the matching queries by document id, in the order of the documents of the inverse search.
+     */
+    public Map<String, Set<String>> getDocumentMatches() {
+        return Collections.unmodifiableMap(documentMatches);
+    }
+
+    /**
+     * Gets the queries of this result a document of the inverse search matches.
+     * @param documentId id of the percolated document.
+     * @return the ids of the matching queries.
+     */
+    public Set<String> getMatchingQueryIds(String documentId) {
+        return documentMatches.getOrDefault(documentId, Collections.emptySet());
+    }
+
+    /**
+     * Sets which of the queries of this result each document of the inverse search matches.
+     * @param documentMatches the ids of the matching queries by document id.
+     * @return this instance of {@link InverseSearchResult}.
+     */
+    public InverseSearchResult setDocumentMatches(Map<String, Set<String>> documentMatches) {
+        this.documentMatches = documentMatches;
+        return this;
+    }
+
+    /**
+     * Builds the matches by document from the positions of the documents each query of the result has matched.
+     * @param docs the documents of the inverse search.
+     * @param slots the positions of the matched documents in the inverse search by query id.
+     * @return the ids of the matching queries by document id, in the order of the documents.
+     */
+    public static Map<String, Set<String>> documentMatches(List<Document> docs, Map<String, ? extends Collection<Integer>> slots) {
+        final Map<String, Set<String>> matches = new LinkedHashMap<>();
+        docs.forEach(doc -> matches.put(doc.getId(), new LinkedHashSet<>()));
+        slots.forEach((queryId, querySlots) -> querySlots.forEach(slot -> matches.get(docs.get(slot).getId()).add(queryId)));
+        return matches;
+    }
+
     public InverseSearchResult print() {
         log.info(this.toString());
         return this;
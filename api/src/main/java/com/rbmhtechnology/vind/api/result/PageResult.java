@@ -133,11 +133,13 @@ public class PageResult extends SearchResult {
     public  <P> BeanSearchResult<P> toPojoResult(SearchResult searchResult, Class<P> clazz) {
         return new BeanPageResult<>(searchResult.numOfResults,
                 searchResult.getQueryTime(),
-                searchResult.results.stream().map(d -> AnnotationUtil.createPojo(d, clazz)).collect(Collectors.toList()),
+                searchResult.results.stream().map(AnnotationUtil.getPojoMapper(clazz)::toPojo).collect(Collectors.toList()),
                 searchResult.query,
                 searchResult.facetResults,
                 searchResult.server,
                 clazz
-        ).setElapsedTime(searchResult.getElapsedTime());
+        ).setElapsedTime(searchResult.getElapsedTime())
+                .setRawQuery(searchResult::getRawQuery)
+                .setTimings(searchResult.getTimings());
     }
 }
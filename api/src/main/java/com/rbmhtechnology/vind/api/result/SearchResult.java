@@ -1,5 +1,6 @@
 package com.rbmhtechnology.vind.api.result;
 
+import com.google.common.base.Suppliers;
 import com.rbmhtechnology.vind.api.Document;
 import com.rbmhtechnology.vind.api.SearchServer;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
@@ -9,6 +10,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * This class stores the search result documents as instances of {@link Document}.
@@ -25,6 +27,8 @@ public abstract class SearchResult {
     protected final SearchServer server;
     protected final Long queryTime;
     private Long elapsedTime;
+    private Supplier<String> rawQuery;
+    private ClientTimings timings;
 
     /**
      * DEPRECATED: use the signature providing the time the query took.{@link SearchResult#SearchResult(long, long, List, FulltextSearch, FacetResults, SearchServer, DocumentFactory)}
@@ -145,4 +149,38 @@ public abstract class SearchResult {
     public FulltextSearch getQuery() {
         return query;
     }
+
+    /**
+     * Gets the query as it has been sent to the backend. It is rendered when asked for the first time.
+     * @return the raw backend query, null if the backend does not provide it.
+     */
+    public String getRawQuery() {
+        return rawQuery != null ? rawQuery.get() : null;
+    }
+
+    /**
+     * Sets the query as it has been sent to the backend, so it does not need to be built again e.g. for monitoring.
+     * @param rawQuery supplier rendering the raw backend query, it is called at most once.
+     * @return this instance of {@link SearchResult} with the raw query.
+     */
+    public SearchResult setRawQuery(Supplier<String> rawQuery) {
+        this.rawQuery = rawQuery != null ? Suppliers.memoize(rawQuery::get) : null;
+        return this;
+    }
+
+    /**
+     * @return the client side phases of the request, null if the backend does not measure them.
+     */
+    public ClientTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * @param timings the client side phases of the request.
+     * @return this instance of {@link SearchResult} with the timings.
+     */
+    public SearchResult setTimings(ClientTimings timings) {
+        this.timings = timings;
+        return this;
+    }
 }
@@ -1,11 +1,13 @@
 package com.rbmhtechnology.vind.api.result;
 
+import com.google.common.base.Suppliers;
 import com.rbmhtechnology.vind.api.result.facet.TermFacetResult;
 import com.rbmhtechnology.vind.model.DocumentFactory;
 import com.rbmhtechnology.vind.model.FieldDescriptor;
 
 import java.util.HashMap;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Class used to store the suggestion query results.
@@ -18,6 +20,8 @@ public class SuggestionResult {
     private DocumentFactory factory;
     private Long queryTime;
     private Long elapsedTime;
+    private Supplier<String> rawQuery;
+    private ClientTimings timings;
 
     public SuggestionResult(){}
 
@@ -122,4 +126,38 @@ public class SuggestionResult {
         this.elapsedTime = elapsedTime;
         return this;
     }
+
+    /**
+     * Gets the query as it has been sent to the backend. It is rendered when asked for the first time.
+     * @return the raw backend query, null if the backend does not provide it.
+     */
+    public String getRawQuery() {
+        return rawQuery != null ? rawQuery.get() : null;
+    }
+
+    /**
+     * Sets the query as it has been sent to the backend, so it does not need to be built again e.g. for monitoring.
+     * @param rawQuery supplier rendering the raw backend query, it is called at most once.
+     * @return this instance of {@link SuggestionResult} with the raw query.
+     */
+    public SuggestionResult setRawQuery(Supplier<String> rawQuery) {
+        this.rawQuery = rawQuery != null ? Suppliers.memoize(rawQuery::get) : null;
+        return this;
+    }
+
+    /**
+     * @return the client side phases of the request, null if the backend does not measure them.
+     */
+    public ClientTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * @param timings the client side phases of the request.
+     * @return this instance of {@link SuggestionResult} with the timings.
+     */
+    public SuggestionResult setTimings(ClientTimings timings) {
+        this.timings = timings;
+        return this;
+    }
 }
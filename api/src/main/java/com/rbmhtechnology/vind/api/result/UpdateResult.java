@@ -0,0 +1,70 @@
+package com.rbmhtechnology.vind.api.result;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Result of a batch of {@link com.rbmhtechnology.vind.api.query.update.Update}s, telling for each document id whether
+ * its update has been applied.
+ */
+public class UpdateResult {
+
+    private final Map<String, Boolean> results = new LinkedHashMap<>();
+    private Long queryTime;
+    private Long elapsedTime;
+
+    /**
+     * Records the outcome of an update. If there are several updates for the same document, the document is reported
+     * as updated only if all of them have been applied.
+     * @param id id of the updated document.
+     * @param updated true if the update has been applied.
+     * @return this {@link UpdateResult}.
+     */
+    public UpdateResult addResult(String id, boolean updated) {
+        results.merge(id, updated, Boolean::logicalAnd);
+        return this;
+    }
+
+    /**
+     * @return for each document id whether its update has been applied, in the order of the updates.
+     */
+    public Map<String, Boolean> getResults() {
+        return Collections.unmodifiableMap(results);
+    }
+
+    public boolean isUpdated(String id) {
+        return results.getOrDefault(id, false);
+    }
+
+    public List<String> getFailedIds() {
+        return results.entrySet().stream()
+                .filter(result -> !result.getValue())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    public boolean isSuccessful() {
+        return !results.containsValue(false);
+    }
+
+    public Long getQueryTime() {
+        return queryTime;
+    }
+
+    public UpdateResult setQueryTime(Long queryTime) {
+        this.queryTime = queryTime;
+        return this;
+    }
+
+    public Long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    public UpdateResult setElapsedTime(Long elapsedTime) {
+        this.elapsedTime = elapsedTime;
+        return this;
+    }
+}
@@ -40,8 +40,36 @@ public class SearchConfiguration {
     public static final String SEARCH_API_KEY_ID = "search.api.key.id";
     public static final String SEARCH_AUTHENTICATION_METHOD = "search.authentication.method";
     public static final String TRACK_TOTAL_HITS = "search.track.total.hits";
+    public static final String POJO_MAPPER_PROVIDER = "search.pojo.mapper.provider";
     public static final String ELASTIC_VERSION_CONFLICT_UPDATE_RETRIES = "vind.elastic.version.conflict.update.retries";
     public static final String ELASTIC_DELETE_ON_VERSION_CONFLICT = "vind.elastic.delete.on.version.conflict";
+    public static final String ELASTIC_FOOTPRINT_REFRESH_INTERVAL = "vind.elastic.footprint.refresh.interval";
+    public static final String ELASTIC_QUERY_VALIDATION_CACHE_SIZE = "vind.elastic.query.validation.cache.size";
+    public static final String ELASTIC_UPDATE_SCRIPT_CACHE_SIZE = "vind.elastic.update.script.cache.size";
+    public static final String ELASTIC_UPDATE_STORED_SCRIPTS = "vind.elastic.update.stored.scripts";
+    public static final String INDEX_BULK_QUEUE_SIZE = "vind.index.bulk.queue.size";
+    public static final String INDEX_BULK_BATCH_SIZE = "vind.index.bulk.batch.size";
+    public static final String INDEX_BULK_BATCH_BYTES = "vind.index.bulk.batch.bytes";
+    public static final String INDEX_BULK_FLUSH_INTERVAL = "vind.index.bulk.flush.interval";
+    public static final String INDEX_BULK_CONCURRENT_REQUESTS = "vind.index.bulk.concurrent.requests";
+    public static final String SOLR_NESTED_ROOT_OVERWRITE = "vind.solr.nested.root.overwrite";
+    public static final String SOLR_INVERSE_SEARCH_CACHE_SIZE = "vind.solr.inverse.search.cache.size";
+    public static final String SOLR_FILTER_SPLIT = "vind.solr.filter.split";
+    public static final String SOLR_FILTER_UNCACHED_TERMS = "vind.solr.filter.uncached.terms";
+    public static final String RESULT_CACHE_SIZE = "vind.result.cache.size";
+    public static final String RESULT_CACHE_TTL = "vind.result.cache.ttl";
+    public static final String DATE_MATH_ROUNDING = "vind.datemath.rounding";
+    public static final String EXPORT_PAGE_SIZE = "vind.export.page.size";
+    public static final String MONITORING_WRITER_BUFFER_SIZE = "vind.monitoring.writer.buffer.size";
+    public static final String MONITORING_WRITER_BATCH_SIZE = "vind.monitoring.writer.batch.size";
+    public static final String MONITORING_WRITER_FLUSH_INTERVAL = "vind.monitoring.writer.flush.interval";
+    public static final String MONITORING_WRITER_OVERFLOW = "vind.monitoring.writer.overflow";
+    public static final String MONITORING_RAW_QUERY_SAMPLE_RATE = "vind.monitoring.rawquery.sample.rate";
+    public static final String MONITORING_SAMPLE_RATE = "vind.monitoring.sample.rate";
+    public static final String MONITORING_SESSION_SAMPLE_RATE = "vind.monitoring.session.sample.rate";
+    public static final String MONITORING_SLOW_THRESHOLD = "vind.monitoring.slow.threshold";
+    public static final String MONITORING_KEEP_ZERO_HITS = "vind.monitoring.keep.zero.hits";
+    public static final String MONITORING_RATE_LIMIT = "vind.monitoring.rate.limit";
 
     private static Logger log = LoggerFactory.getLogger(SearchConfiguration.class);
 
@@ -132,6 +160,14 @@ public class SearchConfiguration {
         }
     }
 
+    public static double get(String key, double defaultValue) {
+        try {
+            return Double.parseDouble(PROPERTIES.getProperty(key, String.valueOf(defaultValue)));
+        } catch (NullPointerException | NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     public static boolean get(String key, boolean defaultValue) {
         log.trace("Get property {}", key);
         try {
@@ -149,6 +185,10 @@ public class SearchConfiguration {
         set(key, String.valueOf(value));
     }
 
+    public static void set(String key, double value) {
+        set(key, String.valueOf(value));
+    }
+
     public static void set(String key, boolean value) {
         set(key, String.valueOf(value));
     }
@@ -0,0 +1,150 @@
+package com.rbmhtechnology.vind.model;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptor.UseCase;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Memoizes the backend specific names of {@link FieldDescriptor}s. The names of a descriptor for all the
+ * {@link UseCase}s (and for the use case {@code null}) are computed together the first time the descriptor is looked
+ * up and kept in an immutable table; names for a search context are computed once per context. Descriptors are
+ * referenced weakly and compared by identity.
+ * @param <N> Type of the backend field name.
+ */
+public final class FieldNameTable<N> {
+
+    /**
+     * Upper bound of the contexts memoized per descriptor, names for further contexts are computed on each call.
+     */
+    private static final int MAX_CONTEXTS = 256;
+
+    private static final UseCase[] USE_CASES = UseCase.values();
+
+    /**
+     * The backend naming scheme.
+     * @param <N> Type of the backend field name.
+     */
+    @FunctionalInterface
+    public interface Naming<N> {
+        /**
+         * @param descriptor {@link FieldDescriptor} to get the name for, not null.
+         * @param useCase {@link UseCase} to get the name for, may be null.
+         * @param context search context, may be null.
+         * @return the backend name or null if the descriptor does not support the use case.
+         */
+        N getName(FieldDescriptor<?> descriptor, UseCase useCase, String context);
+    }
+
+    private final Naming<N> naming;
+    private final Cache<FieldDescriptor<?>, Names<N>> tables = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * @param naming the backend naming scheme, it must be a pure function of the descriptor configuration, the use
+     *               case and the context.
+     */
+    public FieldNameTable(Naming<N> naming) {
+        this.naming = Objects.requireNonNull(naming);
+    }
+
+    /**
+     * Gets the memoized backend name.
+     * @param descriptor {@link FieldDescriptor} to get the name for.
+     * @param useCase {@link UseCase} to get the name for, may be null.
+     * @param context search context, may be null.
+     * @return the backend name or null if the descriptor does not support the use case.
+     */
+    public N get(FieldDescriptor<?> descriptor, UseCase useCase, String context) {
+        if (descriptor == null) {
+            return naming.getName(null, useCase, context);
+        }
+        Names<N> names = tables.getIfPresent(descriptor);
+        if (names == null || !names.isValidFor(descriptor)) {
+            names = new Names<>(naming, descriptor);
+            tables.put(descriptor, names);
+        }
+        return names.get(descriptor, useCase, context);
+    }
+
+    private static int index(UseCase useCase) {
+        return useCase == null ? USE_CASES.length : useCase.ordinal();
+    }
+
+    /**
+     * The names of a single descriptor. Sort and context configuration can be changed after a descriptor has been
+     * built, the table is recomputed if they do not match anymore. The descriptor itself is not referenced, so it
+     * does not prevent the weak key of the table from being collected.
+     */
+    private static final class Names<N> {
+        private final Naming<N> naming;
+        private final boolean sort;
+        private final boolean contextualized;
+        private final Object[] names;
+        private final ConcurrentMap<String, Object[]> contextNames;
+
+        private Names(Naming<N> naming, FieldDescriptor<?> descriptor) {
+            this.naming = naming;
+            this.sort = descriptor.isSort();
+            this.contextualized = descriptor.isContextualized();
+            this.names = compute(descriptor, null);
+            this.contextNames = contextualized ? new ConcurrentHashMap<>() : null;
+        }
+
+        private boolean isValidFor(FieldDescriptor<?> descriptor) {
+            return descriptor.isSort() == sort && descriptor.isContextualized() == contextualized;
+        }
+
+        private Object[] compute(FieldDescriptor<?> descriptor, String context) {
+            final Object[] result = new Object[USE_CASES.length + 1];
+            for (UseCase useCase : USE_CASES) {
+                result[index(useCase)] = name(descriptor, useCase, context);
+            }
+            result[index(null)] = name(descriptor, null, context);
+            return result;
+        }
+
+        /**
+         * Naming failures are kept and thrown when the name is actually requested, as they would be without the table.
+         */
+        private Object name(FieldDescriptor<?> descriptor, UseCase useCase, String context) {
+            try {
+                return naming.getName(descriptor, useCase, context);
+            } catch (RuntimeException e) {
+                return new Failure(e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <N> N value(Object name) {
+            if (name instanceof Failure) {
+                throw ((Failure) name).exception;
+            }
+            return (N) name;
+        }
+
+        private N get(FieldDescriptor<?> descriptor, UseCase useCase, String context) {
+            if (context == null || !contextualized) {
+                return value(names[index(useCase)]);
+            }
+            Object[] contextualizedNames = contextNames.get(context);
+            if (contextualizedNames == null) {
+                if (contextNames.size() >= MAX_CONTEXTS) {
+                    return naming.getName(descriptor, useCase, context);
+                }
+                contextualizedNames = contextNames.computeIfAbsent(context, c -> compute(descriptor, c));
+            }
+            return value(contextualizedNames[index(useCase)]);
+        }
+    }
+
+    private static final class Failure {
+        private final RuntimeException exception;
+
+        private Failure(RuntimeException exception) {
+            this.exception = exception;
+        }
+    }
+}
@@ -2,13 +2,12 @@ package com.rbmhtechnology.vind.model;
 
 import com.rbmhtechnology.vind.api.Document;
 import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.api.query.filter.FilterCodec;
 import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearchQueryFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.text.MessageFormat;
 import java.util.ArrayList;
@@ -46,16 +45,25 @@ public class InverseSearchQuery {
         this.setValue(InverseSearchQueryFactory.BINARY_QUERY_FIELD, ByteBuffer.wrap(serializedQuery));
     }
 
-    public static byte[] serializeQuery(Filter query) throws IOException
-    {
-        final ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
-        final ObjectOutputStream oos = new ObjectOutputStream(bytesOut);
-        oos.writeObject(query);
-        oos.flush();
-        byte[] bytes = bytesOut.toByteArray();
-        bytesOut.close();
-        oos.close();
-        return bytes;
+    /**
+     * Encodes a query to be stored with {@link FilterCodec}.
+     * @param query {@link Filter} to encode.
+     * @return the encoded query.
+     * @throws IOException if the query cannot be encoded.
+     */
+    public static byte[] serializeQuery(Filter query) throws IOException {
+        return FilterCodec.encode(query);
+    }
+
+    /**
+     * Decodes a stored query, written either by {@link #serializeQuery(Filter)} or by Java serialization.
+     * @param data the stored query.
+     * @param factory {@link DocumentFactory} of the documents the query applies to.
+     * @return the decoded {@link Filter}.
+     * @throws IOException if the query cannot be decoded.
+     */
+    public static Filter deserializeQuery(byte[] data, DocumentFactory factory) throws IOException {
+        return FilterCodec.decode(data, factory);
     }
 
     public InverseSearchQuery setValue(String field, Object value) {
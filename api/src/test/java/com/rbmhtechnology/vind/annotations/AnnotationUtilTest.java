@@ -105,6 +105,64 @@ public class AnnotationUtilTest {
         assertThat("pojo.someInternalData", pojo.someInternalData, nullValue());
     }
 
+    @Test
+    public void testGetDocumentFactoryIsCached() {
+        final DocumentFactory factory = AnnotationUtil.getDocumentFactory(Pojo2.class);
+
+        assertThat("factory.type", factory.getType(), is("Pojo2"));
+        assertThat("factory.fields", factory.getFields().keySet(), containsInAnyOrder("title", "data", "cats", "tax", "counter"));
+        assertThat("cached factory", AnnotationUtil.getDocumentFactory(Pojo2.class), sameInstance(factory));
+        assertThat("parent factory", AnnotationUtil.getDocumentFactory(Pojo1.class), not(sameInstance(factory)));
+
+        final Pojo2 p2 = new Pojo2();
+        p2.id = UUID.randomUUID().toString();
+        p2.title = "Title";
+        final Document doc = AnnotationUtil.createDocument(p2);
+        assertThat("doc.field(title)", doc.getFieldDescriptor("title"), sameInstance(factory.getField("title")));
+    }
+
+    @Test
+    public void testPojoMapperRoundTrip() {
+        final PojoMapper<Pojo2> mapper = new MethodHandlePojoMapperProvider().createMapper(Pojo2.class);
+        assertThat("mapper.factory", mapper.getFactory(), sameInstance(AnnotationUtil.getDocumentFactory(Pojo2.class)));
+        assertThat("cached mapper", AnnotationUtil.getPojoMapper(Pojo2.class), sameInstance(AnnotationUtil.getPojoMapper(Pojo2.class)));
+
+        Pojo2 p2 = new Pojo2();
+        p2.id = UUID.randomUUID().toString();
+        p2.title = "Title";
+        p2.someInternalData = UUID.randomUUID().toString();
+        p2.content = "Content";
+        p2.categories = new HashSet<>(Arrays.asList("cat1", "cat2", "cat3"));
+        p2.counter = 17;
+        p2.tax = new Taxonomy("id-3","term 3",Arrays.asList("term 3","third term"));
+
+        final Document doc = mapper.toDocument(p2);
+        final Document reflectiveDoc = AnnotationUtil.createDocument(p2);
+
+        assertThat("doc.id", doc.getId(), is(reflectiveDoc.getId()));
+        assertThat("doc.type", doc.getType(), is(reflectiveDoc.getType()));
+        for (String field : Arrays.asList("title", "data", "cats", "counter", "tax")) {
+            assertThat("doc.field(" + field + ")", doc.getValue(field), equalTo(reflectiveDoc.getValue(field)));
+        }
+
+        final Pojo2 pojo = mapper.toPojo(doc);
+
+        assertThat("pojo.id", pojo.id, is(p2.id));
+        assertThat("pojo.title", pojo.title, is(p2.title));
+        assertThat("pojo.content", pojo.content, is(p2.content));
+        assertThat("pojo.counter", pojo.counter, is(p2.counter));
+        assertThat("pojo.categories", pojo.categories, CoreMatchers.<Collection<String>>allOf(hasSize(3), containsInAnyOrder(p2.categories.toArray())));
+        assertThat("pojo.categories", pojo.categories, not(sameInstance(p2.categories)));
+        assertThat("pojo.someInternalData", pojo.someInternalData, nullValue());
+        assertThat("pojo.tax", pojo.tax, nullValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPojoMapperTypeMismatch() {
+        final Document doc = AnnotationUtil.getDocumentFactory(Pojo2.class).createDoc("foo");
+        new MethodHandlePojoMapperProvider().createMapper(Pojo1.class).toPojo(doc);
+    }
+
 
     @Type(name = "Pojo")
     @SuppressWarnings("unused")
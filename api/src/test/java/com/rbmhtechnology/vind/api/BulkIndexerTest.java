@@ -0,0 +1,170 @@
+package com.rbmhtechnology.vind.api;
+
+import com.rbmhtechnology.vind.api.result.IndexResult;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+public class BulkIndexerTest {
+
+    private final DocumentFactory factory = new DocumentFactoryBuilder("asset").build();
+
+    @Test
+    public void testFlushBySize() throws InterruptedException {
+        final RecordingIndexer indexer = new RecordingIndexer(new BulkIndexer.Options()
+                .setBatchSize(10)
+                .setFlushInterval(0));
+
+        for (int i = 0; i < 25; i++) {
+            indexer.add(factory.createDoc(String.valueOf(i)));
+        }
+        indexer.flush();
+
+        Assert.assertEquals(Arrays.asList(5, 10, 10), indexer.sortedBatchSizes());
+        Assert.assertEquals(25, indexer.getIndexedCount());
+        Assert.assertEquals(0, indexer.getPendingCount());
+        indexer.close();
+    }
+
+    @Test
+    public void testFlushByBytes() throws InterruptedException {
+        final RecordingIndexer indexer = new RecordingIndexer(new BulkIndexer.Options()
+                .setBatchBytes(250)
+                .setSizeEstimator(document -> 100)
+                .setFlushInterval(0));
+
+        for (int i = 0; i < 5; i++) {
+            indexer.add(factory.createDoc(String.valueOf(i)));
+        }
+        indexer.close();
+
+        Assert.assertEquals(Arrays.asList(1, 2, 2), indexer.sortedBatchSizes());
+    }
+
+    @Test
+    public void testFlushByTime() throws InterruptedException {
+        final CountDownLatch sent = new CountDownLatch(1);
+        final RecordingIndexer indexer = new RecordingIndexer(new BulkIndexer.Options()
+                .setFlushInterval(50)
+                .setListener(new BulkIndexer.Listener() {
+                    @Override
+                    public void afterBulk(List<Document> documents, IndexResult result) {
+                        sent.countDown();
+                    }
+                }));
+
+        indexer.add(factory.createDoc("1"));
+        Assert.assertTrue(sent.await(5, TimeUnit.SECONDS));
+        indexer.close();
+    }
+
+    @Test
+    public void testFailureCallbacks() throws InterruptedException {
+        final List<String> failed = Collections.synchronizedList(new ArrayList<>());
+        final BulkIndexer indexer = new BulkIndexer(new BulkIndexer.Options()
+                .setBatchSize(2)
+                .setFlushInterval(0)
+                .setListener(new BulkIndexer.Listener() {
+                    @Override
+                    public void onFailure(Document document, Exception cause) {
+                        failed.add(document.getId());
+                    }
+                })) {
+            @Override
+            protected IndexResult indexBatch(List<Document> documents, int withinMs, BiConsumer<Document, Exception> failures) {
+                for (Document document : documents) {
+                    if (document.getId().equals("rejected")) {
+                        failures.accept(document, new IllegalArgumentException("rejected"));
+                    }
+                    if (document.getId().equals("broken")) {
+                        throw new IllegalStateException("request failed");
+                    }
+                }
+                return new IndexResult(0L);
+            }
+        };
+
+        indexer.add(Arrays.asList(factory.createDoc("1"), factory.createDoc("rejected")));
+        indexer.add(Arrays.asList(factory.createDoc("broken"), factory.createDoc("2")));
+        indexer.close();
+
+        Assert.assertEquals(Arrays.asList("2", "broken", "rejected"), sorted(failed));
+        Assert.assertEquals(1, indexer.getIndexedCount());
+        Assert.assertEquals(3, indexer.getFailedCount());
+    }
+
+    @Test
+    public void testBackpressure() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final BulkIndexer indexer = new BulkIndexer(new BulkIndexer.Options()
+                .setQueueSize(2)
+                .setBatchSize(1)
+                .setFlushInterval(0)) {
+            @Override
+            protected IndexResult indexBatch(List<Document> documents, int withinMs, BiConsumer<Document, Exception> failures) throws InterruptedException {
+                release.await();
+                return new IndexResult(0L);
+            }
+        };
+
+        Assert.assertTrue(indexer.offer(factory.createDoc("1"), 1, TimeUnit.SECONDS));
+        Assert.assertTrue(indexer.offer(factory.createDoc("2"), 1, TimeUnit.SECONDS));
+        Assert.assertFalse(indexer.offer(factory.createDoc("3"), 50, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(2, indexer.getPendingCount());
+
+        release.countDown();
+        Assert.assertTrue(indexer.offer(factory.createDoc("3"), 5, TimeUnit.SECONDS));
+        indexer.close();
+        Assert.assertEquals(3, indexer.getIndexedCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddAfterClose() throws InterruptedException {
+        final RecordingIndexer indexer = new RecordingIndexer(new BulkIndexer.Options());
+        indexer.close();
+        indexer.add(factory.createDoc("1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testQueueSmallerThanBatchWithoutFlushInterval() {
+        new RecordingIndexer(new BulkIndexer.Options()
+                .setQueueSize(5)
+                .setBatchSize(10)
+                .setFlushInterval(0));
+    }
+
+    private static List<String> sorted(List<String> values) {
+        final List<String> result = new ArrayList<>(values);
+        Collections.sort(result);
+        return result;
+    }
+
+    private static class RecordingIndexer extends BulkIndexer {
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        private RecordingIndexer(Options options) {
+            super(options);
+        }
+
+        @Override
+        protected IndexResult indexBatch(List<Document> documents, int withinMs, BiConsumer<Document, Exception> failures) {
+            batchSizes.add(documents.size());
+            return new IndexResult(0L);
+        }
+
+        private List<Integer> sortedBatchSizes() {
+            final List<Integer> result = new ArrayList<>(batchSizes);
+            Collections.sort(result);
+            return result;
+        }
+    }
+}
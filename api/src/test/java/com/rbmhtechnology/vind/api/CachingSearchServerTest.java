@@ -0,0 +1,234 @@
+package com.rbmhtechnology.vind.api;
+
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.query.delete.Delete;
+import com.rbmhtechnology.vind.api.query.division.Cursor;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
+import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearch;
+import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
+import com.rbmhtechnology.vind.api.query.update.Update;
+import com.rbmhtechnology.vind.api.result.BeanGetResult;
+import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.CursorResult;
+import com.rbmhtechnology.vind.api.result.DeleteResult;
+import com.rbmhtechnology.vind.api.result.GetResult;
+import com.rbmhtechnology.vind.api.result.IndexResult;
+import com.rbmhtechnology.vind.api.result.InverseSearchResult;
+import com.rbmhtechnology.vind.api.result.PageResult;
+import com.rbmhtechnology.vind.api.result.SearchResult;
+import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.InverseSearchQuery;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+public class CachingSearchServerTest {
+
+    private final DocumentFactory factory = new DocumentFactoryBuilder("asset").build();
+
+    @Test
+    public void testSearchResultsAreCached() {
+        final CountingSearchServer backend = new CountingSearchServer();
+        final CachingSearchServer server = new CachingSearchServer(backend, 100, Duration.ofMinutes(1));
+
+        final SearchResult result = server.execute(Search.fulltext("bull").filter(Filter.eq("kind", "video")).page(1, 10), factory);
+        Assert.assertSame(result, server.execute(Search.fulltext("bull").filter(Filter.eq("kind", "video")).page(1, 10), factory));
+        Assert.assertEquals(1, backend.searches);
+
+        server.execute(Search.fulltext("bull").filter(Filter.eq("kind", "video")).page(2, 10), factory);
+        server.execute(Search.fulltext("bull").filter(Filter.eq("kind", "video", Filter.Scope.Facet)).page(1, 10), factory);
+        server.execute(Search.fulltext("bull").page(1, 10), factory);
+        Assert.assertEquals(4, backend.searches);
+
+        server.execute(Search.fulltext("bull").cursor(1), factory);
+        server.execute(Search.fulltext("bull").cursor(1), factory);
+        Assert.assertEquals(6, backend.searches);
+
+        Assert.assertEquals(1, server.getCacheStats().hitCount());
+        Assert.assertEquals(4, server.getCacheSize());
+    }
+
+    @Test
+    public void testWritesInvalidate() {
+        final CountingSearchServer backend = new CountingSearchServer();
+        final CachingSearchServer server = new CachingSearchServer(backend, 100, Duration.ofMinutes(1));
+
+        server.execute(Search.fulltext(), factory);
+        server.execute(Search.getById("1"), factory);
+        server.index(factory.createDoc("1"));
+        server.execute(Search.fulltext(), factory);
+        server.execute(Search.getById("1"), factory);
+        Assert.assertEquals(2, backend.searches);
+        Assert.assertEquals(2, backend.gets);
+
+        server.execute(Search.update("1"), factory);
+        server.execute(Search.fulltext(), factory);
+        server.delete(factory.createDoc("1"));
+        server.execute(Search.fulltext(), factory);
+        Assert.assertEquals(4, backend.searches);
+    }
+
+    @Test
+    public void testEviction() {
+        final CountingSearchServer backend = new CountingSearchServer();
+        final CachingSearchServer server = new CachingSearchServer(backend, 100, Duration.ofMillis(0));
+
+        server.execute(Search.fulltext(), factory);
+        server.execute(Search.fulltext(), factory);
+        Assert.assertEquals(2, backend.searches);
+        Assert.assertEquals(0, server.getCacheStats().hitCount());
+    }
+
+    private static class CountingSearchServer extends SearchServer {
+        private int searches = 0;
+        private int gets = 0;
+
+        @Override
+        public Object getBackend() {
+            return null;
+        }
+
+        @Override
+        public IndexResult index(Document... doc) {
+            return new IndexResult(0L);
+        }
+
+        @Override
+        public IndexResult index(List<Document> doc) {
+            return new IndexResult(0L);
+        }
+
+        @Override
+        public IndexResult indexWithin(Document doc, int withinMs) {
+            return new IndexResult(0L);
+        }
+
+        @Override
+        public IndexResult indexWithin(List<Document> doc, int withinMs) {
+            return new IndexResult(0L);
+        }
+
+        @Override
+        public DeleteResult delete(Document doc) {
+            return new DeleteResult(0L);
+        }
+
+        @Override
+        public DeleteResult deleteWithin(Document doc, int withinMs) {
+            return new DeleteResult(0L);
+        }
+
+        @Override
+        public boolean execute(Update update, DocumentFactory factory) {
+            return true;
+        }
+
+        @Override
+        public DeleteResult execute(Delete delete, DocumentFactory factory) {
+            return new DeleteResult(0L);
+        }
+
+        @Override
+        public void commit(boolean optimize) {
+        }
+
+        @Override
+        public <T> BeanSearchResult<T> execute(FulltextSearch search, Class<T> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SearchResult execute(FulltextSearch search, DocumentFactory factory) {
+            searches++;
+            if (search.getResultSet() instanceof Cursor) {
+                return new CursorResult(0, 0, Collections.emptyList(), search, null, this, factory);
+            }
+            return new PageResult(0, 0, Collections.emptyList(), search, null, this, factory);
+        }
+
+        @Override
+        public String getRawQuery(FulltextSearch search, DocumentFactory factory) {
+            return null;
+        }
+
+        @Override
+        public <T> String getRawQuery(FulltextSearch search, Class<T> c) {
+            return null;
+        }
+
+        @Override
+        public <T> SuggestionResult execute(ExecutableSuggestionSearch search, Class<T> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets, DocumentFactory childFactory) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getRawQuery(ExecutableSuggestionSearch search, DocumentFactory factory) {
+            return null;
+        }
+
+        @Override
+        public String getRawQuery(ExecutableSuggestionSearch search, DocumentFactory factory, DocumentFactory childFactory) {
+            return null;
+        }
+
+        @Override
+        public <T> String getRawQuery(ExecutableSuggestionSearch search, Class<T> c) {
+            return null;
+        }
+
+        @Override
+        public <T> BeanGetResult<T> execute(RealTimeGet search, Class<T> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public GetResult execute(RealTimeGet search, DocumentFactory assets) {
+            gets++;
+            return new GetResult(0, Collections.emptyList(), search, assets, 0);
+        }
+
+        @Override
+        public InverseSearchResult execute(InverseSearch inverseSearch, DocumentFactory factory) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public IndexResult addInverseSearchQuery(InverseSearchQuery query) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clearIndex() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Class<? extends ServiceProvider> getServiceProviderClass() {
+            return null;
+        }
+
+        @Override
+        public void closeCursor(String cursor) {
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.rbmhtechnology.vind.api;
+
+import com.rbmhtechnology.vind.SearchServerException;
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.query.division.Cursor;
+import com.rbmhtechnology.vind.api.result.CursorResult;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class DocumentExportTest {
+
+    private final DocumentFactory factory = new DocumentFactoryBuilder("asset").build();
+
+    @Test
+    public void testExportAllPages() {
+        final CursorPages pages = new CursorPages(25);
+        final List<String> ids;
+        try (Stream<Document> export = new DocumentExport(Search.fulltext().cursor(1, 10), pages).stream()) {
+            ids = export.map(Document::getId).collect(Collectors.toList());
+        }
+        Assert.assertEquals(IntStream.range(0, 25).mapToObj(String::valueOf).collect(Collectors.toList()), ids);
+        Assert.assertEquals(3, pages.fetched.get());
+        Assert.assertEquals(1, pages.closed.get());
+    }
+
+    @Test
+    public void testPrefetchIsBounded() throws InterruptedException {
+        final CursorPages pages = new CursorPages(100);
+        try (DocumentExport export = new DocumentExport(Search.fulltext().cursor(1, 10), pages)) {
+            Assert.assertEquals("0", export.next().getId());
+            waitFor(pages.fetched, 2);
+            Thread.sleep(100);
+            Assert.assertEquals(2, pages.fetched.get());
+
+            for (int i = 1; i < 11; i++) {
+                Assert.assertEquals(String.valueOf(i), export.next().getId());
+            }
+            waitFor(pages.fetched, 3);
+        }
+        Assert.assertEquals(1, pages.closed.get());
+    }
+
+    @Test
+    public void testClose() {
+        final CursorPages pages = new CursorPages(100);
+        final DocumentExport export = new DocumentExport(Search.fulltext().cursor(1, 10), pages);
+        Assert.assertTrue(export.hasNext());
+        export.close();
+        Assert.assertFalse(export.hasNext());
+        Assert.assertEquals(1, pages.closed.get());
+    }
+
+    @Test(expected = SearchServerException.class)
+    public void testFailingPage() {
+        final CursorPages pages = new CursorPages(100);
+        final DocumentExport export = new DocumentExport(Search.fulltext().cursor(1, 10), search -> {
+            if (((Cursor) search.getResultSet()).getSearchAfter() != null) {
+                throw new SearchServerException("Cannot issue query");
+            }
+            return pages.apply(search);
+        });
+        export.forEachRemaining(document -> {});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPageSearch() {
+        new DocumentExport(Search.fulltext().page(1, 10), new CursorPages(1));
+    }
+
+    private static void waitFor(AtomicInteger counter, int value) throws InterruptedException {
+        for (int i = 0; i < 100 && counter.get() < value; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(value, counter.get());
+    }
+
+    /**
+     * Pages through a fixed number of documents, the cursor being the offset of the next page.
+     */
+    private class CursorPages implements Function<FulltextSearch, CursorResult> {
+
+        private final int size;
+        private final AtomicInteger fetched = new AtomicInteger();
+        private final AtomicInteger closed = new AtomicInteger();
+
+        private CursorPages(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public CursorResult apply(FulltextSearch search) {
+            fetched.incrementAndGet();
+            final Cursor cursor = (Cursor) search.getResultSet();
+            final int offset = cursor.getSearchAfter() == null ? 0 : Integer.parseInt(cursor.getSearchAfter());
+            final int end = Math.min(size, offset + cursor.getSize());
+            final List<Document> documents = IntStream.range(offset, end)
+                    .mapToObj(i -> factory.createDoc(String.valueOf(i)))
+                    .collect(Collectors.toList());
+            cursor.setSearchAfter(String.valueOf(end));
+            return new CursorResult(size, 0, documents, search, null, null, factory) {
+                @Override
+                public void closeCursor() {
+                    closed.incrementAndGet();
+                }
+            };
+        }
+    }
+}
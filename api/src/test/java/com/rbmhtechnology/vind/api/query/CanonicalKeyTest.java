@@ -0,0 +1,158 @@
+package com.rbmhtechnology.vind.api.query;
+
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.api.query.facet.Facet;
+import com.rbmhtechnology.vind.api.query.facet.Interval;
+import com.rbmhtechnology.vind.api.query.facet.TermFacetOption;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.api.query.sort.Sort;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
+
+public class CanonicalKeyTest {
+
+    private final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildTextField("title");
+    private final SingleValueFieldDescriptor.NumericFieldDescriptor<Integer> views = new FieldDescriptorBuilder<Integer>()
+            .setFacet(true)
+            .buildNumericField("views", Integer.class);
+    private final SingleValueFieldDescriptor.DateFieldDescriptor<ZonedDateTime> created = new FieldDescriptorBuilder<>()
+            .setFacet(true)
+            .buildDateField("created");
+
+    @Test
+    public void testFilterOrderDoesNotMatter() {
+        final Filter a = and(eq("kind", "video"), or(eq(title, "a"), eq(title, "b")), not(prefix("category", "sp")));
+        final Filter b = and(not(prefix("category", "sp")), or(eq(title, "b"), eq(title, "a")), eq("kind", "video"));
+
+        Assert.assertEquals(a.getCanonicalKey(), b.getCanonicalKey());
+        Assert.assertEquals(a.getCanonicalKey().getHash(), b.getCanonicalKey().getHash());
+        Assert.assertEquals(a.toString(), b.toString());
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertEquals(a, a.clone());
+        Assert.assertEquals(1, new HashSet<>(Arrays.asList(a, b, b.clone())).size());
+    }
+
+    @Test
+    public void testFilterKeyHoldsScopeAndTypes() {
+        Assert.assertNotEquals(eq("kind", "video", Scope.Facet), eq("kind", "video", Scope.Filter));
+        Assert.assertNotEquals(eq("kind", "video"), eq("kind", "videos"));
+        Assert.assertNotEquals(between("size", 1, 2), between("size", 1L, 2L));
+        Assert.assertNotEquals(and(eq("a", "1"), eq("b", "2")), or(eq("a", "1"), eq("b", "2")));
+    }
+
+    @Test
+    public void testDuplicateChildrenAreRemoved() {
+        final Filter filter = and(eq("a", "1"), eq("b", "2"), eq("a", "1"));
+        Assert.assertEquals(2, ((AndFilter) filter).getChildren().size());
+        Assert.assertEquals(eq("a", "1"), and(eq("a", "1"), eq("a", "1")));
+    }
+
+    @Test
+    public void testCompositeFilterKeyIsKept() {
+        final Filter filter = and(eq("kind", "video"), or(eq(title, "a"), eq(title, "b")), not(prefix("category", "sp")));
+        Assert.assertSame(filter.getCanonicalKey(), filter.getCanonicalKey());
+        for (Filter child : ((AndFilter) filter).getChildren()) {
+            Assert.assertSame(child.getCanonicalKey(), child.getCanonicalKey());
+        }
+        Assert.assertEquals(filter.getCanonicalKey(), AndFilter.fromSet(new HashSet<>(((AndFilter) filter).getChildren())).getCanonicalKey());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCompositeFilterChildrenCannotBeChanged() {
+        ((AndFilter) and(eq("a", "1"), eq("b", "2"))).getChildren().add(eq("c", "3"));
+    }
+
+    @Test
+    public void testSearchKey() {
+        final FulltextSearch search = Search.fulltext("bull")
+                .filter(eq("kind", "video"))
+                .filter(eq(title, "a"))
+                .facet("kind", "category")
+                .sort("created", Sort.Direction.Desc)
+                .page(2, 10);
+        final FulltextSearch reordered = Search.fulltext("bull")
+                .filter(eq(title, "a"))
+                .filter(eq("kind", "video"))
+                .facet("category")
+                .facet("kind")
+                .sort("created", Sort.Direction.Desc)
+                .page(2, 10);
+
+        Assert.assertEquals(search.getCanonicalKey(), reordered.getCanonicalKey());
+        Assert.assertEquals(search.getCanonicalKey().getHash(), reordered.getCanonicalKey().getHash());
+        Assert.assertEquals(search.toString(), reordered.toString());
+
+        Assert.assertNotEquals(search.getCanonicalKey(), reordered.copy().page(3, 10).getCanonicalKey());
+        Assert.assertNotEquals(search.getCanonicalKey(), reordered.copy().spellcheck(true).getCanonicalKey());
+        Assert.assertNotEquals(search.getCanonicalKey(), reordered.copy().sort("title", Sort.Direction.Asc).getCanonicalKey());
+        Assert.assertNotEquals(search.getCanonicalKey(), reordered.copy().context("other").getCanonicalKey());
+    }
+
+    @Test
+    public void testFacetKey() {
+        final Facet facet = new Facet.TermFacet<>(new TermFacetOption().setLimit(5), title);
+        Assert.assertEquals(facet.getCanonicalKey(), facet.clone().getCanonicalKey());
+        Assert.assertNotEquals(facet.getCanonicalKey(),
+                new Facet.TermFacet<>(new TermFacetOption().setLimit(10), title).getCanonicalKey());
+    }
+
+    @Test
+    public void testDescriptorsAreKeyedByMoreThanTheirName() {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> fullTextTitle = new FieldDescriptorBuilder<String>()
+                .setFullText(true)
+                .buildTextField("title");
+        final SingleValueFieldDescriptor.NumericFieldDescriptor<Integer> numericTitle = new FieldDescriptorBuilder<Integer>()
+                .setFacet(true)
+                .buildNumericField("title", Integer.class);
+
+        Assert.assertNotEquals(new Facet.TermFacet<>(title).getCanonicalKey(), new Facet.TermFacet<>(fullTextTitle).getCanonicalKey());
+        Assert.assertNotEquals(new Facet.TermFacet<>(title).getCanonicalKey(), new Facet.TermFacet<>(numericTitle).getCanonicalKey());
+        Assert.assertNotEquals(Search.fulltext().sort(Sort.desc(title)).getCanonicalKey(),
+                Search.fulltext().sort(Sort.desc(numericTitle)).getCanonicalKey());
+    }
+
+    @Test
+    public void testFacetsOfAllTypesAreKeyed() {
+        Assert.assertEquals(searchWithAllFacetTypes().getCanonicalKey(), searchWithAllFacetTypes().getCanonicalKey());
+        Assert.assertNotEquals(searchWithAllFacetTypes().getCanonicalKey(), searchWithAllFacetTypes()
+                .facet(new Facet.NumericIntervalFacet<>("intervals", views, Interval.numericInterval("low", 0, 10, true, false)))
+                .getCanonicalKey());
+        Assert.assertNotEquals(searchWithAllFacetTypes().getCanonicalKey(), searchWithAllFacetTypes()
+                .facet(new Facet.StatsNumericFacet<>("stats", views).min())
+                .getCanonicalKey());
+    }
+
+    private FulltextSearch searchWithAllFacetTypes() {
+        final DateMathExpression lastWeek = new DateMathExpression().sub(7, DateMathExpression.TimeUnit.DAY);
+        return Search.fulltext()
+                .facet(new Facet.TermFacet<>(title))
+                .facet(new Facet.TypeFacet())
+                .facet(new Facet.NumericRangeFacet<>("range", views, 0, 100, 10))
+                .facet(new Facet.DateRangeFacet.DateMathRangeFacet<>("dates", created, lastWeek, new DateMathExpression(), Duration.ofDays(1)))
+                .facet(new Facet.NumericIntervalFacet<>("intervals", views, Interval.numericInterval("low", 0, 10)))
+                .facet(new Facet.PivotFacet("pivot", title, views))
+                .facet(new Facet.QueryFacet("query", eq(title, "a")))
+                .facet(new Facet.StatsNumericFacet<>("stats", views).min().max())
+                .sort(Sort.SpecialSort.score())
+                .slice(10, 20);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFacetsDeclaredElsewhereHaveNoKey() {
+        new Facet.TermFacet<String>(title) {
+            private final int extra = 1;
+        }.getCanonicalKey();
+    }
+}
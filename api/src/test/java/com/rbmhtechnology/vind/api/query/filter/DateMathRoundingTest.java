@@ -0,0 +1,59 @@
+package com.rbmhtechnology.vind.api.query.filter;
+
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
+
+public class DateMathRoundingTest {
+
+    @After
+    public void resetRounding() {
+        SearchConfiguration.set(SearchConfiguration.DATE_MATH_ROUNDING, "NONE");
+        SearchConfiguration.set(SearchConfiguration.DATE_MATH_ROUNDING + ".created", "NONE");
+    }
+
+    @Test
+    public void testRoundingPerField() {
+        SearchConfiguration.set(SearchConfiguration.DATE_MATH_ROUNDING, "MINUTE");
+        SearchConfiguration.set(SearchConfiguration.DATE_MATH_ROUNDING + ".created", "hour");
+
+        final FulltextSearch search = Search.fulltext()
+                .filter(after("created", new DateMathExpression().sub(1, DateMathExpression.TimeUnit.DAY)))
+                .filter(not(before("modified", new DateMathExpression().sub(2, DateMathExpression.TimeUnit.HOURS))));
+
+        Assert.assertEquals(
+                and(after("created", new DateMathExpression().sub(1, DateMathExpression.TimeUnit.DAY).roundNow(DateMathExpression.TimeUnit.HOUR)),
+                        not(before("modified", new DateMathExpression().sub(2, DateMathExpression.TimeUnit.HOURS).roundNow(DateMathExpression.TimeUnit.MINUTE)))),
+                search.getFilter());
+        Assert.assertTrue(search.getFilter().toString(), search.getFilter().toString().contains("NOW/HOUR-1DAY"));
+        Assert.assertTrue(search.getFilter().toString(), search.getFilter().toString().contains("NOW/MINUTE-2HOURS"));
+    }
+
+    @Test
+    public void testRoundedAndFixedDatesAreKept() {
+        SearchConfiguration.set(SearchConfiguration.DATE_MATH_ROUNDING, "MINUTE");
+
+        final DateMathExpression rounded = new DateMathExpression().sub(1, DateMathExpression.TimeUnit.DAY);
+        rounded.setUnit(DateMathExpression.TimeUnit.DAY);
+        final Filter filter = and(
+                after("created", rounded),
+                between("created", ZonedDateTime.now().minusDays(1), ZonedDateTime.now()),
+                eq("kind", "video"));
+        Assert.assertSame(filter, DateMathRounding.round(filter));
+    }
+
+    @Test
+    public void testNoRoundingByDefault() {
+        final Filter filter = after("created", new DateMathExpression().sub(1, DateMathExpression.TimeUnit.DAY));
+        Assert.assertSame(filter, DateMathRounding.round(filter));
+        Assert.assertNull(DateMathRounding.getUnit("created"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.rbmhtechnology.vind.api.query.filter;
+
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import com.rbmhtechnology.vind.model.value.LatLng;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.stream.Collectors;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
+
+public class FilterCodecTest {
+
+    private final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildTextField("title");
+    private final SingleValueFieldDescriptor.NumericFieldDescriptor<Long> count = new FieldDescriptorBuilder<Long>()
+            .setFacet(true)
+            .buildNumericField("count", Long.class);
+    private final DocumentFactory factory = new DocumentFactoryBuilder("asset").addField(title, count).build();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final ZonedDateTime date = ZonedDateTime.of(2020, 3, 1, 12, 30, 0, 0, ZoneId.of("Europe/Vienna"));
+        final DateMathExpression dateMath = new DateMathExpression();
+        dateMath.setRootUnit(DateMathExpression.TimeUnit.DAY);
+        dateMath.sub(3, DateMathExpression.TimeUnit.DAYS).add(-12, DateMathExpression.TimeUnit.HOURS);
+        dateMath.setUnit(DateMathExpression.TimeUnit.HOUR);
+
+        assertRoundTrip(eq("category", "news", Scope.Filter));
+        assertRoundTrip(prefix("category", "new"));
+        assertRoundTrip(eq(title, "Hello World"));
+        assertRoundTrip(eq(count, 42L, Scope.Facet));
+        assertRoundTrip(terms(title, "a", "b", "c"));
+        assertRoundTrip(between("created", date, date.plusDays(1)));
+        assertRoundTrip(before("created", dateMath));
+        assertRoundTrip(after("created", new DateMathExpression(date).add(1, DateMathExpression.TimeUnit.MONTH)));
+        assertRoundTrip(between("size", 1.5, 10L));
+        assertRoundTrip(new GreaterThanFilter("size", 3, Scope.Suggest));
+        assertRoundTrip(new LowerThanFilter("size", -7.25f, null));
+        assertRoundTrip(withinBBox("location", new LatLng(48.2, 16.3), new LatLng(47.0, 17.1)));
+        assertRoundTrip(withinCircle("location", new LatLng(48.2, 16.3), 2.5));
+        assertRoundTrip(new NotEmptyTextFilter("title", Scope.Filter));
+        assertRoundTrip(new NotEmptyFilter("count", null));
+        assertRoundTrip(new NotEmptyLocationFilter("location", Scope.Facet));
+        assertRoundTrip(hasChildrenDocuments("asset"));
+        assertRoundTrip(new ChildrenDocumentFilter("asset", "marker"));
+        assertRoundTrip(not(or(and(eq("a", "1"), eq("b", "2"), eq(title, "3")), eq("c", "ö"))));
+
+        final Filter decoded = FilterCodec.decode(FilterCodec.encode(eq(title, "Hello")), factory);
+        Assert.assertSame(title, ((DescriptorFilter<?>) decoded).getDescriptor());
+        Assert.assertArrayEquals(new String[]{"a", "b"},
+                ((TermsQueryFilter<?>) FilterCodec.decode(FilterCodec.encode(terms(title, "a", "b")), factory)).getTerm().toArray());
+    }
+
+    @Test
+    public void testJavaSerializationFallback() throws IOException {
+        final Filter filter = and(eq("a", "1"), not(eq(title, "2")));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(filter);
+        }
+
+        final byte[] serialized = bytes.toByteArray();
+        Assert.assertEquals(canonical(filter), canonical(FilterCodec.decode(serialized, factory)));
+        Assert.assertTrue(FilterCodec.encode(filter).length < serialized.length / 4);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testUnsupportedVersion() throws IOException {
+        final byte[] encoded = FilterCodec.encode(eq("a", "1"));
+        encoded[2] = FilterCodec.FORMAT_VERSION + 1;
+        FilterCodec.decode(encoded, factory);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testUnknownField() throws IOException {
+        FilterCodec.decode(FilterCodec.encode(eq(title, "a")), new DocumentFactoryBuilder("asset").build());
+    }
+
+    private void assertRoundTrip(Filter filter) throws IOException {
+        final Filter decoded = FilterCodec.decode(FilterCodec.encode(filter), factory);
+        Assert.assertEquals(filter.getClass(), decoded.getClass());
+        Assert.assertEquals(filter.filterScope, decoded.filterScope);
+        Assert.assertEquals(canonical(filter), canonical(decoded));
+    }
+
+    /**
+     * String representation independent of the iteration order of the children of AND and OR filters.
+     */
+    private static String canonical(Filter filter) {
+        if (filter instanceof AndFilter) {
+            return ((AndFilter) filter).getChildren().stream().map(FilterCodecTest::canonical).sorted()
+                    .collect(Collectors.joining(",", "AND(", ")"));
+        }
+        if (filter instanceof OrFilter) {
+            return ((OrFilter) filter).getChildren().stream().map(FilterCodecTest::canonical).sorted()
+                    .collect(Collectors.joining(",", "OR(", ")"));
+        }
+        if (filter instanceof NotFilter) {
+            return "NOT(" + canonical(((NotFilter) filter).getDelegate()) + ")";
+        }
+        if (filter instanceof BetweenNumericFilter) {
+            final BetweenNumericFilter between = (BetweenNumericFilter) filter;
+            return filter + between.getStart().getClass().getName() + between.getEnd().getClass().getName();
+        }
+        return filter.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.rbmhtechnology.vind.model;
+
+import com.rbmhtechnology.vind.model.FieldDescriptor.UseCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FieldNameTableTest {
+
+    @Test
+    public void testNamesAreMemoized() {
+        final AtomicInteger calls = new AtomicInteger();
+        final FieldNameTable<String> table = new FieldNameTable<>((descriptor, useCase, context) -> {
+            calls.incrementAndGet();
+            return (context == null ? "" : context + "_") + useCase + "_" + descriptor.getName();
+        });
+        final FieldDescriptor<String> title = new FieldDescriptorBuilder<String>().buildTextField("title");
+        final int tableSize = UseCase.values().length + 1;
+
+        Assert.assertEquals("Facet_title", table.get(title, UseCase.Facet, null));
+        Assert.assertEquals(tableSize, calls.get());
+        Assert.assertEquals("Sort_title", table.get(title, UseCase.Sort, "ctx"));
+        Assert.assertEquals("null_title", table.get(title, null, null));
+        Assert.assertEquals("not contextualized fields share a single table", tableSize, calls.get());
+
+        title.setContextualized(true);
+        Assert.assertEquals("ctx_Sort_title", table.get(title, UseCase.Sort, "ctx"));
+        Assert.assertEquals("ctx_Facet_title", table.get(title, UseCase.Facet, "ctx"));
+        Assert.assertEquals("Facet_title", table.get(title, UseCase.Facet, null));
+        Assert.assertEquals(3 * tableSize, calls.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNamingFailuresAreDeferred() {
+        final FieldNameTable<String> table = new FieldNameTable<>((descriptor, useCase, context) -> {
+            if (useCase == UseCase.Facet) {
+                throw new IllegalStateException("no facet name");
+            }
+            return descriptor.getName();
+        });
+        final FieldDescriptor<String> title = new FieldDescriptorBuilder<String>().buildTextField("title");
+
+        Assert.assertEquals("title", table.get(title, UseCase.Fulltext, null));
+        table.get(title, UseCase.Facet, null);
+    }
+}
@@ -0,0 +1,65 @@
+package com.rbmhtechnology.vind.elasticsearch.backend;
+
+import com.rbmhtechnology.vind.SearchServerException;
+import com.rbmhtechnology.vind.api.BulkIndexer;
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.result.IndexResult;
+import com.rbmhtechnology.vind.elasticsearch.backend.client.ElasticVindClient;
+import com.rbmhtechnology.vind.elasticsearch.backend.util.DocumentUtil;
+import org.apache.commons.lang3.time.StopWatch;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link BulkIndexer} sending each bulk in a single {@link ElasticVindClient#add(List)} request. The failures of the
+ * bulk items are reported for the documents at their position in the request.
+ */
+class ElasticBulkIndexer extends BulkIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(ElasticBulkIndexer.class);
+    private static final Logger elasticClientLogger = LoggerFactory.getLogger(ElasticSearchServer.class.getName() + "#elasticSearchClient");
+
+    private final ElasticSearchServer server;
+    private final ElasticVindClient elasticSearchClient;
+
+    ElasticBulkIndexer(ElasticSearchServer server, ElasticVindClient elasticSearchClient, Options options) {
+        super(options);
+        this.server = server;
+        this.elasticSearchClient = elasticSearchClient;
+    }
+
+    @Override
+    protected IndexResult indexBatch(List<Document> documents, int withinMs, BiConsumer<Document, Exception> failures)
+            throws IOException {
+        final StopWatch elapsedTime = StopWatch.createStarted();
+        final List<Map<String, Object>> jsonDocs = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            jsonDocs.add(DocumentUtil.createInputDocument(document));
+        }
+
+        elasticClientLogger.debug(">>> add({} documents)", jsonDocs.size());
+        final BulkResponse response = elasticSearchClient.add(jsonDocs);
+        if (response.hasFailures()) {
+            for (BulkItemResponse item : response.getItems()) {
+                if (item.isFailed()) {
+                    final Document document = documents.get(item.getItemId());
+                    log.error("Cannot index document {}: {}", document.getId(), item.getFailureMessage());
+                    failures.accept(document, new SearchServerException(
+                            "Cannot index document " + document.getId() + ": " + item.getFailureMessage(),
+                            item.getFailure().getCause()));
+                }
+            }
+        }
+        server.updateFootprint(ElasticSearchServer.succeeded(jsonDocs, response));
+        elapsedTime.stop();
+        return new IndexResult(response.getTook().getMillis()).setElapsedTime(elapsedTime.getTime());
+    }
+}
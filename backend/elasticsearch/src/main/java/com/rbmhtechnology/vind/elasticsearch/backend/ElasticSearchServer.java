@@ -2,16 +2,20 @@ package com.rbmhtechnology.vind.elasticsearch.backend;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.rbmhtechnology.vind.SearchServerException;
 import com.rbmhtechnology.vind.SearchServerInstantiateException;
 import com.rbmhtechnology.vind.SearchServerProviderLoaderException;
 import com.rbmhtechnology.vind.annotations.AnnotationUtil;
+import com.rbmhtechnology.vind.api.BulkIndexer;
 import com.rbmhtechnology.vind.api.Document;
 import com.rbmhtechnology.vind.api.SmartSearchServerBase;
 import com.rbmhtechnology.vind.api.ServiceProvider;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
 import com.rbmhtechnology.vind.api.query.delete.Delete;
 import com.rbmhtechnology.vind.api.query.division.Cursor;
+import com.rbmhtechnology.vind.api.query.division.Page;
+import com.rbmhtechnology.vind.api.query.division.Slice;
 import com.rbmhtechnology.vind.api.query.filter.Filter;
 import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
 import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearch;
@@ -23,6 +27,7 @@ import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
 import com.rbmhtechnology.vind.api.query.update.Update;
 import com.rbmhtechnology.vind.api.result.BeanGetResult;
 import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.ClientTimings;
 import com.rbmhtechnology.vind.api.result.DeleteResult;
 import com.rbmhtechnology.vind.api.result.FacetResults;
 import com.rbmhtechnology.vind.api.result.GetResult;
@@ -35,6 +40,7 @@ import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.api.result.SliceResult;
 import com.rbmhtechnology.vind.api.result.StatusResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.api.result.UpdateResult;
 import com.rbmhtechnology.vind.api.result.facet.TermFacetResult;
 import com.rbmhtechnology.vind.configure.SearchConfiguration;
 import com.rbmhtechnology.vind.elasticsearch.backend.util.DocumentUtil;
@@ -42,15 +48,17 @@ import com.rbmhtechnology.vind.elasticsearch.backend.util.ElasticMappingUtils;
 import com.rbmhtechnology.vind.elasticsearch.backend.util.ElasticQueryBuilder;
 import com.rbmhtechnology.vind.elasticsearch.backend.util.FieldUtil;
 import com.rbmhtechnology.vind.elasticsearch.backend.util.PainlessScript;
+import com.rbmhtechnology.vind.elasticsearch.backend.util.QueryValidator;
 import com.rbmhtechnology.vind.elasticsearch.backend.util.ResultUtils;
+import com.rbmhtechnology.vind.elasticsearch.backend.util.UpdateScriptCache;
 import com.rbmhtechnology.vind.model.DocumentFactory;
 import com.rbmhtechnology.vind.model.FieldDescriptor;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.time.StopWatch;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.http.util.Asserts;
 import org.elasticsearch.ElasticsearchException;
-import org.elasticsearch.action.admin.indices.validate.query.ValidateQueryResponse;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkItemResponse.Failure;
 import org.elasticsearch.action.bulk.BulkResponse;
@@ -58,27 +66,34 @@ import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.update.UpdateResponse;
+import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -91,10 +106,19 @@ public class ElasticSearchServer extends SmartSearchServerBase {
 
     private static final Logger log = LoggerFactory.getLogger(ElasticSearchServer.class);
     private static final Logger elasticClientLogger = LoggerFactory.getLogger(log.getName() + "#elasticSearchClient");
-    private List<String> currentFootprint = new ArrayList<>();
+    private static final String PERCOLATOR_DOCUMENT_SLOT = "_percolator_document_slot";
+    private static final long INVERSE_SEARCH_SCROLL_MINUTES = 5;
+    /**
+     * Names of the dynamic and complex fields in the index mapping. It is loaded on start up, extended with the fields
+     * of the documents indexed through this server and, if configured, refreshed from the mapping in the background.
+     */
+    private final Set<String> currentFootprint = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService footprintRefresher;
 
     private ServiceProvider serviceProviderClass;
     private final ElasticVindClient elasticSearchClient;
+    private final QueryValidator queryValidator;
+    private final UpdateScriptCache updateScripts;
 
     public ElasticSearchServer() {
         // this is mainly used with the ServiceLoader infrastructure
@@ -118,6 +142,11 @@ public class ElasticSearchServer extends SmartSearchServerBase {
     protected ElasticSearchServer(ElasticVindClient client, boolean check) {
 
         elasticSearchClient = client;
+        queryValidator = new QueryValidator(client,
+                SearchConfiguration.get(SearchConfiguration.ELASTIC_QUERY_VALIDATION_CACHE_SIZE, 10000));
+        updateScripts = new UpdateScriptCache(client,
+                SearchConfiguration.get(SearchConfiguration.ELASTIC_UPDATE_SCRIPT_CACHE_SIZE, 1000),
+                SearchConfiguration.get(SearchConfiguration.ELASTIC_UPDATE_STORED_SCRIPTS, false));
 
         //In order to perform unit tests with mocked ElasticClient, we do not need to do the schema check.
         if(check){
@@ -161,7 +190,7 @@ public class ElasticSearchServer extends SmartSearchServerBase {
                                     this.getClass());
                         }
                     } else {
-                        this.currentFootprint = getIndexedFields();
+                        refreshFootprint();
                     }
                 } catch (Exception e) {
                     log.error("Cannot connect to Elasticsearch server: index check failed - {}",e.getMessage(), e);
@@ -180,6 +209,8 @@ public class ElasticSearchServer extends SmartSearchServerBase {
                             this.getClass(),
                             e);
                 }
+
+                updateScripts.registerSingleOperationScripts();
             } else {
                 log.error("Error running Elasticsearch Search Server: search server instance is null");
                 throw new SearchServerInstantiateException(
@@ -189,6 +220,19 @@ public class ElasticSearchServer extends SmartSearchServerBase {
           } else {
             log.warn("Elastic ping and schema validity check has been deactivated.");
         }
+
+        final int refreshInterval = SearchConfiguration.get(SearchConfiguration.ELASTIC_FOOTPRINT_REFRESH_INTERVAL, 0);
+        if (client != null && refreshInterval > 0) {
+            footprintRefresher = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("vind-elastic-footprint-%d").setDaemon(true).build());
+            footprintRefresher.scheduleWithFixedDelay(() -> {
+                try {
+                    refreshFootprint();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Cannot refresh the index footprint: {}", e.getMessage(), e);
+                }
+            }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     private void checkVersionAndMappings() throws IOException {
@@ -285,7 +329,7 @@ public class ElasticSearchServer extends SmartSearchServerBase {
             elasticClientLogger.debug(">>> update({})", update);
             final PainlessScript.ScriptBuilder updateScript =
                     ElasticQueryBuilder.buildUpdateScript(update.getOptions(), factory, update.getUpdateContext(), currentFootprint);
-            final UpdateResponse response = elasticSearchClient.update(update.getId(), updateScript);
+            final UpdateResponse response = elasticSearchClient.update(update.getId(), updateScripts.getScript(updateScript));
             if(response.status().getStatus() >= 400) {
                 log.error("Cannot update document {}: {} - {} ", update.getId(), response.status().getStatus(),response.status().name());
                 throw new SearchServerException("Cannot  update document " + update.getId() + ": " + response.status().getStatus() +" - "+ response.status().name());
@@ -299,6 +343,41 @@ public class ElasticSearchServer extends SmartSearchServerBase {
         }
     }
 
+    /**
+     * Sends the updates as a single bulk request of scripted updates. The update scripts keep field names and values
+     * in parameters, so updates with the same operations share the same script, see {@link UpdateScriptCache}.
+     */
+    @Override
+    public UpdateResult execute(List<Update> updates, DocumentFactory factory) {
+        final UpdateResult result = new UpdateResult();
+        if (updates.isEmpty()) {
+            return result.setQueryTime(0L).setElapsedTime(0L);
+        }
+        try {
+            log.debug("Update script builder does not check for script injection. Ensure values provided are script safe.");
+            final StopWatch elapsedTime = StopWatch.createStarted();
+            elasticClientLogger.debug(">>> update({} documents)", updates.size());
+            final List<Pair<String, Script>> scripts = new ArrayList<>(updates.size());
+            for (Update update : updates) {
+                scripts.add(Pair.of(update.getId(), updateScripts.getScript(
+                        ElasticQueryBuilder.buildUpdateScript(update.getOptions(), factory, update.getUpdateContext(), currentFootprint))));
+            }
+            final BulkResponse response = elasticSearchClient.update(scripts);
+            for (BulkItemResponse item : response.getItems()) {
+                if (item.isFailed()) {
+                    log.warn("Cannot update document {}: {}", item.getId(), item.getFailureMessage());
+                }
+                result.addResult(item.getId(), !item.isFailed());
+            }
+            elapsedTime.stop();
+            return result.setQueryTime(response.getTook().getMillis()).setElapsedTime(elapsedTime.getTime());
+        } catch (ElasticsearchException | IOException e) {
+            log.error("Cannot update {} documents: {}", updates.size(), e.getMessage() , e);
+            throw new SearchServerException(
+                    String.format("Cannot update %s documents: %s", updates.size(), e.getMessage()), e);
+        }
+    }
+
     @Override
     public DeleteResult execute(Delete delete, DocumentFactory factory) {
         try {
@@ -335,7 +414,7 @@ public class ElasticSearchServer extends SmartSearchServerBase {
 
     @Override
     protected  <T> BeanSearchResult<T> doExecute(FulltextSearch search, Class<T> c) {
-        final DocumentFactory factory = AnnotationUtil.createDocumentFactory(c);
+        final DocumentFactory factory = AnnotationUtil.getDocumentFactory(c);
         final SearchResult docResult = this.execute(search, factory);
         return docResult.toPojoResult(docResult, c);
     }
@@ -343,22 +422,25 @@ public class ElasticSearchServer extends SmartSearchServerBase {
     @Override
     protected SearchResult doExecute(FulltextSearch search, DocumentFactory factory) {
         final StopWatch elapsedtime = StopWatch.createStarted();
+        final long start = System.nanoTime();
 
         //query
         try {
             final String searchString = search.isEscapeCharacter()
                     ? escapeSpecialCharacters(search.getSearchString())
                     : search.getSearchString();
-            final ValidateQueryResponse validateQueryResponse = elasticSearchClient.validateQuery(searchString);
-            if (validateQueryResponse.isValid()) {
+            final boolean validQuery = queryValidator.isValid(searchString);
+            if (validQuery) {
                 search.text(searchString);
             }
             final SearchSourceBuilder query =
-                    ElasticQueryBuilder.buildQuery(search, factory, !validateQueryResponse.isValid(), currentFootprint, elasticSearchClient);
+                    ElasticQueryBuilder.buildQuery(search, factory, !validQuery, currentFootprint, elasticSearchClient);
             FulltextSearch usedSearch = search.copy();
-            elasticClientLogger.debug(">>> query({})", query.toString());
+            elasticClientLogger.debug(">>> query({})", query);
 
+            final long sent = System.nanoTime();
             SearchResponse response = elasticSearchClient.query(query);
+            long network = System.nanoTime() - sent;
             if(Objects.nonNull(response)
                     && Objects.nonNull(response.getHits())
                     && Objects.nonNull(response.getHits().getHits())) {
@@ -384,7 +466,9 @@ public class ElasticSearchServer extends SmartSearchServerBase {
                             final FulltextSearch spellcheckSearch = search.copy().text(text).spellcheck(false);
                             final SearchSourceBuilder spellcheckQuery =
                                     ElasticQueryBuilder.buildQuery(spellcheckSearch, factory, currentFootprint, elasticSearchClient);
+                            final long spellcheckSent = System.nanoTime();
                             final SearchResponse spellcheckResponse = elasticSearchClient.query(spellcheckQuery);
+                            network += System.nanoTime() - spellcheckSent;
                             queryTime = queryTime + spellcheckResponse.getTook().getMillis();
                             if(spellcheckResponse.getHits().getTotalHits().value > 0) {
                                 totalHits = spellcheckResponse.getHits().getTotalHits().value;
@@ -408,13 +492,19 @@ public class ElasticSearchServer extends SmartSearchServerBase {
                                 search.getSearchContext());
 
                 elapsedtime.stop();
+                // the spellcheck queries are built and parsed in between, so everything but the requests is parsing
+                final ClientTimings timings = new ClientTimings(sent - start, network, System.nanoTime() - sent - network);
 
                 switch(search.getResultSet().getType()) {
                     case page:{
-                        return new PageResult(totalHits, queryTime, documents, usedSearch, facetResults, this, factory).setElapsedTime(elapsedtime.getTime());
+                        return new PageResult(totalHits, queryTime, documents, usedSearch, facetResults, this, factory).setElapsedTime(elapsedtime.getTime())
+                                .setRawQuery(query::toString)
+                                .setTimings(timings);
                     }
                     case slice: {
-                        return new SliceResult(totalHits, queryTime, documents, usedSearch, facetResults, this, factory).setElapsedTime(elapsedtime.getTime());
+                        return new SliceResult(totalHits, queryTime, documents, usedSearch, facetResults, this, factory).setElapsedTime(elapsedtime.getTime())
+                                .setRawQuery(query::toString)
+                                .setTimings(timings);
                     }
                     case cursor: {
                         if (!documents.isEmpty()) {
@@ -424,10 +514,14 @@ public class ElasticSearchServer extends SmartSearchServerBase {
                             ((Cursor) usedSearch.getResultSet()).setSearchAfter(searchAfterCursor);
                         }
                         // Build result with used search
-                        return new CursorResult(totalHits, queryTime, documents, usedSearch, facetResults, this, factory).setElapsedTime(elapsedtime.getTime());
+                        return new CursorResult(totalHits, queryTime, documents, usedSearch, facetResults, this, factory).setElapsedTime(elapsedtime.getTime())
+                                .setRawQuery(query::toString)
+                                .setTimings(timings);
                     }
                     default:
-                        return new PageResult(totalHits, queryTime, documents, usedSearch, facetResults, this, factory).setElapsedTime(elapsedtime.getTime());
+                        return new PageResult(totalHits, queryTime, documents, usedSearch, facetResults, this, factory).setElapsedTime(elapsedtime.getTime())
+                                .setRawQuery(query::toString)
+                                .setTimings(timings);
                 }
             }else {
                 throw new ElasticsearchException("Empty result from ElasticClient");
@@ -446,22 +540,25 @@ public class ElasticSearchServer extends SmartSearchServerBase {
 
     @Override
     public <T> String getRawQuery(FulltextSearch search, Class<T> c) {
-        return getRawQuery(search, AnnotationUtil.createDocumentFactory(c));
+        return getRawQuery(search, AnnotationUtil.getDocumentFactory(c));
     }
 
     @Override
     public <T> SuggestionResult execute(ExecutableSuggestionSearch search, Class<T> c) {
-        return execute(search, AnnotationUtil.createDocumentFactory(c));
+        return execute(search, AnnotationUtil.getDocumentFactory(c));
     }
 
     @Override
     public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory factory) {
         final StopWatch elapsedtime = StopWatch.createStarted();
+        final long start = System.nanoTime();
         final SearchSourceBuilder query = ElasticQueryBuilder.buildSuggestionQuery(search, factory, currentFootprint);
         //query
         try {
-            elasticClientLogger.debug(">>> query({})", query.toString());
+            elasticClientLogger.debug(">>> query({})", query);
+            final long sent = System.nanoTime();
             final SearchResponse response = elasticSearchClient.query(query);
+            long network = System.nanoTime() - sent;
             HashMap<FieldDescriptor, TermFacetResult<?>> suggestionValues =
                     ResultUtils.buildSuggestionResults(response, factory, search.getSearchContext());
 
@@ -482,7 +579,9 @@ public class ElasticSearchServer extends SmartSearchServerBase {
                         final String text = iterator.next();
                         final SearchSourceBuilder spellcheckQuery =
                                 ElasticQueryBuilder.buildSuggestionQuery(search.text(text), factory, currentFootprint);
+                        final long spellcheckSent = System.nanoTime();
                         final SearchResponse spellcheckResponse = elasticSearchClient.query(spellcheckQuery);
+                        network += System.nanoTime() - spellcheckSent;
                         final HashMap<FieldDescriptor, TermFacetResult<?>> spellcheckValues =
                                 ResultUtils.buildSuggestionResults(spellcheckResponse, factory, search.getSearchContext());
                         queryTime = queryTime + spellcheckResponse.getTook().getMillis();
@@ -502,7 +601,9 @@ public class ElasticSearchServer extends SmartSearchServerBase {
                     spellcheckText,
                     queryTime,
                     factory)
-                    .setElapsedTime(elapsedtime.getTime(TimeUnit.MILLISECONDS));
+                    .setElapsedTime(elapsedtime.getTime(TimeUnit.MILLISECONDS))
+                    .setRawQuery(query::toString)
+                    .setTimings(new ClientTimings(sent - start, network, System.nanoTime() - sent - network));
 
         } catch (ElasticsearchException | IOException e) {
             throw new SearchServerException(String.format("Cannot issue query: %s",e.getMessage()), e);
@@ -523,7 +624,7 @@ public class ElasticSearchServer extends SmartSearchServerBase {
 
     @Override
     public <T> String getRawQuery(ExecutableSuggestionSearch search, Class<T> c) {
-        return getRawQuery(search,AnnotationUtil.createDocumentFactory(c));
+        return getRawQuery(search,AnnotationUtil.getDocumentFactory(c));
     }
 
     @Override
@@ -533,7 +634,7 @@ public class ElasticSearchServer extends SmartSearchServerBase {
 
     @Override
     public <T> BeanGetResult<T> execute(RealTimeGet search, Class<T> c) {
-        final DocumentFactory documentFactory = AnnotationUtil.createDocumentFactory(c);
+        final DocumentFactory documentFactory = AnnotationUtil.getDocumentFactory(c);
         final GetResult result = this.execute(search, documentFactory);
         return result.toPojoResult(result,c);
     }
@@ -561,53 +662,185 @@ public class ElasticSearchServer extends SmartSearchServerBase {
     @Override
     public InverseSearchResult execute(InverseSearch inverseSearch, DocumentFactory documentFactory) {
         final StopWatch elapsedtime = StopWatch.createStarted();
-        final List<Map<String,Object>> mapDocs = inverseSearch.getDocs().parallelStream()
+        final List<Document> docs = inverseSearch.getDocs();
+        final List<Map<String,Object>> mapDocs = docs.parallelStream()
                 .map(DocumentUtil::createInputDocument)
                 .collect(Collectors.toList());
         final QueryBuilder query =
                 ElasticQueryBuilder.buildFilterQuery(inverseSearch.getQueryFilter(), documentFactory, null,currentFootprint);
+
+        final int from;
+        final int size;
+        if (inverseSearch.getResultSet() instanceof Slice) {
+            from = ((Slice) inverseSearch.getResultSet()).getOffset();
+            size = ((Slice) inverseSearch.getResultSet()).getSliceSize();
+        } else {
+            from = ((Page) inverseSearch.getResultSet()).getOffset();
+            size = ((Page) inverseSearch.getResultSet()).getPagesize();
+        }
         //query
         try {
-            elasticClientLogger.debug(">>> query({})", query.toString());
-            //TODO: inverse search support multiple docs
-            final SearchResponse response = elasticSearchClient.percolatorDocQuery(mapDocs, query);
+            elasticClientLogger.debug(">>> percolate({} docs, {}, from={}, size={})", docs.size(), query, from, size);
+            final SearchResponse response = elasticSearchClient.percolatorDocQuery(mapDocs, query, from, size);
 
             if(Objects.nonNull(response)
                     && Objects.nonNull(response.getHits())
                     && Objects.nonNull(response.getHits().getHits())){
+                final InverseSearchResult result = buildInverseSearchResult(inverseSearch, documentFactory,
+                        Arrays.asList(response.getHits().getHits()), response.getHits().getTotalHits().value,
+                        response.getTook().getMillis());
+                elapsedtime.stop();
+                return result.setElapsedTime(elapsedtime.getTime());
+            }else {
+                throw new ElasticsearchException("Empty result from ElasticClient");
+            }
 
-                final List<InverseSearchQuery> resultQueries = Arrays.stream(response.getHits().getHits())
-                        .map(hit -> DocumentUtil.buildVindDoc(hit, InverseSearchQueryFactory.getQueryFactory(),null))
-                        .map(doc ->
-                                documentFactory.createInverseSearchQuery(
-                                        doc.getId(),
-                                        deserializeByteArrayFilter(((ByteBuffer)doc.getValue(InverseSearchQueryFactory.BINARY_QUERY_FIELD)).array()))
+        } catch (ElasticsearchException | IOException e) {
+            throw new SearchServerException(String.format("Cannot issue inverse search: %s", e.getMessage()), e);
+        }
 
-                        )
-                        .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<InverseSearchResult> stream(InverseSearch inverseSearch, DocumentFactory documentFactory) {
+        // the documents are percolated once, the pages are read from a scroll over the matching queries
+        final PercolationScroll scroll = new PercolationScroll(inverseSearch, documentFactory);
+        return streamPages(inverseSearch, scroll::page).onClose(scroll::close);
+    }
 
+    private InverseSearchResult buildInverseSearchResult(InverseSearch inverseSearch, DocumentFactory documentFactory,
+                                                         List<SearchHit> hits, long totalHits, long queryTime) {
+        final List<InverseSearchQuery> resultQueries = new ArrayList<>();
+        final Map<String, List<Integer>> slots = new HashMap<>();
+        for (SearchHit hit : hits) {
+            final Document doc = DocumentUtil.buildVindDoc(hit, InverseSearchQueryFactory.getQueryFactory(), null);
+            resultQueries.add(documentFactory.createInverseSearchQuery(
+                    doc.getId(),
+                    deserializeByteArrayFilter(((ByteBuffer)doc.getValue(InverseSearchQueryFactory.BINARY_QUERY_FIELD)).array(), documentFactory)));
+            slots.put(doc.getId(), getPercolatorDocumentSlots(hit));
+        }
 
-                elapsedtime.stop();
+        final InverseSearchResult result;
+        switch(inverseSearch.getResultSet().getType()) {
+            case slice: {
+                result = new InverseSearchSliceResult(totalHits, queryTime, resultQueries, inverseSearch, this, documentFactory);
+                break;
+            }
+            case page:
+            default:
+                result = new InverseSearchPageResult(totalHits, queryTime, resultQueries, inverseSearch,  this, documentFactory);
+        }
+        return result.setDocumentMatches(InverseSearchResult.documentMatches(inverseSearch.getDocs(), slots));
+    }
 
-                final long totalHits = response.getHits().getTotalHits().value;
-                switch(inverseSearch.getResultSet().getType()) {
-                    case page:{
-                        return new InverseSearchPageResult(totalHits, response.getTook().getMillis(), resultQueries, inverseSearch, this, documentFactory).setElapsedTime(elapsedtime.getTime());
-                    }
-                    case slice: {
-                        return new InverseSearchSliceResult(totalHits, response.getTook().getMillis(), resultQueries, inverseSearch, this, documentFactory).setElapsedTime(elapsedtime.getTime());
+    /**
+     * Reads the queries matching the documents of an inverse search from a scroll, so they are percolated once
+     * however many pages are read. The pages have to be read in order.
+     */
+    private final class PercolationScroll {
+        private final DocumentFactory documentFactory;
+        private final List<Map<String, Object>> mapDocs;
+        private final QueryBuilder query;
+        private final Deque<SearchHit> pending = new ArrayDeque<>();
+        private String scrollId;
+        private boolean started;
+        private boolean exhausted;
+        private long position;
+        private long totalHits;
+        private long queryTime;
+
+        private PercolationScroll(InverseSearch inverseSearch, DocumentFactory documentFactory) {
+            this.documentFactory = documentFactory;
+            this.mapDocs = inverseSearch.getDocs().stream()
+                    .map(DocumentUtil::createInputDocument)
+                    .collect(Collectors.toList());
+            this.query = ElasticQueryBuilder.buildFilterQuery(inverseSearch.getQueryFilter(), documentFactory, null, currentFootprint);
+        }
+
+        private InverseSearchResult page(InverseSearch inverseSearch) {
+            final StopWatch elapsedtime = StopWatch.createStarted();
+            final long from;
+            final int size;
+            if (inverseSearch.getResultSet() instanceof Slice) {
+                from = ((Slice) inverseSearch.getResultSet()).getOffset();
+                size = ((Slice) inverseSearch.getResultSet()).getSliceSize();
+            } else {
+                from = ((Page) inverseSearch.getResultSet()).getOffset();
+                size = ((Page) inverseSearch.getResultSet()).getPagesize();
+            }
+            try {
+                final List<SearchHit> hits = new ArrayList<>(size);
+                while (hits.size() < size && fetch(size)) {
+                    final SearchHit hit = pending.poll();
+                    if (position++ >= from) {
+                        hits.add(hit);
                     }
-                    default:
-                        return new InverseSearchPageResult(totalHits, response.getTook().getMillis(), resultQueries, inverseSearch,  this, documentFactory).setElapsedTime(elapsedtime.getTime());
                 }
-            }else {
-                throw new ElasticsearchException("Empty result from ElasticClient");
+                final InverseSearchResult result =
+                        buildInverseSearchResult(inverseSearch, documentFactory, hits, totalHits, queryTime);
+                elapsedtime.stop();
+                return result.setElapsedTime(elapsedtime.getTime());
+            } catch (ElasticsearchException | IOException e) {
+                close();
+                throw new SearchServerException(String.format("Cannot issue inverse search: %s", e.getMessage()), e);
             }
+        }
 
-        } catch (ElasticsearchException | IOException e) {
-            throw new SearchServerException(String.format("Cannot issue inverse search: %s", e.getMessage()), e);
+        /**
+         * @return true if there is a pending hit, the next batch of hits is requested if needed.
+         */
+        private boolean fetch(int batchSize) throws IOException {
+            if (!pending.isEmpty()) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            final SearchResponse response;
+            if (!started) {
+                started = true;
+                elasticClientLogger.debug(">>> percolate scroll({} docs, {}, size={})", mapDocs.size(), query, batchSize);
+                response = elasticSearchClient.percolatorDocScroll(mapDocs, query, batchSize, INVERSE_SEARCH_SCROLL_MINUTES);
+                totalHits = response.getHits().getTotalHits().value;
+            } else {
+                response = elasticSearchClient.getNextScroll(scrollId, INVERSE_SEARCH_SCROLL_MINUTES);
+            }
+            scrollId = response.getScrollId();
+            queryTime += response.getTook().getMillis();
+            pending.addAll(Arrays.asList(response.getHits().getHits()));
+            if (pending.isEmpty()) {
+                close();
+                return false;
+            }
+            return true;
         }
 
+        private void close() {
+            exhausted = true;
+            pending.clear();
+            if (scrollId != null) {
+                try {
+                    elasticSearchClient.closeScroll(scrollId);
+                } catch (IOException | ElasticsearchException e) {
+                    log.warn("Unable to close inverse search scroll: {}", e.getMessage());
+                }
+                scrollId = null;
+            }
+        }
+    }
+
+    /**
+     * Positions of the percolated documents a stored query matched, as reported by Elasticsearch in the
+     * {@value #PERCOLATOR_DOCUMENT_SLOT} field of the hit.
+     */
+    private static List<Integer> getPercolatorDocumentSlots(SearchHit hit) {
+        final DocumentField slotField = hit.field(PERCOLATOR_DOCUMENT_SLOT);
+        if (slotField == null) {
+            return Collections.singletonList(0);
+        }
+        return slotField.getValues().stream()
+                .map(slot -> ((Number) slot).intValue())
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -653,6 +886,9 @@ public class ElasticSearchServer extends SmartSearchServerBase {
 
     @Override
     public void close() {
+        if (footprintRefresher != null) {
+            footprintRefresher.shutdownNow();
+        }
         if (elasticSearchClient != null) try {
             elasticSearchClient.close();
         } catch (IOException e) {
@@ -754,7 +990,7 @@ public class ElasticSearchServer extends SmartSearchServerBase {
                 throw new SearchServerException("Cannot index document " + document.get(FieldUtil.ID) + ": " + failureMessages.get(0));
 
             }
-            this.currentFootprint = this.getIndexedFields();
+            updateFootprint(Collections.singletonList(document));
             elapsedTime.stop();
             return new IndexResult(response.getTook().getMillis()).setElapsedTime(elapsedTime.getTime());
 
@@ -773,6 +1009,7 @@ public class ElasticSearchServer extends SmartSearchServerBase {
         try {
             elasticClientLogger.debug(">>> add({})", jsonDocs);
             final BulkResponse response =this.elasticSearchClient.add(jsonDocs) ;
+            updateFootprint(succeeded(jsonDocs, response));
             if(response.hasFailures()) {
                 final List<String> failureMessages = Stream.of(response.getItems())
                         .filter(BulkItemResponse::isFailed)
@@ -782,7 +1019,6 @@ public class ElasticSearchServer extends SmartSearchServerBase {
                 throw new SearchServerException("Cannot index " + failureMessages.size() + "documents: " + String.join(" - ", failureMessages));
 
             }
-            this.currentFootprint = this.getIndexedFields();
             elapsedTime.stop();
             return new IndexResult(elapsedTime.getTime()).setElapsedTime(elapsedTime.getTime());
 
@@ -800,17 +1036,55 @@ public class ElasticSearchServer extends SmartSearchServerBase {
         }
     }
 
-    private Filter deserializeByteArrayFilter(byte[] data) {
-        ByteArrayInputStream bytesIn = new ByteArrayInputStream(data);
-        try(ObjectInputStream ois = new ObjectInputStream(bytesIn))
-        {
-            Filter query = (Filter) ois.readObject();
-            return query;
+    /**
+     * @return how often the syntax of a search string could not be validated locally and was validated by the
+     * Elasticsearch {@code _validate/query} API.
+     */
+    public long getRemoteQueryValidationCount() {
+        return queryValidator.getRemoteValidationCount();
+    }
+
+    @Override
+    public BulkIndexer bulkIndexer(BulkIndexer.Options options) {
+        return new ElasticBulkIndexer(this, elasticSearchClient, options);
+    }
+
+    /**
+     * Adds the fields of indexed documents to the footprint, the mapping of new fields has been created by the bulk
+     * request which indexed them.
+     * @param jsonDocs documents indexed successfully.
+     */
+    void updateFootprint(Collection<Map<String, Object>> jsonDocs) {
+        for (Map<String, Object> jsonDoc : jsonDocs) {
+            for (String fieldName : jsonDoc.keySet()) {
+                if (isFootprintField(fieldName) && !currentFootprint.contains(fieldName)) {
+                    currentFootprint.add(fieldName);
+                }
+            }
         }
-        catch (IOException e)
-        {
-            throw new RuntimeException("Error desearializing byte[] filter: "+e.getMessage(),e);
-        } catch (ClassNotFoundException e) {
+    }
+
+    private void refreshFootprint() throws IOException {
+        currentFootprint.addAll(getIndexedFields());
+    }
+
+    static List<Map<String, Object>> succeeded(List<Map<String, Object>> jsonDocs, BulkResponse response) {
+        if (!response.hasFailures()) {
+            return jsonDocs;
+        }
+        final List<Map<String, Object>> succeeded = new ArrayList<>(jsonDocs.size());
+        for (BulkItemResponse item : response.getItems()) {
+            if (!item.isFailed()) {
+                succeeded.add(jsonDocs.get(item.getItemId()));
+            }
+        }
+        return succeeded;
+    }
+
+    private Filter deserializeByteArrayFilter(byte[] data, DocumentFactory factory) {
+        try {
+            return InverseSearchQuery.deserializeQuery(data, factory);
+        } catch (IOException e) {
             throw new RuntimeException("Error desearializing byte[] filter: "+e.getMessage(),e);
         }
     }
@@ -834,6 +1108,7 @@ public class ElasticSearchServer extends SmartSearchServerBase {
                 if (CollectionUtils.isEmpty(documents)
                         || !DocumentUtil.equalDocs(documents.get(0), emptyDocument, factory)){
                     this.elasticSearchClient.add(emptyDocument);
+                    updateFootprint(Collections.singletonList(emptyDocument));
                 }
 
             }else {
@@ -846,11 +1121,15 @@ public class ElasticSearchServer extends SmartSearchServerBase {
     }
 
 
-    private List<String> getIndexedFields() throws IOException {
+    private Set<String> getIndexedFields() throws IOException {
         return elasticSearchClient.getMappings().mappings().values().stream()
                 .map(indexFields -> ((Map<String, Object>) indexFields.getSourceAsMap().get("properties")).keySet())
                 .flatMap(Collection::stream)
-                .filter(fieldName -> fieldName.startsWith("dynamic_") || fieldName.startsWith("complex_"))
-                .collect(Collectors.toList());
+                .filter(ElasticSearchServer::isFootprintField)
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean isFootprintField(String fieldName) {
+        return fieldName.startsWith("dynamic_") || fieldName.startsWith("complex_");
     }
 }
@@ -1,7 +1,7 @@
 package com.rbmhtechnology.vind.elasticsearch.backend.client;
 
 import com.rbmhtechnology.vind.elasticsearch.backend.util.ElasticRequestUtils;
-import com.rbmhtechnology.vind.elasticsearch.backend.util.PainlessScript;
+import org.apache.commons.lang3.tuple.Pair;
 import org.elasticsearch.action.admin.indices.validate.query.ValidateQueryRequest;
 import org.elasticsearch.action.admin.indices.validate.query.ValidateQueryResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
@@ -15,6 +15,7 @@ import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchScrollRequest;
 import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.client.BulkRequestBuilder;
@@ -30,6 +31,7 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.reindex.BulkByScrollResponse;
 import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.script.Script;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -124,11 +126,27 @@ public abstract class ElasticVindClient {
         return BulkRequestBuilder.executeBulk(bulkIndexRequest,RequestOptions.DEFAULT,defaultIndex,client);
     }
 
-    public UpdateResponse update(String id, PainlessScript.ScriptBuilder script) throws IOException {
+    public UpdateResponse update(String id, Script script) throws IOException {
         final UpdateRequest request = ElasticRequestUtils.getUpdateRequest(defaultIndex, id, script);
         return client.update(request, RequestOptions.DEFAULT);
     }
 
+    public BulkResponse update(List<Pair<String, Script>> scripts) throws IOException {
+        final BulkRequest bulkUpdateRequest = new BulkRequest(defaultIndex);
+        scripts.forEach( script ->
+                bulkUpdateRequest.add(ElasticRequestUtils.getBulkUpdateRequest(defaultIndex, script.getKey(), script.getValue())) );
+        bulkUpdateRequest.timeout(TimeValue.timeValueMillis(connectionTimeout));
+        bulkUpdateRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+        return BulkRequestBuilder.executeBulk(bulkUpdateRequest,RequestOptions.DEFAULT,defaultIndex,client);
+    }
+
+    public void putStoredScript(String id, String source) throws IOException {
+        final AcknowledgedResponse response = client.putScript(ElasticRequestUtils.getPutStoredScriptRequest(id, source), RequestOptions.DEFAULT);
+        if (!response.isAcknowledged()) {
+            throw new IOException(String.format("Stored script %s has not been acknowledged", id));
+        }
+    }
+
     public GetResponse realTimeGet(String id) throws IOException {
         return client.get(ElasticRequestUtils.getRealTimeGetRequest(defaultIndex,id),RequestOptions.DEFAULT);
     }
@@ -171,11 +189,29 @@ public abstract class ElasticVindClient {
     }
 
     public SearchResponse percolatorDocQuery(List<Map<String, Object>> mapDocs, QueryBuilder query) throws IOException {
+        return percolatorDocQuery(mapDocs, query, -1, -1);
+    }
+
+    public SearchResponse percolatorDocQuery(List<Map<String, Object>> mapDocs, QueryBuilder query, int from, int size) throws IOException {
+        final List<XContentBuilder> xContentDocs = new ArrayList<>();
+        for (Map<String, Object> mapDoc : mapDocs) {
+            xContentDocs.add(mapToXContentBuilder(mapDoc));
+        }
+        final SearchRequest request = ElasticRequestUtils.percolateDocumentRequest(defaultIndex, xContentDocs, query, from, size);
+        return client.search(request, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Starts a scroll over the stored queries matching the given documents, the next batches are read with
+     * {@link #getNextScroll(String, Long)}.
+     */
+    public SearchResponse percolatorDocScroll(List<Map<String, Object>> mapDocs, QueryBuilder query, int size, Long scrollTimeOut) throws IOException {
         final List<XContentBuilder> xContentDocs = new ArrayList<>();
         for (Map<String, Object> mapDoc : mapDocs) {
             xContentDocs.add(mapToXContentBuilder(mapDoc));
         }
-        final SearchRequest request = ElasticRequestUtils.percolateDocumentRequest(defaultIndex, xContentDocs, query);
+        final SearchRequest request = ElasticRequestUtils.percolateDocumentRequest(defaultIndex, xContentDocs, query, -1, size);
+        request.scroll(TimeValue.timeValueMinutes(scrollTimeOut));
         return client.search(request, RequestOptions.DEFAULT);
     }
 
@@ -38,6 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -93,7 +94,7 @@ public class DocumentUtil {
     }
 
     private static void addFieldToDoc(Document doc, Map<String, Object> docMap, FieldDescriptor<?> descriptor,
-                                      List<String> indexFootPrint) {
+                                      Set<String> indexFootPrint) {
         if (ComplexFieldDescriptor.class.isAssignableFrom(descriptor.getClass())) {
             addFieldToDoc(doc, docMap, (ComplexFieldDescriptor) descriptor, indexFootPrint);
         } else {
@@ -108,7 +109,7 @@ public class DocumentUtil {
         }
     }
 
-    private static void addEmptyFieldToDoc(Map<String, Object> docMap, FieldDescriptor<?> descriptor, List<String> indexFootPrint) {
+    private static void addEmptyFieldToDoc(Map<String, Object> docMap, FieldDescriptor<?> descriptor, Set<String> indexFootPrint) {
         if (ComplexFieldDescriptor.class.isAssignableFrom(descriptor.getClass())) {
             addEmptyFieldToDoc( docMap, (ComplexFieldDescriptor) descriptor, indexFootPrint);
         } else {
@@ -142,7 +143,7 @@ public class DocumentUtil {
                 });
         }
     }
-    private static void addEmptyFieldToDoc(Map<String, Object> docMap, ComplexFieldDescriptor<?,?,?> descriptor, List<String> indexFootPrint) {
+    private static void addEmptyFieldToDoc(Map<String, Object> docMap, ComplexFieldDescriptor<?,?,?> descriptor, Set<String> indexFootPrint) {
 
         Stream.of(FieldDescriptor.UseCase.values()).forEach( useCase -> {
             final Optional<String> name = FieldUtil.getFieldName(descriptor, useCase, null, indexFootPrint);
@@ -169,7 +170,7 @@ public class DocumentUtil {
     }
 
     private static void addFieldToDoc(InverseSearchQuery doc, Map<String, Object> docMap, FieldDescriptor<?> descriptor,
-                                      List<String> indexFootPrint) {
+                                      Set<String> indexFootPrint) {
         if (ComplexFieldDescriptor.class.isAssignableFrom(descriptor.getClass())) {
             addFieldToDoc(doc, docMap, (ComplexFieldDescriptor) descriptor, indexFootPrint);
         } else {
@@ -182,7 +183,7 @@ public class DocumentUtil {
     }
 
     private static void addFieldToDoc(Document doc, Map<String, Object> docMap, ComplexFieldDescriptor<?,?,?> descriptor,
-                                      List<String> indexFootPrint) {
+                                      Set<String> indexFootPrint) {
         doc.getFieldContexts(descriptor)
             .forEach(context ->
                 Stream.of(FieldDescriptor.UseCase.values()).forEach( useCase -> {
@@ -197,7 +198,7 @@ public class DocumentUtil {
     }
 
     private static void addFieldToDoc(InverseSearchQuery doc, Map<String, Object> docMap,
-                                      ComplexFieldDescriptor<?,?,?> descriptor, List<String> indexFootPrint) {
+                                      ComplexFieldDescriptor<?,?,?> descriptor, Set<String> indexFootPrint) {
         Stream.of(FieldDescriptor.UseCase.values()).forEach( useCase -> {
             final Optional<String> name = FieldUtil.getFieldName(descriptor, useCase, null, indexFootPrint);
             name.ifPresent( fieldName ->
@@ -76,6 +76,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -114,12 +115,12 @@ public class ElasticQueryBuilder {
     private static final String RELEVANCE = "relevance";
 
     public static SearchSourceBuilder buildQuery(FulltextSearch search, DocumentFactory factory,
-                                                 List<String> indexFootPrint, ElasticVindClient client) {
+                                                 Set<String> indexFootPrint, ElasticVindClient client) {
         return buildQuery(search,factory,false, indexFootPrint, client);
     }
 
     public static SearchSourceBuilder buildQuery(FulltextSearch search, DocumentFactory factory, boolean escape,
-                                                 List<String> indexFootPrint, ElasticVindClient client) {
+                                                 Set<String> indexFootPrint, ElasticVindClient client) {
 
 
         final String searchContext = search.getSearchContext();
@@ -299,7 +300,7 @@ public class ElasticQueryBuilder {
         return searchSource;
     }
 
-    private static DisMaxQueryBuilder createDisMaxQueryBuilder(FulltextTerm fulltextTerm, DocumentFactory factory, List<String> indexFootPrint, String searchContext) {
+    private static DisMaxQueryBuilder createDisMaxQueryBuilder(FulltextTerm fulltextTerm, DocumentFactory factory, Set<String> indexFootPrint, String searchContext) {
         String minimumShouldMatch = fulltextTerm.getMinimumMatch();
         if(StringUtils.isNumeric(minimumShouldMatch) && !minimumShouldMatch.startsWith("-")) {
             minimumShouldMatch = "0<" + minimumShouldMatch;
@@ -331,40 +332,49 @@ public class ElasticQueryBuilder {
         return searchSource;
     }
 
-    private static void addToPivotAggs(AggregationBuilder pivotAgg, List<AggregationBuilder> aggs, List<String> indexFootPrint) {
+    private static void addToPivotAggs(AggregationBuilder pivotAgg, List<AggregationBuilder> aggs, Set<String> indexFootPrint) {
         pivotAgg.getSubAggregations()
                 .forEach(subAgg -> addToPivotAggs(subAgg,aggs, indexFootPrint));
         aggs.forEach(pivotAgg::subAggregation);
     }
-    public static QueryBuilder buildFilterQuery(Filter filter, DocumentFactory factory, String context, List<String> indexFootPrint) {
+    public static QueryBuilder buildFilterQuery(Filter filter, DocumentFactory factory, String context, Set<String> indexFootPrint) {
         return buildFilterQuery(filter, factory, context,false, indexFootPrint);
     }
     public static QueryBuilder buildFilterQuery(Filter filter, DocumentFactory factory, String context,
-                                                Boolean percolatorFlag, List<String> indexFootprint) {
+                                                Boolean percolatorFlag, Set<String> indexFootprint) {
+        // clauses in filter context are not scored and are cached by Elasticsearch one by one, so the clauses of a
+        // top level AND filter are added separately
         final BoolQueryBuilder filterQuery = QueryBuilders.boolQuery();
         // Add base doc type filter
-        filterQuery.must(QueryBuilders.termQuery(FieldUtil.TYPE, factory.getType()));
-        filterQuery.must(QueryBuilders.termQuery(FieldUtil.PERCOLATOR_FLAG, percolatorFlag));
-        Optional.ofNullable(filter)
-                .ifPresent(vindFilter ->
-                        Optional.ofNullable(filterMapper(vindFilter, factory, context, indexFootprint))
-                            .ifPresent(filterQuery::must));
+        filterQuery.filter(QueryBuilders.termQuery(FieldUtil.TYPE, factory.getType()));
+        filterQuery.filter(QueryBuilders.termQuery(FieldUtil.PERCOLATOR_FLAG, percolatorFlag));
+        if (filter instanceof Filter.AndFilter) {
+            ((Filter.AndFilter) filter).getChildren().stream()
+                    .map(f -> filterMapper(f, factory, context, indexFootprint))
+                    .filter(Objects::nonNull)
+                    .forEach(filterQuery::filter);
+        } else {
+            Optional.ofNullable(filter)
+                    .ifPresent(vindFilter ->
+                            Optional.ofNullable(filterMapper(vindFilter, factory, context, indexFootprint))
+                                .ifPresent(filterQuery::filter));
+        }
         return filterQuery;
 
     }
 
-    private static QueryBuilder filterMapper(Filter filter, DocumentFactory factory, String context, List<String> indexFootPrint) {
+    private static QueryBuilder filterMapper(Filter filter, DocumentFactory factory, String context, Set<String> indexFootPrint) {
         final UseCase useCase = UseCase.valueOf(filter.getFilterScope().name());
 
         switch (filter.getType()) {
             case "AndFilter":
                 final Filter.AndFilter andFilter = (Filter.AndFilter) filter;
-                final BoolQueryBuilder boolMustQuery = QueryBuilders.boolQuery();
+                final BoolQueryBuilder boolFilterQuery = QueryBuilders.boolQuery();
                 andFilter.getChildren().stream()
                         .map( f -> filterMapper(f, factory, context, indexFootPrint))
                         .filter(Objects::nonNull)
-                        .forEach(boolMustQuery::must);
-                return boolMustQuery;
+                        .forEach(boolFilterQuery::filter);
+                return boolFilterQuery;
             case "OrFilter":
                 final Filter.OrFilter orFilter = (Filter.OrFilter) filter;
                 final BoolQueryBuilder boolShouldQuery = QueryBuilders.boolQuery();
@@ -520,7 +530,7 @@ public class ElasticQueryBuilder {
     private static List<AggregationBuilder> buildElasticAggregations(String name, Facet vindFacet,
                                                                      DocumentFactory factory,
                                                                      String searchContext, int minCount, int facetLimit,
-                                                                     List<String> indexFootPrint,
+                                                                     Set<String> indexFootPrint,
                                                                      ElasticVindClient client,
                                                                      SearchSourceBuilder searchSourceStatic) {
         final String contextualizedFacetName = Stream.of(searchContext, name)
@@ -861,7 +871,7 @@ public class ElasticQueryBuilder {
         return aggBuilder;
     }
     private static void addSortToAggregation(Facet vindFacet, String searchContext, TermsAggregationBuilder termsAgg,
-                                             List<String> indexFootPrint) {
+                                             Set<String> indexFootPrint) {
         Optional.ofNullable(vindFacet.getSortings())
                 .ifPresent(sortings -> {
                     for (Map.Entry<String, Sort> sort: sortings.entrySet()) {
@@ -873,7 +883,7 @@ public class ElasticQueryBuilder {
                 });
     }
     private static void addSortToAggregation(Facet vindFacet, String searchContext, HistogramAggregationBuilder agg,
-                                             List<String> indexFootPrint) {
+                                             Set<String> indexFootPrint) {
         Optional.ofNullable(vindFacet.getSortings())
                 .ifPresent(sortings -> {
                     for (Map.Entry<String, Sort> sort: sortings.entrySet()) {
@@ -886,7 +896,7 @@ public class ElasticQueryBuilder {
     }
 
     private static void addSortToAggregation(Facet vindFacet, String searchContext, DateHistogramAggregationBuilder agg,
-                                             List<String> indexFootPrint) {
+                                             Set<String> indexFootPrint) {
         Optional.ofNullable(vindFacet.getSortings())
                 .ifPresent(sortings -> {
                     for (Map.Entry<String, Sort> sort: sortings.entrySet()) {
@@ -901,7 +911,7 @@ public class ElasticQueryBuilder {
     private static List<AggregationBuilder> getStatsAggregationBuilders(String searchContext,
                                                                         String contextualizedFacetName, UseCase useCase,
                                                                         Facet.StatsFacet statsFacet,
-                                                                        List<String> indexFootPrint) {
+                                                                        Set<String> indexFootPrint) {
         final List<AggregationBuilder> statsAggs = new ArrayList<>();
 
         FieldUtil.getFieldName(statsFacet.getField(), useCase, searchContext, indexFootPrint)
@@ -947,7 +957,7 @@ public class ElasticQueryBuilder {
     private static List<AggregationBuilder> getStringStatsAggregationBuilders(String searchContext,
                                                                         String contextualizedFacetName, UseCase useCase,
                                                                         Facet.StatsFacet statsFacet,
-                                                                        List<String> indexFootPrint) {
+                                                                        Set<String> indexFootPrint) {
         final List<AggregationBuilder> statsAggs = new ArrayList<>();
 
         FieldUtil.getFieldName(statsFacet.getField(), useCase, searchContext, indexFootPrint)
@@ -1115,7 +1125,7 @@ public class ElasticQueryBuilder {
 
     public static PainlessScript.ScriptBuilder buildUpdateScript(HashMap<FieldDescriptor<?>, HashMap<String,
             SortedSet<UpdateOperation>>> options, DocumentFactory factory, String updateContext,
-                                                                 List<String> indexFootPrint) {
+                                                                 Set<String> indexFootPrint) {
         final PainlessScript.ScriptBuilder scriptBuilder = new PainlessScript.ScriptBuilder();
         options.entrySet().stream()
                 .map(entry -> scriptBuilder.addOperations(entry.getKey(), entry.getValue(), indexFootPrint))
@@ -1126,7 +1136,7 @@ public class ElasticQueryBuilder {
     public static SearchSourceBuilder buildExperimentalSuggestionQuery(
             ExecutableSuggestionSearch search,
             DocumentFactory factory,
-            List<String> indexFootPrint) {
+            Set<String> indexFootPrint) {
 
         final String searchContext = search.getSearchContext();
         final SearchSourceBuilder searchSource = new SearchSourceBuilder();
@@ -1168,7 +1178,7 @@ public class ElasticQueryBuilder {
 
     public static SearchSourceBuilder buildSuggestionQuery(ExecutableSuggestionSearch search,
                                                            DocumentFactory factory,
-                                                           List<String> indexFootPrint) {
+                                                           Set<String> indexFootPrint) {
 
         final String searchContext = search.getSearchContext();
 
@@ -1260,7 +1270,7 @@ public class ElasticQueryBuilder {
     }
 
     protected static String[] getSuggestionFieldNames(ExecutableSuggestionSearch search, DocumentFactory factory,
-                                                      String searchContext, List<String> indexFootPrint) {
+                                                      String searchContext, Set<String> indexFootPrint) {
 
         if(search.isStringSuggestion()) {
             final StringSuggestionSearch suggestionSearch =(StringSuggestionSearch) search;
@@ -1282,7 +1292,7 @@ public class ElasticQueryBuilder {
         }
     }
     protected static String[] getFullTextFieldNames(FulltextSearch search, DocumentFactory factory, String searchContext,
-                                                    List<String> indexFootPrint) {
+                                                    Set<String> indexFootPrint) {
 
         return factory.getFields().entrySet().stream()
                 .filter( e -> e.getValue().isFullText())
@@ -1,6 +1,7 @@
 package com.rbmhtechnology.vind.elasticsearch.backend.util;
 
 import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import org.elasticsearch.action.admin.cluster.storedscripts.PutStoredScriptRequest;
 import org.elasticsearch.action.admin.indices.validate.query.ValidateQueryRequest;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.get.GetRequest;
@@ -16,15 +17,18 @@ import org.elasticsearch.client.indices.GetMappingsRequest;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.reindex.DeleteByQueryRequest;
 import org.elasticsearch.percolator.PercolateQueryBuilder;
+import org.elasticsearch.script.Script;
 import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -45,11 +49,31 @@ public class ElasticRequestUtils {
                 .source(jsonMap);
     }
 
-    public static UpdateRequest getUpdateRequest(String index, String id, PainlessScript.ScriptBuilder script) {
+    public static UpdateRequest getUpdateRequest(String index, String id, Script script) {
+       return getBulkUpdateRequest(index, id, script)
+                .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+    }
+
+    /**
+     * Creates an update request to be sent within a bulk request, which does not allow a refresh policy per item.
+     */
+    public static UpdateRequest getBulkUpdateRequest(String index, String id, Script script) {
        return new UpdateRequest(index, id)
                 .retryOnConflict(SearchConfiguration.get(SearchConfiguration.ELASTIC_VERSION_CONFLICT_UPDATE_RETRIES,10))
-                .script(script.build())
-                .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+                .script(script);
+    }
+
+    public static PutStoredScriptRequest getPutStoredScriptRequest(String id, String source) throws IOException {
+        final XContentBuilder content = XContentFactory.jsonBuilder()
+                .startObject()
+                    .startObject("script")
+                        .field("lang", PainlessScript.PAINLESS)
+                        .field("source", source)
+                    .endObject()
+                .endObject();
+        return new PutStoredScriptRequest()
+                .id(id)
+                .content(BytesReference.bytes(content), XContentType.JSON);
     }
 
     public static GetRequest getRealTimeGetRequest(String index, String docId) {
@@ -138,7 +162,17 @@ public class ElasticRequestUtils {
     }
 
     public static SearchRequest percolateDocumentRequest(String index, List<XContentBuilder> docs, QueryBuilder query) {
+        return percolateDocumentRequest(index, docs, query, -1, -1);
+    }
+
+    public static SearchRequest percolateDocumentRequest(String index, List<XContentBuilder> docs, QueryBuilder query, int from, int size) {
         final SearchSourceBuilder searchSource = new SearchSourceBuilder();
+        if (from >= 0) {
+            searchSource.from(from);
+        }
+        if (size >= 0) {
+            searchSource.size(size);
+        }
         final PercolateQueryBuilder docQuery = new PercolateQueryBuilder("query", docs.stream().map(BytesReference::bytes).collect(Collectors.toList()), XContentType.JSON);
         final BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
         boolQueryBuilder.must(docQuery);
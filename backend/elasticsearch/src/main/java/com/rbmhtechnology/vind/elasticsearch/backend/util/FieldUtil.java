@@ -3,6 +3,7 @@ package com.rbmhtechnology.vind.elasticsearch.backend.util;
 import com.rbmhtechnology.vind.elasticsearch.backend.ElasticSearchServer;
 import com.rbmhtechnology.vind.model.ComplexFieldDescriptor;
 import com.rbmhtechnology.vind.model.FieldDescriptor;
+import com.rbmhtechnology.vind.model.FieldNameTable;
 import com.rbmhtechnology.vind.model.MultiValueFieldDescriptor;
 import com.rbmhtechnology.vind.model.MultiValuedComplexField;
 import com.rbmhtechnology.vind.model.SingleValuedComplexField;
@@ -22,6 +23,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -68,20 +70,51 @@ public class FieldUtil {
             );
 
 
-    public static Optional<String> getFieldName(FieldDescriptor<?> descriptor, String context, List<String> indexFootprint) {
+    public static Optional<String> getFieldName(FieldDescriptor<?> descriptor, String context, Set<String> indexFootprint) {
         return getFieldName(descriptor, null, context, indexFootprint);
     }
     public static Optional<String> getFieldName(
             FieldDescriptor descriptor,
             UseCase useCase,
             String context,
-            List<String> indexFootprint) {
+            Set<String> indexFootprint) {
 
         if (Objects.isNull(descriptor)) {
             log.warn("Trying to get name of null field descriptor.");
             return Optional.empty();
         }
 
+        final IndexFieldName fieldName = FIELD_NAMES.get(descriptor, useCase, context);
+        if (Objects.isNull(useCase)) {
+            return Optional.of(fieldName.name);
+        }
+        if( Objects.nonNull(fieldName) && (Objects.isNull(indexFootprint) || indexFootprint.contains(fieldName.footprintName))) {
+            return Optional.of(fieldName.name);
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Memoized names of the descriptors, see {@link #buildFieldName(FieldDescriptor, UseCase, String)}.
+     */
+    private static final FieldNameTable<IndexFieldName> FIELD_NAMES = new FieldNameTable<>(FieldUtil::buildFieldName);
+
+    /**
+     * The elastic name of a field together with the name it is listed with in the index footprint.
+     */
+    private static final class IndexFieldName {
+        private final String name;
+        private final String footprintName;
+
+        private IndexFieldName(String name) {
+            this.name = name;
+            this.footprintName = name.replaceAll("\\.\\w+" , "");
+        }
+    }
+
+    private static IndexFieldName buildFieldName(FieldDescriptor<?> descriptor, UseCase useCase, String context) {
+
         String contextPrefix = "";
         if (Objects.isNull(context) || !descriptor.isContextualized()) {
             contextPrefix = "";
@@ -95,7 +128,7 @@ public class FieldUtil {
         final boolean isComplexField = ComplexFieldDescriptor.class.isAssignableFrom(descriptor.getClass());
         final String descriptorName = descriptor.getName().replaceAll("\\.", DOT);
         if (Objects.isNull(useCase)) {
-            return Optional.of(fieldName + type.getName() + contextPrefix + descriptorName);
+            return new IndexFieldName(fieldName + type.getName() + contextPrefix + descriptorName);
         }
         final String resultName;
         switch (useCase) {
@@ -191,12 +224,7 @@ public class FieldUtil {
                 break;
             }
         }
-        if( Objects.nonNull(resultName) && (Objects.isNull(indexFootprint) || indexFootprint.contains(resultName.replaceAll("\\.\\w+" , "")))) {
-            return Optional.of(resultName);
-        } else {
-            return Optional.empty();
-        }
-
+        return Objects.nonNull(resultName) ? new IndexFieldName(resultName) : null;
     }
 
     public static String getSourceFieldName(String elasticFieldName, String context) {
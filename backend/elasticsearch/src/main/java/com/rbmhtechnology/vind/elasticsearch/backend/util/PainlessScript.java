@@ -16,11 +16,13 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TimeZone;
 import java.util.function.Function;
@@ -33,8 +35,9 @@ public class PainlessScript {
 
     private static final Logger log = LoggerFactory.getLogger(PainlessScript.class);
 
+    public static final String PAINLESS = "painless";
+
     private final List<Statement> scriptStatements = new ArrayList<>();
-    public final HashMap<String, Object> scriptParameters = new HashMap<>();
 
     private PainlessScript() {
     }
@@ -47,10 +50,53 @@ public class PainlessScript {
         return scriptStatements;
     }
 
+    /**
+     * The statements in a stable order: by field, keeping the order of the operations of each field. Updates with
+     * the same operations on the same fields then result in the same script, whatever the iteration order of the
+     * update options is.
+     */
+    private List<Statement> getSortedStatements() {
+        final List<Statement> sorted = new ArrayList<>(scriptStatements);
+        sorted.sort(Comparator.comparing(Statement::getSubject));
+        return sorted;
+    }
+
+    /**
+     * @return the shape of the script, the kinds of its statements in order. Scripts of the same shape have the same
+     * source and differ only in their parameters.
+     */
+    public String getShape() {
+        return getSortedStatements().stream()
+                .map(Statement::getKind)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * @return the script source, field names and values are read from the parameters.
+     */
+    public String getSource() {
+        final List<Statement> statements = getSortedStatements();
+        final List<String> source = new ArrayList<>(statements.size());
+        for (int i = 0; i < statements.size(); i++) {
+            source.add(statements.get(i).getSource(i));
+        }
+        return String.join(";", source);
+    }
+
+    /**
+     * @return the parameters of the script source, see {@link #getSource()}.
+     */
+    public Map<String, Object> getParameters() {
+        final List<Statement> statements = getSortedStatements();
+        final Map<String, Object> parameters = new HashMap<>();
+        for (int i = 0; i < statements.size(); i++) {
+            statements.get(i).addParameters(parameters, i);
+        }
+        return parameters;
+    }
+
     public String toString() {
-        return scriptStatements.stream()
-                .map(Statement::toString)
-                .collect(Collectors.joining(";"));
+        return getSource();
     }
 
 
@@ -68,14 +114,12 @@ public class PainlessScript {
         private final String subject;
         private final Object predicate;
         private final Class<?> predicateType;
-        private HashMap<String, Object> scriptParameters;
 
-        private Statement(Operator op, String subject, Object predicate, Class<?> predicateType,HashMap<String,Object> scriptParameters) {
+        private Statement(Operator op, String subject, Object predicate, Class<?> predicateType) {
             this.op = op;
             this.subject = subject;
             this.predicate = predicate;
             this.predicateType = predicateType;
-            this.scriptParameters = scriptParameters;
         }
 
         public Operator getOp() {
@@ -158,51 +202,78 @@ public class PainlessScript {
             return elasticPredicate ;
         }
 
-        @Override
-        public String toString() {
-            switch (op){
-                case add:
-                    final String addSubjectParamName = "param_" + scriptParameters.size();
-                    scriptParameters.put(addSubjectParamName, subject);
-                    final String addPredicateParamName = "param_" + scriptParameters.size();
-                    scriptParameters.put(addPredicateParamName, Statement.getPredicate(predicate, predicateType));
-                    return String.format(PAINLESS_ADD_TEMPLATE, addSubjectParamName, addPredicateParamName);
-                case inc:
-                    final String incSubjectParamName = "param_" + scriptParameters.size();
-                    scriptParameters.put(incSubjectParamName, subject);
-                    final String incPredicateParamName = "param_" + scriptParameters.size();
-                    scriptParameters.put(incPredicateParamName, Statement.getPredicate(predicate, predicateType));
-                    return String.format(PAINLESS_INC_TEMPLATE, incSubjectParamName, incPredicateParamName);
+        /**
+         * @return the kind of the statement, which determines its source.
+         */
+        public String getKind() {
+            switch (op) {
                 case set:
-                    if(Objects.nonNull(predicate)) {
-                        final String subjectParamName = "param_" + scriptParameters.size();
-                        scriptParameters.put(subjectParamName, subject);
-                        final String predicateParamName = "param_" + scriptParameters.size();
-                        scriptParameters.put(predicateParamName, Statement.getPredicate(predicate, predicateType));
-                        return String.format(PAINLESS_SET_TEMPLATE, subjectParamName, predicateParamName );
-                    } else {
-                        final String subjectParamName = "param_" + scriptParameters.size();
-                        scriptParameters.put(subjectParamName, subject);
-                        return String.format(PAINLESS_REMOVE_TEMPLATE, subjectParamName);
-                    }
+                    return Objects.nonNull(predicate) ? "set" : "unset";
                 case remove:
-                    if(Objects.nonNull(predicate)) {
-                        final String subjectParamName = "param_" + scriptParameters.size();
-                        scriptParameters.put(subjectParamName, subject);
-                        final String predicateParamName = "param_" + scriptParameters.size();
-                        scriptParameters.put(predicateParamName, Statement.getPredicate(predicate, predicateType));
-                        return String.format(PAINLESS_REMOVE_ITEM_TEMPLATE, subjectParamName, predicateParamName);
-                    } else {
-                        final String subjectParamName = "param_" + scriptParameters.size();
-                        scriptParameters.put(subjectParamName, subject);
-                        return String.format(PAINLESS_REMOVE_TEMPLATE, subjectParamName);
-                    }
+                    return Objects.nonNull(predicate) ? "remove" : "unset";
+                case add:
+                case inc:
+                    return op.name();
                 case removeregex:
                 default:
                     throw new NotImplementedException("Operation '" + op +"' is not supported");
             }
         }
 
+        /**
+         * @param index position of the statement in the script.
+         * @return the source of the statement, reading field name and value from the parameters of the position.
+         */
+        public String getSource(int index) {
+            return getSource(getKind(), index);
+        }
+
+        /**
+         * @param kind kind of the statement, see {@link #getKind()}.
+         * @param index position of the statement in the script.
+         * @return the source of a statement of the given kind.
+         */
+        public static String getSource(String kind, int index) {
+            final String subjectParamName = getSubjectParamName(index);
+            final String predicateParamName = getPredicateParamName(index);
+            switch (kind) {
+                case "add":
+                    return String.format(PAINLESS_ADD_TEMPLATE, subjectParamName, predicateParamName);
+                case "inc":
+                    return String.format(PAINLESS_INC_TEMPLATE, subjectParamName, predicateParamName);
+                case "set":
+                    return String.format(PAINLESS_SET_TEMPLATE, subjectParamName, predicateParamName);
+                case "remove":
+                    return String.format(PAINLESS_REMOVE_ITEM_TEMPLATE, subjectParamName, predicateParamName);
+                default:
+                    return String.format(PAINLESS_REMOVE_TEMPLATE, subjectParamName);
+            }
+        }
+
+        /**
+         * @param parameters script parameters to add the field name and value of the statement to.
+         * @param index position of the statement in the script.
+         */
+        public void addParameters(Map<String, Object> parameters, int index) {
+            parameters.put(getSubjectParamName(index), subject);
+            if (!"unset".equals(getKind())) {
+                parameters.put(getPredicateParamName(index), Statement.getPredicate(predicate, predicateType));
+            }
+        }
+
+        private static String getSubjectParamName(int index) {
+            return "field_" + index;
+        }
+
+        private static String getPredicateParamName(int index) {
+            return "value_" + index;
+        }
+
+        @Override
+        public String toString() {
+            return getSource(0);
+        }
+
     }
 
     public static class ScriptBuilder {
@@ -213,7 +284,7 @@ public class PainlessScript {
         }
 
         public ScriptBuilder addOperations(FieldDescriptor<?> field, Map<String, SortedSet<UpdateOperation>> ops,
-                                           List<String> indexFootPrint) {
+                                           Set<String> indexFootPrint) {
            if(ComplexFieldDescriptor.class.isAssignableFrom(field.getClass())) {
                return addComplexFieldOperations((ComplexFieldDescriptor<? extends Object, ?, ?>) field,ops, indexFootPrint);
            }
@@ -221,7 +292,7 @@ public class PainlessScript {
         }
 
         private ScriptBuilder addSimpleFieldOperations(FieldDescriptor<?> field, Map<String,
-                SortedSet<UpdateOperation>> ops, List<String> indexFootPrint) {
+                SortedSet<UpdateOperation>> ops, Set<String> indexFootPrint) {
             ops.forEach((key, value) -> {
                 FieldUtil.getFieldName(field, key, indexFootPrint)
                         .ifPresent( fieldName -> {
@@ -232,8 +303,7 @@ public class PainlessScript {
                                                 Operator.valueOf(op.getType().name()),
                                                 fieldName,
                                                 op.getValue(),
-                                                field.getType(),
-                                                painlessScript.scriptParameters));
+                                                field.getType()));
                             });
                         });
             });
@@ -241,7 +311,7 @@ public class PainlessScript {
         }
 
         public <T> ScriptBuilder addComplexFieldOperations(ComplexFieldDescriptor<T,?,?> descriptor, Map<String,
-                SortedSet<UpdateOperation>> ops, List<String> indexFootPrint) {
+                SortedSet<UpdateOperation>> ops, Set<String> indexFootPrint) {
             ops.forEach((key, value) -> {
                     for( FieldDescriptor.UseCase useCase : FieldDescriptor.UseCase.values()) {
                         FieldUtil.getFieldName(descriptor, useCase, key, indexFootPrint)
@@ -301,8 +371,7 @@ public class PainlessScript {
                                                             Operator.valueOf(op.getType().name()),
                                                             name,
                                                             toElasticType(op.getValue(),descriptor, useCase),
-                                                            type,
-                                                            painlessScript.scriptParameters));
+                                                            type));
                                         });
                                     }
                                 });
@@ -312,16 +381,33 @@ public class PainlessScript {
             return this;
         }
 
-        private Script build(Map<String, Object> parameters) {
-            return new Script(
-                    ScriptType.INLINE,
-                    "painless",
-                    painlessScript.toString(),
-                    parameters);
+        /**
+         * @return the shape of the script, see {@link PainlessScript#getShape()}.
+         */
+        public String getShape() {
+            return painlessScript.getShape();
+        }
+
+        /**
+         * @return the script source, see {@link PainlessScript#getSource()}.
+         */
+        public String getSource() {
+            return painlessScript.getSource();
+        }
+
+        /**
+         * @return the parameters of the script source.
+         */
+        public Map<String, Object> getParameters() {
+            return painlessScript.getParameters();
         }
 
         public Script build() {
-            return this.build(painlessScript.scriptParameters);
+            return new Script(
+                    ScriptType.INLINE,
+                    PAINLESS,
+                    getSource(),
+                    getParameters());
         }
 
         public void checkValidPainlessSentence(FieldDescriptor<?> field, UpdateOperation op) {
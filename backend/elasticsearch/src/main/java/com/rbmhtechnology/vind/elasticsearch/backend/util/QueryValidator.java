@@ -0,0 +1,127 @@
+package com.rbmhtechnology.vind.elasticsearch.backend.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.rbmhtechnology.vind.elasticsearch.backend.client.ElasticVindClient;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Validates the Lucene syntax of fulltext search strings on the client side. Elasticsearch parses query string
+ * queries with the classic Lucene query parser grammar, so a search string it rejects is rejected by Elasticsearch
+ * too; a search string addressing only the default field is accepted by both. Search strings with explicit fields may
+ * still be rejected by Elasticsearch because of the field mapping, those are validated remotely by the
+ * {@code _validate/query} API. Results are kept in a bounded LRU cache per search string.
+ */
+public class QueryValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryValidator.class);
+
+    /** Default field of the validation query, see {@link ElasticRequestUtils#getValidateQueryRequest}. */
+    private static final String DEFAULT_FIELD = "fulltext";
+
+    private final RemoteValidation remote;
+    private final Cache<String, Boolean> results;
+    private final AtomicLong remoteValidations = new AtomicLong();
+
+    /**
+     * @param client {@link ElasticVindClient} used for the remote validation.
+     * @param cacheSize maximum number of search strings to keep the validation result for.
+     */
+    public QueryValidator(ElasticVindClient client, long cacheSize) {
+        this(query -> client.validateQuery(query).isValid(), cacheSize);
+    }
+
+    QueryValidator(RemoteValidation remote, long cacheSize) {
+        this.remote = remote;
+        this.results = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * Checks whether a search string is a valid query string query.
+     * @param query search string to check.
+     * @return true if Elasticsearch accepts the search string as query string query.
+     * @throws IOException if the remote validation is needed and fails.
+     */
+    public boolean isValid(String query) throws IOException {
+        if (query == null) {
+            return validateRemotely(null);
+        }
+        final Boolean cached = results.getIfPresent(query);
+        if (cached != null) {
+            return cached;
+        }
+        Boolean valid = validateLocally(query);
+        if (valid == null) {
+            valid = validateRemotely(query);
+        }
+        results.put(query, valid);
+        return valid;
+    }
+
+    /**
+     * @return how often a search string had to be validated remotely.
+     */
+    public long getRemoteValidationCount() {
+        return remoteValidations.get();
+    }
+
+    private boolean validateRemotely(String query) throws IOException {
+        remoteValidations.incrementAndGet();
+        return remote.isValid(query);
+    }
+
+    /**
+     * Parses a search string with the classic Lucene query parser, configured like the Elasticsearch query string
+     * query.
+     * @param query search string to check.
+     * @return whether the search string is valid, or null if this can only be decided by the index mapping.
+     */
+    static Boolean validateLocally(String query) {
+        if (query.trim().isEmpty()) {
+            // the classic parser rejects empty queries while Elasticsearch accepts them
+            return null;
+        }
+        final QueryParser parser = new QueryParser(DEFAULT_FIELD, new StandardAnalyzer());
+        parser.setAllowLeadingWildcard(true);
+        final Query parsed;
+        try {
+            parsed = parser.parse(query);
+        } catch (ParseException e) {
+            log.debug("Invalid query string '{}': {}", query, e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            log.debug("Cannot validate query string '{}' locally: {}", query, e.getMessage());
+            return null;
+        }
+        if (parsed == null) {
+            return true;
+        }
+
+        final AtomicBoolean explicitFields = new AtomicBoolean();
+        parsed.visit(new QueryVisitor() {
+            @Override
+            public boolean acceptField(String field) {
+                if (!DEFAULT_FIELD.equals(field)) {
+                    explicitFields.set(true);
+                }
+                return true;
+            }
+        });
+        return explicitFields.get() ? null : true;
+    }
+
+    @FunctionalInterface
+    interface RemoteValidation {
+        boolean isValid(String query) throws IOException;
+    }
+}
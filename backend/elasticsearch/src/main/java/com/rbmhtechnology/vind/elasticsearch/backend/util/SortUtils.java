@@ -22,12 +22,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public class SortUtils {
     public static final String NUMBER_OF_MATCHING_TERMS_SORT = "NumberOfMatchingTermsSort";
 
     protected static SortBuilder buildSort(Sort sort, FulltextSearch search, DocumentFactory factory,
-                                           String searchContext, List<String> indexFootPrint) {
+                                           String searchContext, Set<String> indexFootPrint) {
         switch (sort.getType()) {
             case "SimpleSort":
                 final String simpleSortFieldName = ((Sort.SimpleSort) sort).getField();
@@ -121,7 +122,7 @@ public class SortUtils {
             throw new RuntimeException("Cannot get type for fieldName '" + fieldName + "'");
     }
 
-    protected static AggregationBuilder buildFacetSort(String name, Sort sort, String searchContext, List<String> indexFootPrint) {
+    protected static AggregationBuilder buildFacetSort(String name, Sort sort, String searchContext, Set<String> indexFootPrint) {
         switch (sort.getType()) {
             case "ScoredDate":
                 final FieldDescriptor descriptor = ((Sort.SpecialSort.ScoredDate) sort).getDescriptor();
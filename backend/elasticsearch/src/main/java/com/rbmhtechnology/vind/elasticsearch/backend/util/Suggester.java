@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -59,7 +60,7 @@ public class Suggester {
         this.context = suggestionSearch.getSearchContext();
     }
 
-    public SuggestionResult getExperimentalSuggestions( List<String> indexFootPrint) {
+    public SuggestionResult getExperimentalSuggestions( Set<String> indexFootPrint) {
         final StopWatch elapsedtime = StopWatch.createStarted();
         final SearchSourceBuilder query =
                 ElasticQueryBuilder.buildExperimentalSuggestionQuery(search, factory, indexFootPrint);
@@ -171,7 +172,7 @@ public class Suggester {
         return letter;
     }
 
-    public SuggestionResult getSuggestions( List<String> indexFootPrint) {
+    public SuggestionResult getSuggestions( Set<String> indexFootPrint) {
         final StopWatch elapsedtime = StopWatch.createStarted();
         final SearchSourceBuilder query =
                 ElasticQueryBuilder.buildExperimentalSuggestionQuery(search, factory, indexFootPrint);
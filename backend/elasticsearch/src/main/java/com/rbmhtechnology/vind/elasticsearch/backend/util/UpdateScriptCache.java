@@ -0,0 +1,125 @@
+package com.rbmhtechnology.vind.elasticsearch.backend.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.rbmhtechnology.vind.elasticsearch.backend.client.ElasticVindClient;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the update scripts by shape, the kinds of the update operations in the order of the fields they update, see
+ * {@link PainlessScript#getShape()}. Field names and values are passed as parameters, so all updates of a shape share
+ * the same script source and Elasticsearch compiles it only once instead of once per update. Optionally the scripts
+ * are registered as stored scripts, updates then only send the id of the script together with its parameters.
+ */
+public class UpdateScriptCache {
+
+    private static final Logger log = LoggerFactory.getLogger(UpdateScriptCache.class);
+
+    public static final String STORED_SCRIPT_PREFIX = "vind-update-";
+
+    /** Shapes of updates with a single operation, registered on start up when stored scripts are enabled. */
+    private static final List<String> SINGLE_OPERATION_SHAPES = Collections.unmodifiableList(
+            Arrays.asList("set", "unset", "add", "inc", "remove"));
+
+    private final ScriptStore store;
+    private final Cache<String, Script> scripts;
+
+    /**
+     * @param client {@link ElasticVindClient} to register the stored scripts with.
+     * @param cacheSize maximum number of script shapes to keep.
+     * @param storedScripts true to register the scripts as stored scripts, false to send them inline.
+     */
+    public UpdateScriptCache(ElasticVindClient client, long cacheSize, boolean storedScripts) {
+        this(storedScripts ? client::putStoredScript : null, cacheSize);
+    }
+
+    UpdateScriptCache(ScriptStore store, long cacheSize) {
+        this.store = store;
+        this.scripts = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * @return true if the scripts are registered as stored scripts.
+     */
+    public boolean isStoringScripts() {
+        return store != null;
+    }
+
+    /**
+     * Registers the stored scripts of the updates with a single operation, the most frequent ones. Scripts of other
+     * shapes are registered on first use.
+     */
+    public void registerSingleOperationScripts() {
+        if (store == null) {
+            return;
+        }
+        for (String shape : SINGLE_OPERATION_SHAPES) {
+            try {
+                getTemplate(shape, () -> singleOperationSource(shape));
+            } catch (IOException e) {
+                log.warn("Cannot register stored update script of shape {}: {}", shape, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Gets the script of an update.
+     * @param script the {@link PainlessScript.ScriptBuilder} holding the update operations.
+     * @return the inline or stored script of the shape of the update, with the parameters of the update.
+     * @throws IOException if the stored script of a new shape cannot be registered.
+     */
+    public Script getScript(PainlessScript.ScriptBuilder script) throws IOException {
+        final Script template = getTemplate(script.getShape(), script::getSource);
+        return new Script(template.getType(), template.getLang(), template.getIdOrCode(), script.getParameters());
+    }
+
+    /**
+     * @return the number of script shapes currently cached.
+     */
+    public long size() {
+        return scripts.size();
+    }
+
+    private Script getTemplate(String shape, Supplier<String> source) throws IOException {
+        try {
+            return scripts.get(shape, () -> createTemplate(source.get()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private Script createTemplate(String source) throws IOException {
+        if (store == null) {
+            return new Script(ScriptType.INLINE, PainlessScript.PAINLESS, source, Collections.emptyMap());
+        }
+        // the id is derived from the source, so a changed script never replaces the one older clients still use
+        final String id = STORED_SCRIPT_PREFIX + Hashing.murmur3_128().hashString(source, StandardCharsets.UTF_8);
+        log.debug("Registering stored update script {}: {}", id, source);
+        store.put(id, source);
+        return new Script(ScriptType.STORED, null, id, Collections.emptyMap());
+    }
+
+    private static String singleOperationSource(String shape) {
+        return PainlessScript.Statement.getSource(shape, 0);
+    }
+
+    @FunctionalInterface
+    interface ScriptStore {
+        void put(String id, String source) throws IOException;
+    }
+}
@@ -0,0 +1,34 @@
+package com.rbmhtechnology.vind.elasticsearch.backend;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class FootprintTest {
+
+    @Test
+    public void testSucceededDocuments() {
+        final List<Map<String, Object>> jsonDocs = Arrays.asList(
+                Collections.singletonMap("dynamic_single_stored_string_title", "a"),
+                Collections.singletonMap("dynamic_single_stored_int_count", "b"),
+                Collections.singletonMap("dynamic_single_stored_date_created", "c"));
+        final ShardId shard = new ShardId("index", "uuid", 0);
+        final BulkResponse response = new BulkResponse(new BulkItemResponse[]{
+                new BulkItemResponse(0, DocWriteRequest.OpType.INDEX, new IndexResponse(shard, "_doc", "1", 1, 1, 1, true)),
+                new BulkItemResponse(1, DocWriteRequest.OpType.INDEX,
+                        new BulkItemResponse.Failure("index", "_doc", "2", new IllegalArgumentException("mapping"))),
+                new BulkItemResponse(2, DocWriteRequest.OpType.INDEX, new IndexResponse(shard, "_doc", "3", 2, 1, 1, true))
+        }, 10);
+
+        Assert.assertEquals(Arrays.asList(jsonDocs.get(0), jsonDocs.get(2)), ElasticSearchServer.succeeded(jsonDocs, response));
+    }
+}
@@ -1,8 +1,16 @@
 package com.rbmhtechnology.vind.elasticsearch.backend.util;
 
+import com.rbmhtechnology.vind.api.query.update.Update;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.MultiValueFieldDescriptor;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import org.elasticsearch.script.Script;
 import org.junit.Test;
 
 import static com.rbmhtechnology.vind.elasticsearch.backend.util.PainlessScript.Statement.getStringPredicate;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class PainlessScriptTest {
@@ -13,4 +21,37 @@ public class PainlessScriptTest {
         String stringPredicate = getStringPredicate(predicate, String.class);
         assertEquals("['tradition', 'survival']", stringPredicate);
     }
+
+    @Test
+    public void testScriptIsParameterized() {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+                .buildTextField("title");
+        final MultiValueFieldDescriptor.TextFieldDescriptor<String> tags = new FieldDescriptorBuilder<String>()
+                .buildMultivaluedTextField("tags");
+        final SingleValueFieldDescriptor.NumericFieldDescriptor<Long> views = new FieldDescriptorBuilder<Long>()
+                .buildNumericField("views", Long.class);
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset").setUpdatable(true).addField(title, tags, views).build();
+
+        final Script script1 = buildScript(new Update("1").set(title, "One").add(tags, new String[]{"a"}).increment(views, 1L), factory);
+        final Script script2 = buildScript(new Update("2").increment(views, 5L).add(tags, new String[]{"b", "c"}).set(title, "It's two"), factory);
+        assertEquals(script1.getIdOrCode(), script2.getIdOrCode());
+        assertEquals(3, script1.getIdOrCode().split(";").length);
+        assertEquals(6, script2.getParams().size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(script1.getParams().get("field_" + i), script2.getParams().get("field_" + i));
+            if (script2.getParams().get("field_" + i).toString().contains("tags")) {
+                assertArrayEquals(new Object[]{"b", "c"}, (Object[]) script2.getParams().get("value_" + i));
+            }
+        }
+        assertEquals(true, script2.getParams().containsValue("It's two"));
+
+        final PainlessScript.ScriptBuilder unset = ElasticQueryBuilder.buildUpdateScript(
+                new Update("3").set(title, null).remove(tags, new String[]{"a"}).getOptions(), factory, null, null);
+        assertEquals("remove,unset", unset.getShape());
+        assertEquals(3, unset.getParameters().size());
+    }
+
+    private static Script buildScript(Update update, DocumentFactory factory) {
+        return ElasticQueryBuilder.buildUpdateScript(update.getOptions(), factory, null, null).build();
+    }
 }
@@ -0,0 +1,44 @@
+package com.rbmhtechnology.vind.elasticsearch.backend.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class QueryValidatorTest {
+
+    @Test
+    public void testValidateLocally() {
+        Assert.assertEquals(Boolean.TRUE, QueryValidator.validateLocally("*"));
+        Assert.assertEquals(Boolean.TRUE, QueryValidator.validateLocally("red bull -racing"));
+        Assert.assertEquals(Boolean.TRUE, QueryValidator.validateLocally("\"red bull\" AND (air OR race*)"));
+        Assert.assertEquals(Boolean.TRUE, QueryValidator.validateLocally("*ing"));
+        Assert.assertEquals(Boolean.FALSE, QueryValidator.validateLocally("red AND (bull"));
+        Assert.assertEquals(Boolean.FALSE, QueryValidator.validateLocally("\"red bull"));
+        Assert.assertEquals(Boolean.FALSE, QueryValidator.validateLocally("title:"));
+        Assert.assertNull(QueryValidator.validateLocally("title:bull"));
+        Assert.assertNull(QueryValidator.validateLocally("views:[10 TO 20]"));
+        Assert.assertNull(QueryValidator.validateLocally(" "));
+    }
+
+    @Test
+    public void testRemoteFallbackIsCached() throws IOException {
+        final List<String> validated = new ArrayList<>();
+        final QueryValidator validator = new QueryValidator(query -> {
+            validated.add(query);
+            return false;
+        }, 10);
+
+        Assert.assertTrue(validator.isValid("red bull"));
+        Assert.assertFalse(validator.isValid("red (bull"));
+        Assert.assertEquals(0, validator.getRemoteValidationCount());
+
+        Assert.assertFalse(validator.isValid("views:abc"));
+        Assert.assertFalse(validator.isValid("views:abc"));
+        Assert.assertEquals(1, validator.getRemoteValidationCount());
+        Assert.assertEquals(Collections.singletonList("views:abc"), validated);
+    }
+}
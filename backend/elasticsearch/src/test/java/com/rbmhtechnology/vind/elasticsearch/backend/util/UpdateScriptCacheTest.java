@@ -0,0 +1,64 @@
+package com.rbmhtechnology.vind.elasticsearch.backend.util;
+
+import com.rbmhtechnology.vind.api.query.update.Update;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class UpdateScriptCacheTest {
+
+    private final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+            .buildTextField("title");
+    private final SingleValueFieldDescriptor.NumericFieldDescriptor<Long> views = new FieldDescriptorBuilder<Long>()
+            .buildNumericField("views", Long.class);
+    private final DocumentFactory factory = new DocumentFactoryBuilder("asset").setUpdatable(true).addField(title, views).build();
+
+    @Test
+    public void testInlineScripts() throws IOException {
+        final UpdateScriptCache cache = new UpdateScriptCache((UpdateScriptCache.ScriptStore) null, 10);
+        final Script script1 = cache.getScript(builder(new Update("1").set(title, "a")));
+        final Script script2 = cache.getScript(builder(new Update("2").set(title, "b")));
+
+        Assert.assertEquals(ScriptType.INLINE, script1.getType());
+        Assert.assertSame(script1.getIdOrCode(), script2.getIdOrCode());
+        Assert.assertEquals("b", script2.getParams().get("value_0"));
+        Assert.assertEquals(1, cache.size());
+
+        cache.getScript(builder(new Update("3").set(title, "c").increment(views, 1L)));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testStoredScripts() throws IOException {
+        final Map<String, String> stored = new HashMap<>();
+        final UpdateScriptCache cache = new UpdateScriptCache(stored::put, 10);
+        cache.registerSingleOperationScripts();
+        Assert.assertEquals(5, stored.size());
+
+        final PainlessScript.ScriptBuilder single = builder(new Update("1").increment(views, 2L));
+        final Script script = cache.getScript(single);
+        Assert.assertEquals(ScriptType.STORED, script.getType());
+        Assert.assertNull(script.getLang());
+        Assert.assertEquals(single.getSource(), stored.get(script.getIdOrCode()));
+        Assert.assertEquals(2L, script.getParams().get("value_0"));
+        Assert.assertEquals(5, stored.size());
+
+        final PainlessScript.ScriptBuilder multiple = builder(new Update("2").set(title, "a").increment(views, 1L));
+        final Script multipleScript = cache.getScript(multiple);
+        Assert.assertEquals(6, stored.size());
+        Assert.assertEquals(multiple.getSource(), stored.get(multipleScript.getIdOrCode()));
+    }
+
+    private PainlessScript.ScriptBuilder builder(Update update) {
+        return ElasticQueryBuilder.buildUpdateScript(update.getOptions(), factory, null, null);
+    }
+}
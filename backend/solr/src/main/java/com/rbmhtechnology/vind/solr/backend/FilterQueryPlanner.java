@@ -0,0 +1,130 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plans the Solr filter queries of a {@link Filter}. The clauses of a top level {@link Filter.AndFilter} are sent as
+ * separate fq parameters, so each of them is an entry of the Solr filterCache of its own and changing one of them
+ * does not invalidate the cached others. Clauses which are not worth caching are sent with {@code cache=false} and a
+ * cost, so Solr runs them after the cheaper, cached ones:
+ * <ul>
+ *     <li>geo filters, which are rarely repeated with the same point and distance;</li>
+ *     <li>date filters relative to NOW without rounding, which resolve to a new query on every request;</li>
+ *     <li>terms filters with more terms than {@link SearchConfiguration#SOLR_FILTER_UNCACHED_TERMS}.</li>
+ * </ul>
+ * Filters on nested documents are kept in a single filter query, as their clauses have to match the same child.
+ */
+final class FilterQueryPlanner {
+
+    static final int TERMS_COST = 50;
+    static final int DATE_COST = 50;
+    static final int GEO_COST = 100;
+
+    private final DocumentFactory factory;
+    private final DocumentFactory childFactory;
+    private final String searchContext;
+    private final boolean strict;
+    private final int uncachedTerms;
+
+    FilterQueryPlanner(DocumentFactory factory, DocumentFactory childFactory, String searchContext, boolean strict) {
+        this(factory, childFactory, searchContext, strict,
+                SearchConfiguration.get(SearchConfiguration.SOLR_FILTER_UNCACHED_TERMS, 100));
+    }
+
+    FilterQueryPlanner(DocumentFactory factory, DocumentFactory childFactory, String searchContext, boolean strict, int uncachedTerms) {
+        this.factory = factory;
+        this.childFactory = childFactory;
+        this.searchContext = searchContext;
+        this.strict = strict;
+        this.uncachedTerms = uncachedTerms;
+    }
+
+    /**
+     * @param filter {@link Filter} to plan.
+     * @return the filter queries, each with the local params controlling its caching.
+     */
+    List<String> plan(Filter filter) {
+        if (filter instanceof Filter.AndFilter && childFactory == null) {
+            final List<String> filterQueries = new ArrayList<>();
+            for (Filter clause : ((Filter.AndFilter) filter).getChildren()) {
+                final String filterQuery = plan(clause, serialize(clause));
+                if (filterQuery != null) {
+                    filterQueries.add(filterQuery);
+                }
+            }
+            return filterQueries;
+        }
+        final String filterQuery = plan(filter, serialize(filter));
+        return filterQuery != null ? Collections.singletonList(filterQuery) : Collections.emptyList();
+    }
+
+    private String serialize(Filter filter) {
+        return new ChildrenFilterSerializer(factory, childFactory, searchContext, strict, false).serialize(filter);
+    }
+
+    private String plan(Filter filter, String filterQuery) {
+        if (StringUtils.isBlank(filterQuery)) {
+            return null;
+        }
+        final int cost = cost(filter);
+        if (cost == 0) {
+            return filterQuery;
+        }
+        final String localParams = "cache=false cost=" + cost;
+        if (filterQuery.startsWith("{!")) {
+            // add to the local params of the query parser, e.g. {!geofilt ...}
+            final int end = StringUtils.indexOfAny(filterQuery.substring(2), " }") + 2;
+            return filterQuery.substring(0, end) + " " + localParams + filterQuery.substring(end);
+        }
+        return "{!" + localParams + "}" + filterQuery;
+    }
+
+    /**
+     * @return the cost of a filter which should not be cached, 0 for filters to cache.
+     */
+    int cost(Filter filter) {
+        if (filter instanceof Filter.AndFilter) {
+            return maxCost(((Filter.AndFilter) filter).getChildren());
+        } else if (filter instanceof Filter.OrFilter) {
+            return maxCost(((Filter.OrFilter) filter).getChildren());
+        } else if (filter instanceof Filter.NotFilter) {
+            return cost(((Filter.NotFilter) filter).getDelegate());
+        } else if (filter instanceof Filter.WithinCircleFilter || filter instanceof Filter.WithinBBoxFilter) {
+            return GEO_COST;
+        } else if (filter instanceof Filter.TermsQueryFilter) {
+            return ((Filter.TermsQueryFilter<?>) filter).getTerm().size() > uncachedTerms ? TERMS_COST : 0;
+        } else if (filter instanceof Filter.BeforeFilter) {
+            return isVolatile(((Filter.BeforeFilter) filter).getDate()) ? DATE_COST : 0;
+        } else if (filter instanceof Filter.AfterFilter) {
+            return isVolatile(((Filter.AfterFilter) filter).getDate()) ? DATE_COST : 0;
+        } else if (filter instanceof Filter.BetweenDatesFilter) {
+            final Filter.BetweenDatesFilter between = (Filter.BetweenDatesFilter) filter;
+            return isVolatile(between.getStart()) || isVolatile(between.getEnd()) ? DATE_COST : 0;
+        }
+        return 0;
+    }
+
+    private int maxCost(Iterable<Filter> filters) {
+        int cost = 0;
+        for (Filter filter : filters) {
+            cost = Math.max(cost, cost(filter));
+        }
+        return cost;
+    }
+
+    /**
+     * @return true if the expression is relative to NOW and not rounded, so it changes with every request.
+     */
+    private static boolean isVolatile(DateMathExpression expression) {
+        return expression != null && expression.getRoot().isRelative()
+                && expression.getRoot().getUnit() == null && expression.getUnit() == null;
+    }
+}
@@ -0,0 +1,157 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.model.ComplexFieldDescriptor;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+import com.rbmhtechnology.vind.model.FieldDescriptor.UseCase;
+import com.rbmhtechnology.vind.model.value.LatLng;
+import org.apache.solr.common.SolrInputDocument;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import static com.rbmhtechnology.vind.solr.backend.SolrUtils.Fieldname.ID;
+import static com.rbmhtechnology.vind.solr.backend.SolrUtils.Fieldname.TYPE;
+import static com.rbmhtechnology.vind.solr.backend.SolrUtils.Fieldname.getFieldname;
+
+/**
+ * Builds the {@link SolrInputDocument} of a vind {@link Document}. For each {@link FieldDescriptor} of a
+ * {@link com.rbmhtechnology.vind.model.DocumentFactory} the {@link UseCase}s it is actually indexed for, together with
+ * the Solr field names and the value conversion needed, are compiled once into a plan which is then walked for every
+ * indexed document. Descriptors are referenced weakly and compared by identity.
+ */
+public final class IndexingPlan {
+
+    private static final UseCase[] USE_CASES = UseCase.values();
+
+    private static final Cache<FieldDescriptor<?>, FieldPlan> PLANS = CacheBuilder.newBuilder().weakKeys().build();
+
+    private IndexingPlan() {
+    }
+
+    /**
+     * Creates the Solr input document for the given document and its children.
+     * @param doc {@link Document} to index.
+     * @return the {@link SolrInputDocument} holding the Solr fields of all the use cases of the document values.
+     */
+    public static SolrInputDocument createInputDocument(Document doc) {
+        final SolrInputDocument document = new SolrInputDocument();
+        //add fields
+        for (FieldDescriptor<?> descriptor : doc.listFieldDescriptors().values()) {
+            if (doc.hasValue(descriptor)) {
+                final FieldPlan plan = getPlan(descriptor);
+                for (String context : doc.getFieldContexts(descriptor)) {
+                    plan.addFields(document, descriptor, context, doc.getContextualizedValue(descriptor, context));
+                }
+            }
+        }
+
+        //add subdocuments
+        if (doc.hasChildren()) {
+            for (Document child : doc.getChildren()) {
+                document.addChildDocument(createInputDocument(child));
+            }
+        }
+
+        document.addField(ID, doc.getId());
+        document.addField(TYPE, doc.getType());
+
+        return document;
+    }
+
+    /**
+     * Converts a vind value into the type SolrJ expects.
+     * @param value value to convert.
+     * @return the value, with dates as {@link Date}s, locations as strings and arrays as lists.
+     */
+    static Object toSolrJType(Object value) {
+        if (value instanceof Object[]) {
+            return toSolrJType(Arrays.asList((Object[]) value));
+        }
+        if (value instanceof Collection) {
+            final Collection<?> values = (Collection<?>) value;
+            final List<Object> result = new ArrayList<>(values.size());
+            for (Object o : values) {
+                result.add(toSolrJType(o));
+            }
+            return result;
+        }
+        if (value instanceof ZonedDateTime) {
+            return Date.from(((ZonedDateTime) value).toInstant());
+        }
+        if (value instanceof LatLng) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    private static FieldPlan getPlan(FieldDescriptor<?> descriptor) {
+        FieldPlan plan = PLANS.getIfPresent(descriptor);
+        if (plan == null || !plan.isValidFor(descriptor)) {
+            plan = new FieldPlan(descriptor);
+            PLANS.put(descriptor, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * The indexing steps of a single descriptor. Like the field names, the plan is compiled again if the sort or context
+     * configuration of the descriptor changes. The descriptor itself is not referenced, so it does not prevent the weak
+     * key of the cache from being collected.
+     */
+    private static final class FieldPlan {
+        private final boolean sort;
+        private final boolean contextualized;
+        private final UseCase[] useCases;
+        /** The field names of the use cases, only kept if they do not depend on the context. */
+        private final String[] fieldnames;
+        /** Whether the value has to be converted for the use case or is indexed as it is. */
+        private final boolean[] converted;
+
+        private FieldPlan(FieldDescriptor<?> descriptor) {
+            this.sort = descriptor.isSort();
+            this.contextualized = descriptor.isContextualized();
+
+            final boolean complex = descriptor instanceof ComplexFieldDescriptor;
+            final List<UseCase> indexed = new ArrayList<>(USE_CASES.length);
+            final List<String> names = new ArrayList<>(USE_CASES.length);
+            for (UseCase useCase : USE_CASES) {
+                final String fieldname = getFieldname(descriptor, useCase, null);
+                if (fieldname != null) {
+                    indexed.add(useCase);
+                    names.add(fieldname);
+                }
+            }
+
+            this.useCases = indexed.toArray(new UseCase[0]);
+            this.fieldnames = contextualized ? null : names.toArray(new String[0]);
+            this.converted = new boolean[useCases.length];
+            for (int i = 0; i < useCases.length; i++) {
+                converted[i] = complex || (useCases[i] == UseCase.Sort && descriptor.isSort() && descriptor.isMultiValue());
+            }
+        }
+
+        private boolean isValidFor(FieldDescriptor<?> descriptor) {
+            return descriptor.isSort() == sort && descriptor.isContextualized() == contextualized;
+        }
+
+        private void addFields(SolrInputDocument document, FieldDescriptor<?> descriptor, String context, Object value) {
+            for (int i = 0; i < useCases.length; i++) {
+                final String fieldname = fieldnames != null ? fieldnames[i] : getFieldname(descriptor, useCases[i], context);
+                if (fieldname != null) {
+                    final Object caseValue = converted[i] ?
+                            SolrUtils.FieldValue.getFieldCaseValue(value, descriptor, useCases[i]) : value;
+                    if (caseValue != null) {
+                        document.addField(fieldname, toSolrJType(caseValue));
+                    }
+                }
+            }
+        }
+    }
+}
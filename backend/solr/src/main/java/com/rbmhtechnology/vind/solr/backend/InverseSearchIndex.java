@@ -0,0 +1,364 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import org.apache.lucene.index.memory.MemoryIndex;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * In-memory index of the compiled inverse search queries stored in a Solr collection. Queries are kept by id together
+ * with the Solr version they were compiled from, so changed queries are detected and compiled again. Queries which are
+ * not registered in their current version, e.g. because they have been evicted, are loaded on matching. The resolved
+ * queries are indexed by their extracted terms, so each percolated document, indexed into its own {@link MemoryIndex},
+ * is only run against the queries it contains a term of and the ones without terms, in parallel. The resolved queries
+ * of an inverse search are kept as long as the {@link Watermark} of the stored queries does not change.
+ */
+final class InverseSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(InverseSearchIndex.class);
+
+    private static final int MAXIMUM_RESOLVED_SETS = 16;
+
+    private final Cache<String, RegisteredQuery> queries;
+    private final Cache<String, ResolvedSet> resolvedSets;
+
+    InverseSearchIndex(long maximumSize) {
+        this.queries = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.resolvedSets = CacheBuilder.newBuilder().maximumSize(MAXIMUM_RESOLVED_SETS).build();
+    }
+
+    /**
+     * Checks whether a query is registered in the given version.
+     * @param id id of the query.
+     * @param version Solr version of the stored query.
+     * @param factory {@link DocumentFactory} of the percolated documents.
+     * @return true if the query does not need to be registered again.
+     */
+    boolean isRegistered(String id, long version, DocumentFactory factory) {
+        final RegisteredQuery query = queries.getIfPresent(id);
+        return query != null && query.version == version && query.factory == factory;
+    }
+
+    /**
+     * Compiles and registers a query, replacing a former version of it.
+     * @param id id of the query.
+     * @param version Solr version of the stored query.
+     * @param filter the {@link Filter} of the query.
+     * @param factory {@link DocumentFactory} of the percolated documents.
+     * @throws IllegalArgumentException if the filter cannot be run against single documents.
+     */
+    void register(String id, long version, Filter filter, DocumentFactory factory) {
+        queries.put(id, new RegisteredQuery(version, filter, factory));
+    }
+
+    /**
+     * Validates a filter to be registered.
+     * @param filter the {@link Filter} of the query.
+     * @param factory {@link DocumentFactory} of the percolated documents.
+     * @throws IllegalArgumentException if the filter cannot be run against single documents.
+     */
+    static void validate(Filter filter, DocumentFactory factory) {
+        MemoryIndexQueryBuilder.buildQuery(filter, factory, ZonedDateTime.now());
+    }
+
+    /**
+     * Matches documents against stored queries, loading the ones which are not registered in their current version.
+     * The queries are resolved before matching, so a query evicted meanwhile is still run.
+     * @param docs the documents to percolate.
+     * @param versions the Solr versions of the queries to run by id, in the order of the result.
+     * @param factory {@link DocumentFactory} of the percolated documents.
+     * @param loader loads the stored queries which are not registered.
+     * @return the queries matching any of the documents by id.
+     * @throws IOException if the queries cannot be loaded.
+     * @throws IllegalStateException if a query cannot be loaded.
+     */
+    Map<String, Match> match(List<Document> docs, Map<String, Long> versions, DocumentFactory factory, QueryLoader loader)
+            throws IOException {
+        return resolve(versions, factory, loader, null).match(docs);
+    }
+
+    /**
+     * Matches documents against the stored queries of an inverse search. The queries resolved for the same key are
+     * reused if the stored queries have the same watermark, otherwise their versions are fetched and they are resolved
+     * again.
+     * @param docs the documents to percolate.
+     * @param key identifies the stored queries of an inverse search, null if they cannot be reused.
+     * @param watermark the current {@link Watermark} of the stored queries, ignored without key.
+     * @param factory {@link DocumentFactory} of the percolated documents.
+     * @param versions fetches the Solr versions of the stored queries by id, in the order of the result.
+     * @param loader loads the stored queries which are not registered.
+     * @return the queries matching any of the documents by id.
+     * @throws IOException if the versions or the queries cannot be loaded.
+     * @throws IllegalStateException if a query cannot be loaded.
+     */
+    Map<String, Match> match(List<Document> docs, String key, Watermark watermark, DocumentFactory factory,
+                             VersionLoader versions, QueryLoader loader) throws IOException {
+        if (key == null) {
+            return resolve(versions.load(), factory, loader, null).match(docs);
+        }
+        final ResolvedSet cached = resolvedSets.getIfPresent(key);
+        if (cached != null && cached.factory == factory && cached.watermark.equals(watermark)) {
+            return cached.match(docs);
+        }
+        final ResolvedSet resolved = resolve(versions.load(), factory, loader, watermark);
+        resolvedSets.put(key, resolved);
+        return resolved.match(docs);
+    }
+
+    private ResolvedSet resolve(Map<String, Long> versions, DocumentFactory factory, QueryLoader loader, Watermark watermark)
+            throws IOException {
+        final Map<String, RegisteredQuery> resolved = new LinkedHashMap<>();
+        final List<String> missing = new ArrayList<>();
+        versions.forEach((id, version) -> {
+            final RegisteredQuery query = queries.getIfPresent(id);
+            if (query != null && query.version == version && query.factory == factory) {
+                resolved.put(id, query);
+            } else {
+                resolved.put(id, null);
+                missing.add(id);
+            }
+        });
+        if (!missing.isEmpty()) {
+            loader.load(missing).forEach((id, stored) -> {
+                try {
+                    final RegisteredQuery query = new RegisteredQuery(stored.version, stored.filter, factory);
+                    queries.put(id, query);
+                    resolved.replace(id, query);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping inverse search query {}, it cannot be run against documents of type {}: {}",
+                            id, factory.getType(), e.getMessage());
+                    resolved.remove(id);
+                }
+            });
+        }
+        resolved.forEach((id, query) -> {
+            if (query == null) {
+                throw new IllegalStateException("Inverse search query " + id + " cannot be loaded");
+            }
+        });
+        return new ResolvedSet(resolved, factory, watermark);
+    }
+
+    /**
+     * Loads stored queries which are not registered.
+     */
+    @FunctionalInterface
+    interface QueryLoader {
+
+        /**
+         * @param ids ids of the queries to load.
+         * @return the stored queries by id, queries which do not exist anymore are missing.
+         * @throws IOException if the queries cannot be loaded.
+         */
+        Map<String, StoredQuery> load(List<String> ids) throws IOException;
+    }
+
+    /**
+     * Fetches the versions of the stored queries of an inverse search.
+     */
+    @FunctionalInterface
+    interface VersionLoader {
+
+        /**
+         * @return the Solr versions of the stored queries by id.
+         * @throws IOException if the versions cannot be fetched.
+         */
+        Map<String, Long> load() throws IOException;
+    }
+
+    /**
+     * Number and highest Solr version of the stored queries of an inverse search. Each added or changed query gets a
+     * higher version and a deleted one lowers the number, so the queries are unchanged as long as both are.
+     */
+    static final class Watermark {
+        private final long count;
+        private final long maxVersion;
+
+        Watermark(long count, long maxVersion) {
+            this.count = count;
+            this.maxVersion = maxVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Watermark watermark = (Watermark) o;
+            return count == watermark.count && maxVersion == watermark.maxVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, maxVersion);
+        }
+    }
+
+    /**
+     * A query as stored in Solr.
+     */
+    static final class StoredQuery {
+        private final long version;
+        private final Filter filter;
+
+        StoredQuery(long version, Filter filter) {
+            this.version = version;
+            this.filter = filter;
+        }
+    }
+
+    /**
+     * A query matching some of the percolated documents.
+     */
+    static final class Match {
+        private final Filter filter;
+        private final List<Integer> slots = new ArrayList<>();
+
+        private Match(Filter filter) {
+            this.filter = filter;
+        }
+
+        Filter getFilter() {
+            return filter;
+        }
+
+        /**
+         * @return the positions of the matched documents in the percolated ones, in ascending order.
+         */
+        List<Integer> getSlots() {
+            return slots;
+        }
+    }
+
+    /**
+     * Resolved queries in the order of the result, indexed by the terms a document needs one of to match them.
+     */
+    private static final class ResolvedSet {
+        private final DocumentFactory factory;
+        private final String[] ids;
+        private final RegisteredQuery[] queries;
+        private final Map<String, int[]> postings;
+        /** Positions of the queries which cannot be skipped by the terms of a document. */
+        private final int[] unfiltered;
+        private final Watermark watermark;
+
+        private ResolvedSet(Map<String, RegisteredQuery> resolved, DocumentFactory factory, Watermark watermark) {
+            this.factory = factory;
+            this.watermark = watermark;
+            this.ids = resolved.keySet().toArray(new String[0]);
+            this.queries = resolved.values().toArray(new RegisteredQuery[0]);
+            final Map<String, List<Integer>> postingLists = new HashMap<>();
+            final List<Integer> unfilteredList = new ArrayList<>();
+            for (int position = 0; position < queries.length; position++) {
+                if (queries[position].terms == null) {
+                    unfilteredList.add(position);
+                    continue;
+                }
+                for (String term : queries[position].terms) {
+                    postingLists.computeIfAbsent(term, t -> new ArrayList<>()).add(position);
+                }
+            }
+            this.postings = new HashMap<>(postingLists.size());
+            postingLists.forEach((term, positions) -> postings.put(term, toArray(positions)));
+            this.unfiltered = toArray(unfilteredList);
+        }
+
+        private Map<String, Match> match(List<Document> docs) {
+            final ZonedDateTime now = ZonedDateTime.now();
+            final Match[] matches = new Match[queries.length];
+            for (int slot = 0; slot < docs.size(); slot++) {
+                final Document doc = docs.get(slot);
+                final BitSet candidates = new BitSet(queries.length);
+                for (String term : MemoryIndexQueryBuilder.documentTerms(doc)) {
+                    final int[] positions = postings.get(term);
+                    if (positions != null) {
+                        for (int position : positions) {
+                            candidates.set(position);
+                        }
+                    }
+                }
+                for (int position : unfiltered) {
+                    candidates.set(position);
+                }
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+
+                final IndexSearcher searcher = MemoryIndexQueryBuilder.createMemoryIndex(doc).createSearcher();
+                searcher.setQueryCache(null);
+                final int documentSlot = slot;
+                candidates.stream().parallel().forEach(position -> {
+                    final RegisteredQuery query = queries[position];
+                    if (query.matches(searcher, now)) {
+                        // each query is run once per document, so its match is not shared between threads
+                        if (matches[position] == null) {
+                            matches[position] = new Match(query.filter);
+                        }
+                        matches[position].slots.add(documentSlot);
+                    }
+                });
+            }
+            final Map<String, Match> result = new LinkedHashMap<>();
+            for (int position = 0; position < queries.length; position++) {
+                if (matches[position] != null) {
+                    result.put(ids[position], matches[position]);
+                }
+            }
+            return result;
+        }
+
+        private static int[] toArray(List<Integer> positions) {
+            return positions.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private static final class RegisteredQuery {
+        private final long version;
+        private final Filter filter;
+        private final DocumentFactory factory;
+        /** Terms a document needs one of to match, null if no document can be skipped. */
+        private final Set<String> terms;
+        /** The compiled query, null if it depends on the time of the percolation. */
+        private final Query query;
+
+        private RegisteredQuery(long version, Filter filter, DocumentFactory factory) {
+            this.version = version;
+            this.filter = filter;
+            this.factory = factory;
+            final Set<String> extracted = MemoryIndexQueryBuilder.extractTerms(filter, factory);
+            this.terms = extracted != null ? Collections.unmodifiableSet(extracted) : null;
+            this.query = MemoryIndexQueryBuilder.isTimeDependent(filter) ?
+                    null : MemoryIndexQueryBuilder.buildQuery(filter, factory, ZonedDateTime.now());
+            if (query == null) {
+                validate(filter, factory);
+            }
+        }
+
+        private boolean matches(IndexSearcher searcher, ZonedDateTime now) {
+            final Query compiled = query != null ? query : MemoryIndexQueryBuilder.buildQuery(filter, factory, now);
+            try {
+                return searcher.count(compiled) > 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.api.query.filter.FieldBasedFilter;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.model.ComplexFieldDescriptor;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+import com.rbmhtechnology.vind.model.FieldDescriptor.UseCase;
+import com.rbmhtechnology.vind.model.value.LatLng;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LatLonPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.memory.MemoryIndex;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Compiles vind {@link Filter}s into Lucene queries which are run against single documents held in a
+ * {@link MemoryIndex}, see {@link InverseSearchIndex}. Documents and queries use the vind field names; text values are
+ * indexed untokenized, like in the Solr facet fields the filters address, numbers and dates as points.
+ *
+ * Besides the query, the terms a document must contain to possibly match a filter are extracted, so most of the
+ * registered queries can be discarded by a set lookup before running them.
+ */
+final class MemoryIndexQueryBuilder {
+
+    /** Field listing the names of the fields a document has a value for. */
+    static final String FIELDS = "_fields_";
+
+    private static final char TERM_SEPARATOR = '\u001f';
+    private static final Analyzer ANALYZER = new StandardAnalyzer();
+
+    private enum Kind {
+        STRING, LONG, DOUBLE, DATE, LOCATION, UNSUPPORTED;
+
+        private static Kind of(FieldDescriptor<?> descriptor) {
+            final Class<?> type = descriptor instanceof ComplexFieldDescriptor ?
+                    ((ComplexFieldDescriptor<?, ?, ?>) descriptor).getFacetType() : descriptor.getType();
+            if (type == null) {
+                return UNSUPPORTED;
+            } else if (Integer.class.isAssignableFrom(type) || Long.class.isAssignableFrom(type)) {
+                return LONG;
+            } else if (Number.class.isAssignableFrom(type)) {
+                return DOUBLE;
+            } else if (ZonedDateTime.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)) {
+                return DATE;
+            } else if (LatLng.class.isAssignableFrom(type)) {
+                return LOCATION;
+            } else if (CharSequence.class.isAssignableFrom(type) || Boolean.class.isAssignableFrom(type)) {
+                return STRING;
+            }
+            return UNSUPPORTED;
+        }
+    }
+
+    private MemoryIndexQueryBuilder() {
+    }
+
+    /**
+     * Indexes the values of a document into a {@link MemoryIndex}. The index is frozen, so it can be searched from
+     * several threads.
+     * @param doc {@link Document} to index.
+     * @return the frozen {@link MemoryIndex}.
+     */
+    static MemoryIndex createMemoryIndex(Document doc) {
+        final List<IndexableField> fields = new ArrayList<>();
+        forEachValue(doc, (name, kind, value) -> {
+            switch (kind) {
+                case STRING:
+                    fields.add(new StringField(name, String.valueOf(value), Field.Store.NO));
+                    break;
+                case LONG:
+                    fields.add(new LongPoint(name, ((Number) value).longValue()));
+                    break;
+                case DOUBLE:
+                    fields.add(new DoublePoint(name, ((Number) value).doubleValue()));
+                    break;
+                case DATE:
+                    fields.add(new LongPoint(name, toTimestamp(value)));
+                    break;
+                case LOCATION:
+                    fields.add(new LatLonPoint(name, ((LatLng) value).getLat(), ((LatLng) value).getLng()));
+                    break;
+            }
+        }, name -> fields.add(new StringField(FIELDS, name, Field.Store.NO)));
+
+        final MemoryIndex index = MemoryIndex.fromDocument(fields, ANALYZER);
+        index.freeze();
+        return index;
+    }
+
+    /**
+     * Gets the terms of a document, to be checked against the ones extracted by {@link #extractTerms(Filter, DocumentFactory)}.
+     * @param doc {@link Document} to percolate.
+     * @return the terms of the document.
+     */
+    static Set<String> documentTerms(Document doc) {
+        final Set<String> terms = new HashSet<>();
+        forEachValue(doc, (name, kind, value) -> {
+            if (kind == Kind.STRING) {
+                terms.add(term(name, String.valueOf(value)));
+            }
+        }, terms::add);
+        return terms;
+    }
+
+    /**
+     * Extracts the terms a document must contain one of to possibly match a filter: the values of exact text matches
+     * or else the names of the fields the filter needs a value for.
+     * @param filter vind {@link Filter}.
+     * @param factory {@link DocumentFactory} of the percolated documents.
+     * @return the terms, or null if any document may match.
+     */
+    static Set<String> extractTerms(Filter filter, DocumentFactory factory) {
+        if (filter instanceof Filter.AndFilter) {
+            Set<String> best = null;
+            for (Filter child : ((Filter.AndFilter) filter).getChildren()) {
+                final Set<String> terms = extractTerms(child, factory);
+                if (terms != null && (best == null || rank(terms) < rank(best))) {
+                    best = terms;
+                }
+            }
+            return best;
+        }
+        if (filter instanceof Filter.OrFilter) {
+            final Set<String> union = new HashSet<>();
+            for (Filter child : ((Filter.OrFilter) filter).getChildren()) {
+                final Set<String> terms = extractTerms(child, factory);
+                if (terms == null) {
+                    return null;
+                }
+                union.addAll(terms);
+            }
+            return union;
+        }
+        if (filter instanceof Filter.TermFilter) {
+            final Filter.TermFilter termFilter = (Filter.TermFilter) filter;
+            return exactTerms(termFilter.getField(), Collections.singletonList(termFilter.getTerm()), factory);
+        }
+        if (filter instanceof Filter.DescriptorFilter) {
+            final Filter.DescriptorFilter<?> descriptorFilter = (Filter.DescriptorFilter<?>) filter;
+            return exactTerms(descriptorFilter.getDescriptor().getName(), Collections.singletonList(descriptorFilter.getTerm()), factory);
+        }
+        if (filter instanceof Filter.TermsQueryFilter) {
+            final Filter.TermsQueryFilter<?> termsFilter = (Filter.TermsQueryFilter<?>) filter;
+            return exactTerms(termsFilter.getDescriptor().getName(), termsFilter.getTerm(), factory);
+        }
+        if (filter instanceof Filter.ChildrenDocumentFilter || filter instanceof Filter.NotFilter) {
+            return null;
+        }
+        if (filter instanceof FieldBasedFilter) {
+            return Collections.singleton(((FieldBasedFilter) filter).getField());
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the query of a filter depends on the time it is run at.
+     * @param filter vind {@link Filter}.
+     * @return true if the filter holds date math expressions relative to NOW.
+     */
+    static boolean isTimeDependent(Filter filter) {
+        if (filter instanceof Filter.AndFilter) {
+            return ((Filter.AndFilter) filter).getChildren().stream().anyMatch(MemoryIndexQueryBuilder::isTimeDependent);
+        }
+        if (filter instanceof Filter.OrFilter) {
+            return ((Filter.OrFilter) filter).getChildren().stream().anyMatch(MemoryIndexQueryBuilder::isTimeDependent);
+        }
+        if (filter instanceof Filter.NotFilter) {
+            return isTimeDependent(((Filter.NotFilter) filter).getDelegate());
+        }
+        if (filter instanceof Filter.BeforeFilter) {
+            return isRelative(((Filter.BeforeFilter) filter).getDate());
+        }
+        if (filter instanceof Filter.AfterFilter) {
+            return isRelative(((Filter.AfterFilter) filter).getDate());
+        }
+        if (filter instanceof Filter.BetweenDatesFilter) {
+            return isRelative(((Filter.BetweenDatesFilter) filter).getStart()) || isRelative(((Filter.BetweenDatesFilter) filter).getEnd());
+        }
+        return false;
+    }
+
+    /**
+     * Builds the Lucene query of a filter.
+     * @param filter vind {@link Filter}, null matches any document.
+     * @param factory {@link DocumentFactory} of the percolated documents.
+     * @param now reference time of date math expressions.
+     * @return the Lucene {@link Query}.
+     * @throws IllegalArgumentException if the filter cannot be run against single documents.
+     */
+    static Query buildQuery(Filter filter, DocumentFactory factory, ZonedDateTime now) {
+        if (Objects.isNull(filter)) {
+            return new MatchAllDocsQuery();
+        }
+        if (filter instanceof Filter.AndFilter) {
+            final BooleanQuery.Builder query = new BooleanQuery.Builder();
+            ((Filter.AndFilter) filter).getChildren().forEach(f -> query.add(buildQuery(f, factory, now), Occur.MUST));
+            return query.build();
+        }
+        if (filter instanceof Filter.OrFilter) {
+            final BooleanQuery.Builder query = new BooleanQuery.Builder();
+            ((Filter.OrFilter) filter).getChildren().forEach(f -> query.add(buildQuery(f, factory, now), Occur.SHOULD));
+            return query.build();
+        }
+        if (filter instanceof Filter.NotFilter) {
+            return new BooleanQuery.Builder()
+                    .add(new MatchAllDocsQuery(), Occur.MUST)
+                    .add(buildQuery(((Filter.NotFilter) filter).getDelegate(), factory, now), Occur.MUST_NOT)
+                    .build();
+        }
+        if (filter instanceof Filter.TermFilter) {
+            final Filter.TermFilter termFilter = (Filter.TermFilter) filter;
+            return exactQuery(termFilter.getField(), termFilter.getTerm(), factory);
+        }
+        if (filter instanceof Filter.DescriptorFilter) {
+            final Filter.DescriptorFilter<?> descriptorFilter = (Filter.DescriptorFilter<?>) filter;
+            return exactQuery(descriptorFilter.getDescriptor().getName(), descriptorFilter.getTerm(), factory);
+        }
+        if (filter instanceof Filter.TermsQueryFilter) {
+            final Filter.TermsQueryFilter<?> termsFilter = (Filter.TermsQueryFilter<?>) filter;
+            final BooleanQuery.Builder query = new BooleanQuery.Builder();
+            termsFilter.getTerm().forEach(term -> query.add(exactQuery(termsFilter.getDescriptor().getName(), term, factory), Occur.SHOULD));
+            return query.build();
+        }
+        if (filter instanceof Filter.PrefixFilter) {
+            final Filter.PrefixFilter prefixFilter = (Filter.PrefixFilter) filter;
+            return new PrefixQuery(new Term(fieldname(prefixFilter.getField(), factory, Kind.STRING), prefixFilter.getTerm()));
+        }
+        if (filter instanceof Filter.BeforeFilter) {
+            final Filter.BeforeFilter beforeFilter = (Filter.BeforeFilter) filter;
+            return LongPoint.newRangeQuery(fieldname(beforeFilter.getField(), factory, Kind.DATE),
+                    Long.MIN_VALUE, toTimestamp(beforeFilter.getDate(), now));
+        }
+        if (filter instanceof Filter.AfterFilter) {
+            final Filter.AfterFilter afterFilter = (Filter.AfterFilter) filter;
+            return LongPoint.newRangeQuery(fieldname(afterFilter.getField(), factory, Kind.DATE),
+                    toTimestamp(afterFilter.getDate(), now), Long.MAX_VALUE);
+        }
+        if (filter instanceof Filter.BetweenDatesFilter) {
+            final Filter.BetweenDatesFilter betweenFilter = (Filter.BetweenDatesFilter) filter;
+            return LongPoint.newRangeQuery(fieldname(betweenFilter.getField(), factory, Kind.DATE),
+                    toTimestamp(betweenFilter.getStart(), now), toTimestamp(betweenFilter.getEnd(), now));
+        }
+        if (filter instanceof Filter.GreaterThanFilter) {
+            final Filter.GreaterThanFilter greaterFilter = (Filter.GreaterThanFilter) filter;
+            return rangeQuery(greaterFilter.getField(), greaterFilter.getNumber(), null, factory);
+        }
+        if (filter instanceof Filter.LowerThanFilter) {
+            final Filter.LowerThanFilter lowerFilter = (Filter.LowerThanFilter) filter;
+            return rangeQuery(lowerFilter.getField(), null, lowerFilter.getNumber(), factory);
+        }
+        if (filter instanceof Filter.BetweenNumericFilter) {
+            final Filter.BetweenNumericFilter betweenFilter = (Filter.BetweenNumericFilter) filter;
+            return rangeQuery(betweenFilter.getField(), betweenFilter.getStart(), betweenFilter.getEnd(), factory);
+        }
+        if (filter instanceof Filter.WithinBBoxFilter) {
+            final Filter.WithinBBoxFilter bboxFilter = (Filter.WithinBBoxFilter) filter;
+            return LatLonPoint.newBoxQuery(fieldname(bboxFilter.getField(), factory, Kind.LOCATION),
+                    bboxFilter.getLowerRight().getLat(), bboxFilter.getUpperLeft().getLat(),
+                    bboxFilter.getUpperLeft().getLng(), bboxFilter.getLowerRight().getLng());
+        }
+        if (filter instanceof Filter.WithinCircleFilter) {
+            final Filter.WithinCircleFilter circleFilter = (Filter.WithinCircleFilter) filter;
+            //the distance is given in kilometers, like for the Solr geofilt query
+            return LatLonPoint.newDistanceQuery(fieldname(circleFilter.getField(), factory, Kind.LOCATION),
+                    circleFilter.getCenter().getLat(), circleFilter.getCenter().getLng(), circleFilter.getDistance() * 1000);
+        }
+        if (filter instanceof Filter.NotEmptyTextFilter || filter instanceof Filter.NotEmptyFilter
+                || filter instanceof Filter.NotEmptyLocationFilter) {
+            final String field = ((FieldBasedFilter) filter).getField();
+            return new TermQuery(new Term(FIELDS, fieldname(field, factory, null)));
+        }
+        throw new IllegalArgumentException("Filter '" + filter.getClass().getSimpleName() + "' is not supported by inverse search");
+    }
+
+    private static Query exactQuery(String field, Object value, DocumentFactory factory) {
+        final Kind kind = kind(field, factory);
+        switch (kind) {
+            case STRING:
+                return new TermQuery(new Term(field, String.valueOf(value)));
+            case LONG:
+                return LongPoint.newExactQuery(field, value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString()));
+            case DOUBLE:
+                return DoublePoint.newExactQuery(field, value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString()));
+            case DATE:
+                return LongPoint.newExactQuery(field, toTimestamp(value));
+            default:
+                throw new IllegalArgumentException("Field '" + field + "' does not support exact matches in inverse search");
+        }
+    }
+
+    private static Query rangeQuery(String field, Number from, Number to, DocumentFactory factory) {
+        final Kind kind = kind(field, factory);
+        switch (kind) {
+            case LONG:
+            case DATE:
+                return LongPoint.newRangeQuery(field,
+                        from == null ? Long.MIN_VALUE : (long) Math.ceil(from.doubleValue()),
+                        to == null ? Long.MAX_VALUE : (long) Math.floor(to.doubleValue()));
+            case DOUBLE:
+                return DoublePoint.newRangeQuery(field,
+                        from == null ? Double.NEGATIVE_INFINITY : from.doubleValue(),
+                        to == null ? Double.POSITIVE_INFINITY : to.doubleValue());
+            default:
+                throw new IllegalArgumentException("Field '" + field + "' does not support numeric ranges in inverse search");
+        }
+    }
+
+    private static Set<String> exactTerms(String field, Collection<?> values, DocumentFactory factory) {
+        if (kind(field, factory) != Kind.STRING) {
+            return Collections.singleton(field);
+        }
+        final Set<String> terms = new HashSet<>();
+        values.forEach(value -> terms.add(term(field, String.valueOf(value))));
+        return terms;
+    }
+
+    /**
+     * Orders the alternatives of the terms to be extracted from an AND filter: exact terms before field names, then
+     * the fewer the better.
+     */
+    private static long rank(Set<String> terms) {
+        final boolean exact = terms.stream().allMatch(term -> term.indexOf(TERM_SEPARATOR) >= 0);
+        return (exact ? 0L : Integer.MAX_VALUE) + terms.size();
+    }
+
+    private static String term(String field, String value) {
+        return field + TERM_SEPARATOR + value;
+    }
+
+    private static String fieldname(String field, DocumentFactory factory, Kind expected) {
+        final Kind kind = kind(field, factory);
+        if (expected != null && kind != expected && !(expected == Kind.DATE && kind == Kind.LONG)) {
+            throw new IllegalArgumentException("Field '" + field + "' of type " + kind + " does not support " + expected + " filters in inverse search");
+        }
+        return field;
+    }
+
+    private static Kind kind(String field, DocumentFactory factory) {
+        final FieldDescriptor<?> descriptor = factory.getField(field);
+        if (Objects.isNull(descriptor)) {
+            throw new IllegalArgumentException("Unable to build inverse search query: there is no field descriptor with name '" + field + "'");
+        }
+        return Kind.of(descriptor);
+    }
+
+    private static boolean isRelative(DateMathExpression expression) {
+        return expression != null && expression.getRoot().isRelative();
+    }
+
+    private static long toTimestamp(Object value) {
+        if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toInstant().toEpochMilli();
+        } else if (value instanceof Date) {
+            return ((Date) value).getTime();
+        } else if (value instanceof DateMathExpression) {
+            return toTimestamp((DateMathExpression) value, ZonedDateTime.now());
+        } else if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return Instant.parse(value.toString()).toEpochMilli();
+    }
+
+    /**
+     * Evaluates a date math expression like Solr does: the operations are applied in the order of the expression and
+     * dates are rounded in UTC.
+     */
+    private static long toTimestamp(DateMathExpression expression, ZonedDateTime now) {
+        ZonedDateTime time = expression.getRoot().isRelative() ? now : expression.getRoot().getFixedTime();
+        time = round(time.withZoneSameInstant(ZoneOffset.UTC), expression.getRoot().getUnit());
+        for (DateMathExpression.DateMathOperation operation : expression.getAdd()) {
+            time = time.plus(operation.getQuantity(), chronoUnit(operation.getUnit()));
+        }
+        for (DateMathExpression.DateMathOperation operation : expression.getSub()) {
+            time = time.minus(operation.getQuantity(), chronoUnit(operation.getUnit()));
+        }
+        return round(time, expression.getUnit()).toInstant().toEpochMilli();
+    }
+
+    private static ZonedDateTime round(ZonedDateTime time, DateMathExpression.TimeUnit unit) {
+        if (unit == null) {
+            return time;
+        }
+        final ChronoUnit chronoUnit = chronoUnit(unit);
+        switch (chronoUnit) {
+            case YEARS:
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfYear(1);
+            case MONTHS:
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            default:
+                return time.truncatedTo(chronoUnit);
+        }
+    }
+
+    private static ChronoUnit chronoUnit(DateMathExpression.TimeUnit unit) {
+        switch (unit) {
+            case YEAR: case YEARS: return ChronoUnit.YEARS;
+            case MONTH: case MONTHS: return ChronoUnit.MONTHS;
+            case DAY: case DAYS: return ChronoUnit.DAYS;
+            case HOUR: case HOURS: return ChronoUnit.HOURS;
+            case MINUTE: case MINUTES: return ChronoUnit.MINUTES;
+            case SECOND: case SECONDS: return ChronoUnit.SECONDS;
+            default: return ChronoUnit.MILLIS;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueConsumer {
+        void accept(String field, Kind kind, Object value);
+    }
+
+    private static void forEachValue(Document doc, ValueConsumer values, Consumer<String> fields) {
+        for (FieldDescriptor<?> descriptor : doc.listFieldDescriptors().values()) {
+            if (!doc.hasValue(descriptor)) {
+                continue;
+            }
+            final Kind kind = Kind.of(descriptor);
+            if (kind == Kind.UNSUPPORTED) {
+                continue;
+            }
+            Object value = doc.getValue(descriptor);
+            if (descriptor instanceof ComplexFieldDescriptor) {
+                value = SolrUtils.FieldValue.getFieldCaseValue(value, descriptor, UseCase.Facet);
+            }
+            final Collection<?> flattened = flatten(value);
+            if (!flattened.isEmpty()) {
+                fields.accept(descriptor.getName());
+                flattened.forEach(v -> values.accept(descriptor.getName(), kind, v));
+            }
+        }
+    }
+
+    private static Collection<?> flatten(Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        if (value instanceof Object[]) {
+            return flatten(Arrays.asList((Object[]) value));
+        }
+        if (value instanceof Collection) {
+            final List<Object> values = new ArrayList<>();
+            for (Object v : (Collection<?>) value) {
+                values.addAll(flatten(v));
+            }
+            return values;
+        }
+        return Collections.singletonList(value);
+    }
+}
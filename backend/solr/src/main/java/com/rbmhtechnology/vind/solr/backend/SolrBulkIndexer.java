@@ -0,0 +1,75 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import com.rbmhtechnology.vind.api.BulkIndexer;
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.result.IndexResult;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link BulkIndexer} sending each bulk in a single {@link SolrClient#add(java.util.Collection)} request. Solr rejects
+ * an update request as a whole, so if it rejects a bulk the documents are sent one by one to find the failing ones.
+ */
+class SolrBulkIndexer extends BulkIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(SolrBulkIndexer.class);
+    private static final Logger solrClientLogger = LoggerFactory.getLogger(SolrSearchServer.class.getName() + "#solrClient");
+
+    private final SolrSearchServer server;
+    private final SolrClient solrClient;
+
+    SolrBulkIndexer(SolrSearchServer server, SolrClient solrClient, Options options) {
+        super(options);
+        this.server = server;
+        this.solrClient = solrClient;
+    }
+
+    @Override
+    protected IndexResult indexBatch(List<Document> documents, int withinMs, BiConsumer<Document, Exception> failures)
+            throws SolrServerException, IOException {
+        final List<SolrInputDocument> solrDocs = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            solrDocs.add(IndexingPlan.createInputDocument(document));
+        }
+        final int deleteRequests = server.removeNonParentDocuments(documents, withinMs);
+
+        try {
+            solrClientLogger.debug(">>> add({} documents)", solrDocs.size());
+            final UpdateResponse response = withinMs < 0 ? solrClient.add(solrDocs) : solrClient.add(solrDocs, withinMs);
+            return new IndexResult((long) response.getQTime()).setElapsedTime(response.getElapsedTime())
+                    .setSavedRoundTrips(SolrSearchServer.savedRoundTrips(documents, deleteRequests));
+        } catch (SolrException e) {
+            log.warn("Solr rejected a bulk of {} documents, indexing them one by one: {}", solrDocs.size(), e.getMessage());
+            return indexOneByOne(documents, solrDocs, withinMs, failures);
+        }
+    }
+
+    private IndexResult indexOneByOne(List<Document> documents, List<SolrInputDocument> solrDocs, int withinMs,
+                                      BiConsumer<Document, Exception> failures) throws SolrServerException, IOException {
+        long queryTime = 0;
+        long elapsedTime = 0;
+        for (int i = 0; i < solrDocs.size(); i++) {
+            try {
+                solrClientLogger.debug(">>> add({})", documents.get(i).getId());
+                final UpdateResponse response = withinMs < 0 ?
+                        solrClient.add(solrDocs.get(i)) : solrClient.add(solrDocs.get(i), withinMs);
+                queryTime += response.getQTime();
+                elapsedTime += response.getElapsedTime();
+            } catch (SolrException e) {
+                log.error("Cannot index document {}: {}", documents.get(i).getId(), e.getMessage());
+                failures.accept(documents.get(i), e);
+            }
+        }
+        return new IndexResult(queryTime).setElapsedTime(elapsedTime);
+    }
+}
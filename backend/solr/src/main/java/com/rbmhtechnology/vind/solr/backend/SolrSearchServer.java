@@ -1,20 +1,26 @@
 package com.rbmhtechnology.vind.solr.backend;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Lists;
 import com.rbmhtechnology.vind.SearchServerException;
 import com.rbmhtechnology.vind.SearchServerProviderLoaderException;
 import com.rbmhtechnology.vind.annotations.AnnotationUtil;
+import com.rbmhtechnology.vind.api.BulkIndexer;
 import com.rbmhtechnology.vind.api.Document;
 import com.rbmhtechnology.vind.api.SmartSearchServerBase;
 import com.rbmhtechnology.vind.api.ServiceProvider;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
 import com.rbmhtechnology.vind.api.query.delete.Delete;
+import com.rbmhtechnology.vind.api.query.division.Cursor;
 import com.rbmhtechnology.vind.api.query.division.Page;
 import com.rbmhtechnology.vind.api.query.division.Slice;
 import com.rbmhtechnology.vind.api.query.facet.Facet;
 import com.rbmhtechnology.vind.api.query.facet.Interval;
 import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
 import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearch;
+import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearchQueryFactory;
 import com.rbmhtechnology.vind.api.query.suggestion.DescriptorSuggestionSearch;
 import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
 import com.rbmhtechnology.vind.api.query.suggestion.StringSuggestionSearch;
@@ -23,24 +29,28 @@ import com.rbmhtechnology.vind.api.query.update.Update.UpdateOperations;
 import com.rbmhtechnology.vind.api.query.update.UpdateOperation;
 import com.rbmhtechnology.vind.api.result.BeanGetResult;
 import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.ClientTimings;
+import com.rbmhtechnology.vind.api.result.CursorResult;
 import com.rbmhtechnology.vind.api.result.DeleteResult;
 import com.rbmhtechnology.vind.api.result.FacetResults;
 import com.rbmhtechnology.vind.api.result.GetResult;
 import com.rbmhtechnology.vind.api.result.IndexResult;
+import com.rbmhtechnology.vind.api.result.InverseSearchPageResult;
 import com.rbmhtechnology.vind.api.result.InverseSearchResult;
+import com.rbmhtechnology.vind.api.result.InverseSearchSliceResult;
 import com.rbmhtechnology.vind.api.result.PageResult;
 import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.api.result.SliceResult;
 import com.rbmhtechnology.vind.api.result.StatusResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.api.result.UpdateResult;
 import com.rbmhtechnology.vind.configure.SearchConfiguration;
 import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
 import com.rbmhtechnology.vind.model.FieldDescriptor;
 import com.rbmhtechnology.vind.model.InverseSearchQuery;
-import com.rbmhtechnology.vind.model.value.LatLng;
 import com.rbmhtechnology.vind.utils.SpecialCharacterEscaping;
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.util.Asserts;
 import org.apache.solr.client.solrj.SolrClient;
@@ -56,8 +66,10 @@ import org.apache.solr.client.solrj.response.schema.SchemaResponse;
 import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.DisMaxParams;
 import org.apache.solr.common.params.FacetParams;
 import org.apache.solr.common.params.StatsParams;
@@ -67,6 +79,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.time.Instant;
@@ -75,9 +88,11 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -85,6 +100,8 @@ import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -110,8 +127,16 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     public static SolrRequest.METHOD REQUEST_METHOD;
 
+    private static final String NESTED_IDS_PARAM = "vind.ids";
+    private static final String NESTED_IDS_SEPARATOR = "\u001f";
+    private static final String NESTED_PARENTS_PARAM = "vind.parents";
+    private static final String VERSION = "_version_";
+    private static final int INVERSE_SEARCH_FETCH_SIZE = 1000;
+
     private ServiceProvider serviceProviderClass;
     private final SolrClient solrClient;
+    private final InverseSearchIndex inverseSearchIndex = new InverseSearchIndex(
+            SearchConfiguration.get(SearchConfiguration.SOLR_INVERSE_SEARCH_CACHE_SIZE, 100000));
 
     public SolrSearchServer() {
         // this is mainly used with the ServiceLoader infrastructure
@@ -234,7 +259,7 @@ public class SolrSearchServer extends SmartSearchServerBase {
     }
 
     private IndexResult indexSingleDocument(Document doc, int withinMs) {
-        final SolrInputDocument document = createInputDocument(doc);
+        final SolrInputDocument document = IndexingPlan.createInputDocument(doc);
         try {
             if (solrClientLogger.isTraceEnabled()) {
                 solrClientLogger.debug(">>> add({}): {}", doc.getId(), ClientUtils.toXML(document));
@@ -242,9 +267,11 @@ public class SolrSearchServer extends SmartSearchServerBase {
                 solrClientLogger.debug(">>> add({})", doc.getId());
             }
 
-            removeNonParentDocument(doc, withinMs);
+            final List<Document> docs = Collections.singletonList(doc);
+            final int deleteRequests = removeNonParentDocuments(docs, withinMs);
             final UpdateResponse response = withinMs < 0 ? this.solrClient.add(document) : this.solrClient.add(document, withinMs);
-            return new IndexResult(Long.valueOf(response.getQTime())).setElapsedTime(response.getElapsedTime());
+            return new IndexResult(Long.valueOf(response.getQTime())).setElapsedTime(response.getElapsedTime())
+                    .setSavedRoundTrips(savedRoundTrips(docs, deleteRequests));
 
         } catch (SolrServerException | IOException e) {
             log.error("Cannot index document {}", document.getField(ID) , e);
@@ -254,7 +281,7 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     private IndexResult indexMultipleDocuments(List<Document> docs, int withinMs) {
         final List<SolrInputDocument> solrDocs = docs.parallelStream()
-                .map(doc -> createInputDocument(doc))
+                .map(IndexingPlan::createInputDocument)
                 .collect(Collectors.toList());
         try {
             if (solrClientLogger.isTraceEnabled()) {
@@ -262,12 +289,11 @@ public class SolrSearchServer extends SmartSearchServerBase {
             } else {
                 solrClientLogger.debug(">>> add({})", solrDocs);
             }
-            for(Document doc : docs){
-                removeNonParentDocument(doc, withinMs);
-            }
+            final int deleteRequests = removeNonParentDocuments(docs, withinMs);
 
             final UpdateResponse response = withinMs < 0 ? this.solrClient.add(solrDocs) : this.solrClient.add(solrDocs, withinMs);
-            return new IndexResult(Long.valueOf(response.getQTime())).setElapsedTime(response.getElapsedTime());
+            return new IndexResult(Long.valueOf(response.getQTime())).setElapsedTime(response.getElapsedTime())
+                    .setSavedRoundTrips(savedRoundTrips(docs, deleteRequests));
 
         } catch (SolrServerException | IOException e) {
             log.error("Cannot index documents {}", solrDocs, e);
@@ -275,85 +301,56 @@ public class SolrSearchServer extends SmartSearchServerBase {
         }
     }
 
-    private void removeNonParentDocument(Document doc, int withinMs) throws SolrServerException, IOException {
-        if(CollectionUtils.isNotEmpty(doc.getChildren())) {
-            //Get the nested docs of the document if existing
-            final SolrQuery q = new SolrQuery("!( _id_:"+ doc.getId()+")AND(_root_:"+ doc.getId()+")");
-            final QueryResponse query = solrClient.query(q, REQUEST_METHOD);
-
-            if (CollectionUtils.isEmpty(query.getResults()))
-                log.debug("Deleting document `{}`: document is becoming parent.",doc.getId());
+    @Override
+    public BulkIndexer bulkIndexer(BulkIndexer.Options options) {
+        return new SolrBulkIndexer(this, solrClient, options);
+    }
 
-            if(withinMs < 0) {
-                this.solrClient.deleteById(doc.getId());
-            } else {
-                this.solrClient.deleteById(doc.getId(), withinMs);
+    /**
+     * Makes sure documents becoming parents do not leave their former standalone version in the index. The vind
+     * schema defines the {@code _root_} field, so Solr overwrites the whole block of a document by its root id, which
+     * replaces a former standalone document as well as former children within the add request itself. Only if this
+     * is disabled by {@link SearchConfiguration#SOLR_NESTED_ROOT_OVERWRITE} the ids of all parent documents are
+     * deleted explicitly, in a single request ahead of the add: Solr applies the deletes of an update request after
+     * its adds, so they cannot be sent in the same one.
+     * @param docs documents to be indexed.
+     * @param withinMs commitWithin time or -1.
+     * @return number of delete requests sent.
+     */
+    int removeNonParentDocuments(List<Document> docs, int withinMs) throws SolrServerException, IOException {
+        if (SearchConfiguration.get(SearchConfiguration.SOLR_NESTED_ROOT_OVERWRITE, true)) {
+            return 0;
+        }
+        final List<String> parentIds = new ArrayList<>();
+        for (Document doc : docs) {
+            if (CollectionUtils.isNotEmpty(doc.getChildren())) {
+                parentIds.add(doc.getId());
             }
         }
-    }
-
-    private SolrInputDocument createInputDocument(Document doc) {
-        final SolrInputDocument document = new SolrInputDocument();
-        //add fields
-        doc.listFieldDescriptors()
-                .values()
-                .stream()
-                .filter(doc::hasValue)
-                //TODO: move again to an approach where we do not go through all the use cases but based on which flags the descriptor has set to true
-                .forEach(descriptor ->
-                        doc.getFieldContexts(descriptor).stream().forEach(context ->
-                                Stream.of(UseCase.values())
-                                        .forEach(useCase -> {
-                                                    final String fieldname = getFieldname(descriptor, useCase, context);
-                                                    if (Objects.nonNull(fieldname)) {
-                                                        final Object value = doc.getContextualizedValue(descriptor, context);
-                                                        final Object caseValue = SolrUtils.FieldValue.getFieldCaseValue(value, descriptor, useCase);
-                                                        if(Objects.nonNull(caseValue)) {
-                                                            document.addField(
-                                                                fieldname,
-                                                                toSolrJType(caseValue)
-                                                                //,descriptor.getBoost() TODO should we have index time boost?
-                                                            );
-                                                        }
-                                                    }
-                                                }
-                                        )));
-
-        //add subdocuments
-        if (doc.hasChildren()) {
-            doc.getChildren().forEach(childDocument ->
-                            document.addChildDocument(createInputDocument(childDocument))
-            );
+        if (parentIds.isEmpty()) {
+            return 0;
         }
-
-        document.addField(ID, doc.getId());
-        document.addField(TYPE, doc.getType());
-
-        return document;
+        log.debug("Deleting {} documents becoming parents", parentIds.size());
+        solrClientLogger.debug(">>> deleteById({})", parentIds);
+        if (withinMs < 0) {
+            this.solrClient.deleteById(parentIds);
+        } else {
+            this.solrClient.deleteById(parentIds, withinMs);
+        }
+        return 1;
     }
 
-    private Object toSolrJType(Object value) {
-        if(value!=null) {
-            if(Object[].class.isAssignableFrom(value.getClass())){
-                return toSolrJType(Arrays.asList((Object[])value));
-            }
-            if(Collection.class.isAssignableFrom(value.getClass())){
-                return((Collection)value).stream()
-                        .map(o -> toSolrJType(o))
-                        .collect(Collectors.toList());
-            }
-            if(value instanceof ZonedDateTime) {
-                return Date.from(((ZonedDateTime) value).toInstant());
-            }
-            if(value instanceof LatLng) {
-                return value.toString();
-            }
-            if(value instanceof Date) {
-                //noinspection RedundantCast
-                return ((Date) value);
+    /**
+     * @return number of requests saved compared to a query and a delete request per parent document.
+     */
+    static long savedRoundTrips(List<Document> docs, int deleteRequests) {
+        long parents = 0;
+        for (Document doc : docs) {
+            if (CollectionUtils.isNotEmpty(doc.getChildren())) {
+                parents++;
             }
         }
-        return value;
+        return 2 * parents - deleteRequests;
     }
 
     @Override
@@ -373,7 +370,7 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     @Override
     protected <T> BeanSearchResult<T> doExecute(FulltextSearch search, Class<T> c) {
-        final DocumentFactory factory = AnnotationUtil.createDocumentFactory(c);
+        final DocumentFactory factory = AnnotationUtil.getDocumentFactory(c);
         final SearchResult docResult = this.execute(search, factory);
         return docResult.toPojoResult(docResult, c);
     }
@@ -406,11 +403,14 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     @Override
     protected SearchResult doExecute(FulltextSearch search, DocumentFactory factory) {
+        final long start = System.nanoTime();
         final SolrQuery query = buildSolrQuery(search, factory);
         //query
         try {
-            solrClientLogger.debug(">>> query({})", query.toString());
+            solrClientLogger.debug(">>> query({})", query);
+            final long sent = System.nanoTime();
             final QueryResponse response = solrClient.query(query, REQUEST_METHOD);
+            final long received = System.nanoTime();
             if(response!=null){
                 final SolrDocumentList responseResults = response.getResults();
                 if (search.isSpellcheck()
@@ -429,13 +429,27 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
                 switch(search.getResultSet().getType()) {
                     case page:{
-                        return new PageResult(responseResults.getNumFound(), response.getQTime(), documents, search, facetResults, this, factory).setElapsedTime(response.getElapsedTime());
+                        return new PageResult(responseResults.getNumFound(), response.getQTime(), documents, search, facetResults, this, factory).setElapsedTime(response.getElapsedTime())
+                                .setRawQuery(query::toString)
+                                .setTimings(ClientTimings.since(start, sent, received));
                     }
                     case slice: {
-                        return new SliceResult(responseResults.getNumFound(), response.getQTime(), documents, search, facetResults, this, factory).setElapsedTime(response.getElapsedTime());
+                        return new SliceResult(responseResults.getNumFound(), response.getQTime(), documents, search, facetResults, this, factory).setElapsedTime(response.getElapsedTime())
+                                .setRawQuery(query::toString)
+                                .setTimings(ClientTimings.since(start, sent, received));
+                    }
+                    case cursor: {
+                        // the next cursor mark is opaque and can be passed on to resume the search later
+                        final FulltextSearch usedSearch = search.copy();
+                        ((Cursor) usedSearch.getResultSet()).setSearchAfter(response.getNextCursorMark());
+                        return new CursorResult(responseResults.getNumFound(), response.getQTime(), documents, usedSearch, facetResults, this, factory).setElapsedTime(response.getElapsedTime())
+                                .setRawQuery(query::toString)
+                                .setTimings(ClientTimings.since(start, sent, received));
                     }
                     default:
-                        return new PageResult(responseResults.getNumFound(), response.getQTime(), documents, search, facetResults, this, factory).setElapsedTime(response.getElapsedTime());
+                        return new PageResult(responseResults.getNumFound(), response.getQTime(), documents, search, facetResults, this, factory).setElapsedTime(response.getElapsedTime())
+                                .setRawQuery(query::toString)
+                                .setTimings(ClientTimings.since(start, sent, received));
                 }
             }else {
                 throw new SolrServerException("Null result from SolrClient");
@@ -454,7 +468,7 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     @Override
     public <T> String getRawQuery(FulltextSearch search, Class<T> c) {
-        final DocumentFactory factory = AnnotationUtil.createDocumentFactory(c);
+        final DocumentFactory factory = AnnotationUtil.getDocumentFactory(c);
         final SolrQuery query = buildSolrQuery(search, factory);
         return query.toString();
     }
@@ -504,7 +518,10 @@ public class SolrSearchServer extends SmartSearchServerBase {
         query.setParam("mm", search.getMinimumShouldMatch());
 
         if(search.hasFilter()) {
-            SolrUtils.Query.buildFilterString(search.getFilter(), factory,search.getChildrenFactory(),query, searchContext, search.getStrict());
+            // joined with the filters of the children searches below, so the filter queries cannot carry local params
+            final boolean joined = search.isChildrenSearchEnabled()
+                    && search.getChildrenSearches().stream().anyMatch(FulltextSearch::hasFilter);
+            SolrUtils.Query.buildFilterString(search.getFilter(), factory,search.getChildrenFactory(),query, searchContext, search.getStrict(), joined);
         }
 
         if (search.isSpellcheck()) {
@@ -680,7 +697,14 @@ public class SolrSearchServer extends SmartSearchServerBase {
                 break;
             }
             case cursor: {
-                throw new NotImplementedException("Result sub type cursor is not supported by Solr backend");
+                final Cursor resultSet = (Cursor) search.getResultSet();
+                query.setStart(0);
+                query.setRows(resultSet.getSize());
+                query.set(CursorMarkParams.CURSOR_MARK_PARAM,
+                        resultSet.getSearchAfter() != null ? resultSet.getSearchAfter() : CursorMarkParams.CURSOR_MARK_START);
+                // a cursor needs a total order, so ties are broken by the unique key
+                query.set(CommonParams.SORT, SolrUtils.Query.addUniqueKeySort(query.get(CommonParams.SORT)));
+                break;
             }
             case page:
             default: {
@@ -814,6 +838,188 @@ public class SolrSearchServer extends SmartSearchServerBase {
         }
     }
 
+    /**
+     * Executes the updates with a single real time get of the original documents, a single query for the nested
+     * documents of all of them and a single add request. If several updates address the same document, they are
+     * executed in consecutive batches.
+     */
+    @Override
+    public UpdateResult execute(List<Update> updates, DocumentFactory factory) {
+
+        //Check if document is updatable and all its fields are stored.
+        final boolean isUpdatable = factory.isUpdatable() && factory.getFields().values().stream()
+                                        .allMatch( descriptor -> descriptor.isUpdate());
+        if (!isUpdatable) {
+            Exception e = new SearchServerException("It is not safe to execute solr partial update: Document contains non stored fields");
+            log.error("Unable to perform solr partial update on {} documents", updates.size(), e);
+            throw new RuntimeException("Can not execute solr partial update.", e);
+        }
+
+        final long start = System.currentTimeMillis();
+        final UpdateResult result = new UpdateResult();
+        long queryTime = 0;
+        for (Collection<Update> batch : groupByOccurrence(updates)) {
+            queryTime += executeUpdates(batch, factory, result);
+        }
+        return result.setQueryTime(queryTime).setElapsedTime(System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Splits updates into batches with distinct document ids, the n-th batch holding the n-th update of each document.
+     */
+    static List<Collection<Update>> groupByOccurrence(List<Update> updates) {
+        final List<Collection<Update>> batches = new ArrayList<>();
+        final Map<String, Integer> occurrences = new HashMap<>();
+        for (Update update : updates) {
+            final int occurrence = occurrences.merge(update.getId(), 1, Integer::sum) - 1;
+            if (occurrence == batches.size()) {
+                batches.add(new ArrayList<>());
+            }
+            batches.get(occurrence).add(update);
+        }
+        return batches;
+    }
+
+    private long executeUpdates(Collection<Update> updates, DocumentFactory factory, UpdateResult result) {
+        final List<String> ids = updates.stream().map(Update::getId).collect(Collectors.toList());
+        try {
+            //Get the original documents
+            log.debug("Atomic Update - Get version of {} original documents.", ids.size());
+            solrClientLogger.debug(">>> getById({})", ids);
+            final Map<String, SolrDocument> originalDocs = new HashMap<>();
+            for (SolrDocument originalDoc : solrClient.getById(ids)) {
+                originalDocs.put((String) originalDoc.getFieldValue(ID), originalDoc);
+            }
+
+            //Get the nested docs of the documents if existing
+            log.debug("Atomic Update - Get nested documents of {} documents.", originalDocs.size());
+            final Map<String, List<SolrInputDocument>> nestedDocs = getNestedDocuments(originalDocs.keySet());
+
+            final Map<String, Boolean> batchResults = new LinkedHashMap<>();
+            final List<SolrInputDocument> finalDocs = new ArrayList<>(updates.size());
+            final List<String> updatedIds = new ArrayList<>(updates.size());
+            for (Update update : updates) {
+                batchResults.put(update.getId(), false);
+                final SolrDocument updatedDoc = originalDocs.get(update.getId());
+                if (updatedDoc == null) {
+                    log.warn("Can not execute solr partial update for non existing document for update id {}", update.getId());
+                    continue;
+                }
+
+                //Setting the document version for optimistic concurrency
+                final Object version = updatedDoc.getFieldValue("_version_");
+                if (Objects.isNull(version)) {
+                    log.warn("Error updating document [{}]: " +
+                            "Atomic updates in nested documents are not supported by Solr", updatedDoc.get(ID));
+                    continue;
+                }
+                SolrInputDocument finalDoc = getSolrUpdateDocument(update, factory.getType());
+                finalDoc.setField("_version_", version);
+
+                //if the document has nested docs solr does not support atomic updates
+                final List<SolrInputDocument> childDocs = nestedDocs.get(update.getId());
+                if (CollectionUtils.isNotEmpty(childDocs)) {
+                    log.debug("Update document [{}]: doc has {} nested documents, changing from partial update to full index.",
+                            update.getId(), childDocs.size());
+                    finalDoc = this.getUpdatedSolrDocument(finalDoc, updatedDoc, childDocs);
+                }
+                finalDocs.add(finalDoc);
+                updatedIds.add(update.getId());
+            }
+
+            long queryTime = 0;
+            if (!finalDocs.isEmpty()) {
+                try {
+                    solrClientLogger.debug(">>> add({} documents)", finalDocs.size());
+                    final UpdateResponse response = solrClient.add(finalDocs);
+                    log.debug("Atomic Update - Solr update time: query time [{}] - elapsed time [{}]", response.getQTime(), response.getElapsedTime());
+                    updatedIds.forEach(id -> batchResults.put(id, true));
+                    queryTime = response.getQTime();
+                } catch (SolrException e) {
+                    log.warn("Solr rejected a partial update of {} documents, updating them one by one: [{}]", updatedIds.size(), e.getMessage());
+                    queryTime = executeUpdatesOneByOne(finalDocs, updatedIds, batchResults);
+                }
+            }
+            batchResults.forEach(result::addResult);
+            return queryTime;
+
+        } catch (SolrServerException | IOException e) {
+            log.error("Unable to perform solr partial update on documents with ids {}", ids, e);
+            throw new SearchServerException("Can not execute solr partial update.", e);
+        }
+    }
+
+    /**
+     * Sends the documents of a rejected partial update batch one by one. Solr stops at the first rejected document of
+     * a batch without rolling back the ones before, so documents whose version has changed since it was read are
+     * considered updated by the batch and are not sent again, as they would fail the optimistic concurrency check.
+     */
+    private long executeUpdatesOneByOne(List<SolrInputDocument> finalDocs, List<String> updatedIds, Map<String, Boolean> batchResults)
+            throws SolrServerException, IOException {
+        solrClientLogger.debug(">>> getById({})", updatedIds);
+        final Map<String, Object> currentVersions = new HashMap<>();
+        for (SolrDocument currentDoc : solrClient.getById(updatedIds)) {
+            currentVersions.put((String) currentDoc.getFieldValue(ID), currentDoc.getFieldValue("_version_"));
+        }
+
+        long queryTime = 0;
+        for (int i = 0; i < finalDocs.size(); i++) {
+            final String id = updatedIds.get(i);
+            final SolrInputDocument finalDoc = finalDocs.get(i);
+            final Object currentVersion = currentVersions.get(id);
+            if (Objects.isNull(currentVersion)) {
+                log.warn("Can not execute solr partial update for document [{}], it has been deleted meanwhile", id);
+                continue;
+            }
+            if (!currentVersion.equals(finalDoc.getFieldValue("_version_"))) {
+                log.debug("Atomic Update - Document [{}] has been updated by the rejected batch.", id);
+                batchResults.put(id, true);
+                continue;
+            }
+            try {
+                solrClientLogger.debug(">>> add({})", id);
+                final UpdateResponse response = solrClient.add(finalDoc);
+                batchResults.put(id, true);
+                queryTime += response.getQTime();
+            } catch (SolrException e) {
+                log.warn("Error updating document [{}]: [{}]", id, e.getMessage(), e);
+            }
+        }
+        return queryTime;
+    }
+
+    /**
+     * Gets the nested documents of several parent documents in a single request.
+     * @return nested documents by parent id, parents without nested documents are omitted.
+     */
+    private Map<String, List<SolrInputDocument>> getNestedDocuments(Collection<String> ids)
+            throws SolrServerException, IOException {
+        final Map<String, List<SolrInputDocument>> nestedDocs = new HashMap<>();
+        if (ids.isEmpty()) {
+            return nestedDocs;
+        }
+        final SolrQuery query = new SolrQuery(String.format("{!terms f=%s separator='%s' v=$%s}", ID, NESTED_IDS_SEPARATOR, NESTED_IDS_PARAM));
+        query.set(NESTED_IDS_PARAM, String.join(NESTED_IDS_SEPARATOR, ids));
+        //Block boundaries for the child transformer: the requested parents and every document outside of their blocks.
+        //So the whole block of a parent is returned, including nested documents of the parent type and deeper
+        //descendants, as the _root_ query of a single document finds them (_root_ is not stored to attribute them)
+        query.set(NESTED_PARENTS_PARAM, String.format(
+                "_query_:\"{!terms f=%1$s separator='%3$s' v=$%4$s}\" OR (*:* -_query_:\"{!terms f=%2$s separator='%3$s' v=$%4$s}\")",
+                ID, "_root_", NESTED_IDS_SEPARATOR, NESTED_IDS_PARAM));
+        query.setFields("*", String.format("[child parentFilter=$%s limit=-1]", NESTED_PARENTS_PARAM));
+        query.setRows(ids.size());
+        solrClientLogger.debug(">>> query({})", query);
+        final QueryResponse response = solrClient.query(query, REQUEST_METHOD);
+        for (SolrDocument parent : response.getResults()) {
+            if (parent.hasChildDocuments()) {
+                nestedDocs.put((String) parent.getFieldValue(ID), parent.getChildDocuments().stream()
+                        .map(SolrUtils::toSolrInputDocument)
+                        .collect(Collectors.toList()));
+            }
+        }
+        return nestedDocs;
+    }
+
     private SolrInputDocument getSolrUpdateDocument(Update update, String type) {
 
         final SolrInputDocument sdoc = new SolrInputDocument();
@@ -841,7 +1047,7 @@ public class SolrSearchServer extends SmartSearchServerBase {
                                             opType = set;
                                         }
                                         fieldModifiers.put(opType.name(),
-                                                toSolrJType(SolrUtils.FieldValue.getFieldCaseValue(entry.getValue(), fieldDescriptor, useCase)));
+                                                IndexingPlan.toSolrJType(SolrUtils.FieldValue.getFieldCaseValue(entry.getValue(), fieldDescriptor, useCase)));
 
                                     });
                                     sdoc.addField(fieldName, fieldModifiers);
@@ -939,7 +1145,7 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     @Override
     public <T> SuggestionResult execute(ExecutableSuggestionSearch search, Class<T> c) {
-        DocumentFactory documentFactory = AnnotationUtil.createDocumentFactory(c);
+        DocumentFactory documentFactory = AnnotationUtil.getDocumentFactory(c);
         return this.execute(search, documentFactory);
     }
 
@@ -950,13 +1156,18 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     @Override
     public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets,DocumentFactory childFactory) {
+        final long start = System.nanoTime();
         SolrQuery query = buildSolrQuery(search, assets, childFactory);
 
         try {
-            log.debug(">>> query({})", query.toString());
+            log.debug(">>> query({})", query);
+            final long sent = System.nanoTime();
             QueryResponse response = solrClient.query(query, REQUEST_METHOD);
+            final long received = System.nanoTime();
             if(response!=null){
-                return SolrUtils.Result.buildSuggestionResult(response, assets, childFactory, search.getSearchContext());
+                return SolrUtils.Result.buildSuggestionResult(response, assets, childFactory, search.getSearchContext())
+                        .setRawQuery(query::toString)
+                        .setTimings(ClientTimings.since(start, sent, received));
             }else {
                 log.error("Null result from SolrClient");
                 throw new SolrServerException("Null result from SolrClient");
@@ -982,7 +1193,7 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     @Override
     public <T> String getRawQuery(ExecutableSuggestionSearch search, Class<T> c) {
-        final DocumentFactory factory = AnnotationUtil.createDocumentFactory(c);
+        final DocumentFactory factory = AnnotationUtil.getDocumentFactory(c);
         final SolrQuery query = buildSolrQuery(search, factory, null);
         return query.toString();
     }
@@ -1044,7 +1255,8 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
         //filters
         if(search.hasFilter()) {
-            SolrUtils.Query.buildFilterString(search.getFilter(), assets,childFactory,query, searchContext, false);
+            // joined with the children filter below, so the filter queries cannot carry local params
+            SolrUtils.Query.buildFilterString(search.getFilter(), assets,childFactory,query, searchContext, false, Objects.nonNull(childFactory));
         }
 
         // suggestion deep search
@@ -1068,7 +1280,7 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     @Override
     public <T> BeanGetResult<T> execute(RealTimeGet search, Class<T> c) {
-        DocumentFactory documentFactory = AnnotationUtil.createDocumentFactory(c);
+        DocumentFactory documentFactory = AnnotationUtil.getDocumentFactory(c);
         final GetResult result = this.execute(search, documentFactory);
         return result.toPojoResult(result,c);
     }
@@ -1095,12 +1307,217 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     @Override
     public InverseSearchResult execute(InverseSearch inverseSearch, DocumentFactory factory) {
-        throw new NotImplementedException("This feature is not supported in the current Vind version");
+        return percolate(inverseSearch, factory).page(inverseSearch);
+    }
+
+    @Override
+    public Stream<InverseSearchResult> stream(InverseSearch inverseSearch, DocumentFactory factory) {
+        // the documents are matched against all the queries once, the pages are cut out of the matches
+        final Supplier<Percolation> percolation = Suppliers.memoize(() -> percolate(inverseSearch, factory));
+        return streamPages(inverseSearch, page -> percolation.get().page(page));
+    }
+
+    private Percolation percolate(InverseSearch inverseSearch, DocumentFactory factory) {
+        final long start = System.currentTimeMillis();
+        try {
+            final SolrQuery query = getInverseSearchQueriesQuery(inverseSearch.getQueryFilter(), factory);
+            //the stored queries selected by a time dependent filter can change without any of them changing
+            final boolean reusable = Objects.isNull(inverseSearch.getQueryFilter())
+                    || !MemoryIndexQueryBuilder.isTimeDependent(inverseSearch.getQueryFilter());
+            final InverseSearchIndex.Watermark watermark = reusable ? getInverseSearchWatermark(query) : null;
+            final AtomicLong queryTime = new AtomicLong(System.currentTimeMillis() - start);
+
+            final List<Document> docs = inverseSearch.getDocs();
+            final Map<String, InverseSearchIndex.Match> matches = inverseSearchIndex.match(docs,
+                    reusable ? String.join(" ", query.getFilterQueries()) : null, watermark, factory,
+                    () -> {
+                        final long versionsStart = System.currentTimeMillis();
+                        final Map<String, Long> versions = getInverseSearchQueryVersions(query);
+                        queryTime.addAndGet(System.currentTimeMillis() - versionsStart);
+                        return versions;
+                    },
+                    ids -> loadInverseSearchQueries(ids, factory));
+            return new Percolation(factory, docs, new ArrayList<>(matches.entrySet()), queryTime.get(),
+                    System.currentTimeMillis() - start);
+        } catch (SolrServerException | IOException | IllegalStateException e) {
+            log.error("Cannot issue inverse search {}", inverseSearch, e);
+            throw new SearchServerException(String.format("Cannot issue inverse search: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * The queries matching the documents of an inverse search, in the order of their ids.
+     */
+    private final class Percolation {
+        private final DocumentFactory factory;
+        private final List<Document> docs;
+        private final List<Map.Entry<String, InverseSearchIndex.Match>> matches;
+        private final long queryTime;
+        private final long elapsedTime;
+
+        private Percolation(DocumentFactory factory, List<Document> docs,
+                            List<Map.Entry<String, InverseSearchIndex.Match>> matches, long queryTime, long elapsedTime) {
+            this.factory = factory;
+            this.docs = docs;
+            this.matches = matches;
+            this.queryTime = queryTime;
+            this.elapsedTime = elapsedTime;
+        }
+
+        /**
+         * @return the result of the page or slice of the given inverse search.
+         */
+        private InverseSearchResult page(InverseSearch inverseSearch) {
+            final int offset;
+            final int size;
+            if (inverseSearch.getResultSet() instanceof Slice) {
+                offset = ((Slice) inverseSearch.getResultSet()).getOffset();
+                size = ((Slice) inverseSearch.getResultSet()).getSliceSize();
+            } else {
+                final Page page = (Page) inverseSearch.getResultSet();
+                offset = (page.getPage() - 1) * page.getPagesize();
+                size = page.getPagesize();
+            }
+            final List<InverseSearchQuery> resultQueries = new ArrayList<>();
+            final Map<String, List<Integer>> slots = new HashMap<>();
+            matches.subList(Math.min(offset, matches.size()), (int) Math.min((long) offset + size, matches.size()))
+                    .forEach(match -> {
+                        resultQueries.add(factory.createInverseSearchQuery(match.getKey(), match.getValue().getFilter()));
+                        slots.put(match.getKey(), match.getValue().getSlots());
+                    });
+
+            final InverseSearchResult result;
+            switch (inverseSearch.getResultSet().getType()) {
+                case slice:
+                    result = new InverseSearchSliceResult(matches.size(), queryTime, resultQueries, inverseSearch, SolrSearchServer.this, factory);
+                    break;
+                default:
+                    result = new InverseSearchPageResult(matches.size(), queryTime, resultQueries, inverseSearch, SolrSearchServer.this, factory);
+            }
+            return result.setDocumentMatches(InverseSearchResult.documentMatches(docs, slots))
+                    .setElapsedTime(elapsedTime);
+        }
     }
 
     @Override
     public IndexResult addInverseSearchQuery(InverseSearchQuery query) {
-        throw new NotImplementedException("This feature is not supported in the current Vind version");
+        Asserts.notNull(query,"Query should not be null.");
+        try {
+            InverseSearchIndex.validate(query.getQuery(), query.getFactory());
+        } catch (IllegalArgumentException e) {
+            log.error("Cannot add inverse search query {}", query, e);
+            throw new SearchServerException(String.format("Cannot add inverse search query: %s", e.getMessage()), e);
+        }
+
+        final DocumentFactory queryFactory = new DocumentFactoryBuilder(InverseSearchQueryFactory.QUERY_TYPE)
+                .addField(query.listFieldDescriptors().values().toArray(new FieldDescriptor[0]))
+                .build();
+        final Document queryDoc = queryFactory.createDoc(query.getId());
+        query.getValues().forEach(queryDoc::setValue);
+        final SolrInputDocument document = IndexingPlan.createInputDocument(queryDoc);
+        try {
+            solrClientLogger.debug(">>> add inverse search query({})", query.getId());
+            final UpdateResponse response = solrClient.add(document);
+            return new IndexResult(Long.valueOf(response.getQTime())).setElapsedTime(response.getElapsedTime());
+        } catch (SolrServerException | IOException e) {
+            log.error("Cannot add inverse search query {}", query, e);
+            throw new SearchServerException("Cannot add inverse search query", e);
+        }
+    }
+
+    /**
+     * Builds the query for the stored inverse search queries which match the query filter of an inverse search.
+     */
+    private SolrQuery getInverseSearchQueriesQuery(Filter queryFilter, DocumentFactory factory) {
+        final SolrQuery query = new SolrQuery("*:*");
+        query.addFilterQuery(TYPE + ":" + ClientUtils.escapeQueryChars(InverseSearchQueryFactory.QUERY_TYPE));
+        if (Objects.nonNull(queryFilter)) {
+            query.addFilterQuery(new SolrFilterSerializer(factory, true).serialize(queryFilter, null));
+        }
+        return query;
+    }
+
+    /**
+     * Gets the number and the highest version of the stored inverse search queries in a single request, so their
+     * versions only need to be fetched if any of them has changed.
+     */
+    private InverseSearchIndex.Watermark getInverseSearchWatermark(SolrQuery queriesQuery) throws SolrServerException, IOException {
+        final SolrQuery query = queriesQuery.getCopy();
+        query.setFields(VERSION);
+        query.setSort(VERSION, SolrQuery.ORDER.desc);
+        query.setRows(1);
+        solrClientLogger.debug(">>> query({})", query);
+        final SolrDocumentList results = solrClient.query(query, REQUEST_METHOD).getResults();
+        final long maxVersion = results.isEmpty() ? 0 : (Long) results.get(0).getFieldValue(VERSION);
+        return new InverseSearchIndex.Watermark(results.getNumFound(), maxVersion);
+    }
+
+    /**
+     * Gets the ids and versions of the stored inverse search queries, paging through them with a cursor.
+     * @return the Solr versions of the queries by id, in the order of the ids.
+     * @throws IOException if the versions cannot be fetched.
+     */
+    private Map<String, Long> getInverseSearchQueryVersions(SolrQuery queriesQuery) throws IOException {
+        final SolrQuery query = queriesQuery.getCopy();
+        query.setFields(ID, VERSION);
+        query.setSort(ID, SolrQuery.ORDER.asc);
+        query.setRows(INVERSE_SEARCH_FETCH_SIZE);
+
+        final Map<String, Long> versions = new LinkedHashMap<>();
+        String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        while (true) {
+            query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+            solrClientLogger.debug(">>> query({})", query);
+            final QueryResponse response;
+            try {
+                response = solrClient.query(query, REQUEST_METHOD);
+            } catch (SolrServerException e) {
+                throw new IOException("Cannot fetch the versions of the inverse search queries", e);
+            }
+            for (SolrDocument doc : response.getResults()) {
+                versions.put((String) doc.getFieldValue(ID), (Long) doc.getFieldValue(VERSION));
+            }
+            if (cursorMark.equals(response.getNextCursorMark())) {
+                return versions;
+            }
+            cursorMark = response.getNextCursorMark();
+        }
+    }
+
+    /**
+     * Loads stored inverse search queries for the {@link InverseSearchIndex}.
+     * @return the queries by id, queries which have been deleted meanwhile are missing.
+     * @throws IOException if the queries cannot be fetched or a query cannot be deserialized.
+     */
+    private Map<String, InverseSearchIndex.StoredQuery> loadInverseSearchQueries(List<String> missing, DocumentFactory factory)
+            throws IOException {
+        final Map<String, InverseSearchIndex.StoredQuery> loaded = new HashMap<>();
+        final String binaryField = getFieldname(InverseSearchQueryFactory.BINARY_QUERY_FIELD, UseCase.Stored, null);
+        for (List<String> ids : Lists.partition(missing, INVERSE_SEARCH_FETCH_SIZE)) {
+            final SolrQuery query = new SolrQuery(String.format("{!terms f=%s separator='%s' v=$%s}", ID, NESTED_IDS_SEPARATOR, NESTED_IDS_PARAM));
+            query.set(NESTED_IDS_PARAM, String.join(NESTED_IDS_SEPARATOR, ids));
+            query.setFields(ID, VERSION, binaryField);
+            query.setRows(ids.size());
+            solrClientLogger.debug(">>> query({})", query);
+            final QueryResponse response;
+            try {
+                response = solrClient.query(query, REQUEST_METHOD);
+            } catch (SolrServerException e) {
+                throw new IOException("Cannot load inverse search queries", e);
+            }
+            for (SolrDocument doc : response.getResults()) {
+                final String id = (String) doc.getFieldValue(ID);
+                final Object binary = doc.getFieldValue(binaryField);
+                try {
+                    final byte[] data = binary instanceof ByteBuffer ? ((ByteBuffer) binary).array() : (byte[]) binary;
+                    loaded.put(id, new InverseSearchIndex.StoredQuery((Long) doc.getFieldValue(VERSION),
+                            InverseSearchQuery.deserializeQuery(data, factory)));
+                } catch (IOException | RuntimeException e) {
+                    throw new IOException(String.format("Cannot load inverse search query %s: %s", id, e.getMessage()), e);
+                }
+            }
+        }
+        return loaded;
     }
 
     @Override
@@ -1195,6 +1612,6 @@ public class SolrSearchServer extends SmartSearchServerBase {
 
     @Override
     public void closeCursor(String cursor) {
-        throw new NotImplementedException("Solr backend does not support cursor search");
+        // Solr cursors are stateless, there is nothing to release on the server
     }
 }
@@ -1,6 +1,8 @@
 package com.rbmhtechnology.vind.solr.backend;
 
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.rbmhtechnology.vind.api.Document;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
@@ -14,6 +16,7 @@ import com.rbmhtechnology.vind.api.result.FacetResults;
 import com.rbmhtechnology.vind.api.result.GetResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
 import com.rbmhtechnology.vind.api.result.facet.*;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
 import com.rbmhtechnology.vind.model.*;
 import com.rbmhtechnology.vind.model.value.LatLng;
 import org.apache.commons.collections.CollectionUtils;
@@ -45,6 +48,8 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -193,8 +198,27 @@ public class SolrUtils {
         public static void buildFilterString(Filter filter, DocumentFactory factory,SolrQuery query,String searchContext, boolean strict) {
             buildFilterString(filter, factory, null, query, searchContext, strict);
         }
+        /**
+         * Adds the filter queries of a filter to a query. Unless disabled by
+         * {@link SearchConfiguration#SOLR_FILTER_SPLIT} the clauses of a top level AND filter are added as separate
+         * filter queries, see {@link FilterQueryPlanner}.
+         */
         public static void buildFilterString(Filter filter, DocumentFactory factory,DocumentFactory childFactory,SolrQuery query,String searchContext, boolean strict) {
+            buildFilterString(filter, factory, childFactory, query, searchContext, strict, false);
+        }
+
+        /**
+         * Adds the filter queries of a filter to a query.
+         * @param joined true if the caller joins the filter queries of the query into a single expression, the filter
+         *               is then added as one filter query without local params.
+         */
+        public static void buildFilterString(Filter filter, DocumentFactory factory,DocumentFactory childFactory,SolrQuery query,String searchContext, boolean strict, boolean joined) {
            // query.add(CommonParams.FQ,"_type_:"+factory.getType());
+            if (!joined && SearchConfiguration.get(SearchConfiguration.SOLR_FILTER_SPLIT, true)) {
+                new FilterQueryPlanner(factory, childFactory, searchContext, strict).plan(filter)
+                        .forEach(filterQuery -> query.add(CommonParams.FQ, filterQuery));
+                return;
+            }
             final String serialize = new ChildrenFilterSerializer(factory,childFactory,searchContext, strict, false).serialize(filter);
             if(StringUtils.isNotBlank(serialize)) {
                 query.add(CommonParams.FQ, serialize);
@@ -240,6 +264,21 @@ public class SolrUtils {
             }).collect(Collectors.joining(", "));
         }
 
+        /**
+         * Appends the unique key to a sort, as paging with a cursor mark requires a total order of the documents.
+         * @param sort the Solr sort string, may be empty.
+         * @return the sort, ending with the unique key.
+         */
+        public static String addUniqueKeySort(String sort) {
+            if (StringUtils.isBlank(sort)) {
+                return Fieldname.ID + " asc";
+            }
+            final boolean sortsByKey = Arrays.stream(sort.split(","))
+                    .map(String::trim)
+                    .anyMatch(clause -> clause.startsWith(Fieldname.ID + " "));
+            return sortsByKey ? sort : sort + ", " + Fieldname.ID + " asc";
+        }
+
         //TODO sorting stuff is a mess
         public static String buildBoostFunction(List<Sort> sortList, String searchContext) {
             //String bf =
@@ -769,6 +808,12 @@ public class SolrUtils {
             return fieldsnames;
         }
 
+        /**
+         * Memoized names of the descriptors, see {@link #buildFieldname(FieldDescriptor, UseCase, String)}.
+         */
+        private static final FieldNameTable<String> FIELDNAMES = new FieldNameTable<>(
+                (descriptor, useCase, context) -> Objects.isNull(useCase) ? null : buildFieldname(descriptor, useCase, context));
+
         public static String getFieldname(FieldDescriptor descriptor, UseCase useCase, String context) {
 
             if (Objects.isNull(descriptor)){
@@ -776,6 +821,11 @@ public class SolrUtils {
                 return null;
             }
 
+            return FIELDNAMES.get(descriptor, useCase, context);
+        }
+
+        private static String buildFieldname(FieldDescriptor descriptor, UseCase useCase, String context) {
+
             final String contextPrefix;
             if (Objects.isNull(context) || !descriptor.isContextualized()) {
                 contextPrefix = "";
@@ -891,9 +941,115 @@ public class SolrUtils {
 
         private static Logger log = LoggerFactory.getLogger(Result.class);
 
+        private static final ZoneId UTC = ZoneId.of("UTC");
+
+        /**
+         * A Solr result field name resolved to the {@link FieldDescriptor} it stores.
+         */
+        private static final class DecodedField {
+            private final String name;
+            private final FieldDescriptor<?> field;
+            private final Class<?> type;
+            private final boolean complex;
+            private final boolean contextualized;
+
+            private DecodedField(String name, FieldDescriptor<?> field, boolean contextualized) {
+                this.name = name;
+                this.field = field;
+                this.complex = ComplexFieldDescriptor.class.isAssignableFrom(field.getClass());
+                this.type = complex ? ((ComplexFieldDescriptor<?, ?, ?>) field).getStoreType() : field.getType();
+                this.contextualized = contextualized;
+            }
+        }
+
+        /**
+         * Maps the field names of Solr result documents to the {@link FieldDescriptor}s of a {@link DocumentFactory}
+         * for a given search context. A decoder is created once per factory and context and memoizes every name it
+         * has resolved, so decoding a result page does not need any regular expression or string manipulation.
+         * The decoders do not reference their factory, which is only weakly referenced by the cache.
+         */
+        private static final class FieldDecoder {
+
+            private static final Pattern INTERNAL_FIELD_PREFIX_PATTERN = Pattern.compile(INTERNAL_FIELD_PREFIX);
+            private static final Set<String> RESERVED_FIELDS = new HashSet<>(Arrays.asList(Fieldname.ID, Fieldname.TYPE, Fieldname.SCORE, Fieldname.DISTANCE));
+            private static final int MAX_CACHED = 4096;
+
+            private static final Cache<DocumentFactory, FactoryDecoders> DECODERS = CacheBuilder.newBuilder().weakKeys().build();
+
+            private final String searchContext;
+            private final String contextPrefix;
+            private final ConcurrentMap<String, Optional<DecodedField>> fields = new ConcurrentHashMap<>();
+
+            private FieldDecoder(String searchContext) {
+                this.searchContext = searchContext;
+                this.contextPrefix = searchContext != null ? searchContext + "_" : "";
+            }
+
+            private static FieldDecoder get(DocumentFactory factory, String searchContext) {
+                FactoryDecoders decoders = DECODERS.getIfPresent(factory);
+                if (decoders == null) {
+                    decoders = new FactoryDecoders();
+                    DECODERS.put(factory, decoders);
+                }
+                return decoders.get(searchContext);
+            }
+
+            /**
+             * @param solrFieldName name of a field in a Solr result document.
+             * @param factory the factory this decoder was created for.
+             * @return the decoded field or null if the field is internal or not described in the factory.
+             */
+            private DecodedField decode(String solrFieldName, DocumentFactory factory) {
+                Optional<DecodedField> decoded = fields.get(solrFieldName);
+                if (decoded == null) {
+                    decoded = Optional.ofNullable(resolve(solrFieldName, factory));
+                    if (fields.size() < MAX_CACHED) {
+                        fields.putIfAbsent(solrFieldName, decoded);
+                    }
+                }
+                return decoded.orElse(null);
+            }
+
+            private DecodedField resolve(String solrFieldName, DocumentFactory factory) {
+                if (RESERVED_FIELDS.contains(solrFieldName)) {
+                    return null;
+                }
+                final String contextualizedName = INTERNAL_FIELD_PREFIX_PATTERN.matcher(solrFieldName).replaceFirst("");
+                final boolean contextualized = Objects.nonNull(searchContext) && contextualizedName.contains(contextPrefix);
+                final String fname = contextualizedName.replace(contextPrefix, "");
+                if (factory.hasField(fname)) {
+                    return new DecodedField(fname, factory.getField(fname), contextualized);
+                }
+                return null;
+            }
+        }
+
+        private static final class FactoryDecoders {
+            private static final int MAX_CONTEXTS = 256;
+
+            private final FieldDecoder withoutContext = new FieldDecoder(null);
+            private final ConcurrentMap<String, FieldDecoder> byContext = new ConcurrentHashMap<>();
+
+            private FieldDecoder get(String searchContext) {
+                if (searchContext == null) {
+                    return withoutContext;
+                }
+                final FieldDecoder decoder = byContext.get(searchContext);
+                if (decoder != null) {
+                    return decoder;
+                }
+                if (byContext.size() >= MAX_CONTEXTS) {
+                    return new FieldDecoder(searchContext);
+                }
+                return byContext.computeIfAbsent(searchContext, FieldDecoder::new);
+            }
+        }
+
         public static List<Document> buildResultList(SolrDocumentList results, Map<String,Integer> childCounts, DocumentFactory factory, String searchContext) {
 
-            return results.stream().map(result -> {
+            final FieldDecoder decoder = FieldDecoder.get(factory, searchContext);
+            final List<Document> documents = new ArrayList<>(results.size());
+            for (SolrDocument result : results) {
 
                 Document document = factory.createDoc((String) result.getFieldValue(Fieldname.ID));
 
@@ -909,89 +1065,79 @@ public class SolrUtils {
                     document.setDistance((Float) result.get(Fieldname.DISTANCE));
                 }
 
-                result.getFieldNames().stream()
-                        .filter(name -> !name.equals(Fieldname.ID))
-                        .filter(name -> !name.equals(Fieldname.TYPE))
-                        .filter(name -> !name.equals(Fieldname.SCORE))
-                        .filter(name -> !name.equals(Fieldname.DISTANCE))
-                        .forEach(name -> {
-                            final Object o = result.get(name);
-                            final String contextPrefix = searchContext != null ? searchContext + "_" : "";
-                            final Matcher internalPrefixMatcher = Pattern.compile(INTERNAL_FIELD_PREFIX).matcher(name);
-                            final String contextualizedName = internalPrefixMatcher.replaceFirst("");
-                            final boolean contextualized = Objects.nonNull(searchContext) && contextualizedName.contains(contextPrefix);
-                            final String fname = contextualizedName.replace(contextPrefix, "");
-                            if (factory.hasField(fname)) {
-                                final FieldDescriptor<?> field = factory.getField(fname);
-                                Class<?> type;
-                                if (ComplexFieldDescriptor.class.isAssignableFrom(field.getClass())) {
-                                    type = ((ComplexFieldDescriptor) field).getStoreType();
+                for (Map.Entry<String, Object> entry : result) {
+                    final DecodedField decoded = decoder.decode(entry.getKey(), factory);
+                    if (decoded == null) {
+                        continue;
+                    }
+                    final Object o = entry.getValue();
+                    final String fname = decoded.name;
+                    final FieldDescriptor<?> field = decoded.field;
+                    final Class<?> type = decoded.type;
+                    final boolean contextualized = decoded.contextualized;
+                    try {
+                        if (o instanceof Collection) {
+                            final Collection<Object> solrValues = new ArrayList<>();
+                            if (ZonedDateTime.class.isAssignableFrom(type)) {
+                                ((Collection<?>) o).forEach(ob -> solrValues.add(ZonedDateTime.ofInstant(((Date) ob).toInstant(), UTC)));
+                            } else if (Date.class.isAssignableFrom(type)) {
+                                ((Collection<?>) o).forEach(ob -> solrValues.add(DateTimeFormatter.ISO_INSTANT.format(((Date) ob).toInstant())));
+                            } else if (LatLng.class.isAssignableFrom(type)) {
+                                ((Collection<?>) o).forEach(ob -> {
+                                    try {
+                                        solrValues.add(LatLng.parseLatLng(ob.toString()));
+                                    } catch (ParseException e) {
+                                        log.error("Unable to parse solr result field '{}' value '{}' to field descriptor type [{}]",
+                                                fname, o.toString(), type);
+                                        throw new RuntimeException(e);
+                                    }
+                                });
+                            } else {
+                                solrValues.addAll((Collection<Object>) o);
+                            }
+
+                            if (decoded.complex) {
+                                if (contextualized) {
+                                    document.setContextualizedValues((MultiValuedComplexField<Object, ?, ?>) field, searchContext, solrValues);
                                 } else {
-                                    type = field.getType();
+                                    document.setValues((MultiValuedComplexField<Object, ?, ?>) field, solrValues);
                                 }
-                                try {
-                                    if (o instanceof Collection) {
-                                        final Collection<Object> solrValues = new ArrayList<>();
-                                        if (ZonedDateTime.class.isAssignableFrom(type)) {
-                                            ((Collection<?>) o).forEach(ob -> solrValues.add(ZonedDateTime.ofInstant(((Date) ob).toInstant(), ZoneId.of("UTC"))));
-                                        } else if (Date.class.isAssignableFrom(type)) {
-                                            ((Collection<?>) o).forEach(ob -> solrValues.add(DateTimeFormatter.ISO_INSTANT.format(((Date) ob).toInstant())));
-                                        } else if (LatLng.class.isAssignableFrom(type)) {
-                                            ((Collection<?>) o).forEach(ob -> {
-                                                try {
-                                                    solrValues.add(LatLng.parseLatLng(ob.toString()));
-                                                } catch (ParseException e) {
-                                                    log.error("Unable to parse solr result field '{}' value '{}' to field descriptor type [{}]",
-                                                            fname, o.toString(), type);
-                                                    throw new RuntimeException(e);
-                                                }
-                                            });
-                                        } else {
-                                            solrValues.addAll((Collection<Object>) o);
-                                        }
-
-                                        if (ComplexFieldDescriptor.class.isAssignableFrom(field.getClass())) {
-                                            if (contextualized) {
-                                                document.setContextualizedValues((MultiValuedComplexField<Object, ?, ?>) field, searchContext, solrValues);
-                                            } else {
-                                                document.setValues((MultiValuedComplexField<Object, ?, ?>) field, solrValues);
-                                            }
-
-                                        } else {
-                                            if (contextualized) {
-                                                document.setContextualizedValues((MultiValueFieldDescriptor<Object>) field, searchContext, solrValues);
-                                            } else {
-                                                document.setValues((MultiValueFieldDescriptor<Object>) field, solrValues);
-                                            }
-                                        }
-
-                                    } else {
-                                        Object solrValue;
-                                        if (ZonedDateTime.class.isAssignableFrom(type)) {
-                                            solrValue = ZonedDateTime.ofInstant(((Date) o).toInstant(), ZoneId.of("UTC"));
-                                        } else if (Date.class.isAssignableFrom(type)) {
-                                            solrValue = (Date) o;
-                                        } else if (LatLng.class.isAssignableFrom(type)) {
-                                            solrValue = LatLng.parseLatLng(o.toString());
-                                        } else {
-                                            solrValue = castForDescriptor(o, field, UseCase.Stored);
-                                        }
-                                        if (contextualized) {
-                                            document.setContextualizedValue((FieldDescriptor<Object>) field, searchContext, solrValue);
-                                        } else {
-                                            document.setValue((FieldDescriptor<Object>) field, solrValue);
-                                        }
-                                    }
-                                } catch (Exception e) {
-                                    log.error("Unable to parse solr result field '{}' value '{}' to field descriptor type [{}]",
-                                            fname, o.toString(), type);
-                                    throw new RuntimeException(e);
+
+                            } else {
+                                if (contextualized) {
+                                    document.setContextualizedValues((MultiValueFieldDescriptor<Object>) field, searchContext, solrValues);
+                                } else {
+                                    document.setValues((MultiValueFieldDescriptor<Object>) field, solrValues);
                                 }
                             }
-                        });
 
-                return document;
-            }).collect(Collectors.toList());
+                        } else {
+                            Object solrValue;
+                            if (ZonedDateTime.class.isAssignableFrom(type)) {
+                                solrValue = ZonedDateTime.ofInstant(((Date) o).toInstant(), UTC);
+                            } else if (Date.class.isAssignableFrom(type)) {
+                                solrValue = (Date) o;
+                            } else if (LatLng.class.isAssignableFrom(type)) {
+                                solrValue = LatLng.parseLatLng(o.toString());
+                            } else {
+                                solrValue = castForDescriptor(o, field, UseCase.Stored);
+                            }
+                            if (contextualized) {
+                                document.setContextualizedValue((FieldDescriptor<Object>) field, searchContext, solrValue);
+                            } else {
+                                document.setValue((FieldDescriptor<Object>) field, solrValue);
+                            }
+                        }
+                    } catch (Exception e) {
+                        log.error("Unable to parse solr result field '{}' value '{}' to field descriptor type [{}]",
+                                fname, o.toString(), type);
+                        throw new RuntimeException(e);
+                    }
+                }
+
+                documents.add(document);
+            }
+            return documents;
         }
 
         private static HashMap<FieldDescriptor, TermFacetResult<?>> getTermFacetResults(QueryResponse response, DocumentFactory factory, DocumentFactory childFactory, Map<String,Facet>  facetsQuery, String searchContext) {
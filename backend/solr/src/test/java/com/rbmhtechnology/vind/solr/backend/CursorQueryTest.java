@@ -0,0 +1,45 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.junit.Test;
+
+import static com.rbmhtechnology.vind.api.query.sort.Sort.desc;
+import static com.rbmhtechnology.vind.solr.backend.SolrUtils.Fieldname.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CursorQueryTest {
+
+    private final SingleValueFieldDescriptor.NumericFieldDescriptor<Integer> number = new FieldDescriptorBuilder<Integer>()
+            .setFacet(true)
+            .buildNumericField("number", Integer.class);
+    private final DocumentFactory factory = new DocumentFactoryBuilder("asset").addField(number).build();
+    private final SolrSearchServer server = new SolrSearchServer(null, false);
+
+    @Test
+    public void testCursorQuery() {
+        final SolrQuery first = server.buildSolrQuery(Search.fulltext().cursor(1, 20), factory);
+        assertEquals(CursorMarkParams.CURSOR_MARK_START, first.get(CursorMarkParams.CURSOR_MARK_PARAM));
+        assertEquals(Integer.valueOf(0), first.getStart());
+        assertEquals(Integer.valueOf(20), first.getRows());
+        assertEquals(ID + " asc", first.get(CommonParams.SORT));
+
+        final SolrQuery next = server.buildSolrQuery(Search.fulltext().cursor("AoE/ATQ=", 1, 20).sort(desc(number)), factory);
+        assertEquals("AoE/ATQ=", next.get(CursorMarkParams.CURSOR_MARK_PARAM));
+        assertTrue(next.get(CommonParams.SORT), next.get(CommonParams.SORT).matches("\\w*number Desc, " + ID + " asc"));
+    }
+
+    @Test
+    public void testUniqueKeySort() {
+        assertEquals(ID + " asc", SolrUtils.Query.addUniqueKeySort(null));
+        assertEquals("score desc, " + ID + " asc", SolrUtils.Query.addUniqueKeySort("score desc"));
+        assertEquals("score desc, " + ID + " desc", SolrUtils.Query.addUniqueKeySort("score desc, " + ID + " desc"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.MultiValueFieldDescriptor;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import com.rbmhtechnology.vind.model.value.LatLng;
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FilterQueryPlannerTest {
+
+    private final SingleValueFieldDescriptor.TextFieldDescriptor<String> kind = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildTextField("kind");
+    private final MultiValueFieldDescriptor.TextFieldDescriptor<String> tags = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildMultivaluedTextField("tags");
+    private final SingleValueFieldDescriptor.DateFieldDescriptor<ZonedDateTime> created = new FieldDescriptorBuilder<>()
+            .setFacet(true)
+            .buildDateField("created");
+    private final SingleValueFieldDescriptor.LocationFieldDescriptor<LatLng> location = new FieldDescriptorBuilder<>()
+            .setFacet(true)
+            .buildLocationField("location");
+    private final DocumentFactory factory = new DocumentFactoryBuilder("asset")
+            .addField(kind, tags, created, location)
+            .build();
+
+    @Test
+    public void testTopLevelAndIsSplit() {
+        final FilterQueryPlanner planner = new FilterQueryPlanner(factory, null, null, false, 2);
+        final DateMathExpression rounded = new DateMathExpression().sub(1, DateMathExpression.TimeUnit.DAY);
+        rounded.setRootUnit(DateMathExpression.TimeUnit.DAY);
+
+        final List<String> filterQueries = planner.plan(and(
+                eq(kind, "video"),
+                after("created", rounded),
+                or(eq(tags, "a"), eq(tags, "b")),
+                withinCircle("location", new LatLng(47.8, 13.0), 5),
+                terms(tags, "a", "b", "c"),
+                before("created", new DateMathExpression().sub(1, DateMathExpression.TimeUnit.HOUR))));
+
+        assertEquals(6, filterQueries.size());
+        assertEquals(filterQueries.toString(), 3, filterQueries.stream().filter(fq -> !fq.contains("cache=false")).count());
+        assertTrue(filterQueries.toString(), filterQueries.stream()
+                .anyMatch(fq -> fq.startsWith("{!geofilt cache=false cost=" + FilterQueryPlanner.GEO_COST + " ")));
+        assertTrue(filterQueries.toString(), filterQueries.stream()
+                .anyMatch(fq -> fq.startsWith("{!terms cache=false cost=" + FilterQueryPlanner.TERMS_COST + " ")));
+        assertTrue(filterQueries.toString(), filterQueries.stream()
+                .anyMatch(fq -> fq.startsWith("{!cache=false cost=" + FilterQueryPlanner.DATE_COST + "}") && fq.contains("NOW")));
+
+        // the order of the clauses does not depend on the order the filters were combined in
+        assertEquals(filterQueries, planner.plan(and(
+                before("created", new DateMathExpression().sub(1, DateMathExpression.TimeUnit.HOUR)),
+                terms(tags, "a", "b", "c"),
+                withinCircle("location", new LatLng(47.8, 13.0), 5),
+                or(eq(tags, "b"), eq(tags, "a")),
+                after("created", rounded),
+                eq(kind, "video"))));
+    }
+
+    @Test
+    public void testSingleFilter() {
+        final FilterQueryPlanner planner = new FilterQueryPlanner(factory, null, null, false, 2);
+        assertEquals(1, planner.plan(eq(kind, "video")).size());
+        assertEquals(0, planner.cost(or(eq(kind, "video"), eq(tags, "a"))));
+        assertEquals(FilterQueryPlanner.GEO_COST,
+                planner.cost(not(withinBBox("location", new LatLng(48, 12), new LatLng(47, 12.5)))));
+    }
+
+    @Test
+    public void testNestedDocumentFiltersAreNotSplit() {
+        final DocumentFactory child = new DocumentFactoryBuilder("marker").addField(tags).build();
+        final Filter filter = and(eq(kind, "video"), eq(tags, "a"));
+        assertEquals(1, new FilterQueryPlanner(factory, child, null, false, 2).plan(filter).size());
+    }
+}
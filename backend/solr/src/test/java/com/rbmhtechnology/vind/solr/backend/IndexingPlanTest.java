@@ -0,0 +1,89 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.MultiValueFieldDescriptor;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Date;
+
+import static com.rbmhtechnology.vind.model.FieldDescriptor.UseCase;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+public class IndexingPlanTest {
+
+    @Test
+    public void testCreateInputDocument() {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+                .setFullText(true)
+                .setFacet(true)
+                .buildTextField("title");
+        final MultiValueFieldDescriptor.TextFieldDescriptor<String> tags = new FieldDescriptorBuilder<String>()
+                .buildSortableMultivaluedTextField("tags", values -> values.iterator().next());
+        final SingleValueFieldDescriptor.DateFieldDescriptor<ZonedDateTime> created = new FieldDescriptorBuilder<>()
+                .buildDateField("created");
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> empty = new FieldDescriptorBuilder<String>()
+                .buildTextField("empty");
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset")
+                .addField(title, tags, created, empty)
+                .build();
+
+        final ZonedDateTime now = ZonedDateTime.now();
+        final Document doc = factory.createDoc("1")
+                .setValue(title, "Title")
+                .setValues(tags, "b", "a")
+                .setValue(created, now);
+
+        final SolrInputDocument document = IndexingPlan.createInputDocument(doc);
+
+        assertEquals("1", document.getFieldValue(SolrUtils.Fieldname.ID));
+        assertEquals("asset", document.getFieldValue(SolrUtils.Fieldname.TYPE));
+        for (UseCase useCase : UseCase.values()) {
+            final String fieldname = SolrUtils.Fieldname.getFieldname(title, useCase, null);
+            if (fieldname != null) {
+                assertEquals("Title", document.getFieldValue(fieldname));
+            }
+        }
+        assertThat(document.getFieldValues(SolrUtils.Fieldname.getFieldname(tags, UseCase.Stored, null)), containsInAnyOrder("a", "b"));
+        assertEquals(1, document.getFieldValues(SolrUtils.Fieldname.getFieldname(tags, UseCase.Sort, null)).size());
+        assertEquals(Date.from(now.toInstant()), document.getFieldValue(SolrUtils.Fieldname.getFieldname(created, UseCase.Stored, null)));
+        assertNull(document.getField(SolrUtils.Fieldname.getFieldname(empty, UseCase.Stored, null)));
+    }
+
+    @Test
+    public void testContextualizedFields() {
+        final FieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+                .setFullText(true)
+                .buildTextField("title");
+        title.setContextualized(true);
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset").addField(title).build();
+
+        final Document doc = factory.createDoc("1")
+                .setContextualizedValue(title, "en", "Title")
+                .setContextualizedValue(title, "de", "Titel");
+
+        final SolrInputDocument document = IndexingPlan.createInputDocument(doc);
+
+        assertEquals("Title", document.getFieldValue(SolrUtils.Fieldname.getFieldname(title, UseCase.Fulltext, "en")));
+        assertEquals("Titel", document.getFieldValue(SolrUtils.Fieldname.getFieldname(title, UseCase.Fulltext, "de")));
+        assertEquals("Titel", document.getFieldValue(SolrUtils.Fieldname.getFieldname(title, UseCase.Stored, "de")));
+    }
+
+    @Test
+    public void testToSolrJType() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        assertEquals(Arrays.asList(Date.from(now.toInstant()), "a"), IndexingPlan.toSolrJType(new Object[]{now, "a"}));
+        assertEquals(Arrays.asList(Arrays.asList(1L, 2L)), IndexingPlan.toSolrJType(Arrays.asList(Arrays.asList(1L, 2L))));
+        assertNull(IndexingPlan.toSolrJType(null));
+    }
+}
@@ -0,0 +1,225 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.MultiValueFieldDescriptor;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import com.rbmhtechnology.vind.model.value.LatLng;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class InverseSearchIndexTest {
+
+    private final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildTextField("title");
+    private final MultiValueFieldDescriptor.TextFieldDescriptor<String> tags = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildMultivaluedTextField("tags");
+    private final SingleValueFieldDescriptor.NumericFieldDescriptor<Integer> views = new FieldDescriptorBuilder<Integer>()
+            .setFacet(true)
+            .buildNumericField("views", Integer.class);
+    private final SingleValueFieldDescriptor.NumericFieldDescriptor<Float> rating = new FieldDescriptorBuilder<Float>()
+            .setFacet(true)
+            .buildNumericField("rating", Float.class);
+    private final SingleValueFieldDescriptor.DateFieldDescriptor<ZonedDateTime> created = new FieldDescriptorBuilder<>()
+            .setFacet(true)
+            .buildDateField("created");
+    private final SingleValueFieldDescriptor.LocationFieldDescriptor<LatLng> location = new FieldDescriptorBuilder<>()
+            .setFacet(true)
+            .buildLocationField("location");
+    private final DocumentFactory factory = new DocumentFactoryBuilder("asset")
+            .addField(title, tags, views, rating, created, location)
+            .build();
+
+    @Test
+    public void testMatch() {
+        final Document doc = factory.createDoc("1")
+                .setValue(title, "Hello World")
+                .setValues(tags, "news", "sports")
+                .setValue(views, 42)
+                .setValue(rating, 3.5f)
+                .setValue(created, ZonedDateTime.now().minusHours(2))
+                .setValue(location, new LatLng(47.8, 13.0));
+
+        assertMatches(doc, eq(title, "Hello World"), true);
+        assertMatches(doc, eq(title, "Hello"), false);
+        assertMatches(doc, eq("tags", "sports"), true);
+        assertMatches(doc, terms(tags, "culture", "news"), true);
+        assertMatches(doc, prefix("title", "Hell"), true);
+        assertMatches(doc, and(eq(tags, "news"), between("views", 40, 50)), true);
+        assertMatches(doc, and(eq(tags, "news"), new GreaterThanFilter("views", 43, null)), false);
+        assertMatches(doc, or(eq(tags, "culture"), new LowerThanFilter("rating", 3.5, null)), true);
+        assertMatches(doc, not(eq(tags, "news")), false);
+        assertMatches(doc, not(eq(tags, "culture")), true);
+        assertMatches(doc, eq(views, 42), true);
+        assertMatches(doc, after("created", new DateMathExpression().sub(1, DateMathExpression.TimeUnit.DAY)), true);
+        assertMatches(doc, after("created", new DateMathExpression().sub(1, DateMathExpression.TimeUnit.HOUR)), false);
+        assertMatches(doc, withinCircle("location", new LatLng(47.81, 13.04), 5), true);
+        assertMatches(doc, withinBBox("location", new LatLng(48, 12), new LatLng(47, 12.5)), false);
+        assertMatches(doc, new NotEmptyFilter("rating", null), true);
+        assertMatches(factory.createDoc("2").setValue(title, "Hello World"), new NotEmptyFilter("rating", null), false);
+    }
+
+    @Test
+    public void testPrefilter() {
+        assertEquals(Collections.singleton("title\u001fa"), MemoryIndexQueryBuilder.extractTerms(and(eq(title, "a"), between("views", 1, 2)), factory));
+        assertEquals(Collections.singleton("views"), MemoryIndexQueryBuilder.extractTerms(eq(views, 1), factory));
+        assertNull(MemoryIndexQueryBuilder.extractTerms(or(eq(title, "a"), not(eq(title, "b"))), factory));
+    }
+
+    @Test
+    public void testResultOrderAndVersions() {
+        final InverseSearchIndex index = new InverseSearchIndex(100);
+        index.register("b", 1, eq(tags, "news"), factory);
+        index.register("a", 1, eq(tags, "sports"), factory);
+        index.register("c", 1, eq(tags, "culture"), factory);
+
+        final List<Document> docs = Arrays.asList(
+                factory.createDoc("1").setValues(tags, "news"),
+                factory.createDoc("2").setValues(tags, "sports"));
+        assertEquals(Arrays.asList("a", "b"), Arrays.asList(match(index, docs, "a", "b", "c").keySet().toArray()));
+        assertEquals(Collections.singletonList("b"), Arrays.asList(match(index, docs, "b", "c").keySet().toArray()));
+
+        index.register("d", 1, or(eq(tags, "news"), eq(tags, "sports")), factory);
+        assertEquals(Arrays.asList(0, 1), match(index, docs, "d").get("d").getSlots());
+        assertEquals(Collections.singletonList(1), match(index, docs, "a").get("a").getSlots());
+
+        assertEquals(true, index.isRegistered("a", 1, factory));
+        assertEquals(false, index.isRegistered("a", 2, factory));
+        assertEquals(false, index.isRegistered("e", 1, factory));
+    }
+
+    @Test
+    public void testLoadsMissingQueries() throws IOException {
+        // a cache of one query evicts on registering the second one
+        final InverseSearchIndex index = new InverseSearchIndex(1);
+        final Map<String, InverseSearchIndex.StoredQuery> stored = new HashMap<>();
+        stored.put("a", new InverseSearchIndex.StoredQuery(1, eq(tags, "news")));
+        stored.put("b", new InverseSearchIndex.StoredQuery(2, eq(tags, "news")));
+        final List<List<String>> loads = new ArrayList<>();
+        final InverseSearchIndex.QueryLoader loader = ids -> {
+            loads.add(ids);
+            final Map<String, InverseSearchIndex.StoredQuery> loaded = new HashMap<>(stored);
+            loaded.keySet().retainAll(ids);
+            return loaded;
+        };
+        final Map<String, Long> versions = new LinkedHashMap<>();
+        versions.put("a", 1L);
+        versions.put("b", 2L);
+        final List<Document> docs = Collections.singletonList(factory.createDoc("1").setValues(tags, "news"));
+
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(index.match(docs, versions, factory, loader).keySet()));
+        assertEquals(Collections.singletonList(Arrays.asList("a", "b")), loads);
+        // the evicted query is loaded again instead of being dropped
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(index.match(docs, versions, factory, loader).keySet()));
+        assertEquals(2, loads.size());
+
+        // a changed query which has been deleted meanwhile
+        versions.put("a", 3L);
+        stored.remove("a");
+        try {
+            index.match(docs, versions, factory, loader);
+            fail("a query which cannot be loaded must not be skipped");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSkipsUnsupportedStoredQueries() throws IOException {
+        final InverseSearchIndex index = new InverseSearchIndex(100);
+        final Map<String, InverseSearchIndex.StoredQuery> stored = new HashMap<>();
+        stored.put("a", new InverseSearchIndex.StoredQuery(1, eq(tags, "news")));
+        stored.put("b", new InverseSearchIndex.StoredQuery(1, hasChildrenDocuments("asset")));
+        final Map<String, Long> versions = new LinkedHashMap<>();
+        versions.put("a", 1L);
+        versions.put("b", 1L);
+        final List<Document> docs = Collections.singletonList(factory.createDoc("1").setValues(tags, "news"));
+
+        assertEquals(Collections.singletonList("a"),
+                new ArrayList<>(index.match(docs, versions, factory, ids -> stored).keySet()));
+    }
+
+    @Test
+    public void testReusesQueriesForTheSameWatermark() throws IOException {
+        final InverseSearchIndex index = new InverseSearchIndex(100);
+        index.register("a", 1, eq(tags, "news"), factory);
+        index.register("b", 1, not(eq(tags, "sports")), factory);
+        final Map<String, Long> versions = new LinkedHashMap<>();
+        versions.put("a", 1L);
+        versions.put("b", 1L);
+        final AtomicInteger fetches = new AtomicInteger();
+        final InverseSearchIndex.VersionLoader loader = () -> {
+            fetches.incrementAndGet();
+            return versions;
+        };
+        final List<Document> docs = Collections.singletonList(factory.createDoc("1").setValues(tags, "news"));
+
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(index.match(docs, "all",
+                new InverseSearchIndex.Watermark(2, 1), factory, loader, this::noneMissing).keySet()));
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(index.match(docs, "all",
+                new InverseSearchIndex.Watermark(2, 1), factory, loader, this::noneMissing).keySet()));
+        assertEquals(1, fetches.get());
+
+        // a deleted query lowers the count
+        versions.remove("a");
+        assertEquals(Collections.singletonList("b"), new ArrayList<>(index.match(docs, "all",
+                new InverseSearchIndex.Watermark(1, 1), factory, loader, this::noneMissing).keySet()));
+        assertEquals(2, fetches.get());
+
+        // without key the versions are fetched on every match
+        index.match(docs, null, null, factory, loader, this::noneMissing);
+        assertEquals(3, fetches.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedFilter() {
+        InverseSearchIndex.validate(hasChildrenDocuments("asset"), factory);
+    }
+
+    private void assertMatches(Document doc, Filter filter, boolean expected) {
+        final InverseSearchIndex index = new InverseSearchIndex(10);
+        index.register("q", 1, filter, factory);
+        assertEquals(filter.toString(), expected, match(index, Collections.singletonList(doc), "q").containsKey("q"));
+    }
+
+    private Map<String, InverseSearchIndex.StoredQuery> noneMissing(List<String> missing) {
+        throw new AssertionError("Queries are not registered: " + missing);
+    }
+
+    /**
+     * Matches registered queries, all of them in version 1.
+     */
+    private Map<String, InverseSearchIndex.Match> match(InverseSearchIndex index, List<Document> docs, String... ids) {
+        final Map<String, Long> versions = new LinkedHashMap<>();
+        for (String id : ids) {
+            versions.put(id, 1L);
+        }
+        try {
+            return index.match(docs, versions, factory, this::noneMissing);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -3,8 +3,11 @@ package com.rbmhtechnology.vind.solr.backend;
 import com.rbmhtechnology.vind.api.Document;
 import com.rbmhtechnology.vind.api.SearchServer;
 import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
 import com.rbmhtechnology.vind.api.query.sort.Sort;
 import com.rbmhtechnology.vind.api.result.SearchResult;
+import com.rbmhtechnology.vind.api.result.UpdateResult;
 import com.rbmhtechnology.vind.model.*;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.SolrClient;
@@ -14,7 +17,9 @@ import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.SolrPingResponse;
 import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.SolrInputField;
 import org.hamcrest.*;
@@ -30,14 +35,20 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 
+import static com.rbmhtechnology.vind.api.query.filter.Filter.and;
+import static com.rbmhtechnology.vind.api.query.filter.Filter.before;
 import static com.rbmhtechnology.vind.api.query.filter.Filter.eq;
 import static com.rbmhtechnology.vind.api.query.filter.Filter.or;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -106,6 +117,72 @@ public class SolrSearchServerTest {
     }
 
 
+    @Test
+    public void testJoinedFilterQueriesHaveNoLocalParams() {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> kind = new FieldDescriptorBuilder<String>().setFacet(true).buildTextField("kind");
+        final SingleValueFieldDescriptor.DateFieldDescriptor<ZonedDateTime> created = new FieldDescriptorBuilder<>().setFacet(true).buildDateField("created");
+        final DocumentFactory assets = new DocumentFactoryBuilder("asset").addField(kind, created).build();
+        final DocumentFactory markers = new DocumentFactoryBuilder("marker").addField(kind).build();
+        // relative to NOW without rounding, so it is planned as an uncached filter query
+        final Filter filter = and(eq(kind, "video"), before("created", new DateMathExpression().sub(1, DateMathExpression.TimeUnit.HOUR)));
+        final SolrSearchServer solrServer = (SolrSearchServer) server;
+
+        final SolrQuery plain = solrServer.buildSolrQuery(Search.fulltext().filter(filter), assets);
+        assertTrue(Arrays.toString(plain.getFilterQueries()),
+                Arrays.stream(plain.getFilterQueries()).anyMatch(fq -> fq.startsWith("{!cache=false")));
+
+        final SolrQuery children = solrServer.buildSolrQuery(Search.fulltext().filter(filter)
+                .orChildrenSearch(Search.fulltext().filter(eq(kind, "marker")), markers), assets);
+        assertEquals(1, children.getFilterQueries().length);
+        assertFalse(children.getFilterQueries()[0], children.getFilterQueries()[0].contains("{!cache=false"));
+        assertTrue(children.getFilterQueries()[0], children.getFilterQueries()[0].contains("NOW"));
+
+        final SolrQuery suggestion = solrServer.buildSolrQuery(Search.suggest("a").fields("kind").filter(filter), assets, markers);
+        assertEquals(1, suggestion.getFilterQueries().length);
+        assertFalse(suggestion.getFilterQueries()[0], suggestion.getFilterQueries()[0].contains("{!cache=false"));
+        assertTrue(suggestion.getFilterQueries()[0], suggestion.getFilterQueries()[0].contains("NOW"));
+    }
+
+    @Test
+    public void testRejectedBatchUpdateIsRetriedOneByOne() throws Exception {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>().buildTextField("title");
+        final DocumentFactory assets = new DocumentFactoryBuilder("asset").setUpdatable(true).addField(title).build();
+
+        // the batch updates document 1 before document 2 is rejected, document 3 is not reached
+        when(solrClient.getById(org.mockito.Matchers.<Collection<String>>any()))
+                .thenReturn(solrDocuments(1L, 1L, 1L))
+                .thenReturn(solrDocuments(2L, 1L, 1L));
+        when(solrClient.add(org.mockito.Matchers.<Collection<SolrInputDocument>>any()))
+                .thenThrow(new SolrException(SolrException.ErrorCode.BAD_REQUEST, "rejected"));
+        when(solrClient.add(any(SolrInputDocument.class))).thenAnswer(invocation -> {
+            if ("2".equals(((SolrInputDocument) invocation.getArguments()[0]).getFieldValue(SolrUtils.Fieldname.ID))) {
+                throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, "rejected");
+            }
+            return iResponse;
+        });
+
+        final UpdateResult result = server.execute(Arrays.asList(
+                Search.update("1").set(title, "One"),
+                Search.update("2").set(title, "Two"),
+                Search.update("3").set(title, "Three")), assets);
+
+        assertTrue(result.isUpdated("1"));
+        assertEquals(Collections.singletonList("2"), result.getFailedIds());
+        assertTrue(result.isUpdated("3"));
+        verify(solrClient, times(2)).add(any(SolrInputDocument.class));
+    }
+
+    private static SolrDocumentList solrDocuments(long... versions) {
+        final SolrDocumentList docs = new SolrDocumentList();
+        for (int i = 0; i < versions.length; i++) {
+            final SolrDocument doc = new SolrDocument();
+            doc.setField(SolrUtils.Fieldname.ID, String.valueOf(i + 1));
+            doc.setField("_version_", versions[i]);
+            docs.add(doc);
+        }
+        return docs;
+    }
+
     @Test
     public void testIndex() throws Exception {
 
@@ -0,0 +1,104 @@
+package com.rbmhtechnology.vind.benchmark;
+
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.api.query.filter.FilterCodec;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.MultiValueFieldDescriptor;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.and;
+import static com.rbmhtechnology.vind.api.query.filter.Filter.between;
+import static com.rbmhtechnology.vind.api.query.filter.Filter.eq;
+import static com.rbmhtechnology.vind.api.query.filter.Filter.not;
+import static com.rbmhtechnology.vind.api.query.filter.Filter.or;
+import static com.rbmhtechnology.vind.api.query.filter.Filter.terms;
+
+/**
+ * Measures the time to decode the {@value #QUERIES} stored queries an inverse search may return, stored with
+ * {@link FilterCodec} or with Java serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class FilterDecodingBenchmark {
+
+    public static final int QUERIES = 10_000;
+
+    private DocumentFactory factory;
+    private List<byte[]> encoded;
+    private List<byte[]> serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> kind = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildTextField("kind");
+        final MultiValueFieldDescriptor.TextFieldDescriptor<String> tags = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildMultivaluedTextField("tags");
+        factory = new DocumentFactoryBuilder("asset")
+                .addField(kind, tags)
+                .build();
+
+        encoded = new ArrayList<>(QUERIES);
+        serialized = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            final Filter query = and(
+                    eq(kind, "kind-" + (i % 10)),
+                    or(terms(tags, "tag-" + (i % 7), "tag-" + (i % 13)), eq("channel", "channel-" + (i % 5))),
+                    between("views", i, i * 10L),
+                    not(eq("status", "deleted")));
+            encoded.add(FilterCodec.encode(query));
+            serialized.add(serialize(query));
+        }
+    }
+
+    @Benchmark
+    public void decodeCodec(Blackhole blackhole) throws IOException {
+        for (byte[] data : encoded) {
+            blackhole.consume(FilterCodec.decode(data, factory));
+        }
+    }
+
+    @Benchmark
+    public void decodeJavaSerialization(Blackhole blackhole) throws IOException, ClassNotFoundException {
+        for (byte[] data : serialized) {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+                blackhole.consume(in.readObject());
+            }
+        }
+    }
+
+    private static byte[] serialize(Filter query) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(query);
+        }
+        return bytes.toByteArray();
+    }
+}
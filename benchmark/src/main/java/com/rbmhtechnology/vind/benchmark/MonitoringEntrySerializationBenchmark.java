@@ -0,0 +1,143 @@
+package com.rbmhtechnology.vind.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.result.PageResult;
+import com.rbmhtechnology.vind.api.result.SearchResult;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import com.rbmhtechnology.vind.monitoring.logger.entry.FullTextEntry;
+import com.rbmhtechnology.vind.monitoring.logger.entry.GetEntry;
+import com.rbmhtechnology.vind.monitoring.logger.entry.IndexEntry;
+import com.rbmhtechnology.vind.monitoring.logger.entry.MonitoringEntry;
+import com.rbmhtechnology.vind.monitoring.model.application.Application;
+import com.rbmhtechnology.vind.monitoring.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.monitoring.model.session.Session;
+import com.rbmhtechnology.vind.monitoring.model.session.SimpleSession;
+import com.rbmhtechnology.vind.solr.backend.SolrSearchServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.and;
+import static com.rbmhtechnology.vind.api.query.filter.Filter.between;
+import static com.rbmhtechnology.vind.api.query.filter.Filter.eq;
+import static com.rbmhtechnology.vind.api.query.sort.Sort.desc;
+
+/**
+ * Measures the monitoring entries serialized per second, one JSON string per entry or streamed into the body of an
+ * elasticsearch bulk request as the writers send them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonitoringEntrySerializationBenchmark {
+
+    public static final int ENTRIES = 1_000;
+
+    private static final String BULK_INDEX_ACTION = "{\"index\":{}}\n";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private List<MonitoringEntry> entries;
+
+    @Setup
+    public void setup() {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> kind = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildTextField("kind");
+        final SingleValueFieldDescriptor.NumericFieldDescriptor<Long> views = new FieldDescriptorBuilder<Long>()
+                .setFacet(true)
+                .buildNumericField("views", Long.class);
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset")
+                .addField(kind, views)
+                .build();
+        // only used to render the raw query, it never connects to solr
+        final SearchServer server = new SolrSearchServer(null, false) {};
+        final Application application = new SimpleApplication("benchmark");
+        final ZonedDateTime start = ZonedDateTime.now();
+
+        entries = new ArrayList<>(ENTRIES);
+        for (int i = 0; i < ENTRIES; i++) {
+            final Session session = new SimpleSession("session-" + (i % 50));
+            switch (i % 3) {
+                case 0:
+                    final FulltextSearch search = Search.fulltext("text " + i)
+                            .filter(and(eq(kind, "kind-" + (i % 10)), between("views", i, i * 10L)))
+                            .facet(kind)
+                            .sort(desc(views))
+                            .page(1 + i % 5, 10);
+                    final SearchResult result = new PageResult(i, Collections.emptyList(), search, null, server, factory);
+                    entries.add(new FullTextEntry(server, factory, application, search, result, start, start.plusNanos(i), 3, session));
+                    break;
+                case 1:
+                    final Document document = factory.createDoc("asset-" + i)
+                            .setValue(kind, "kind-" + (i % 10))
+                            .setValue(views, (long) i);
+                    entries.add(new IndexEntry(application, start, start.plusNanos(i), 2, session, Collections.singletonList(document)));
+                    break;
+                default:
+                    entries.add(new GetEntry(application, start, start.plusNanos(i), 1, session, Collections.singletonList("asset-" + i), 1));
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public void toJson(Blackhole blackhole) {
+        for (MonitoringEntry entry : entries) {
+            blackhole.consume(entry.toJson());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public String bulkBodyFromStrings() {
+        final StringBuilder body = new StringBuilder();
+        for (MonitoringEntry entry : entries) {
+            body.append(BULK_INDEX_ACTION).append(entry.toJson()).append('\n');
+        }
+        return body.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public String bulkBodyStreamed() throws IOException {
+        final StringWriter body = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(body)) {
+            generator.setRootValueSeparator(null);
+            for (MonitoringEntry entry : entries) {
+                generator.writeRaw(BULK_INDEX_ACTION);
+                entry.writeJson(generator);
+                generator.writeRaw('\n');
+            }
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package com.rbmhtechnology.vind.benchmark;
+
+import com.rbmhtechnology.vind.annotations.AnnotationUtil;
+import com.rbmhtechnology.vind.annotations.Field;
+import com.rbmhtechnology.vind.annotations.Id;
+import com.rbmhtechnology.vind.annotations.PojoMapper;
+import com.rbmhtechnology.vind.annotations.Score;
+import com.rbmhtechnology.vind.annotations.Type;
+import com.rbmhtechnology.vind.annotations.MethodHandlePojoMapperProvider;
+import com.rbmhtechnology.vind.annotations.ReflectivePojoMapperProvider;
+import com.rbmhtechnology.vind.api.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the mapping of a page of annotated beans from and to {@link Document}s done by the
+ * {@link MethodHandlePojoMapperProvider} with the reflective {@link AnnotationUtil#createPojo(Document, Class)} and
+ * {@link AnnotationUtil#createDocument(Object)} implementation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PojoMappingBenchmark {
+
+    @Param({"methodHandle", "reflective"})
+    public String mapper;
+
+    @Param({"500"})
+    public int pageSize;
+
+    private PojoMapper<Asset> pojoMapper;
+    private List<Asset> beans;
+    private List<Document> documents;
+
+    @Setup
+    public void setup() {
+        switch (mapper) {
+            case "methodHandle":
+                pojoMapper = new MethodHandlePojoMapperProvider().createMapper(Asset.class);
+                break;
+            case "reflective":
+                pojoMapper = new ReflectivePojoMapperProvider().createMapper(Asset.class);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mapper " + mapper);
+        }
+
+        beans = new ArrayList<>(pageSize);
+        documents = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            final Asset asset = new Asset();
+            asset.id = "asset-" + i;
+            asset.title = "Title of asset " + i;
+            asset.description = "A longer description of the asset number " + i;
+            asset.kind = i % 2 == 0 ? "image" : "video";
+            asset.tags = new HashSet<>(Arrays.asList("tag" + (i % 7), "tag" + (i % 11), "tag" + (i % 13)));
+            asset.rating = i % 5;
+            asset.views = i * 1000L;
+            asset.language = i % 3 == 0 ? "en" : "de";
+            asset.created = ZonedDateTime.now().minusDays(i);
+            asset.modified = ZonedDateTime.now();
+            beans.add(asset);
+            documents.add(AnnotationUtil.createDocument(asset));
+        }
+    }
+
+    @Benchmark
+    public void toPojo(Blackhole blackhole) {
+        for (Document document : documents) {
+            blackhole.consume(pojoMapper.toPojo(document));
+        }
+    }
+
+    @Benchmark
+    public void toDocument(Blackhole blackhole) {
+        for (Asset bean : beans) {
+            blackhole.consume(pojoMapper.toDocument(bean));
+        }
+    }
+
+    @Type(name = "asset")
+    public static class Asset {
+        @Id
+        private String id;
+        @Score
+        private float score;
+        @Field
+        private String title;
+        @Field
+        private String description;
+        @Field
+        private String kind;
+        @Field
+        private HashSet<String> tags;
+        @Field
+        private int rating;
+        @Field
+        private long views;
+        @Field
+        private String language;
+        @Field
+        private ZonedDateTime created;
+        @Field
+        private ZonedDateTime modified;
+    }
+}
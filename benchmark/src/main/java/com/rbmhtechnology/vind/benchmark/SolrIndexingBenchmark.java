@@ -0,0 +1,112 @@
+package com.rbmhtechnology.vind.benchmark;
+
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.MultiValueFieldDescriptor;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import com.rbmhtechnology.vind.solr.backend.IndexingPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the indexing throughput, in documents per second, of bulk indexing {@value #DOCUMENTS} documents into the
+ * embedded Solr server, and of building their Solr input documents alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class SolrIndexingBenchmark {
+
+    public static final int DOCUMENTS = 100_000;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private SearchServer server;
+    private List<Document> documents;
+
+    @Setup
+    public void setup() {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+                .setFullText(true)
+                .setSuggest(true)
+                .buildTextField("title");
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> description = new FieldDescriptorBuilder<String>()
+                .setFullText(true)
+                .buildTextField("description");
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> kind = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildTextField("kind");
+        final MultiValueFieldDescriptor.TextFieldDescriptor<String> tags = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildMultivaluedTextField("tags");
+        final SingleValueFieldDescriptor.NumericFieldDescriptor<Long> views = new FieldDescriptorBuilder<Long>()
+                .setFacet(true)
+                .buildNumericField("views", Long.class);
+        final SingleValueFieldDescriptor.DateFieldDescriptor<ZonedDateTime> created = new FieldDescriptorBuilder<>()
+                .setFacet(true)
+                .buildDateField("created");
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset")
+                .addField(title, description, kind, tags, views, created)
+                .build();
+
+        final ZonedDateTime now = ZonedDateTime.now();
+        documents = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents.add(factory.createDoc("asset-" + i)
+                    .setValue(title, "Title of asset " + i)
+                    .setValue(description, "A longer description of the asset number " + i)
+                    .setValue(kind, i % 2 == 0 ? "image" : "video")
+                    .setValues(tags, "tag" + (i % 7), "tag" + (i % 11), "tag" + (i % 13))
+                    .setValue(views, i * 1000L)
+                    .setValue(created, now.minusMinutes(i)));
+        }
+
+        server = SearchServer.getInstance();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void bulkIndex() {
+        for (int from = 0; from < DOCUMENTS; from += batchSize) {
+            server.index(documents.subList(from, Math.min(from + batchSize, DOCUMENTS)));
+        }
+        server.commit();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void createInputDocuments(Blackhole blackhole) {
+        for (Document document : documents) {
+            blackhole.consume(IndexingPlan.createInputDocument(document));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.rbmhtechnology.vind.benchmark;
+
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.solr.backend.SolrUtils;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.rbmhtechnology.vind.model.FieldDescriptor.UseCase;
+
+/**
+ * Measures {@link SolrUtils.Result#buildResultList} decoding a page of Solr result documents with 40 dynamic fields
+ * each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolrResultDecodingBenchmark {
+
+    private static final int FIELDS = 40;
+
+    @Param({"1000"})
+    public int documents;
+
+    @Param({"", "ctx"})
+    public String searchContext;
+
+    private DocumentFactory factory;
+    private SolrDocumentList results;
+    private String context;
+
+    @Setup
+    public void setup() {
+        context = searchContext.isEmpty() ? null : searchContext;
+
+        final FieldDescriptorBuilder<?> builder = new FieldDescriptorBuilder<>();
+        final List<FieldDescriptor<?>> fields = new ArrayList<>();
+        for (int i = 0; i < FIELDS; i++) {
+            final FieldDescriptor<?> field;
+            switch (i % 4) {
+                case 0:
+                    field = builder.buildTextField("text" + i);
+                    break;
+                case 1:
+                    field = builder.buildMultivaluedTextField("tags" + i);
+                    break;
+                case 2:
+                    field = builder.buildNumericField("number" + i, Long.class);
+                    break;
+                default:
+                    field = builder.buildUtilDateField("date" + i);
+                    break;
+            }
+            field.setContextualized(context != null);
+            fields.add(field);
+        }
+        final DocumentFactoryBuilder factoryBuilder = new DocumentFactoryBuilder("asset");
+        fields.forEach(factoryBuilder::addField);
+        factory = factoryBuilder.build();
+
+        results = new SolrDocumentList();
+        for (int d = 0; d < documents; d++) {
+            final SolrDocument document = new SolrDocument();
+            document.setField(SolrUtils.Fieldname.ID, "asset-" + d);
+            document.setField(SolrUtils.Fieldname.TYPE, "asset");
+            document.setField(SolrUtils.Fieldname.SCORE, 1f);
+            for (int i = 0; i < FIELDS; i++) {
+                final FieldDescriptor<?> field = fields.get(i);
+                final String name = SolrUtils.Fieldname.getFieldname(field, UseCase.Stored, context);
+                switch (i % 4) {
+                    case 0:
+                        document.setField(name, "value " + d + " of field " + i);
+                        break;
+                    case 1:
+                        document.setField(name, new ArrayList<>(Arrays.asList("a" + d, "b" + i, "c")));
+                        break;
+                    case 2:
+                        document.setField(name, (long) d * i);
+                        break;
+                    default:
+                        document.setField(name, new Date(1500000000000L + d));
+                        break;
+                }
+            }
+            results.add(document);
+        }
+        results.setNumFound(documents);
+    }
+
+    @Benchmark
+    public List<Document> buildResultList() {
+        return SolrUtils.Result.buildResultList(results, null, factory, context);
+    }
+}
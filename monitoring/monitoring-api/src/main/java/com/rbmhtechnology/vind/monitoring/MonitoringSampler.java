@@ -0,0 +1,279 @@
+package com.rbmhtechnology.vind.monitoring;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.monitoring.model.session.Session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which operations of a {@link MonitoringSearchServer} are logged, before the monitoring entry is built.
+ * The strategies are applied in this order:
+ * <ul>
+ *     <li>slow operations and searches without results are always kept, if configured, bypassing the sampling;</li>
+ *     <li>per session sampling keeps all or none of the entries of a session, depending on a hash of the session id,
+ *     so sessions can still be analysed as a whole;</li>
+ *     <li>fixed probability sampling keeps each entry with the given probability;</li>
+ *     <li>a token bucket caps the number of entries per second, it applies to all the entries.</li>
+ * </ul>
+ * Independently of these, the raw backend query is only captured for a share of the logged search and suggestion
+ * entries, see {@link #sampleRawQuery()}.
+ * The defaults are read from the {@link SearchConfiguration} and keep every entry.
+ */
+public class MonitoringSampler {
+
+    private static final HashFunction SESSION_HASH = Hashing.murmur3_32();
+
+    private final LongSupplier clock;
+
+    private volatile double sampleRate = SearchConfiguration.get(SearchConfiguration.MONITORING_SAMPLE_RATE, 1.0);
+    private volatile double sessionSampleRate = SearchConfiguration.get(SearchConfiguration.MONITORING_SESSION_SAMPLE_RATE, 1.0);
+    private volatile long slowThreshold = SearchConfiguration.get(SearchConfiguration.MONITORING_SLOW_THRESHOLD, -1);
+    private volatile boolean keepZeroHits = SearchConfiguration.get(SearchConfiguration.MONITORING_KEEP_ZERO_HITS, false);
+    private volatile TokenBucket rateLimit;
+    private volatile double rawQuerySampleRate = SearchConfiguration.get(SearchConfiguration.MONITORING_RAW_QUERY_SAMPLE_RATE, 1.0);
+
+    private final LongAdder droppedBySampleRate = new LongAdder();
+    private final LongAdder droppedBySession = new LongAdder();
+    private final LongAdder droppedByRateLimit = new LongAdder();
+    private final LongAdder forced = new LongAdder();
+    private final LongAdder skippedRawQueries = new LongAdder();
+
+    public MonitoringSampler() {
+        this(System::nanoTime);
+    }
+
+    MonitoringSampler(LongSupplier clock) {
+        this.clock = clock;
+        setRateLimit(SearchConfiguration.get(SearchConfiguration.MONITORING_RATE_LIMIT, 0));
+    }
+
+    /**
+     * Decides whether an operation is logged.
+     * @param session session of the operation, may be null.
+     * @param duration time the operation took in ms.
+     * @param numOfResults number of results of a search, -1 for operations which are no searches.
+     * @return true if the monitoring entry should be logged.
+     */
+    public boolean sample(Session session, long duration, long numOfResults) {
+        final boolean slow = slowThreshold >= 0 && duration >= slowThreshold;
+        final boolean zeroHits = keepZeroHits && numOfResults == 0;
+        if (slow || zeroHits) {
+            forced.increment();
+        } else if (!isSessionSampled(session)) {
+            droppedBySession.increment();
+            return false;
+        } else if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            droppedBySampleRate.increment();
+            return false;
+        }
+
+        final TokenBucket bucket = rateLimit;
+        if (bucket != null && !bucket.tryAcquire(clock.getAsLong())) {
+            droppedByRateLimit.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decides whether the raw backend query of a logged entry is captured, rendering it is not for free.
+     * @return true if the raw query should be added to the monitoring entry.
+     */
+    public boolean sampleRawQuery() {
+        final double rate = rawQuerySampleRate;
+        if (rate >= 1) {
+            return true;
+        }
+        if (rate <= 0 || ThreadLocalRandom.current().nextDouble() >= rate) {
+            skippedRawQueries.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isSessionSampled(Session session) {
+        if (sessionSampleRate >= 1 || session == null || session.getSessionId() == null) {
+            return true;
+        }
+        final int hash = SESSION_HASH.hashString(session.getSessionId(), StandardCharsets.UTF_8).asInt();
+        return (hash & 0xffffffffL) < sessionSampleRate * (1L << 32);
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @param sampleRate probability between 0 and 1 to keep an entry.
+     * @return this sampler.
+     */
+    public MonitoringSampler setSampleRate(double sampleRate) {
+        this.sampleRate = checkRate(sampleRate);
+        return this;
+    }
+
+    public double getSessionSampleRate() {
+        return sessionSampleRate;
+    }
+
+    /**
+     * @param sessionSampleRate share of sessions between 0 and 1 whose entries are kept. Entries without a session
+     *                          are not affected.
+     * @return this sampler.
+     */
+    public MonitoringSampler setSessionSampleRate(double sessionSampleRate) {
+        this.sessionSampleRate = checkRate(sessionSampleRate);
+        return this;
+    }
+
+    public long getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    /**
+     * @param slowThreshold duration in ms from which on an operation is always logged, a negative value disables it.
+     * @return this sampler.
+     */
+    public MonitoringSampler setSlowThreshold(long slowThreshold) {
+        this.slowThreshold = slowThreshold;
+        return this;
+    }
+
+    public boolean isKeepZeroHits() {
+        return keepZeroHits;
+    }
+
+    /**
+     * @param keepZeroHits whether searches without results are always logged.
+     * @return this sampler.
+     */
+    public MonitoringSampler setKeepZeroHits(boolean keepZeroHits) {
+        this.keepZeroHits = keepZeroHits;
+        return this;
+    }
+
+    public int getRateLimit() {
+        final TokenBucket bucket = rateLimit;
+        return bucket != null ? bucket.rate : 0;
+    }
+
+    /**
+     * @param rateLimit maximum number of entries per second, bursts of up to one second are allowed. 0 disables the
+     *                  limit.
+     * @return this sampler.
+     */
+    public MonitoringSampler setRateLimit(int rateLimit) {
+        if (rateLimit < 0) {
+            throw new IllegalArgumentException("Invalid monitoring rate limit: " + rateLimit);
+        }
+        this.rateLimit = rateLimit > 0 ? new TokenBucket(rateLimit, clock.getAsLong()) : null;
+        return this;
+    }
+
+    public double getRawQuerySampleRate() {
+        return rawQuerySampleRate;
+    }
+
+    /**
+     * @param rawQuerySampleRate probability between 0 (never captured) and 1 (always captured) to capture the raw
+     *                           backend query of a logged search or suggestion entry.
+     * @return this sampler.
+     */
+    public MonitoringSampler setRawQuerySampleRate(double rawQuerySampleRate) {
+        this.rawQuerySampleRate = checkRate(rawQuerySampleRate);
+        return this;
+    }
+
+    /**
+     * @return number of entries dropped by the fixed probability sampling.
+     */
+    public long getDroppedBySampleRate() {
+        return droppedBySampleRate.sum();
+    }
+
+    /**
+     * @return number of entries dropped because their session is not sampled.
+     */
+    public long getDroppedBySession() {
+        return droppedBySession.sum();
+    }
+
+    /**
+     * @return number of entries dropped because the rate limit was exceeded.
+     */
+    public long getDroppedByRateLimit() {
+        return droppedByRateLimit.sum();
+    }
+
+    /**
+     * @return number of slow or zero hit entries which bypassed the sampling.
+     */
+    public long getForcedCount() {
+        return forced.sum();
+    }
+
+    /**
+     * @return number of logged entries whose raw query was not captured.
+     */
+    public long getSkippedRawQueries() {
+        return skippedRawQueries.sum();
+    }
+
+    private static double checkRate(double rate) {
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Invalid monitoring sample rate: " + rate);
+        }
+        return rate;
+    }
+
+    @Override
+    public String toString() {
+        return "MonitoringSampler{" +
+                "sampleRate=" + sampleRate +
+                ", sessionSampleRate=" + sessionSampleRate +
+                ", slowThreshold=" + slowThreshold +
+                ", keepZeroHits=" + keepZeroHits +
+                ", rateLimit=" + getRateLimit() +
+                ", rawQuerySampleRate=" + rawQuerySampleRate +
+                '}';
+    }
+
+    /**
+     * Lock-free token bucket holding up to one second of tokens. Instead of counting tokens it keeps the time at
+     * which the bucket would be full again (generic cell rate algorithm), so taking a token is a single CAS.
+     */
+    private static final class TokenBucket {
+
+        private final int rate;
+        private final long interval;
+        private final long capacity;
+        private final AtomicLong full;
+
+        private TokenBucket(int rate, long now) {
+            this.rate = rate;
+            this.interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            this.capacity = interval * rate;
+            this.full = new AtomicLong(now);
+        }
+
+        private boolean tryAcquire(long now) {
+            while (true) {
+                final long current = full.get();
+                final long next = Math.max(current, now) + interval;
+                if (next - now > capacity) {
+                    return false;
+                }
+                if (full.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.rbmhtechnology.vind.monitoring;
 
 import com.rbmhtechnology.vind.annotations.AnnotationUtil;
 import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.DocumentExport;
 import com.rbmhtechnology.vind.api.SearchServer;
 import com.rbmhtechnology.vind.api.ServiceProvider;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
@@ -23,11 +24,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Thomas Kurz (tkurz@apache.org)
@@ -47,6 +51,7 @@ public class MonitoringSearchServer extends SearchServer {
     private HashMap<String, Object> monitoringMetadata = new HashMap<>();
 
     private boolean silent = false;
+    private MonitoringSampler sampler = new MonitoringSampler();
 
     private final MonitoringWriter logger;
 
@@ -124,6 +129,9 @@ public class MonitoringSearchServer extends SearchServer {
                 start.getHour(),start.getMinute(),start.getSecond(),start.getDayOfMonth(),start.getMonth(),start.getYear());
         final IndexResult result =  server.index(docs);
         final ZonedDateTime end = ZonedDateTime.now();
+        if (!sample(session, start, end, -1)) {
+            return result;
+        }
         try {
             final IndexEntry entry =
                     new IndexEntry( application, start, end, result.getQueryTime(), result.getElapsedTime(), session, docs);
@@ -137,7 +145,7 @@ public class MonitoringSearchServer extends SearchServer {
             }
         }
 
-        return server.index(docs);
+        return result;
     }
 
     @Override
@@ -151,6 +159,9 @@ public class MonitoringSearchServer extends SearchServer {
                 start.getHour(),start.getMinute(),start.getSecond(),start.getDayOfMonth(),start.getMonth(),start.getYear());
         final Boolean result =  server.execute(update, factory);
         final ZonedDateTime end = ZonedDateTime.now();
+        if (!sample(session, start, end, -1)) {
+            return result;
+        }
 
         try {
             final UpdateEntry entry =
@@ -167,6 +178,38 @@ public class MonitoringSearchServer extends SearchServer {
         return result;
     }
 
+    @Override
+    public UpdateResult execute(List<Update> updates, DocumentFactory factory) {
+        return execute(updates, factory, this.session);
+    }
+
+    public UpdateResult execute(List<Update> updates, DocumentFactory factory, Session session) {
+        final ZonedDateTime start = ZonedDateTime.now();
+        log.debug("Monitoring server is updating {} documents at {}:{}:{} - {}.{}.{} ", updates.size(),
+                start.getHour(),start.getMinute(),start.getSecond(),start.getDayOfMonth(),start.getMonth(),start.getYear());
+        final UpdateResult result = server.execute(updates, factory);
+        final ZonedDateTime end = ZonedDateTime.now();
+        if (!sample(session, start, end, -1)) {
+            return result;
+        }
+
+        try {
+            log.debug("Monitoring is adding {} Update entries", updates.size());
+            for (Update update : updates) {
+                final UpdateEntry entry =
+                        new UpdateEntry( application, start, end, session, update, result.isUpdated(update.getId()));
+                entry.setMetadata(this.monitoringMetadata);
+                logger.log(entry);
+            }
+        } catch (Exception e) {
+            log.error("Update monitoring error: {}", e.getMessage(), e);
+            if (!silent) {
+                throw e;
+            }
+        }
+        return result;
+    }
+
     @Override
     public DeleteResult execute(Delete delete, DocumentFactory factory) {
         return execute(delete,factory,this.session);
@@ -220,9 +263,13 @@ public class MonitoringSearchServer extends SearchServer {
                 start.getHour(),start.getMinute(),start.getSecond(),start.getDayOfMonth(),start.getMonth(),start.getYear());
         final BeanSearchResult<T> result = server.execute(search, c);
         final ZonedDateTime end = ZonedDateTime.now();
+        if (!sample(session, start, end, result.getNumOfResults())) {
+            return result;
+        }
         try {
             final FullTextEntry entry =
-                    new FullTextEntry(this.server, AnnotationUtil.createDocumentFactory(c), application, search, result, start, end, result.getQueryTime(), result.getElapsedTime(), session);
+                    new FullTextEntry(application, search, captureRawQuery(result::getRawQuery, () -> server.getRawQuery(search, c)),
+                            result.getNumOfResults(), start, end, result.getQueryTime(), result.getElapsedTime(), session);
             entry.setMetadata(this.monitoringMetadata);
             log.debug("Monitoring is adding a FulltextSearch entry");
             logger.log(entry);
@@ -245,9 +292,13 @@ public class MonitoringSearchServer extends SearchServer {
                 start.getHour(),start.getMinute(),start.getSecond(),start.getDayOfMonth(),start.getMonth(),start.getYear());
         final BeanSearchResult<T> result = server.execute(search, c);
         final ZonedDateTime end = ZonedDateTime.now();
+        if (!sample(session, start, end, result.getNumOfResults())) {
+            return result;
+        }
         try {
             final FullTextEntry entry =
-                    new FullTextEntry(this.server, AnnotationUtil.createDocumentFactory(c), application, search, result, start, end, result.getQueryTime(), result.getElapsedTime(), session);
+                    new FullTextEntry(application, search, captureRawQuery(result::getRawQuery, () -> server.getRawQuery(search, c)),
+                            result.getNumOfResults(), start, end, result.getQueryTime(), result.getElapsedTime(), session);
             final HashMap<String, Object> mergedMetadata = new HashMap<>();
             mergedMetadata.putAll(this.monitoringMetadata);
             mergedMetadata.putAll(metadata);
@@ -268,15 +319,24 @@ public class MonitoringSearchServer extends SearchServer {
         return execute(search,factory,this.session);
     }
 
+    @Override
+    public DocumentExport export(FulltextSearch search, DocumentFactory factory) {
+        return server.export(search, factory);
+    }
+
     public SearchResult execute(FulltextSearch search, DocumentFactory factory, Session session) {
         final ZonedDateTime start = ZonedDateTime.now();
         log.debug("Monitoring server is executing FulltextSearch at {}:{}:{} - {}.{}.{} ",
                 start.getHour(),start.getMinute(),start.getSecond(),start.getDayOfMonth(),start.getMonth(),start.getYear());
         final SearchResult result = server.execute(search, factory);
         final ZonedDateTime end = ZonedDateTime.now();
+        if (!sample(session, start, end, result.getNumOfResults())) {
+            return result;
+        }
 
         try {
-            final FullTextEntry entry = new FullTextEntry(this.server, factory, application, search, result, start, end, result.getQueryTime(), result.getElapsedTime(), session);
+            final FullTextEntry entry = new FullTextEntry(application, search, captureRawQuery(result::getRawQuery, () -> server.getRawQuery(search, factory)),
+                    result.getNumOfResults(), start, end, result.getQueryTime(), result.getElapsedTime(), session);
             entry.setMetadata(this.monitoringMetadata);
             log.debug("Monitoring is adding a FulltextSearch entry");
             logger.log(entry);
@@ -299,8 +359,12 @@ public class MonitoringSearchServer extends SearchServer {
                 start.getHour(),start.getMinute(),start.getSecond(),start.getDayOfMonth(),start.getMonth(),start.getYear());
         final SearchResult result = server.execute(search, factory);
         final ZonedDateTime end = ZonedDateTime.now();
+        if (!sample(session, start, end, result.getNumOfResults())) {
+            return result;
+        }
         try {
-            final FullTextEntry entry = new FullTextEntry(this.server, factory, application, search, result, start, end, result.getQueryTime(), result.getElapsedTime(), session);
+            final FullTextEntry entry = new FullTextEntry(application, search, captureRawQuery(result::getRawQuery, () -> server.getRawQuery(search, factory)),
+                    result.getNumOfResults(), start, end, result.getQueryTime(), result.getElapsedTime(), session);
 
             final HashMap<String, Object> mergedMetadata = new HashMap<>();
             mergedMetadata.putAll(this.monitoringMetadata);
@@ -341,7 +405,7 @@ public class MonitoringSearchServer extends SearchServer {
         final SuggestionResult result = server.execute(search, c);
         final ZonedDateTime end = ZonedDateTime.now();
 
-        addSuggestionMonitoringEntry(search, AnnotationUtil.createDocumentFactory(c), session, start, result, end);
+        addSuggestionMonitoringEntry(search, AnnotationUtil.getDocumentFactory(c), session, start, result, end);
         return result;
     }
 
@@ -355,7 +419,7 @@ public class MonitoringSearchServer extends SearchServer {
                 start.getHour(),start.getMinute(),start.getSecond(),start.getDayOfMonth(),start.getMonth(),start.getYear());
         final SuggestionResult result = server.execute(search, c);
         final ZonedDateTime end = ZonedDateTime.now();
-        addSuggestionMonitoringEntry(search, AnnotationUtil.createDocumentFactory(c), session, metadata, start, result, end);
+        addSuggestionMonitoringEntry(search, AnnotationUtil.getDocumentFactory(c), session, metadata, start, result, end);
         return result;
     }
 
@@ -485,6 +549,12 @@ public class MonitoringSearchServer extends SearchServer {
         return result;
     }
 
+    @Override
+    public Stream<InverseSearchResult> stream(InverseSearch inverseSearch, DocumentFactory factory) {
+        // the backend percolates the documents once for all the pages
+        return server.stream(inverseSearch, factory);
+    }
+
     private void addInverseSearchMonitoringEntry(InverseSearch inverseSearch, ZonedDateTime start, ZonedDateTime end, Long queryTime, Long elapsedTime, long numOfResults, Session session) {
         //TODO:
     }
@@ -506,6 +576,9 @@ public class MonitoringSearchServer extends SearchServer {
     }
 
     private void addIndexInverseSearchQueryMonitoringEntry(InverseSearchQuery query, ZonedDateTime start, ZonedDateTime end, Long queryTime, Long elapsedTime, Session session) {
+        if (!sample(session, start, end, -1)) {
+            return;
+        }
         try {
             final InverseSearchQueryEntry entry =
                     new InverseSearchQueryEntry( application, start, end, queryTime, elapsedTime, session, query);
@@ -527,7 +600,11 @@ public class MonitoringSearchServer extends SearchServer {
 
     @Override
     public void close() {
-        server.close();
+        try {
+            server.close();
+        } finally {
+            logger.close();
+        }
     }
 
     @Override
@@ -541,6 +618,9 @@ public class MonitoringSearchServer extends SearchServer {
     }
 
     private void addDeleteMonitoringEntry(Session session, ZonedDateTime start, DeleteResult result, ZonedDateTime end) {
+        if (!sample(session, start, end, -1)) {
+            return;
+        }
         try {
             final DeleteEntry entry =
                     new DeleteEntry(application, start, end, result.getQueryTime(), result.getElapsedTime(), session);
@@ -556,8 +636,12 @@ public class MonitoringSearchServer extends SearchServer {
     }
 
     private void addSuggestionMonitoringEntry(ExecutableSuggestionSearch search, DocumentFactory factory, Session session, ZonedDateTime start, SuggestionResult result, ZonedDateTime end) {
+        if (!sample(session, start, end, result.size())) {
+            return;
+        }
         try {
-            final SuggestionEntry entry = new SuggestionEntry(this.server, factory, application, search, result, start, end, result.getQueryTime(), result.getElapsedTime(), session);
+            final SuggestionEntry entry = new SuggestionEntry(application, search, captureRawQuery(result::getRawQuery, () -> server.getRawQuery(search, factory)),
+                    result, start, end, result.getQueryTime(), result.getElapsedTime(), session);
             entry.setMetadata(this.monitoringMetadata);
             log.debug("Monitoring is adding a Suggestion entry");
             logger.log(entry);
@@ -570,8 +654,12 @@ public class MonitoringSearchServer extends SearchServer {
     }
 
     private void addSuggestionMonitoringEntry(ExecutableSuggestionSearch search, DocumentFactory factory, Session session, HashMap<String, Object> metadata, ZonedDateTime start, SuggestionResult result, ZonedDateTime end) {
+        if (!sample(session, start, end, result.size())) {
+            return;
+        }
         try {
-            final SuggestionEntry entry = new SuggestionEntry(this.server, factory, application, search, result, start, end, result.getQueryTime(), result.getElapsedTime(), session);
+            final SuggestionEntry entry = new SuggestionEntry(application, search, captureRawQuery(result::getRawQuery, () -> server.getRawQuery(search, factory)),
+                    result, start, end, result.getQueryTime(), result.getElapsedTime(), session);
             // Adding execution metadata to server metadata
             final HashMap<String, Object> mergedMetadata = new HashMap<>();
             mergedMetadata.putAll(this.monitoringMetadata);
@@ -587,7 +675,23 @@ public class MonitoringSearchServer extends SearchServer {
         }
     }
 
+    private boolean sample(Session session, ZonedDateTime start, ZonedDateTime end, long numOfResults) {
+        return sampler.sample(session, start.until(end, ChronoUnit.MILLIS), numOfResults);
+    }
+
+    private String captureRawQuery(Supplier<String> executed, Supplier<String> rebuilt) {
+        if (!sampler.sampleRawQuery()) {
+            return null;
+        }
+        // backends hand over the query they have sent, only build it again for backends which do not
+        final String rawQuery = executed.get();
+        return rawQuery != null ? rawQuery : rebuilt.get();
+    }
+
     private <T> void addRealTimeGetMonitoringEntry(RealTimeGet search, ZonedDateTime start, ZonedDateTime end, long queryTime, long elapsedTime, long numOfResults, Session session) {
+        if (!sample(session, start, end, -1)) {
+            return;
+        }
         try {
             final GetEntry entry = new GetEntry(application, start, end, queryTime, elapsedTime, session, search.getValues(), numOfResults);
             entry.setMetadata(this.monitoringMetadata);
@@ -619,4 +723,35 @@ public class MonitoringSearchServer extends SearchServer {
         this.silent = silent;
         return this;
     }
+
+    public MonitoringSampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Sets the sampler deciding which operations are logged, by default it is configured by the {@link SearchConfiguration}.
+     * @param sampler {@link MonitoringSampler} to use.
+     * @return this server.
+     */
+    public MonitoringSearchServer setSampler(MonitoringSampler sampler) {
+        this.sampler = Objects.requireNonNull(sampler);
+        return this;
+    }
+
+    public double getRawQuerySampleRate() {
+        return sampler.getRawQuerySampleRate();
+    }
+
+    /**
+     * Sets the share of search and suggestion entries which get the raw backend query on the current sampler, see
+     * {@link MonitoringSampler#setRawQuerySampleRate(double)}. Defaults to
+     * {@link SearchConfiguration#MONITORING_RAW_QUERY_SAMPLE_RATE}.
+     * @param rawQuerySampleRate a number between 0 (never captured) and 1 (always captured).
+     * @return this server.
+     * @throws IllegalArgumentException if the rate is not between 0 and 1.
+     */
+    public MonitoringSearchServer setRawQuerySampleRate(double rawQuerySampleRate) {
+        sampler.setRawQuerySampleRate(rawQuerySampleRate);
+        return this;
+    }
 }
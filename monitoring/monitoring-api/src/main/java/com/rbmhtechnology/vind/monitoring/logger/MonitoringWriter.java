@@ -28,4 +28,10 @@ public abstract class MonitoringWriter { //TODO could be an interface
     }
 
     public abstract void log(MonitoringEntry log);
+
+    /**
+     * Releases the resources of the writer. Writers buffering entries write the pending ones before returning.
+     */
+    public void close() {
+    }
 }
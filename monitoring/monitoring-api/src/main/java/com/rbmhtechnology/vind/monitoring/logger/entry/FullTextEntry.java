@@ -38,49 +38,48 @@ public class FullTextEntry extends MonitoringEntry {
     }
 
     public FullTextEntry(SearchServer server, DocumentFactory factory, Application application, FulltextSearch search, SearchResult result, ZonedDateTime start, ZonedDateTime end, long queryTime, Session session) {
-        this.application = application;
-        this.session = session;
-        this.timeStamp = start;
-        this.request = new FullTextRequest(search.copy(), server.getRawQuery(search,factory));
-        this.response = new Response(result.getNumOfResults(), queryTime, start.until(end, ChronoUnit.MILLIS));
-        this.sorting = search.getSorting();
-        this.paging = new Paging(search.getResultSet());
+        this(server, factory, application, search, result, start, end, queryTime, 0, session);
     }
 
     public FullTextEntry(SearchServer server, DocumentFactory factory, Application application, FulltextSearch search, BeanSearchResult result, ZonedDateTime start, ZonedDateTime end, long queryTime, Session session) {
-        this.application = application;
-        this.session = session;
-        this.timeStamp = start;
-
-        this.request = new FullTextRequest(search.copy(), server.getRawQuery(search,factory));
-        this.response = new Response(result.getNumOfResults(), queryTime, start.until(end, ChronoUnit.MILLIS));
-        this.sorting = search.getSorting();
-        this.paging = new Paging(search.getResultSet());
+        this(server, factory, application, search, result, start, end, queryTime, 0, session);
     }
 
     public FullTextEntry(SearchServer server, DocumentFactory factory, Application application, FulltextSearch search, SearchResult result, ZonedDateTime start, ZonedDateTime end, long queryTime, long elapsedTime, Session session) {
-        this.application = application;
-        this.session = session;
-        this.timeStamp = start;
-        this.request = new FullTextRequest(search.copy(), server.getRawQuery(search,factory));
-        this.response = new Response(result.getNumOfResults(), queryTime, start.until(end, ChronoUnit.MILLIS));
-        this.response.setElapsedTime(elapsedTime);
-        this.sorting = search.getSorting();
-        this.paging = new Paging(search.getResultSet());
+        this(application, search, getRawQuery(server, factory, search, result.getRawQuery()), result.getNumOfResults(), start, end, queryTime, elapsedTime, session);
     }
 
     public FullTextEntry(SearchServer server, DocumentFactory factory, Application application, FulltextSearch search, BeanSearchResult result, ZonedDateTime start, ZonedDateTime end, long queryTime, long elapsedTime, Session session) {
+        this(application, search, getRawQuery(server, factory, search, result.getRawQuery()), result.getNumOfResults(), start, end, queryTime, elapsedTime, session);
+    }
+
+    /**
+     * Creates an entry of an executed search.
+     * @param application the monitored application.
+     * @param search the executed search, it is copied.
+     * @param rawQuery the query sent to the backend, may be null if it has not been captured.
+     * @param numOfResults number of documents found.
+     * @param start time the search started.
+     * @param end time the search ended.
+     * @param queryTime time the query took in the backend.
+     * @param elapsedTime time the query took including reading and building the result.
+     * @param session the session of the user.
+     */
+    public FullTextEntry(Application application, FulltextSearch search, String rawQuery, long numOfResults, ZonedDateTime start, ZonedDateTime end, long queryTime, long elapsedTime, Session session) {
         this.application = application;
         this.session = session;
         this.timeStamp = start;
-
-        this.request = new FullTextRequest(search.copy(), server.getRawQuery(search,factory));
-        this.response = new Response(result.getNumOfResults(), queryTime, start.until(end, ChronoUnit.MILLIS));
+        this.request = new FullTextRequest(search.copy(), rawQuery);
+        this.response = new Response(numOfResults, queryTime, start.until(end, ChronoUnit.MILLIS));
         this.response.setElapsedTime(elapsedTime);
         this.sorting = search.getSorting();
         this.paging = new Paging(search.getResultSet());
     }
 
+    private static String getRawQuery(SearchServer server, DocumentFactory factory, FulltextSearch search, String rawQuery) {
+        return rawQuery != null ? rawQuery : server.getRawQuery(search, factory);
+    }
+
     @Override
     public Application getApplication() {
         return application;
@@ -3,7 +3,6 @@
  */
 package com.rbmhtechnology.vind.monitoring.logger.entry;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rbmhtechnology.vind.monitoring.model.application.Application;
 import com.rbmhtechnology.vind.monitoring.model.session.Session;
 import com.rbmhtechnology.vind.monitoring.model.interaction.Interaction;
@@ -15,8 +14,6 @@ import java.time.ZonedDateTime;
  */
 public class InteractionEntry extends MonitoringEntry {
 
-    private ObjectMapper mapper = MonitoringEntry.getMapper();
-
     final private EntryType type = EntryType.interaction;
     private Application application;
     private Session session;
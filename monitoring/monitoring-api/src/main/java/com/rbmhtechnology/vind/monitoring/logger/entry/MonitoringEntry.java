@@ -7,6 +7,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
@@ -28,6 +29,8 @@ import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Created on 03.10.17.
@@ -35,7 +38,8 @@ import java.util.Objects;
 
 public abstract class MonitoringEntry {
 
-
+    private static final ObjectMapper MAPPER = getMapper();
+    private static final ConcurrentMap<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
 
     public HashMap<String,Object> metadata = new HashMap<>();
 
@@ -64,12 +68,36 @@ public abstract class MonitoringEntry {
 
     public String toJson(){
         try {
-            return MonitoringEntry.getMapper().writeValueAsString(this);
+            return getWriter(getClass()).writeValueAsString(this);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Writes the entry as JSON object to a generator, e.g. straight into the body of a bulk request.
+     * @param generator {@link JsonGenerator} to write to, it is neither flushed nor closed.
+     * @throws IOException if the entry cannot be serialized or written.
+     */
+    public void writeJson(JsonGenerator generator) throws IOException {
+        getWriter(getClass()).writeValue(generator, this);
+    }
+
+    /**
+     * Gets the shared writer for a type of entries. Writers are immutable and thread safe, and cache the serializers
+     * of their type, so entries should always be serialized through them.
+     * @param type class of the entries.
+     * @return the {@link ObjectWriter} for entries of the type.
+     */
+    public static ObjectWriter getWriter(Class<? extends MonitoringEntry> type) {
+        return WRITERS.computeIfAbsent(type, t -> MAPPER.writerFor(t).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+    }
+
+    /**
+     * Creates a new mapper configured for monitoring entries. Building a mapper is expensive, use
+     * {@link #getWriter(Class)} to serialize entries.
+     * @return a new {@link ObjectMapper}.
+     */
     protected static ObjectMapper getMapper(){
         final ObjectMapper objectMapper = new ObjectMapper()
                 .configure(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS, false)
@@ -34,24 +34,38 @@ public class SuggestionEntry extends MonitoringEntry {
     public SuggestionEntry(SearchServer server, DocumentFactory factory,
            Application application, ExecutableSuggestionSearch search, SuggestionResult result, ZonedDateTime start,
            ZonedDateTime end, long queryTime, Session session) {
-        this.application = application;
-        this.session = session;
-        this.timeStamp = start;
-        //TODO add copy to suggestion search
-        this.request = new SuggestionRequest(search/*.copy()*/,server.getRawQuery(search, factory));
-        this.response = new Response(result.size(), queryTime, start.until(end, ChronoUnit.MILLIS), result.getSuggestedFields().size());
+        this(server, factory, application, search, result, start, end, queryTime, 0, session);
     }
 
     public SuggestionEntry(SearchServer server, DocumentFactory factory,
                            Application application, ExecutableSuggestionSearch search, SuggestionResult result, ZonedDateTime start,
                            ZonedDateTime end, long queryTime, long elpasedTime, Session session) {
+        this(application, search, result.getRawQuery() != null ? result.getRawQuery() : server.getRawQuery(search, factory),
+                result, start, end, queryTime, elpasedTime, session);
+    }
+
+    /**
+     * Creates an entry of an executed suggestion search.
+     * @param application the monitored application.
+     * @param search the executed suggestion search.
+     * @param rawQuery the query sent to the backend, may be null if it has not been captured.
+     * @param result the suggestions found.
+     * @param start time the search started.
+     * @param end time the search ended.
+     * @param queryTime time the query took in the backend.
+     * @param elapsedTime time the query took including reading and building the result.
+     * @param session the session of the user.
+     */
+    public SuggestionEntry(Application application, ExecutableSuggestionSearch search, String rawQuery,
+                           SuggestionResult result, ZonedDateTime start, ZonedDateTime end, long queryTime,
+                           long elapsedTime, Session session) {
         this.application = application;
         this.session = session;
         this.timeStamp = start;
         //TODO add copy to suggestion search
-        this.request = new SuggestionRequest(search/*.copy()*/,server.getRawQuery(search, factory));
+        this.request = new SuggestionRequest(search/*.copy()*/, rawQuery);
         this.response = new Response(result.size(), queryTime, start.until(end, ChronoUnit.MILLIS), result.getSuggestedFields().size());
-        this.response.setElapsedTime(elpasedTime);
+        this.response.setElapsedTime(elapsedTime);
     }
 
     @Override
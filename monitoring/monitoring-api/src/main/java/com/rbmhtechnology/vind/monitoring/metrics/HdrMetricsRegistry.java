@@ -0,0 +1,104 @@
+package com.rbmhtechnology.vind.monitoring.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MetricsRegistry} keeping a {@link Histogram} per metric name and tags in memory. Durations are recorded in
+ * nanoseconds with three significant digits; the histograms grow as needed, recording is wait-free.
+ *
+ * HdrHistogram is an optional dependency of the monitoring api, applications using this registry have to declare it.
+ */
+public class HdrMetricsRegistry implements MetricsRegistry {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ConcurrentMap<MetricId, HdrTimer> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public Timer timer(String name, String... tags) {
+        return timers.computeIfAbsent(new MetricId(name, tags), id -> new HdrTimer());
+    }
+
+    /**
+     * @param name name of the metric.
+     * @param tags tag keys and values, alternating, in the order they have been recorded with.
+     * @return a copy of the histogram of the metric in nanoseconds, null if nothing has been recorded.
+     */
+    public Histogram getHistogram(String name, String... tags) {
+        final HdrTimer timer = timers.get(new MetricId(name, tags));
+        return timer != null ? timer.histogram.copy() : null;
+    }
+
+    /**
+     * @return copies of all the histograms in nanoseconds, by metric id, e.g.
+     * {@code vind.search{backend=SolrSearchServer,type=Asset,outcome=success}}.
+     */
+    public Map<String, Histogram> getHistograms() {
+        final Map<String, Histogram> histograms = new TreeMap<>();
+        timers.forEach((id, timer) -> histograms.put(id.toString(), timer.histogram.copy()));
+        return histograms;
+    }
+
+    /**
+     * Clears all the histograms, e.g. to start a new reporting interval.
+     */
+    public void reset() {
+        timers.values().forEach(timer -> timer.histogram.reset());
+    }
+
+    private static final class HdrTimer implements Timer {
+
+        private final Histogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+        @Override
+        public void record(long amount, TimeUnit unit) {
+            histogram.recordValue(Math.max(0, unit.toNanos(amount)));
+        }
+    }
+
+    private static final class MetricId {
+
+        private final String name;
+        private final String[] tags;
+        private final int hash;
+
+        private MetricId(String name, String[] tags) {
+            if (tags.length % 2 != 0) {
+                throw new IllegalArgumentException("Tags of metric " + name + " are no key value pairs: " + Arrays.toString(tags));
+            }
+            this.name = name;
+            this.tags = tags;
+            this.hash = 31 * name.hashCode() + Arrays.hashCode(tags);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final MetricId that = (MetricId) o;
+            return name.equals(that.name) && Arrays.equals(tags, that.tags);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder id = new StringBuilder(name).append('{');
+            for (int i = 0; i < tags.length; i += 2) {
+                id.append(i > 0 ? "," : "").append(tags[i]).append('=').append(tags[i + 1]);
+            }
+            return id.append('}').toString();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.rbmhtechnology.vind.monitoring.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry the {@link MetricsSearchServer} records its latencies to. The interface follows the shape of the
+ * Micrometer {@code MeterRegistry}, so it can be bridged without vind depending on it:
+ * <pre>
+ *     MetricsRegistry registry = (name, tags) -&gt; meterRegistry.timer(name, tags)::record;
+ * </pre>
+ * {@link HdrMetricsRegistry} keeps HDR histograms in memory, it needs the optional {@code org.hdrhistogram:HdrHistogram}
+ * dependency.
+ */
+@FunctionalInterface
+public interface MetricsRegistry {
+
+    /**
+     * Gets the timer of a metric, implementations should return the same timer for the same name and tags.
+     * @param name name of the metric.
+     * @param tags tag keys and values, alternating.
+     * @return the {@link Timer} to record the metric to.
+     */
+    Timer timer(String name, String... tags);
+
+    /**
+     * Records the duration of a timed operation.
+     */
+    @FunctionalInterface
+    interface Timer {
+
+        void record(long amount, TimeUnit unit);
+    }
+}
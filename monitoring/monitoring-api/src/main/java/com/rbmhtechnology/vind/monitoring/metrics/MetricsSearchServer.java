@@ -0,0 +1,330 @@
+package com.rbmhtechnology.vind.monitoring.metrics;
+
+import com.rbmhtechnology.vind.annotations.AnnotationUtil;
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.api.ServiceProvider;
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.delete.Delete;
+import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
+import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearch;
+import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
+import com.rbmhtechnology.vind.api.query.update.Update;
+import com.rbmhtechnology.vind.api.result.BeanGetResult;
+import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.ClientTimings;
+import com.rbmhtechnology.vind.api.result.DeleteResult;
+import com.rbmhtechnology.vind.api.result.GetResult;
+import com.rbmhtechnology.vind.api.result.IndexResult;
+import com.rbmhtechnology.vind.api.result.InverseSearchResult;
+import com.rbmhtechnology.vind.api.result.SearchResult;
+import com.rbmhtechnology.vind.api.result.StatusResult;
+import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.api.result.UpdateResult;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.InverseSearchQuery;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link SearchServer} decorator recording the latency of every operation of the decorated server in nanoseconds to
+ * a {@link MetricsRegistry}. The timers are named after the operation, see the constants, and tagged with the
+ * {@link #TAG_BACKEND backend}, the {@link #TAG_TYPE document type} and the {@link #TAG_OUTCOME outcome}.
+ *
+ * If the backend measures the client side phases of searches and suggestions (see {@link ClientTimings}), they are
+ * recorded as well, to the timers of the operation suffixed by {@code .build}, {@code .network} and {@code .parse}.
+ * Exports and inverse search streams are recorded page by page, a stream of the decorated server percolates its
+ * documents once.
+ */
+public class MetricsSearchServer extends SearchServer {
+
+    public static final String INDEX = "vind.index";
+    public static final String SEARCH = "vind.search";
+    public static final String SUGGEST = "vind.suggest";
+    public static final String GET = "vind.get";
+    public static final String UPDATE = "vind.update";
+    public static final String DELETE = "vind.delete";
+    public static final String INVERSE_SEARCH = "vind.inverse.search";
+
+    public static final String BUILD_PHASE = ".build";
+    public static final String NETWORK_PHASE = ".network";
+    public static final String PARSE_PHASE = ".parse";
+
+    public static final String TAG_BACKEND = "backend";
+    public static final String TAG_TYPE = "type";
+    public static final String TAG_OUTCOME = "outcome";
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+
+    /** type tag of operations on documents of different types */
+    public static final String MIXED_TYPES = "mixed";
+    /** type tag of operations without documents */
+    public static final String NO_TYPE = "none";
+
+    private final SearchServer server;
+    private final MetricsRegistry registry;
+    private final String backend;
+
+    public MetricsSearchServer(SearchServer server, MetricsRegistry registry) {
+        this(server, registry, backendName(server));
+    }
+
+    /**
+     * @param server the decorated server.
+     * @param registry the registry to record to.
+     * @param backend value of the backend tag.
+     */
+    public MetricsSearchServer(SearchServer server, MetricsRegistry registry, String backend) {
+        this.server = Objects.requireNonNull(server);
+        this.registry = Objects.requireNonNull(registry);
+        this.backend = Objects.requireNonNull(backend);
+    }
+
+    private static String backendName(SearchServer server) {
+        final Class<?> type = server.getClass();
+        return type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName();
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    public String getBackendName() {
+        return backend;
+    }
+
+    @Override
+    public Object getBackend() {
+        return server.getBackend();
+    }
+
+    @Override
+    public StatusResult getBackendStatus() {
+        return server.getBackendStatus();
+    }
+
+    @Override
+    public IndexResult index(Document... docs) {
+        return timed(INDEX, typeOf(Arrays.asList(docs)), () -> server.index(docs));
+    }
+
+    @Override
+    public IndexResult index(List<Document> docs) {
+        return timed(INDEX, typeOf(docs), () -> server.index(docs));
+    }
+
+    @Override
+    public IndexResult indexWithin(Document doc, int withinMs) {
+        return timed(INDEX, doc.getType(), () -> server.indexWithin(doc, withinMs));
+    }
+
+    @Override
+    public IndexResult indexWithin(List<Document> docs, int withinMs) {
+        return timed(INDEX, typeOf(docs), () -> server.indexWithin(docs, withinMs));
+    }
+
+    @Override
+    public DeleteResult delete(Document doc) {
+        return timed(DELETE, doc.getType(), () -> server.delete(doc));
+    }
+
+    @Override
+    public DeleteResult deleteWithin(Document doc, int withinMs) {
+        return timed(DELETE, doc.getType(), () -> server.deleteWithin(doc, withinMs));
+    }
+
+    @Override
+    public boolean execute(Update update, DocumentFactory factory) {
+        return timed(UPDATE, factory.getType(), () -> server.execute(update, factory));
+    }
+
+    @Override
+    public UpdateResult execute(List<Update> updates, DocumentFactory factory) {
+        return timed(UPDATE, factory.getType(), () -> server.execute(updates, factory));
+    }
+
+    @Override
+    public DeleteResult execute(Delete delete, DocumentFactory factory) {
+        return timed(DELETE, factory.getType(), () -> server.execute(delete, factory));
+    }
+
+    @Override
+    public void commit(boolean optimize) {
+        server.commit(optimize);
+    }
+
+    @Override
+    public <T> BeanSearchResult<T> execute(FulltextSearch search, Class<T> c) {
+        return timed(SEARCH, typeOf(c), () -> server.execute(search, c), BeanSearchResult::getTimings);
+    }
+
+    @Override
+    public SearchResult execute(FulltextSearch search, DocumentFactory factory) {
+        return timed(SEARCH, factory.getType(), () -> server.execute(search, factory), SearchResult::getTimings);
+    }
+
+    @Override
+    public String getRawQuery(FulltextSearch search, DocumentFactory factory) {
+        return server.getRawQuery(search, factory);
+    }
+
+    @Override
+    public <T> String getRawQuery(FulltextSearch search, Class<T> c) {
+        return server.getRawQuery(search, c);
+    }
+
+    @Override
+    public <T> SuggestionResult execute(ExecutableSuggestionSearch search, Class<T> c) {
+        return timed(SUGGEST, typeOf(c), () -> server.execute(search, c), SuggestionResult::getTimings);
+    }
+
+    @Override
+    public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets) {
+        return timed(SUGGEST, assets.getType(), () -> server.execute(search, assets), SuggestionResult::getTimings);
+    }
+
+    @Override
+    public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets, DocumentFactory childFactory) {
+        return timed(SUGGEST, assets.getType(), () -> server.execute(search, assets, childFactory), SuggestionResult::getTimings);
+    }
+
+    @Override
+    public String getRawQuery(ExecutableSuggestionSearch search, DocumentFactory factory) {
+        return server.getRawQuery(search, factory);
+    }
+
+    @Override
+    public String getRawQuery(ExecutableSuggestionSearch search, DocumentFactory factory, DocumentFactory childFactory) {
+        return server.getRawQuery(search, factory, childFactory);
+    }
+
+    @Override
+    public <T> String getRawQuery(ExecutableSuggestionSearch search, Class<T> c) {
+        return server.getRawQuery(search, c);
+    }
+
+    @Override
+    public <T> BeanGetResult<T> execute(RealTimeGet search, Class<T> c) {
+        return timed(GET, typeOf(c), () -> server.execute(search, c));
+    }
+
+    @Override
+    public GetResult execute(RealTimeGet search, DocumentFactory assets) {
+        return timed(GET, assets.getType(), () -> server.execute(search, assets));
+    }
+
+    @Override
+    public InverseSearchResult execute(InverseSearch inverseSearch, DocumentFactory factory) {
+        return timed(INVERSE_SEARCH, factory.getType(), () -> server.execute(inverseSearch, factory));
+    }
+
+    @Override
+    public Stream<InverseSearchResult> stream(InverseSearch inverseSearch, DocumentFactory factory) {
+        final Stream<InverseSearchResult> pages = server.stream(inverseSearch, factory);
+        final Spliterator<InverseSearchResult> spliterator = pages.spliterator();
+        // not sized, the pages have to be read to be recorded
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<InverseSearchResult>(
+                spliterator.estimateSize(), spliterator.characteristics() & Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super InverseSearchResult> action) {
+                // the page is handed on once timed, so the time spent by the consumer is not recorded
+                final InverseSearchResult[] page = new InverseSearchResult[1];
+                final long start = System.nanoTime();
+                final boolean advanced;
+                try {
+                    advanced = spliterator.tryAdvance(result -> page[0] = result);
+                } catch (RuntimeException e) {
+                    record(INVERSE_SEARCH, factory.getType(), ERROR, System.nanoTime() - start);
+                    throw e;
+                }
+                if (advanced) {
+                    record(INVERSE_SEARCH, factory.getType(), SUCCESS, System.nanoTime() - start);
+                    action.accept(page[0]);
+                }
+                return advanced;
+            }
+        }, false).onClose(pages::close);
+    }
+
+    @Override
+    public IndexResult addInverseSearchQuery(InverseSearchQuery query) {
+        return timed(INDEX, query.getType(), () -> server.addInverseSearchQuery(query));
+    }
+
+    @Override
+    public void clearIndex() {
+        server.clearIndex();
+    }
+
+    @Override
+    public void close() {
+        server.close();
+    }
+
+    @Override
+    public Class<? extends ServiceProvider> getServiceProviderClass() {
+        return server.getServiceProviderClass();
+    }
+
+    @Override
+    public void closeCursor(String cursor) {
+        server.closeCursor(cursor);
+    }
+
+    private <R> R timed(String operation, String type, Supplier<R> execution) {
+        return timed(operation, type, execution, result -> null);
+    }
+
+    private <R> R timed(String operation, String type, Supplier<R> execution, Function<R, ClientTimings> timings) {
+        final long start = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            final R result = execution.get();
+            outcome = SUCCESS;
+            final ClientTimings phases = result != null ? timings.apply(result) : null;
+            if (phases != null) {
+                record(operation + BUILD_PHASE, type, null, phases.getBuildTime());
+                record(operation + NETWORK_PHASE, type, null, phases.getNetworkTime());
+                record(operation + PARSE_PHASE, type, null, phases.getParseTime());
+            }
+            return result;
+        } finally {
+            record(operation, type, outcome, System.nanoTime() - start);
+        }
+    }
+
+    private void record(String name, String type, String outcome, long nanos) {
+        final String typeTag = type != null ? type : NO_TYPE;
+        final MetricsRegistry.Timer timer = outcome != null
+                ? registry.timer(name, TAG_BACKEND, backend, TAG_TYPE, typeTag, TAG_OUTCOME, outcome)
+                : registry.timer(name, TAG_BACKEND, backend, TAG_TYPE, typeTag);
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String typeOf(Class<?> c) {
+        return AnnotationUtil.getDocumentFactory(c).getType();
+    }
+
+    private static String typeOf(List<Document> docs) {
+        String type = null;
+        for (Document doc : docs) {
+            if (type == null) {
+                type = doc.getType();
+            } else if (!type.equals(doc.getType())) {
+                return MIXED_TYPES;
+            }
+        }
+        return type;
+    }
+}
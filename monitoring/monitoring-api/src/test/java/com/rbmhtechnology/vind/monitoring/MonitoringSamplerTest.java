@@ -0,0 +1,110 @@
+package com.rbmhtechnology.vind.monitoring;
+
+import com.rbmhtechnology.vind.monitoring.model.session.SimpleSession;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MonitoringSamplerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void testKeepsEverythingByDefault() {
+        final MonitoringSampler sampler = new MonitoringSampler(clock::get);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sampler.sample(new SimpleSession("session-" + i), 0, i));
+        }
+        assertEquals(0, sampler.getDroppedBySampleRate() + sampler.getDroppedBySession() + sampler.getDroppedByRateLimit());
+    }
+
+    @Test
+    public void testSampleRate() {
+        final MonitoringSampler sampler = new MonitoringSampler(clock::get).setSampleRate(0.25);
+        final long kept = IntStream.range(0, 10000).filter(i -> sampler.sample(null, 0, 1)).count();
+        assertTrue(String.valueOf(kept), kept > 2000 && kept < 3000);
+        assertEquals(10000 - kept, sampler.getDroppedBySampleRate());
+
+        sampler.setSampleRate(0);
+        assertFalse(sampler.sample(null, 0, 1));
+    }
+
+    @Test
+    public void testSessionSampling() {
+        final MonitoringSampler sampler = new MonitoringSampler(clock::get).setSessionSampleRate(0.5);
+        int keptSessions = 0;
+        for (int i = 0; i < 1000; i++) {
+            final SimpleSession session = new SimpleSession("session-" + i);
+            final boolean kept = sampler.sample(session, 0, 1);
+            // all the entries of a session are kept or dropped
+            for (int j = 0; j < 5; j++) {
+                assertEquals(kept, sampler.sample(session, 0, 1));
+            }
+            keptSessions += kept ? 1 : 0;
+        }
+        assertTrue(String.valueOf(keptSessions), keptSessions > 400 && keptSessions < 600);
+        assertEquals((1000 - keptSessions) * 6, sampler.getDroppedBySession());
+
+        // entries without a session are not affected
+        assertTrue(sampler.sample(null, 0, 1));
+    }
+
+    @Test
+    public void testSlowAndZeroHitsBypassSampling() {
+        final MonitoringSampler sampler = new MonitoringSampler(clock::get)
+                .setSampleRate(0)
+                .setSessionSampleRate(0)
+                .setSlowThreshold(500);
+        assertFalse(sampler.sample(new SimpleSession("123"), 499, 0));
+        assertTrue(sampler.sample(new SimpleSession("123"), 500, 10));
+
+        sampler.setKeepZeroHits(true);
+        assertTrue(sampler.sample(new SimpleSession("123"), 10, 0));
+        assertFalse(sampler.sample(new SimpleSession("123"), 10, -1));
+        assertEquals(2, sampler.getForcedCount());
+    }
+
+    @Test
+    public void testRawQuerySampling() {
+        final MonitoringSampler sampler = new MonitoringSampler(clock::get);
+        assertTrue(sampler.sampleRawQuery());
+
+        sampler.setRawQuerySampleRate(0.25);
+        final long captured = IntStream.range(0, 10000).filter(i -> sampler.sampleRawQuery()).count();
+        assertTrue(String.valueOf(captured), captured > 2000 && captured < 3000);
+        assertEquals(10000 - captured, sampler.getSkippedRawQueries());
+
+        sampler.setRawQuerySampleRate(0);
+        assertFalse(sampler.sampleRawQuery());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRawQuerySampleRate() {
+        new MonitoringSampler(clock::get).setRawQuerySampleRate(1.5);
+    }
+
+    @Test
+    public void testRateLimit() {
+        final MonitoringSampler sampler = new MonitoringSampler(clock::get).setRateLimit(10);
+        final long burst = IntStream.range(0, 100).filter(i -> sampler.sample(null, 0, 1)).count();
+        assertEquals(10, burst);
+        assertEquals(90, sampler.getDroppedByRateLimit());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+        final long refilled = IntStream.range(0, 100).filter(i -> sampler.sample(null, 0, 1)).count();
+        assertEquals(3, refilled);
+
+        // forced entries count against the limit too
+        sampler.setKeepZeroHits(true);
+        assertFalse(sampler.sample(null, 0, 0));
+
+        sampler.setRateLimit(0);
+        assertTrue(sampler.sample(null, 0, 1));
+    }
+}
@@ -3,8 +3,11 @@ package com.rbmhtechnology.vind.monitoring;
 import com.rbmhtechnology.vind.api.SearchServer;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
 import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearch;
 import com.rbmhtechnology.vind.api.query.sort.Sort;
 import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.InverseSearchResult;
+import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.model.DocumentFactory;
 import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
 import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
@@ -24,11 +27,20 @@ import org.junit.rules.ExpectedException;
 import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
 import static com.rbmhtechnology.vind.test.Backend.Elastic;
 import static com.rbmhtechnology.vind.test.Backend.Solr;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * @author Thomas Kurz (tkurz@apache.org)
@@ -102,6 +114,61 @@ public class MonitoringSearchServerTest extends SearchTestcase {
 
     }
 
+    @Test
+    @RunWithBackend({Solr})
+    public void testRawQueryCapture() {
+        final TestMonitoringWriter logger = new TestMonitoringWriter();
+        final MonitoringSearchServer server = new MonitoringSearchServer(backend.getSearchServer(), new SimpleApplication("app"), new SimpleSession("123"), logger);
+
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> textField = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildTextField("textField");
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset")
+                .addField(textField)
+                .build();
+        final FulltextSearch search = Search.fulltext("Hello World").filter(eq(textField, "testFilter")).facet(textField);
+
+        final SearchResult result = server.execute(search, factory);
+        assertEquals(server.getRawQuery(search, factory), result.getRawQuery());
+        assertEquals(result.getRawQuery(), ((FullTextEntry) logger.logs.get(0)).getRequest().getRawQuery());
+
+        server.setRawQuerySampleRate(0);
+        server.execute(search, factory);
+        assertEquals(2, logger.logs.size());
+        assertNull(((FullTextEntry) logger.logs.get(1)).getRequest().getRawQuery());
+    }
+
+    @Test
+    @RunWithBackend({Solr})
+    public void testSampling() {
+        final TestMonitoringWriter logger = new TestMonitoringWriter();
+        final MonitoringSearchServer server = new MonitoringSearchServer(backend.getSearchServer(), new SimpleApplication("app"), new SimpleSession("123"), logger)
+                .setSampler(new MonitoringSampler().setSampleRate(0).setKeepZeroHits(true));
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset").build();
+
+        server.index(factory.createDoc("1"));
+        server.commit();
+        server.execute(Search.fulltext(), factory);
+        server.execute(Search.fulltext("nothing to find"), factory);
+
+        assertEquals(1, logger.logs.size());
+        assertEquals("nothing to find", ((FullTextEntry) logger.logs.get(0)).getRequest().getQuery());
+        assertEquals(2, server.getSampler().getDroppedBySampleRate());
+    }
+
+    @Test
+    public void testInverseSearchStreamIsDelegated() {
+        final SearchServer backend = mock(SearchServer.class);
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset").build();
+        final InverseSearch inverseSearch = Search.inverseSearch(factory.createDoc("1"));
+        final InverseSearchResult page = mock(InverseSearchResult.class);
+        when(backend.stream(inverseSearch, factory)).thenReturn(Stream.of(page));
+        final MonitoringSearchServer server = new MonitoringSearchServer(backend, new SimpleApplication("app"), new SimpleSession("123"), new TestMonitoringWriter());
+
+        assertEquals(Collections.singletonList(page), server.stream(inverseSearch, factory).collect(Collectors.toList()));
+        verify(backend, never()).execute(any(InverseSearch.class), any(DocumentFactory.class));
+    }
+
     public class TestMonitoringWriter extends MonitoringWriter {
 
         public ArrayList<MonitoringEntry> logs = new ArrayList<>();
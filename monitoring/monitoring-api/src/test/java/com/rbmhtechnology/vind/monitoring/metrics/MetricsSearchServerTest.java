@@ -0,0 +1,159 @@
+package com.rbmhtechnology.vind.monitoring.metrics;
+
+import com.rbmhtechnology.vind.SearchServerException;
+import com.rbmhtechnology.vind.annotations.AnnotationUtil;
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.query.delete.Delete;
+import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearch;
+import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.ClientTimings;
+import com.rbmhtechnology.vind.api.result.CursorResult;
+import com.rbmhtechnology.vind.api.result.InverseSearchResult;
+import com.rbmhtechnology.vind.api.result.SearchResult;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.monitoring.model.NewsItem;
+import org.HdrHistogram.Histogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricsSearchServerTest {
+
+    @Rule
+    public MockitoRule mockito = MockitoJUnit.rule();
+
+    @Mock
+    private SearchServer backend;
+
+    private final DocumentFactory asset = new DocumentFactoryBuilder("asset").build();
+    private final DocumentFactory news = new DocumentFactoryBuilder("news").build();
+
+    @Test
+    public void testOperationsAreTaggedByBackendAndType() {
+        when(backend.execute(any(FulltextSearch.class), eq(asset))).thenAnswer(invocation -> {
+            Thread.sleep(1);
+            return null;
+        });
+        final HdrMetricsRegistry registry = new HdrMetricsRegistry();
+        final MetricsSearchServer server = new MetricsSearchServer(backend, registry, "stub");
+        assertEquals("stub", server.getBackendName());
+
+        server.index(asset.createDoc("1"), asset.createDoc("2"));
+        server.index(Collections.singletonList(news.createDoc("3")));
+        server.index(asset.createDoc("4"), news.createDoc("5"));
+        server.execute(Search.fulltext(), asset);
+        server.execute(Search.fulltext(), NewsItem.class);
+        server.execute(Search.suggest("a").fields("title"), news);
+        server.execute(Search.getById("1"), asset);
+        server.execute(Search.update("1"), asset);
+        server.execute(new Delete(null), asset);
+        server.delete(asset.createDoc("1"));
+
+        assertCount(registry, 1, MetricsSearchServer.INDEX, "asset");
+        assertCount(registry, 1, MetricsSearchServer.INDEX, "news");
+        assertCount(registry, 1, MetricsSearchServer.INDEX, MetricsSearchServer.MIXED_TYPES);
+        assertCount(registry, 1, MetricsSearchServer.SEARCH, "asset");
+        assertCount(registry, 1, MetricsSearchServer.SEARCH, AnnotationUtil.getDocumentFactory(NewsItem.class).getType());
+        assertCount(registry, 1, MetricsSearchServer.SUGGEST, "news");
+        assertCount(registry, 1, MetricsSearchServer.GET, "asset");
+        assertCount(registry, 1, MetricsSearchServer.UPDATE, "asset");
+        assertCount(registry, 2, MetricsSearchServer.DELETE, "asset");
+
+        final Histogram search = registry.getHistogram(MetricsSearchServer.SEARCH,
+                MetricsSearchServer.TAG_BACKEND, "stub", MetricsSearchServer.TAG_TYPE, "asset",
+                MetricsSearchServer.TAG_OUTCOME, MetricsSearchServer.SUCCESS);
+        // nanosecond resolution, the backend sleeps a millisecond per search
+        assertTrue(String.valueOf(search.getMaxValue()), search.getMaxValue() >= TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(registry.getHistograms().containsKey(
+                "vind.search{backend=stub,type=asset,outcome=success}"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testClientPhases() {
+        final SearchResult result = mock(SearchResult.class);
+        when(result.getTimings()).thenReturn(new ClientTimings(1000, 2000, 3000));
+        final BeanSearchResult<NewsItem> beanResult = mock(BeanSearchResult.class);
+        when(beanResult.getTimings()).thenReturn(new ClientTimings(1000, 2000, 3000));
+        when(backend.execute(any(FulltextSearch.class), eq(asset))).thenReturn(result);
+        when(backend.execute(any(FulltextSearch.class), eq(NewsItem.class))).thenReturn(beanResult);
+        final HdrMetricsRegistry registry = new HdrMetricsRegistry();
+        final MetricsSearchServer server = new MetricsSearchServer(backend, registry, "stub");
+
+        server.execute(Search.fulltext(), asset);
+        server.execute(Search.fulltext(), NewsItem.class);
+        final String newsType = AnnotationUtil.getDocumentFactory(NewsItem.class).getType();
+
+        final Histogram build = registry.getHistogram("vind.search.build", "backend", "stub", "type", "asset");
+        final Histogram network = registry.getHistogram("vind.search.network", "backend", "stub", "type", "asset");
+        final Histogram parse = registry.getHistogram("vind.search.parse", "backend", "stub", "type", "asset");
+        assertEquals(1000, build.getMaxValue(), 1);
+        assertEquals(2000, network.getMaxValue(), 2);
+        assertEquals(3000, parse.getMaxValue(), 3);
+        assertNotNull(registry.getHistogram("vind.search.network", "backend", "stub", "type", newsType));
+
+        // no timings without a suggestion result
+        server.execute(Search.suggest("a").fields("title"), asset);
+        assertNull(registry.getHistogram("vind.suggest.network", "backend", "stub", "type", "asset"));
+    }
+
+    @Test
+    public void testFailuresAndCustomRegistry() {
+        when(backend.execute(any(InverseSearch.class), eq(asset)))
+                .thenThrow(new SearchServerException("Inverse search is not supported"));
+        when(backend.execute(any(FulltextSearch.class), eq(asset))).thenAnswer(invocation -> new CursorResult(0, 0,
+                Collections.<Document>emptyList(), (FulltextSearch) invocation.getArguments()[0], null, backend, asset));
+        final List<String> recorded = new ArrayList<>();
+        final MetricsRegistry registry = (name, tags) -> (amount, unit) -> recorded.add(name + String.join(",", tags));
+        final MetricsSearchServer server = new MetricsSearchServer(backend, registry, "stub");
+
+        try {
+            server.execute(new InverseSearch(asset.createDoc("1")), asset);
+            fail("the backend does not support inverse searches");
+        } catch (SearchServerException e) {
+            // expected
+        }
+        assertEquals(Collections.singletonList("vind.inverse.searchbackend,stub,type,asset,outcome,error"), recorded);
+
+        // exports and inverse search streams are recorded page by page
+        recorded.clear();
+        server.export(Search.fulltext().page(1, 10), asset).stream().count();
+        assertEquals(1, recorded.stream().filter(name -> name.startsWith("vind.searchbackend")).count());
+
+        recorded.clear();
+        when(backend.stream(any(InverseSearch.class), eq(asset)))
+                .thenReturn(Stream.of(mock(InverseSearchResult.class), mock(InverseSearchResult.class)));
+        assertEquals(2, server.stream(new InverseSearch(asset.createDoc("1")), asset).count());
+        assertEquals(Collections.nCopies(2, "vind.inverse.searchbackend,stub,type,asset,outcome,success"), recorded);
+    }
+
+    private static void assertCount(HdrMetricsRegistry registry, long count, String name, String type) {
+        final Histogram histogram = registry.getHistogram(name,
+                MetricsSearchServer.TAG_BACKEND, "stub", MetricsSearchServer.TAG_TYPE, type,
+                MetricsSearchServer.TAG_OUTCOME, MetricsSearchServer.SUCCESS);
+        assertNotNull(name + " " + type, histogram);
+        assertEquals(name + " " + type, count, histogram.getTotalCount());
+    }
+}
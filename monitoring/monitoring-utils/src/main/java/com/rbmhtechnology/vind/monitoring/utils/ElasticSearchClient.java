@@ -1,7 +1,10 @@
 
 package com.rbmhtechnology.vind.monitoring.utils;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.io.ByteStreams;
+import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import io.redlink.utils.ResourceLoaderUtils;
 import io.searchbox.client.JestClient;
@@ -16,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -32,6 +36,9 @@ public class ElasticSearchClient {
     public static final int ES_MAX_TRIES = 3;
     public static final int ES_WAIT_TIME = 3000;
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String BULK_INDEX_ACTION = "{\"index\":{}}\n";
+
     private String elasticPort;
     private String elasticHost;
     private String elasticIndex;
@@ -234,6 +241,107 @@ public class ElasticSearchClient {
         //TODO: more?
     }
 
+    /**
+     * Indexes log entries in a single bulk request, retrying the request on connection errors. The entries are
+     * serialized one after the other into the body of the request, without creating a JSON string per entry. An entry
+     * which cannot be serialized is left out of the request and counted as rejected.
+     * @param entries entries to index.
+     * @param writer writes an entry as JSON object to the generator.
+     * @param <T> type of the entries.
+     * @return number of entries which could not be serialized or were rejected by elasticsearch.
+     * @throws RuntimeException if the request could not be sent.
+     */
+    public <T> int bulkPut(List<T> entries, EntryWriter<? super T> writer) {
+        final StringWriter body = new StringWriter();
+        int skipped = 0;
+        try {
+            JsonGenerator generator = createBulkGenerator(body);
+            for (T entry : entries) {
+                final int mark = body.getBuffer().length();
+                try {
+                    generator.writeRaw(BULK_INDEX_ACTION);
+                    writer.write(entry, generator);
+                    generator.writeRaw('\n');
+                    generator.flush();
+                } catch (IOException | RuntimeException e) {
+                    log.error("Error serializing log entry, it is left out of the bulk indexation: {}", e.getMessage(), e);
+                    skipped++;
+                    // the generator is within the broken entry, its output is dropped and a new one is used
+                    closeQuietly(generator);
+                    body.getBuffer().setLength(mark);
+                    generator = createBulkGenerator(body);
+                }
+            }
+            generator.close();
+        } catch (IOException e) {
+            log.error("Error serializing bulk indexation body: {}", e.getMessage(), e);
+            throw new RuntimeException("Error serializing bulk indexation body: " + e.getMessage(), e);
+        }
+
+        if (skipped == entries.size()) {
+            return skipped;
+        }
+        return skipped + sendBulk(body.toString());
+    }
+
+    /**
+     * Sends a bulk request, retrying it on connection errors.
+     * @param body NDJSON body of the bulk request.
+     * @return number of entries rejected by elasticsearch.
+     * @throws RuntimeException if the request could not be sent.
+     */
+    protected int sendBulk(String body) {
+        final Bulk bulk = new RawBulk(new Bulk.Builder()
+                .defaultIndex(elasticIndex)
+                .defaultType("logEntry"), body);
+        final JestClient client = getElasticSearchClient();
+        try {
+            return bulkPut(bulk, 0, client);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Error executing bulk indexation: {}", e.getMessage(), e);
+            throw new RuntimeException("Error executing bulk indexation: " + e.getMessage(), e);
+        }
+    }
+
+    private static JsonGenerator createBulkGenerator(StringWriter body) throws IOException {
+        final JsonGenerator generator = JSON_FACTORY.createGenerator(body);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    private static void closeQuietly(JsonGenerator generator) {
+        try {
+            generator.close();
+        } catch (IOException | RuntimeException e) {
+            log.debug("Error closing JSON generator: {}", e.getMessage());
+        }
+    }
+
+    private int bulkPut(Bulk bulk, int retries, JestClient client) throws InterruptedException {
+        if (Objects.isNull(client)) {
+            log.error("Error in bulk indexation request: ES client has not been initialized, client is null.");
+            throw new RuntimeException("Error in bulk indexation request: ES client has not been initialized, client is null.");
+        }
+        try {
+            final BulkResult result = client.execute(bulk);
+            if (!result.getFailedItems().isEmpty()) {
+                log.error("Error executing bulk indexation: {} items where not indexed: {}",
+                        result.getFailedItems().size(), result.getFailedItems().get(0).error);
+            }
+            log.debug("Completed bulk indexation of {} entries with succeeded={}", result.getItems().size(), result.isSucceeded());
+            return result.getFailedItems().size();
+        } catch (IOException e) {
+            log.warn("Error executing bulk indexation: {}", e.getMessage(), e);
+            if (retries > ES_MAX_TRIES) {
+                log.error("Error executing bulk indexation: reached maximum number of retries [{}].", retries);
+                throw new RuntimeException("Error executing bulk indexation: " + e.getMessage(), e);
+            }
+            Thread.sleep((retries + 1) * ES_WAIT_TIME);
+            return bulkPut(bulk, retries + 1, client);
+        }
+    }
+
     public String loadQueryFromFile(String fileName, Object ... args) {
         final Path path = ResourceLoaderUtils.getResourceAsPath("queries/" + fileName);
         try {
@@ -345,4 +453,32 @@ public class ElasticSearchClient {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Serializes an entry of a bulk request.
+     * @param <T> type of the entries.
+     */
+    @FunctionalInterface
+    public interface EntryWriter<T> {
+        void write(T entry, JsonGenerator generator) throws IOException;
+    }
+
+    /**
+     * Bulk request sending a body which has already been written, jest would otherwise build it by concatenating
+     * the serialized actions.
+     */
+    private static class RawBulk extends Bulk {
+
+        private final String data;
+
+        private RawBulk(Bulk.Builder builder, String data) {
+            super(builder);
+            this.data = data;
+        }
+
+        @Override
+        public String getData(Gson gson) {
+            return data;
+        }
+    }
 }
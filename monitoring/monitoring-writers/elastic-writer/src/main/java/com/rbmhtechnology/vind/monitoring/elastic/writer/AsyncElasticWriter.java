@@ -0,0 +1,300 @@
+package com.rbmhtechnology.vind.monitoring.elastic.writer;
+
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.monitoring.logger.MonitoringWriter;
+import com.rbmhtechnology.vind.monitoring.logger.entry.MonitoringEntry;
+import com.rbmhtechnology.vind.monitoring.utils.ElasticSearchClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link MonitoringWriter} which does not write on the caller thread. Entries are put into a lock-free
+ * {@link RingBuffer} and a background thread sends them to elasticsearch in bulk requests, as soon as
+ * {@link Options#getBatchSize()} entries are pending or when the flush interval elapses. If the buffer is full the
+ * entry is dropped or the caller is blocked until there is room, see {@link OverflowPolicy}.
+ *
+ * {@link #close()} writes all the entries logged before; entries logged after closing are dropped.
+ */
+public class AsyncElasticWriter extends MonitoringWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncElasticWriter.class);
+
+    private static final long BLOCK_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ElasticSearchClient elasticClient;
+    private final Options options;
+    private final RingBuffer<MonitoringEntry> buffer;
+    private final Thread batcher;
+
+    private final AtomicInteger producers = new AtomicInteger();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean closed;
+    /** entries taken from the buffer by the batcher which have not been sent yet, only written by the batcher */
+    private volatile int batched;
+
+    public AsyncElasticWriter(String elasticHost, String elasticPort, String elasticIndex) {
+        this(elasticHost, elasticPort, elasticIndex, new Options());
+    }
+
+    public AsyncElasticWriter(String elasticHost, String elasticPort, String elasticIndex, Options options) {
+        this(createClient(elasticHost, elasticPort, elasticIndex), options);
+        logger.debug("AsyncElasticWriter configured to write in: {}:{}/{}", elasticHost, elasticPort, elasticIndex);
+    }
+
+    AsyncElasticWriter(ElasticSearchClient elasticClient, Options options) {
+        this.elasticClient = elasticClient;
+        this.options = Objects.requireNonNull(options).validate();
+        this.buffer = new RingBuffer<>(options.getBufferSize());
+        this.batcher = new Thread(this::run, "vind-monitoring-elastic-writer");
+        this.batcher.setDaemon(true);
+        this.batcher.start();
+    }
+
+    private static ElasticSearchClient createClient(String elasticHost, String elasticPort, String elasticIndex) {
+        final ElasticSearchClient client = new ElasticSearchClient();
+        client.init(elasticHost, elasticPort, elasticIndex);
+        return client;
+    }
+
+    @Override
+    public void log(MonitoringEntry log) {
+        producers.incrementAndGet();
+        try {
+            if (closed) {
+                drop(log);
+                return;
+            }
+            while (!buffer.offer(log)) {
+                if (options.getOverflowPolicy() == OverflowPolicy.DROP || closed) {
+                    drop(log);
+                    return;
+                }
+                LockSupport.unpark(batcher);
+                LockSupport.parkNanos(this, BLOCK_WAIT_NANOS);
+            }
+            queued.incrementAndGet();
+            // the batcher may already hold a part of the batch
+            if (buffer.size() + batched >= options.getBatchSize()) {
+                LockSupport.unpark(batcher);
+            }
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops accepting entries and blocks until all the entries logged before have been sent.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(batcher);
+        boolean interrupted = false;
+        while (batcher.isAlive()) {
+            try {
+                batcher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            elasticClient.destroy();
+        } catch (Exception e) {
+            logger.warn("Error closing elasticsearch client: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return number of entries accepted into the buffer.
+     */
+    public long getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * @return number of entries dropped because the buffer was full or the writer closed.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return number of entries indexed in elasticsearch.
+     */
+    public long getFlushedCount() {
+        return flushed.get();
+    }
+
+    /**
+     * @return number of entries which could not be serialized or indexed.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return number of entries waiting in the buffer.
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    public Options getOptions() {
+        return options;
+    }
+
+    private void drop(MonitoringEntry log) {
+        final long count = dropped.incrementAndGet();
+        if (Long.bitCount(count) == 1) {
+            logger.warn("Dropped monitoring entry {} ({} dropped so far): buffer of {} entries is full or writer closed",
+                    log.getType(), count, buffer.capacity());
+        }
+    }
+
+    private void run() {
+        final long interval = TimeUnit.MILLISECONDS.toNanos(options.getFlushInterval());
+        final List<MonitoringEntry> batch = new ArrayList<>(options.getBatchSize());
+        long deadline = System.nanoTime() + interval;
+        while (true) {
+            final MonitoringEntry entry = buffer.poll();
+            if (entry != null) {
+                batch.add(entry);
+                if (batch.size() >= options.getBatchSize()) {
+                    send(batch);
+                    deadline = System.nanoTime() + interval;
+                }
+                // published before the buffer is polled again, so a producer completing the batch afterwards wakes us
+                batched = batch.size();
+                continue;
+            }
+            if (closed && producers.get() == 0 && buffer.size() == 0) {
+                send(batch);
+                return;
+            }
+            final long wait = deadline - System.nanoTime();
+            if (wait <= 0) {
+                send(batch);
+                batched = 0;
+                deadline = System.nanoTime() + interval;
+            } else if (closed) {
+                // entries are still being published
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+
+    private void send(List<MonitoringEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            final int rejected = elasticClient.bulkPut(batch, MonitoringEntry::writeJson);
+            flushed.addAndGet(batch.size() - rejected);
+            failed.addAndGet(rejected);
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            logger.error("Cannot index {} monitoring entries: {}", batch.size(), e.getMessage(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Behaviour of {@link #log(MonitoringEntry)} when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** the entry is dropped and counted, the caller is never blocked */
+        DROP,
+        /** the caller is blocked until the entry fits into the buffer */
+        BLOCK
+    }
+
+    /**
+     * Configuration of an {@link AsyncElasticWriter}, defaults are read from the {@link SearchConfiguration}.
+     */
+    public static class Options {
+
+        private int bufferSize = SearchConfiguration.get(SearchConfiguration.MONITORING_WRITER_BUFFER_SIZE, 8192);
+        private int batchSize = SearchConfiguration.get(SearchConfiguration.MONITORING_WRITER_BATCH_SIZE, 500);
+        private long flushInterval = SearchConfiguration.get(SearchConfiguration.MONITORING_WRITER_FLUSH_INTERVAL, 1000);
+        private OverflowPolicy overflowPolicy = OverflowPolicy.valueOf(
+                SearchConfiguration.get(SearchConfiguration.MONITORING_WRITER_OVERFLOW, OverflowPolicy.DROP.name()).toUpperCase(Locale.ROOT));
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        /**
+         * @param bufferSize number of entries the buffer holds, rounded up to the next power of two.
+         * @return this options.
+         */
+        public Options setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * @param batchSize maximum number of entries per bulk request, reaching it triggers a request.
+         * @return this options.
+         */
+        public Options setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        /**
+         * @param flushInterval interval in ms after which pending entries are sent.
+         * @return this options.
+         */
+        public Options setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public Options setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+            return this;
+        }
+
+        private Options validate() {
+            if (bufferSize < 1 || batchSize < 1 || flushInterval < 1) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid monitoring writer options: bufferSize=%s, batchSize=%s, flushInterval=%s",
+                        bufferSize, batchSize, flushInterval));
+            }
+            return this;
+        }
+    }
+}
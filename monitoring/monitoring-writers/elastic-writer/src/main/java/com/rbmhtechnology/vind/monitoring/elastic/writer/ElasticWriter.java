@@ -7,6 +7,8 @@ import com.rbmhtechnology.vind.monitoring.utils.ElasticSearchClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 /**
  * Created on 01.03.18.
  */
@@ -23,7 +25,17 @@ public class ElasticWriter extends MonitoringWriter {
 
     @Override
     public void log(MonitoringEntry log) {
-        logger.debug("Indexing log entry: {}", log.toJson());
-        elasticClient.put(log.toJson());
+        final String json = log.toJson();
+        logger.debug("Indexing log entry: {}", json);
+        elasticClient.put(json);
+    }
+
+    @Override
+    public void close() {
+        try {
+            elasticClient.destroy();
+        } catch (IOException e) {
+            logger.warn("Error closing elasticsearch client: {}", e.getMessage(), e);
+        }
     }
 }
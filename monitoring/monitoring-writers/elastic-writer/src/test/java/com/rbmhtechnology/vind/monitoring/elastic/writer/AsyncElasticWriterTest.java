@@ -0,0 +1,287 @@
+package com.rbmhtechnology.vind.monitoring.elastic.writer;
+
+import com.rbmhtechnology.vind.monitoring.logger.entry.MonitoringEntry;
+import com.rbmhtechnology.vind.monitoring.model.application.Application;
+import com.rbmhtechnology.vind.monitoring.model.session.Session;
+import com.rbmhtechnology.vind.monitoring.utils.ElasticSearchClient;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncElasticWriterTest {
+
+    @Test
+    public void testRingBuffer() throws InterruptedException {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(5);
+        Assert.assertEquals(8, buffer.capacity());
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertFalse(buffer.offer(8));
+        Assert.assertEquals(Integer.valueOf(0), buffer.poll());
+        Assert.assertTrue(buffer.offer(8));
+        for (int i = 1; i < 9; i++) {
+            Assert.assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        Assert.assertNull(buffer.poll());
+
+        // many producers, single consumer
+        final RingBuffer<Integer> shared = new RingBuffer<>(64);
+        final ExecutorService producers = Executors.newFixedThreadPool(4);
+        for (int p = 0; p < 4; p++) {
+            final int offset = p * 10000;
+            producers.execute(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    while (!shared.offer(offset + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        final Set<Integer> taken = new HashSet<>();
+        final long timeout = System.currentTimeMillis() + 10000;
+        while (taken.size() < 40000 && System.currentTimeMillis() < timeout) {
+            final Integer value = shared.poll();
+            if (value != null) {
+                Assert.assertTrue(taken.add(value));
+            }
+        }
+        producers.shutdown();
+        Assert.assertEquals(40000, taken.size());
+        Assert.assertEquals(0, shared.size());
+    }
+
+    @Test
+    public void testBatchesBySize() throws InterruptedException {
+        final BulkClient client = new BulkClient();
+        final AsyncElasticWriter writer = new AsyncElasticWriter(client, new AsyncElasticWriter.Options()
+                .setBatchSize(10)
+                .setFlushInterval(60000));
+        for (int i = 0; i < 25; i++) {
+            writer.log(new TestEntry());
+        }
+        client.await(2);
+        Assert.assertEquals(Collections.nCopies(2, 10), client.sizes());
+        final TestEntry entry = new TestEntry();
+        Assert.assertEquals(entry.toJson().length(), client.bulks.get(0).get(0).length());
+        Assert.assertTrue(client.bulks.get(0).get(0).contains("\"type\":\"fulltext\""));
+
+        writer.close();
+        Assert.assertEquals(3, client.bulks.size());
+        Assert.assertEquals(25, writer.getQueuedCount());
+        Assert.assertEquals(25, writer.getFlushedCount());
+        Assert.assertEquals(0, writer.getDroppedCount());
+        Assert.assertTrue(client.destroyed);
+    }
+
+    @Test
+    public void testBatchIsSentWhenTheBatcherHoldsPartOfIt() throws InterruptedException {
+        final BulkClient client = new BulkClient();
+        final AsyncElasticWriter writer = new AsyncElasticWriter(client, new AsyncElasticWriter.Options()
+                .setBatchSize(5)
+                .setFlushInterval(60000));
+        // the batcher sends the first batch and keeps the sixth entry when it parks
+        for (int i = 0; i < 6; i++) {
+            writer.log(new TestEntry());
+        }
+        client.await(1);
+        Thread.sleep(50);
+        // completing the batch has to wake it, the flush interval is far away
+        for (int i = 0; i < 4; i++) {
+            writer.log(new TestEntry());
+        }
+        client.await(2);
+        Assert.assertEquals(Collections.nCopies(2, 5), client.sizes());
+        writer.close();
+    }
+
+    @Test
+    public void testFlushInterval() throws InterruptedException {
+        final BulkClient client = new BulkClient();
+        final AsyncElasticWriter writer = new AsyncElasticWriter(client, new AsyncElasticWriter.Options()
+                .setBatchSize(100)
+                .setFlushInterval(50));
+        writer.log(new TestEntry());
+        writer.log(new TestEntry());
+        client.await(1);
+        Assert.assertEquals(Collections.singletonList(2), client.sizes());
+        writer.close();
+    }
+
+    @Test
+    public void testOverflowPolicies() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final BulkClient blocked = new BulkClient(release);
+        final AsyncElasticWriter dropping = new AsyncElasticWriter(blocked, new AsyncElasticWriter.Options()
+                .setBufferSize(4)
+                .setBatchSize(1)
+                .setFlushInterval(60000));
+        // the first entry is taken and blocks the batcher, four more fill the buffer
+        dropping.log(new TestEntry());
+        blocked.await(1);
+        for (int i = 0; i < 10; i++) {
+            dropping.log(new TestEntry());
+        }
+        Assert.assertEquals(5, dropping.getQueuedCount());
+        Assert.assertEquals(6, dropping.getDroppedCount());
+        release.countDown();
+        dropping.close();
+        Assert.assertEquals(5, dropping.getFlushedCount());
+
+        final BulkClient slow = new BulkClient();
+        final AsyncElasticWriter blocking = new AsyncElasticWriter(slow, new AsyncElasticWriter.Options()
+                .setBufferSize(2)
+                .setBatchSize(1)
+                .setFlushInterval(60000)
+                .setOverflowPolicy(AsyncElasticWriter.OverflowPolicy.BLOCK));
+        for (int i = 0; i < 50; i++) {
+            blocking.log(new TestEntry());
+        }
+        blocking.close();
+        Assert.assertEquals(0, blocking.getDroppedCount());
+        Assert.assertEquals(50, blocking.getFlushedCount());
+
+        blocking.log(new TestEntry());
+        Assert.assertEquals(1, blocking.getDroppedCount());
+    }
+
+    @Test
+    public void testUnserializableEntryIsLeftOut() throws InterruptedException {
+        final BulkClient client = new BulkClient();
+        final AsyncElasticWriter writer = new AsyncElasticWriter(client, new AsyncElasticWriter.Options()
+                .setBatchSize(3)
+                .setFlushInterval(60000));
+        writer.log(new TestEntry());
+        writer.log(new BrokenEntry());
+        writer.log(new TestEntry());
+        writer.close();
+
+        Assert.assertEquals(Collections.singletonList(2), client.sizes());
+        Assert.assertEquals(Collections.nCopies(2, new TestEntry().toJson()), client.bulks.get(0));
+        Assert.assertEquals(2, writer.getFlushedCount());
+        Assert.assertEquals(1, writer.getFailedCount());
+    }
+
+    @Test
+    public void testCloseWritesAllEntries() throws InterruptedException {
+        final BulkClient client = new BulkClient();
+        final AsyncElasticWriter writer = new AsyncElasticWriter(client, new AsyncElasticWriter.Options()
+                .setBatchSize(7)
+                .setFlushInterval(60000)
+                .setOverflowPolicy(AsyncElasticWriter.OverflowPolicy.BLOCK));
+        final ExecutorService producers = Executors.newFixedThreadPool(4);
+        for (int p = 0; p < 4; p++) {
+            producers.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    writer.log(new TestEntry());
+                }
+            });
+        }
+        producers.shutdown();
+        Assert.assertTrue(producers.awaitTermination(10, TimeUnit.SECONDS));
+        writer.close();
+
+        Assert.assertEquals(4000, client.sizes().stream().mapToInt(Integer::intValue).sum());
+        Assert.assertEquals(4000, writer.getFlushedCount());
+        Assert.assertEquals(0, writer.getPendingCount());
+    }
+
+    private static class BulkClient extends ElasticSearchClient {
+
+        private final List<List<String>> bulks = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+        private volatile boolean destroyed;
+
+        private BulkClient() {
+            this(new CountDownLatch(0));
+        }
+
+        private BulkClient(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected int sendBulk(String body) {
+            final List<String> entries = new ArrayList<>();
+            final String[] lines = body.split("\n");
+            for (int i = 0; i < lines.length; i += 2) {
+                Assert.assertEquals("{\"index\":{}}", lines[i]);
+                entries.add(lines[i + 1]);
+            }
+            bulks.add(entries);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }
+
+        @Override
+        public void destroy() {
+            destroyed = true;
+        }
+
+        private List<Integer> sizes() {
+            final List<Integer> sizes = new ArrayList<>();
+            bulks.forEach(bulk -> sizes.add(bulk.size()));
+            return sizes;
+        }
+
+        private void await(int count) throws InterruptedException {
+            for (int i = 0; i < 500 && bulks.size() < count; i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(count, bulks.size());
+        }
+    }
+
+    private static class TestEntry extends MonitoringEntry {
+
+        // fixed, the length of a serialized now() depends on its trailing zeros
+        private final ZonedDateTime timeStamp = ZonedDateTime.of(2020, 1, 1, 12, 0, 0, 123456789, ZoneOffset.UTC);
+
+        @Override
+        public Application getApplication() {
+            return null;
+        }
+
+        @Override
+        public Session getSession() {
+            return null;
+        }
+
+        @Override
+        public EntryType getType() {
+            return EntryType.fulltext;
+        }
+
+        @Override
+        public ZonedDateTime getTimeStamp() {
+            return timeStamp;
+        }
+    }
+
+    /**
+     * Fails in the middle of its serialization.
+     */
+    private static class BrokenEntry extends TestEntry {
+
+        @Override
+        public Session getSession() {
+            throw new IllegalStateException("no session");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.rbmhtechnology.vind.test;
+
+import com.rbmhtechnology.vind.api.BulkIndexer;
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.result.IndexResult;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.rbmhtechnology.vind.test.Backend.Elastic;
+import static com.rbmhtechnology.vind.test.Backend.Solr;
+
+public class BulkIndexingTest {
+
+    @Rule
+    public TestBackend backend = new TestBackend();
+
+    @Test
+    @RunWithBackend({Solr, Elastic})
+    public void testBulkIndexer() throws InterruptedException {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+                .setFullText(true)
+                .buildTextField("title");
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset").addField(title).build();
+        final SearchServer server = backend.getSearchServer();
+
+        try (BulkIndexer indexer = server.bulkIndexer(new BulkIndexer.Options().setBatchSize(100).setConcurrentRequests(3))) {
+            for (int i = 0; i < 250; i++) {
+                indexer.add(factory.createDoc("bulk-" + i).setValue(title, "Bulk document " + i));
+            }
+            indexer.flush();
+            Assert.assertEquals(250, indexer.getIndexedCount());
+            Assert.assertEquals(0, indexer.getFailedCount());
+        }
+        server.commit();
+
+        Assert.assertEquals(250, server.execute(Search.fulltext(), factory).getNumOfResults());
+        server.clearIndex();
+    }
+
+    @Test
+    @RunWithBackend(Solr)
+    public void testDocumentsBecomingParents() throws Exception {
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset").build();
+        final DocumentFactory childFactory = new DocumentFactoryBuilder("marker").build();
+        final SearchServer server = backend.getSearchServer();
+        final SolrClient solrClient = (SolrClient) server.getBackend();
+
+        server.index(factory.createDoc("parent-1"), factory.createDoc("parent-2"), factory.createDoc("single"));
+        server.commit();
+
+        final IndexResult result = server.index(Arrays.asList(
+                factory.createDoc("parent-1").addChild(childFactory.createDoc("child-1"), childFactory.createDoc("child-2")),
+                factory.createDoc("parent-2").addChild(childFactory.createDoc("child-3")),
+                factory.createDoc("single")));
+        server.commit();
+
+        Assert.assertEquals(4, result.getSavedRoundTrips());
+        Assert.assertEquals(6, solrClient.query(new SolrQuery("*:*")).getResults().getNumFound());
+        Assert.assertEquals(1, solrClient.query(new SolrQuery("_id_:parent-1")).getResults().getNumFound());
+        Assert.assertEquals(3, server.execute(Search.fulltext(), factory).getNumOfResults());
+
+        server.index(factory.createDoc("parent-1").addChild(childFactory.createDoc("child-4")));
+        server.commit();
+
+        Assert.assertEquals(5, solrClient.query(new SolrQuery("*:*")).getResults().getNumFound());
+        Assert.assertEquals(0, solrClient.query(new SolrQuery("_id_:child-1")).getResults().getNumFound());
+        server.clearIndex();
+    }
+}
@@ -7,6 +7,7 @@ import com.rbmhtechnology.vind.api.query.filter.Filter;
 import com.rbmhtechnology.vind.api.query.filter.parser.FilterLuceneParser;
 import com.rbmhtechnology.vind.api.query.inverseSearch.InverseSearch;
 import com.rbmhtechnology.vind.api.result.IndexResult;
+import com.rbmhtechnology.vind.api.result.InverseSearchPageResult;
 import com.rbmhtechnology.vind.api.result.InverseSearchResult;
 import com.rbmhtechnology.vind.model.DocumentFactory;
 import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
@@ -18,8 +19,14 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.rbmhtechnology.vind.test.Backend.Elastic;
+import static com.rbmhtechnology.vind.test.Backend.Solr;
 import static org.junit.Assert.assertEquals;
 
 
@@ -33,7 +40,7 @@ public class InverseSearchTest {
     public TestBackend testBackend = new TestBackend();
 
     @Test
-    @RunWithBackend(Elastic)
+    @RunWithBackend({Solr, Elastic})
     public void testInverseSearch() {
         final SearchServer server = testBackend.getSearchServer();
         final SingleValueFieldDescriptor.TextFieldDescriptor title = new FieldDescriptorBuilder()
@@ -60,6 +67,7 @@ public class InverseSearchTest {
                     .setValue(volume,"volume1");
         final IndexResult indexResult =
                 server.addInverseSearchQuery(inverseSearchQuery);
+        server.commit();
 
         InverseSearch inverseSearch = Search.inverseSearch(d1).setQueryFilter(volume.equals("volume1"));
         InverseSearchResult result = server.execute(inverseSearch, testDocsFactory);
@@ -72,7 +80,7 @@ public class InverseSearchTest {
     }
 
     @Test
-    @RunWithBackend(Elastic)
+    @RunWithBackend({Solr, Elastic})
     public void testInverseSearchIntegration() throws IOException {
         final SearchServer server = testBackend.getSearchServer();
         final MultiValueFieldDescriptor.TextFieldDescriptor<String> metadata = new FieldDescriptorBuilder<>()
@@ -100,6 +108,7 @@ public class InverseSearchTest {
         final InverseSearchQuery rule2 =
                 testDocsFactory.createInverseSearchQuery("rule2", ruleFilter2).setValue(tenant,"t1");
         server.addInverseSearchQuery(rule2);
+        server.commit();
         InverseSearch inverseSearch = Search.inverseSearch(resource1).setQueryFilter(tenant.equals("t1"));
         InverseSearchResult result = server.execute(inverseSearch, testDocsFactory);
         assertEquals(2, result.getNumOfResults());
@@ -107,4 +116,93 @@ public class InverseSearchTest {
         result = server.execute(inverseSearch, testDocsFactory);
         assertEquals(1, result.getNumOfResults());
     }
+
+    @Test
+    @RunWithBackend(Solr)
+    public void testInverseSearchPaging() {
+        final SearchServer server = testBackend.getSearchServer();
+        final SingleValueFieldDescriptor.NumericFieldDescriptor<Integer> views = new FieldDescriptorBuilder<Integer>()
+                .setFacet(true)
+                .buildNumericField("views", Integer.class);
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> tenant = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildTextField("tenant");
+        final DocumentFactory testDocsFactory = new DocumentFactoryBuilder("TestDocument")
+                .addField(views)
+                .addInverseSearchMetaField(tenant)
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            server.addInverseSearchQuery(testDocsFactory
+                    .createInverseSearchQuery("threshold" + i, new Filter.GreaterThanFilter("views", i * 10, null))
+                    .setValue(tenant, "t1"));
+        }
+        server.addInverseSearchQuery(testDocsFactory
+                .createInverseSearchQuery("other", new Filter.GreaterThanFilter("views", 0, null))
+                .setValue(tenant, "t2"));
+        server.commit();
+
+        final Document doc = testDocsFactory.createDoc("1").setValue(views, 35);
+        InverseSearchResult result = server.execute(Search.inverseSearch(doc).setQueryFilter(tenant.equals("t1")).page(1, 3), testDocsFactory);
+        assertEquals(4, result.getNumOfResults());
+        assertEquals(3, result.getResults().size());
+        assertEquals("threshold0", result.getResults().get(0).getId());
+
+        result = ((InverseSearchPageResult) result).nextPage();
+        assertEquals(1, result.getResults().size());
+        assertEquals("threshold3", result.getResults().get(0).getId());
+
+        result = server.execute(Search.inverseSearch(doc).slice(4, 10), testDocsFactory);
+        assertEquals(5, result.getNumOfResults());
+        assertEquals(Collections.singletonList("threshold3"),
+                result.getResults().stream().map(InverseSearchQuery::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    @RunWithBackend({Solr, Elastic})
+    public void testInverseSearchMultipleDocuments() {
+        final SearchServer server = testBackend.getSearchServer();
+        final MultiValueFieldDescriptor.TextFieldDescriptor<String> tags = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildMultivaluedTextField("tags");
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> tenant = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildTextField("tenant");
+        final DocumentFactory testDocsFactory = new DocumentFactoryBuilder("TestDocument")
+                .addField(tags)
+                .addInverseSearchMetaField(tenant)
+                .build();
+
+        server.addInverseSearchQuery(testDocsFactory.createInverseSearchQuery("news", tags.equals("news")).setValue(tenant, "t1"));
+        server.addInverseSearchQuery(testDocsFactory.createInverseSearchQuery("sports", tags.equals("sports")).setValue(tenant, "t1"));
+        server.addInverseSearchQuery(testDocsFactory.createInverseSearchQuery("culture", tags.equals("culture")).setValue(tenant, "t1"));
+        server.commit();
+
+        final Document doc1 = testDocsFactory.createDoc("1").setValues(tags, "news", "sports");
+        final Document doc2 = testDocsFactory.createDoc("2").setValues(tags, "sports");
+        final Document doc3 = testDocsFactory.createDoc("3").setValues(tags, "weather");
+
+        final InverseSearchResult result = server.execute(
+                Search.inverseSearch(doc1, doc2, doc3).setQueryFilter(tenant.equals("t1")), testDocsFactory);
+        assertEquals(2, result.getNumOfResults());
+        assertEquals(new HashSet<>(Arrays.asList("news", "sports")), result.getMatchingQueryIds("1"));
+        assertEquals(Collections.singleton("sports"), result.getMatchingQueryIds("2"));
+        assertEquals(Collections.emptySet(), result.getMatchingQueryIds("3"));
+
+        final List<String> streamed = server.stream(
+                        Search.inverseSearch(Arrays.asList(doc1, doc2, doc3)).setQueryFilter(tenant.equals("t1")).page(1, 1),
+                        testDocsFactory)
+                .flatMap(page -> page.getResults().stream())
+                .map(InverseSearchQuery::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("news", "sports"), streamed);
+
+        // a changed query is percolated in its new version
+        server.addInverseSearchQuery(testDocsFactory.createInverseSearchQuery("culture", tags.equals("weather")).setValue(tenant, "t1"));
+        server.commit();
+        assertEquals(Collections.singleton("culture"), server.execute(
+                Search.inverseSearch(doc1, doc2, doc3).setQueryFilter(tenant.equals("t1")), testDocsFactory)
+                .getMatchingQueryIds("3"));
+    }
 }
@@ -15,11 +15,13 @@ import com.rbmhtechnology.vind.api.query.filter.Filter;
 import com.rbmhtechnology.vind.api.query.suggestion.DescriptorSuggestionSearch;
 import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
 import com.rbmhtechnology.vind.api.query.update.Update;
+import com.rbmhtechnology.vind.api.result.CursorResult;
 import com.rbmhtechnology.vind.api.result.DeleteResult;
 import com.rbmhtechnology.vind.api.result.GetResult;
 import com.rbmhtechnology.vind.api.result.PageResult;
 import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.api.result.UpdateResult;
 import com.rbmhtechnology.vind.api.result.facet.RangeFacetResult;
 import com.rbmhtechnology.vind.api.result.facet.TermFacetResult;
 import com.rbmhtechnology.vind.configure.SearchConfiguration;
@@ -60,8 +62,11 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.rbmhtechnology.vind.api.query.datemath.DateMathExpression.TimeUnit.DAY;
 import static com.rbmhtechnology.vind.api.query.datemath.DateMathExpression.TimeUnit.HOUR;
@@ -96,6 +101,7 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -364,6 +370,89 @@ public class ServerTest {
         assertEquals(1, result2.getResults().size());
     }
 
+    @Test
+    @RunWithBackend({Solr, Elastic})
+    public void testBatchPartialUpdate() {
+        SearchServer server = testBackend.getSearchServer();
+
+        SingleValueFieldDescriptor<String> title = new FieldDescriptorBuilder()
+                .setFullText(true)
+                .buildTextField("title");
+
+        SingleValueFieldDescriptor.NumericFieldDescriptor<Integer> count = new FieldDescriptorBuilder()
+                .setFacet(true)
+                .buildNumericField("count", Integer.class);
+
+        DocumentFactory assets = new DocumentFactoryBuilder("asset")
+                .setUpdatable(true)
+                .addField(title, count)
+                .build();
+
+        server.index(
+                assets.createDoc("1").setValue(title, "Hello World").setValue(count, 0),
+                assets.createDoc("2").setValue(title, "Hello Vind").setValue(count, 0));
+        server.commit();
+
+        final UpdateResult updateResult = server.execute(Arrays.asList(
+                Search.update("1").set(title, "One").increment(count, 1),
+                Search.update("2").set(title, "Two"),
+                Search.update("1").increment(count, 1),
+                Search.update("404").set(title, "Missing")), assets);
+        server.commit();
+
+        assertEquals(Arrays.asList("1", "2", "404"), new ArrayList<>(updateResult.getResults().keySet()));
+        assertTrue(updateResult.isUpdated("1"));
+        assertTrue(updateResult.isUpdated("2"));
+        assertEquals(Collections.singletonList("404"), updateResult.getFailedIds());
+
+        final Document one = server.execute(Search.getById("1"), assets).getResults().get(0);
+        assertEquals("One", one.getValue(title));
+        assertEquals(2, one.getValue(count).intValue());
+        assertEquals("Two", server.execute(Search.getById("2"), assets).getResults().get(0).getValue(title));
+    }
+
+    @Test
+    @RunWithBackend(Solr)
+    public void testBatchPartialUpdateOfParents() {
+        SearchServer server = testBackend.getSearchServer();
+
+        SingleValueFieldDescriptor<String> title = new FieldDescriptorBuilder()
+                .setFullText(true)
+                .buildTextField("title");
+
+        DocumentFactory assets = new DocumentFactoryBuilder("asset")
+                .setUpdatable(true)
+                .addField(title)
+                .build();
+
+        DocumentFactory markers = new DocumentFactoryBuilder("marker")
+                .setUpdatable(true)
+                .addField(title)
+                .build();
+
+        final Document parent = assets.createDoc("A1").setValue(title, "Parent");
+        for (int i = 0; i < 12; i++) {
+            parent.addChild(markers.createDoc("M" + i).setValue(title, "Marker " + i));
+        }
+        //nested documents of the parent type and deeper descendants belong to the block as well
+        parent.addChild(assets.createDoc("A1.1").setValue(title, "Nested asset")
+                .addChild(markers.createDoc("M1.1").setValue(title, "Nested marker")));
+        server.index(parent, assets.createDoc("A2").setValue(title, "Single"));
+        server.commit();
+
+        final UpdateResult updateResult = server.execute(Arrays.asList(
+                Search.update("A1").set(title, "Updated parent"),
+                Search.update("A2").set(title, "Updated single")), assets);
+        server.commit();
+
+        assertTrue(updateResult.isSuccessful());
+        assertEquals("Updated parent", server.execute(Search.getById("A1"), assets).getResults().get(0).getValue(title));
+        assertEquals("Updated single", server.execute(Search.getById("A2"), assets).getResults().get(0).getValue(title));
+        assertEquals(13, server.execute(Search.fulltext(), markers).getNumOfResults());
+        assertEquals("Nested asset", server.execute(Search.getById("A1.1"), assets).getResults().get(0).getValue(title));
+        assertEquals(2, server.execute(Search.fulltext().filter(hasChildrenDocuments(assets)), assets).getNumOfResults());
+    }
+
     @Ignore
     @Test
     @RunWithBackend(Solr)
@@ -577,6 +666,71 @@ public class ServerTest {
         assertEquals(0, empty.getResults().size());
     }
 
+    @Test
+    @RunWithBackend({Solr, Elastic})
+    public void testExport() {
+        SearchServer server = testBackend.getSearchServer();
+
+        SingleValueFieldDescriptor.NumericFieldDescriptor<Integer> number = new FieldDescriptorBuilder()
+                .setFacet(true)
+                .buildNumericField("number", Integer.class);
+
+        DocumentFactory factory = new DocumentFactoryBuilder("testDocFactory").addField(number).build();
+
+        for (int i = 0; i < 35; i++) {
+            server.index(factory.createDoc(String.valueOf(i)).setValue(number, i % 3));
+        }
+        server.commit();
+
+        final List<Document> documents;
+        try (Stream<Document> export = server.export(Search.fulltext().cursor(1, 10).sort(asc(number)), factory).stream()) {
+            documents = export.collect(Collectors.toList());
+        }
+        assertEquals(35, documents.size());
+        assertEquals(35, documents.stream().map(Document::getId).collect(Collectors.toSet()).size());
+        for (int i = 1; i < documents.size(); i++) {
+            assertTrue(((Number) documents.get(i - 1).getValue(number)).intValue() <= ((Number) documents.get(i).getValue(number)).intValue());
+        }
+
+        final List<Object> numbers;
+        try (Stream<Document> export = server.export(Search.fulltext().filter(eq(number, 1)), factory).stream()) {
+            numbers = export.map(document -> document.getValue(number)).collect(Collectors.toList());
+        }
+        assertEquals(12, numbers.size());
+    }
+
+    @Test
+    @RunWithBackend({Solr, Elastic})
+    public void testCursorSearch() {
+        SearchServer server = testBackend.getSearchServer();
+
+        DocumentFactory factory = new DocumentFactoryBuilder("testDocFactory").build();
+
+        for (int i = 0; i < 25; i++) {
+            server.index(factory.createDoc(String.valueOf(i)));
+        }
+        server.commit();
+
+        final CursorResult first = (CursorResult) server.execute(Search.fulltext().cursor(1, 10), factory);
+        assertEquals(25, first.getNumOfResults());
+        assertEquals(10, first.getResults().size());
+        assertNotNull(first.getSearchAfter());
+
+        final CursorResult second = first.next();
+        assertEquals(10, second.getResults().size());
+
+        // the cursor can be passed on and resumed by a new search
+        final CursorResult third = (CursorResult) server.execute(Search.fulltext().cursor(second.getSearchAfter(), 1, 10), factory);
+        assertEquals(5, third.getResults().size());
+        third.closeCursor();
+
+        final Set<String> ids = Stream.of(first, second, third)
+                .flatMap(result -> result.getResults().stream())
+                .map(Document::getId)
+                .collect(Collectors.toSet());
+        assertEquals(25, ids.size());
+    }
+
 
     /*
     @Test
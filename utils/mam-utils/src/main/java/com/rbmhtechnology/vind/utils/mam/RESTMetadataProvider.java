@@ -235,7 +235,7 @@ public class RESTMetadataProvider implements MetadataProvider {
 
     @Override
     public <T> T getObject(String id, Class<T> t) throws IOException {
-        return AnnotationUtil.createPojo(getDocumentById(id, AnnotationUtil.createDocumentFactory(t)),t);
+        return AnnotationUtil.createPojo(getDocumentById(id, AnnotationUtil.getDocumentFactory(t)),t);
     }
 
     @Override
@@ -249,7 +249,7 @@ public class RESTMetadataProvider implements MetadataProvider {
 
     @Override
     public <T> T getObject(T o) throws IOException {
-        DocumentFactory factory = AnnotationUtil.createDocumentFactory(o.getClass());
+        DocumentFactory factory = AnnotationUtil.getDocumentFactory(o.getClass());
         Document doc = AnnotationUtil.createDocument(o);
         return AnnotationUtil.createPojo(getDocumentById(doc.getId(), factory), (Class<T>) o.getClass());
     }